@@ -0,0 +1,191 @@
+package com.restaurant.management.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented test that upgrades a version 6 database and checks that existing rows survive.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PoodDatabaseMigrationTest {
+    private static final String TEST_DATABASE_NAME = "pood_migration_test.db";
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DATABASE_NAME);
+        createVersion6Database();
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(TEST_DATABASE_NAME);
+    }
+
+    @Test
+    public void upgradeFromVersion6_keepsDataAndAddsNewSchema() {
+        PoodDatabaseHelper helper = new PoodDatabaseHelper(context, TEST_DATABASE_NAME);
+        SQLiteDatabase db = helper.getWritableDatabase();
+
+        assertEquals(14, db.getVersion());
+        assertEquals(1, count(db, PoodDatabaseHelper.TABLE_MENU_ITEMS));
+        assertEquals(2, count(db, PoodDatabaseHelper.TABLE_VARIANTS));
+        assertEquals(1, count(db, PoodDatabaseHelper.TABLE_ORDERS));
+        assertEquals(2, count(db, PoodDatabaseHelper.TABLE_ORDER_ITEMS));
+
+        assertTrue(indexExists(db, DatabaseSchema.INDEX_ORDER_ITEMS_SYNC));
+        assertTrue(indexExists(db, DatabaseSchema.INDEX_ORDER_ITEMS_ORDER));
+        assertTrue(indexExists(db, DatabaseSchema.INDEX_VARIANTS_MENU_ITEM));
+        assertTrue(indexExists(db, DatabaseSchema.INDEX_ORDERS_SYNC));
+        assertEquals(0, count(db, PoodDatabaseHelper.TABLE_SYNC_WATERMARKS));
+        assertEquals(0, count(db, PoodDatabaseHelper.TABLE_REFERENCE_DATA));
+        assertEquals(0, count(db, PoodDatabaseHelper.TABLE_PAYMENTS));
+        assertTrue(indexExists(db, DatabaseSchema.INDEX_PAYMENTS_SESSION));
+
+        // Rows saved before idempotency keys existed each get their own
+        assertEquals(1, countDistinctNonNull(db, PoodDatabaseHelper.TABLE_ORDERS, DatabaseSchema.COLUMN_ORDER_CLIENT_UUID));
+        assertEquals(2, countDistinctNonNull(db, PoodDatabaseHelper.TABLE_ORDER_ITEMS, DatabaseSchema.COLUMN_ITEM_CLIENT_UUID));
+        assertIsRandomUuid(firstValue(db, PoodDatabaseHelper.TABLE_ORDERS, DatabaseSchema.COLUMN_ORDER_CLIENT_UUID));
+        assertIsRandomUuid(firstValue(db, PoodDatabaseHelper.TABLE_ORDER_ITEMS, DatabaseSchema.COLUMN_ITEM_CLIENT_UUID));
+        assertTrue(columnExists(db, PoodDatabaseHelper.TABLE_ORDER_ITEMS, DatabaseSchema.COLUMN_ITEM_SYNC_ATTEMPTS));
+        assertTrue(columnExists(db, PoodDatabaseHelper.TABLE_ORDER_ITEMS, DatabaseSchema.COLUMN_ITEM_LAST_SYNC_ERROR));
+        assertTrue(columnExists(db, PoodDatabaseHelper.TABLE_ORDER_ITEMS, DatabaseSchema.COLUMN_ITEM_LOCAL_ORDER_ID));
+        assertEquals(0, countDistinctNonNull(db, PoodDatabaseHelper.TABLE_ORDER_ITEMS, DatabaseSchema.COLUMN_ITEM_LOCAL_ORDER_ID));
+
+        // Existing menu rows are backfilled into the full-text index, variants included
+        assertEquals(1, count(db, PoodDatabaseHelper.TABLE_MENU_SEARCH));
+        Cursor search = db.rawQuery("SELECT docid FROM " + PoodDatabaseHelper.TABLE_MENU_SEARCH
+                + " WHERE " + PoodDatabaseHelper.TABLE_MENU_SEARCH + " MATCH ?", new String[]{"gor* vari*"});
+        assertTrue(search.moveToFirst());
+        assertEquals(10, search.getLong(0));
+        search.close();
+
+        assertEquals("wal", journalMode(db));
+
+        helper.close();
+    }
+
+    private void createVersion6Database() {
+        SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(context.getDatabasePath(TEST_DATABASE_NAME), null);
+        db.execSQL(DatabaseSchema.CREATE_MENU_ITEMS_TABLE);
+        db.execSQL(DatabaseSchema.CREATE_VARIANTS_TABLE);
+        db.execSQL(DatabaseSchema.CREATE_CATEGORIES_TABLE);
+        db.execSQL(DatabaseSchema.CREATE_PROMOS_TABLE);
+        db.execSQL(DatabaseSchema.CREATE_ORDER_TYPES_TABLE);
+        db.execSQL(DatabaseSchema.CREATE_ORDER_STATUSES_TABLE);
+        db.execSQL(DatabaseSchema.CREATE_ORDERS_TABLE);
+        db.execSQL(DatabaseSchema.CREATE_ORDER_ITEMS_TABLE);
+
+        ContentValues menuItem = new ContentValues();
+        menuItem.put(DatabaseSchema.COLUMN_ID, 10);
+        menuItem.put(DatabaseSchema.COLUMN_NAME, "Nasi Goreng");
+        menuItem.put(DatabaseSchema.COLUMN_PRICE, 35000);
+        db.insert(PoodDatabaseHelper.TABLE_MENU_ITEMS, null, menuItem);
+
+        for (int variantId = 1; variantId <= 2; variantId++) {
+            ContentValues variant = new ContentValues();
+            variant.put(DatabaseSchema.COLUMN_VARIANT_ID, variantId);
+            variant.put(DatabaseSchema.COLUMN_MENU_ITEM_ID, 10);
+            variant.put(DatabaseSchema.COLUMN_VARIANT_NAME, "Variant " + variantId);
+            db.insert(PoodDatabaseHelper.TABLE_VARIANTS, null, variant);
+        }
+
+        ContentValues order = new ContentValues();
+        order.put(DatabaseSchema.COLUMN_SESSION_ID, 1);
+        order.put(DatabaseSchema.COLUMN_TABLE_NUMBER, "5");
+        order.put(DatabaseSchema.COLUMN_ORDER_TYPE_ID, 1);
+        order.put(DatabaseSchema.COLUMN_ORDER_CREATED_AT, "2025-01-01 10:00:00");
+        long orderId = db.insert(PoodDatabaseHelper.TABLE_ORDERS, null, order);
+
+        for (int i = 0; i < 2; i++) {
+            ContentValues item = new ContentValues();
+            item.put(DatabaseSchema.COLUMN_ORDER_ITEM_ORDER_ID, orderId);
+            item.put(DatabaseSchema.COLUMN_MENU_ITEM_ID_FK, 10);
+            item.put(DatabaseSchema.COLUMN_ITEM_QUANTITY, 1);
+            item.put(DatabaseSchema.COLUMN_ITEM_UNIT_PRICE, 35000);
+            item.put(DatabaseSchema.COLUMN_ITEM_TOTAL_PRICE, 35000);
+            item.put(DatabaseSchema.COLUMN_ITEM_IS_SYNCED, i);
+            item.put(DatabaseSchema.COLUMN_ITEM_CREATED_AT, "2025-01-01 10:0" + i + ":00");
+            db.insert(PoodDatabaseHelper.TABLE_ORDER_ITEMS, null, item);
+        }
+
+        db.setVersion(6);
+        db.close();
+    }
+
+    private int count(SQLiteDatabase db, String table) {
+        Cursor cursor = db.rawQuery("SELECT COUNT(*) FROM " + table, null);
+        cursor.moveToFirst();
+        int count = cursor.getInt(0);
+        cursor.close();
+        return count;
+    }
+
+    private int countDistinctNonNull(SQLiteDatabase db, String table, String column) {
+        Cursor cursor = db.rawQuery("SELECT COUNT(DISTINCT " + column + ") FROM " + table, null);
+        cursor.moveToFirst();
+        int count = cursor.getInt(0);
+        cursor.close();
+        return count;
+    }
+
+    private String firstValue(SQLiteDatabase db, String table, String column) {
+        Cursor cursor = db.rawQuery("SELECT " + column + " FROM " + table + " LIMIT 1", null);
+        cursor.moveToFirst();
+        String value = cursor.getString(0);
+        cursor.close();
+        return value;
+    }
+
+    // Same shape UUID.randomUUID() produces for keys saved after the migration
+    private void assertIsRandomUuid(String value) {
+        UUID parsed = UUID.fromString(value);
+        assertEquals(value, parsed.toString());
+        assertEquals(4, parsed.version());
+        assertEquals(2, parsed.variant());
+    }
+
+    private boolean columnExists(SQLiteDatabase db, String table, String column) {
+        Cursor cursor = db.rawQuery("PRAGMA table_info(" + table + ")", null);
+        boolean exists = false;
+        while (cursor.moveToNext()) {
+            if (column.equals(cursor.getString(cursor.getColumnIndexOrThrow("name")))) {
+                exists = true;
+            }
+        }
+        cursor.close();
+        return exists;
+    }
+
+    private boolean indexExists(SQLiteDatabase db, String indexName) {
+        Cursor cursor = db.rawQuery("SELECT name FROM sqlite_master WHERE type = 'index' AND name = ?",
+                new String[]{indexName});
+        boolean exists = cursor.moveToFirst();
+        cursor.close();
+        return exists;
+    }
+
+    private String journalMode(SQLiteDatabase db) {
+        Cursor cursor = db.rawQuery("PRAGMA journal_mode", null);
+        cursor.moveToFirst();
+        String mode = cursor.getString(0);
+        cursor.close();
+        return mode.toLowerCase();
+    }
+}
@@ -1,6 +1,8 @@
 package com.restaurant.management;
 
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Editable;
 import android.text.TextUtils;
 import android.text.TextWatcher;
@@ -25,6 +27,8 @@ import com.restaurant.management.models.CreateOrderItemResponse;
 import com.restaurant.management.models.ProductItem;
 import com.restaurant.management.models.Variant;
 import com.restaurant.management.network.ApiClient;
+import com.restaurant.management.services.SyncScheduler;
+import com.restaurant.management.utils.AppExecutors;
 import com.restaurant.management.utils.NetworkUtils;
 
 import org.json.JSONObject;
@@ -32,9 +36,14 @@ import org.json.JSONObject;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.UUID;
 
 public class AddItemActivity extends AppCompatActivity implements ProductItemAdapter.OnItemClickListener {
     private static final String TAG = "AddItemActivity";
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+    private static final int PAGE_SIZE = 50;
+    // Start fetching the next page while this many rows are still below the fold
+    private static final int PAGE_PREFETCH_DISTANCE = 10;
 
     private TextView tableNumberTextView;
     private EditText searchEditText;
@@ -42,8 +51,16 @@ public class AddItemActivity extends AppCompatActivity implements ProductItemAda
     private RecyclerView menuItemsRecyclerView;
     private ProgressBar progressBar;
 
+    // Only the pages loaded so far; the full menu stays in SQLite
     private List<ProductItem> menuItems = new ArrayList<>();
-    private List<ProductItem> allMenuItems = new ArrayList<>();
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private final Runnable debouncedSearch = this::searchMenuItems;
+    private int searchGeneration;
+    private String currentQuery = "";
+    private boolean hasMorePages;
+    // Rows consumed from the source so far; search pages can hydrate fewer items than ids they read
+    private int nextOffset;
+    private boolean loadingPage;
     private ProductItemAdapter menuItemAdapter;
     private DatabaseManager databaseManager;
 
@@ -96,9 +113,19 @@ public class AddItemActivity extends AppCompatActivity implements ProductItemAda
     }
 
     private void setupRecyclerView() {
-        menuItemsRecyclerView.setLayoutManager(new LinearLayoutManager(this));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        menuItemsRecyclerView.setLayoutManager(layoutManager);
         menuItemAdapter = new ProductItemAdapter(menuItems, this);
         menuItemsRecyclerView.setAdapter(menuItemAdapter);
+
+        menuItemsRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0 && layoutManager.findLastVisibleItemPosition() >= menuItems.size() - PAGE_PREFETCH_DISTANCE) {
+                    loadNextPage();
+                }
+            }
+        });
     }
 
     private void setupSearch() {
@@ -110,7 +137,9 @@ public class AddItemActivity extends AppCompatActivity implements ProductItemAda
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                searchMenuItems();
+                // Wait for a pause in typing before searching
+                searchHandler.removeCallbacks(debouncedSearch);
+                searchHandler.postDelayed(debouncedSearch, SEARCH_DEBOUNCE_MS);
             }
 
             @Override
@@ -121,87 +150,109 @@ public class AddItemActivity extends AppCompatActivity implements ProductItemAda
     private void loadMenuItems() {
         progressBar.setVisibility(View.VISIBLE);
         menuItemsRecyclerView.setVisibility(View.GONE);
+        startQuery("");
+    }
 
-        new Thread(() -> {
-            try {
-                List<ProductItem> items = databaseManager.getAllMenuItems();
-                Log.d(TAG, "Loaded " + (items != null ? items.size() : 0) + " items from database");
+    private void showNoMenuItemsMessage() {
+        if (databaseManager.hasMenuItems()) {
+            Toast.makeText(this, "Menu items exist but couldn't be loaded", Toast.LENGTH_SHORT).show();
+        } else {
+            Toast.makeText(this, "No menu items available. Please sync data first.", Toast.LENGTH_LONG).show();
+        }
+    }
+
+    private void searchMenuItems() {
+        startQuery(searchEditText.getText().toString().trim());
+    }
 
+    // Starts paging from the top for the given query; the old rows stay up until the first page diffs them away
+    private void startQuery(String query) {
+        searchHandler.removeCallbacks(debouncedSearch);
+        currentQuery = query;
+        searchGeneration++;
+        loadingPage = false;
+        hasMorePages = true;
+        nextOffset = 0;
+
+        menuItems = new ArrayList<>();
+        loadNextPage();
+    }
+
+    private void loadNextPage() {
+        if (loadingPage || !hasMorePages) {
+            return;
+        }
+        loadingPage = true;
+
+        String query = currentQuery;
+        int offset = nextOffset;
+        int generation = searchGeneration;
+        AppExecutors.getInstance().execute(AppExecutors.Lane.DATABASE, this, () -> {
+            try {
+                Page page = fetchPage(query, offset);
                 runOnUiThread(() -> {
-                    if (items != null && !items.isEmpty()) {
-                        allMenuItems.clear();
-                        allMenuItems.addAll(items);
-
-                        menuItems.clear();
-                        menuItems.addAll(items);
-                        menuItemAdapter.notifyDataSetChanged();
-
-                        progressBar.setVisibility(View.GONE);
-                        menuItemsRecyclerView.setVisibility(View.VISIBLE);
-                    } else {
-                        progressBar.setVisibility(View.GONE);
-                        menuItemsRecyclerView.setVisibility(View.VISIBLE);
-                        showNoMenuItemsMessage();
+                    // A newer query has started; its own pages will fill the list
+                    if (generation != searchGeneration || isFinishing()) {
+                        return;
                     }
-                });
+                    loadingPage = false;
+                    hasMorePages = page.rowCount == PAGE_SIZE;
+                    nextOffset = offset + page.rowCount;
+
+                    menuItems.addAll(page.items);
+                    menuItemAdapter.updateItems(menuItems);
 
+                    if (offset == 0) {
+                        onFirstPageLoaded(query, page.items);
+                    }
+                });
             } catch (Exception e) {
                 Log.e(TAG, "Error loading menu items", e);
                 runOnUiThread(() -> {
+                    if (generation == searchGeneration) {
+                        loadingPage = false;
+                        hasMorePages = false;
+                    }
                     progressBar.setVisibility(View.GONE);
                     menuItemsRecyclerView.setVisibility(View.VISIBLE);
                     Toast.makeText(this, "Error loading menu items: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                 });
             }
-        }).start();
-    }
-
-    private void showNoMenuItemsMessage() {
-        if (databaseManager.hasMenuItems()) {
-            Toast.makeText(this, "Menu items exist but couldn't be loaded", Toast.LENGTH_SHORT).show();
-        } else {
-            Toast.makeText(this, "No menu items available. Please sync data first.", Toast.LENGTH_LONG).show();
-        }
+        });
     }
 
-    private void searchMenuItems() {
-        String query = searchEditText.getText().toString().trim().toLowerCase();
-
+    // Browsing pages through the menu by name; searching pages through ranked full-text matches
+    private Page fetchPage(String query, int offset) {
         if (TextUtils.isEmpty(query)) {
-            menuItems.clear();
-            menuItems.addAll(allMenuItems);
-            menuItemAdapter.notifyDataSetChanged();
-        } else {
-            List<ProductItem> filteredItems = filterMenuItems(query);
-
-            menuItems.clear();
-            menuItems.addAll(filteredItems);
-            menuItemAdapter.notifyDataSetChanged();
-
-            if (filteredItems.isEmpty() && !allMenuItems.isEmpty()) {
-                Toast.makeText(this, "No items found matching '" + query + "'", Toast.LENGTH_SHORT).show();
-            }
+            List<ProductItem> items = databaseManager.getMenuItemsPage(PAGE_SIZE, offset);
+            return new Page(items, items.size());
         }
+        List<Long> ids = databaseManager.searchMenuItemIds(query, PAGE_SIZE, offset);
+        return new Page(databaseManager.getMenuItemsByIds(ids), ids.size());
     }
 
-    private List<ProductItem> filterMenuItems(String query) {
-        List<ProductItem> filteredItems = new ArrayList<>();
+    private static class Page {
+        final List<ProductItem> items;
+        final int rowCount;
 
-        for (ProductItem item : allMenuItems) {
-            if (isItemMatchingQuery(item, query)) {
-                filteredItems.add(item);
-            }
+        Page(List<ProductItem> items, int rowCount) {
+            this.items = items;
+            this.rowCount = rowCount;
         }
-
-        return filteredItems;
     }
 
-    private boolean isItemMatchingQuery(ProductItem item, String query) {
-        String itemName = item.getName() != null ? item.getName().toLowerCase() : "";
-        String itemDesc = item.getDescription() != null ? item.getDescription().toLowerCase() : "";
-        String itemCategory = item.getCategory() != null ? item.getCategory().toLowerCase() : "";
+    private void onFirstPageLoaded(String query, List<ProductItem> page) {
+        progressBar.setVisibility(View.GONE);
+        menuItemsRecyclerView.setVisibility(View.VISIBLE);
 
-        return itemName.contains(query) || itemDesc.contains(query) || itemCategory.contains(query);
+        if (!page.isEmpty()) {
+            return;
+        }
+        if (TextUtils.isEmpty(query)) {
+            showNoMenuItemsMessage();
+        } else {
+            Toast.makeText(this, "No items found matching '" + query + "'", Toast.LENGTH_SHORT).show();
+        }
     }
 
     @Override
@@ -309,13 +360,16 @@ public class AddItemActivity extends AppCompatActivity implements ProductItemAda
     }
 
     private void saveOrderItemLocally(CreateOrderItemRequest request, ProductItem menuItem, Long variantId, int quantity, String notes, double unitPrice, double totalPrice, boolean isComplimentary, Double customPrice) {
-        new Thread(() -> {
+        AppExecutors.getInstance().execute(AppExecutors.Lane.DATABASE, () -> {
             try {
-                // Save to local database using DatabaseManager
-                long localItemId = databaseManager.saveOrderItemLocally(orderId, request);
+                // Save to local database using DatabaseManager.
+                // The key is shared by the immediate post below and the background sync, so whichever lands second is a no-op
+                String clientUuid = UUID.randomUUID().toString();
+                // Orders are opened from the server's list, so orderId is always a server order id
+                long localItemId = databaseManager.saveOrderItemLocally(orderId, false, request, clientUuid);
 
                 runOnUiThread(() -> {
-                    handleLocalSaveSuccess(localItemId, request, isComplimentary, customPrice, unitPrice);
+                    handleLocalSaveSuccess(localItemId, clientUuid, request, isComplimentary, customPrice, unitPrice);
                 });
 
             } catch (Exception e) {
@@ -324,20 +378,21 @@ public class AddItemActivity extends AppCompatActivity implements ProductItemAda
                     handleLocalSaveError(e);
                 });
             }
-        }).start();
+        });
     }
 
-    private void handleLocalSaveSuccess(long localItemId, CreateOrderItemRequest request, boolean isComplimentary, Double customPrice, double unitPrice) {
+    private void handleLocalSaveSuccess(long localItemId, String clientUuid, CreateOrderItemRequest request, boolean isComplimentary, Double customPrice, double unitPrice) {
         // Show success message
         String successMessage = buildSuccessMessage(isComplimentary, customPrice, unitPrice);
         Toast.makeText(this, successMessage + " (Saved locally)", Toast.LENGTH_SHORT).show();
 
         // If online, attempt to sync immediately
         if (NetworkUtils.isNetworkAvailable(this)) {
-            syncOrderItemToServer(localItemId, request);
+            syncOrderItemToServer(localItemId, clientUuid, request);
         } else {
             // Show offline indicator
             Toast.makeText(this, "Item saved offline - will sync when online", Toast.LENGTH_LONG).show();
+            SyncScheduler.requestSync(this);
         }
 
         showProgressIndicator(false);
@@ -354,15 +409,15 @@ public class AddItemActivity extends AppCompatActivity implements ProductItemAda
         Toast.makeText(this, errorMessage, Toast.LENGTH_SHORT).show();
     }
 
-    private void syncOrderItemToServer(long localItemId, CreateOrderItemRequest request) {
-        ApiClient.getApiService().addItemToOrder(orderId, request)
+    private void syncOrderItemToServer(long localItemId, String clientUuid, CreateOrderItemRequest request) {
+        ApiClient.getApiService().addItemToOrder(clientUuid, orderId, request)
                 .enqueue(new retrofit2.Callback<CreateOrderItemResponse>() {
                     @Override
                     public void onResponse(retrofit2.Call<CreateOrderItemResponse> call,
                                            retrofit2.Response<CreateOrderItemResponse> response) {
                         if (response.isSuccessful() && response.body() != null) {
-                            // Mark as synced in local database
-                            new Thread(() -> {
+                            // Mark as synced in local database; the activity has finished by now
+                            AppExecutors.getInstance().execute(AppExecutors.Lane.DATABASE, () -> {
                                 try {
                                     // Try different possible method names for getting the server ID
                                     long serverId = getServerIdFromResponse(response.body());
@@ -371,10 +426,11 @@ public class AddItemActivity extends AppCompatActivity implements ProductItemAda
                                 } catch (Exception e) {
                                     Log.e(TAG, "Error marking item as synced", e);
                                 }
-                            }).start();
+                            });
                         } else {
                             Log.e(TAG, "Failed to sync order item to server: " + response.code());
                             // Item remains in local database for future sync attempts
+                            SyncScheduler.requestSync(getApplicationContext());
                         }
                     }
 
@@ -382,6 +438,7 @@ public class AddItemActivity extends AppCompatActivity implements ProductItemAda
                     public void onFailure(retrofit2.Call<CreateOrderItemResponse> call, Throwable t) {
                         Log.e(TAG, "Network error syncing order item", t);
                         // Item remains in local database for future sync attempts
+                        SyncScheduler.requestSync(getApplicationContext());
                     }
                 });
     }
@@ -465,6 +522,7 @@ public class AddItemActivity extends AppCompatActivity implements ProductItemAda
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        searchHandler.removeCallbacks(debouncedSearch);
         // Note: No need to close DatabaseManager as it uses singleton pattern
         // and handles its own lifecycle
     }
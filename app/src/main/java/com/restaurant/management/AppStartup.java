@@ -0,0 +1,174 @@
+package com.restaurant.management;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import com.restaurant.management.utils.AppExecutors;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Staged application startup.
+ *
+ * Only work the first screen cannot draw without runs in {@link Application#onCreate()}. Every
+ * other stage is queued with {@link #defer} and starts once the first activity has drawn a
+ * frame, each on its own executor lane, in the order the stages were added. When the process
+ * starts without a screen (a sync job, say) the deferred stages start after a short delay
+ * instead. Each stage's duration, and the time from process start to the first frame, are
+ * logged and kept for {@link #getTimings()}.
+ */
+public class AppStartup {
+    private static final String TAG = "AppStartup";
+    private static final long NO_ACTIVITY_DELAY_MS = 5000;
+
+    public static final String FIRST_FRAME = "first_frame";
+
+    private static class Stage {
+        final String name;
+        final AppExecutors.Lane lane;
+        final Runnable work;
+
+        Stage(String name, AppExecutors.Lane lane, Runnable work) {
+            this.name = name;
+            this.lane = lane;
+            this.work = work;
+        }
+    }
+
+    private final Application application;
+    private final List<Stage> deferredStages = new ArrayList<>();
+    private final Map<String, Long> timings = new LinkedHashMap<>();
+    private final AtomicBoolean deferredStarted = new AtomicBoolean(false);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable startWithoutActivity = this::startDeferredStages;
+
+    public AppStartup(Application application) {
+        this.application = application;
+    }
+
+    /** Runs a stage on the calling thread, now. Keep these to what the first frame needs. */
+    public void runCritical(String name, Runnable work) {
+        runTimed(name, work);
+    }
+
+    /** Queues a stage to run on the given lane after the first frame. */
+    public AppStartup defer(String name, AppExecutors.Lane lane, Runnable work) {
+        deferredStages.add(new Stage(name, lane, work));
+        return this;
+    }
+
+    /** Call at the end of onCreate, after every stage has been added. */
+    public void start() {
+        application.registerActivityLifecycleCallbacks(firstFrameWatcher);
+        mainHandler.postDelayed(startWithoutActivity, NO_ACTIVITY_DELAY_MS);
+    }
+
+    /** Stage durations in milliseconds, plus {@link #FIRST_FRAME} measured from process start. */
+    public Map<String, Long> getTimings() {
+        synchronized (timings) {
+            return new LinkedHashMap<>(timings);
+        }
+    }
+
+    private void onFirstFrame() {
+        long sinceProcessStart = SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+        record(FIRST_FRAME, sinceProcessStart);
+        startDeferredStages();
+    }
+
+    private void startDeferredStages() {
+        if (!deferredStarted.compareAndSet(false, true)) {
+            return;
+        }
+        mainHandler.removeCallbacks(startWithoutActivity);
+        application.unregisterActivityLifecycleCallbacks(firstFrameWatcher);
+
+        AppExecutors executors = AppExecutors.getInstance();
+        for (Stage stage : deferredStages) {
+            executors.execute(stage.lane, () -> runTimed(stage.name, stage.work));
+        }
+        deferredStages.clear();
+    }
+
+    private void runTimed(String name, Runnable work) {
+        long start = SystemClock.uptimeMillis();
+        try {
+            work.run();
+        } catch (Exception e) {
+            Log.e(TAG, "Startup stage " + name + " failed", e);
+        }
+        record(name, SystemClock.uptimeMillis() - start);
+    }
+
+    private void record(String name, long millis) {
+        synchronized (timings) {
+            timings.put(name, millis);
+        }
+        Log.d(TAG, name + ": " + millis + " ms");
+    }
+
+    private final Application.ActivityLifecycleCallbacks firstFrameWatcher = new Application.ActivityLifecycleCallbacks() {
+        @Override
+        public void onActivityResumed(Activity activity) {
+            if (deferredStarted.get()) {
+                return;
+            }
+            View decorView = activity.getWindow().getDecorView();
+            decorView.getViewTreeObserver().addOnDrawListener(new ViewTreeObserver.OnDrawListener() {
+                private boolean drawn;
+
+                @Override
+                public void onDraw() {
+                    if (drawn) {
+                        return;
+                    }
+                    drawn = true;
+                    // Draw listeners can't be removed from inside onDraw, and the frame is
+                    // only on screen once this traversal returns
+                    mainHandler.post(() -> {
+                        decorView.getViewTreeObserver().removeOnDrawListener(this);
+                        if (!deferredStarted.get()) {
+                            onFirstFrame();
+                        }
+                    });
+                }
+            });
+        }
+
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+        }
+
+        @Override
+        public void onActivityStarted(Activity activity) {
+        }
+
+        @Override
+        public void onActivityPaused(Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+        }
+    };
+}
@@ -11,6 +11,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
 import com.restaurant.management.models.OrderItem;
+import com.restaurant.management.network.ApiClient;
 
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -42,7 +43,7 @@ public class CancelOrderItemActivity extends AppCompatActivity {
     private OrderItem orderItem;
     private long orderId;
     private long itemId;
-    private OkHttpClient client = new OkHttpClient();
+    private OkHttpClient client = ApiClient.getSharedHttpClient();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -15,6 +15,8 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
+import com.restaurant.management.network.ApiClient;
+
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -42,7 +44,7 @@ public class CashierActivity extends AppCompatActivity {
     private Button addMoneyButton;
     private ProgressBar loadingProgressBar;
 
-    private OkHttpClient client = new OkHttpClient();
+    private OkHttpClient client = ApiClient.getSharedHttpClient();
     private boolean hasActiveSession = false;
     private long activeSessionId = -1;
     private double currentBalance = 0.0;
@@ -28,6 +28,7 @@ import com.restaurant.management.models.Promo;
 import com.restaurant.management.models.ApiResponse; // Import the ApiResponse wrapper
 import com.restaurant.management.network.ApiClient; // Import ApiClient
 import com.restaurant.management.network.ApiService; // Import ApiService
+import com.restaurant.management.utils.AppExecutors;
 
 import com.chuckerteam.chucker.api.Chucker;
 import android.hardware.Sensor;
@@ -290,7 +291,7 @@ public class DashboardActivity extends AppCompatActivity implements NavigationVi
                     } else {
                         if (promosRecyclerView != null) {
                             promosRecyclerView.setVisibility(View.VISIBLE);
-                            promoAdapter.notifyDataSetChanged();
+                            promoAdapter.updatePromos(promos);
                         }
                         if (noPromosTextView != null) {
                             noPromosTextView.setVisibility(View.GONE);
@@ -579,6 +580,8 @@ public class DashboardActivity extends AppCompatActivity implements NavigationVi
             SharedPreferences.Editor editor = sharedPreferences.edit();
             editor.clear();
             editor.apply();
+            // Cached responses were fetched with this user's token
+            AppExecutors.getInstance().execute(AppExecutors.Lane.HOUSEKEEPING, ApiClient::clearHttpCache);
 
             Intent intent = new Intent(DashboardActivity.this, LoginActivity.class);
             intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
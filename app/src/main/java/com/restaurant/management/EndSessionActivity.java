@@ -23,8 +23,7 @@ import org.json.JSONObject;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import com.restaurant.management.utils.AppExecutors;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -44,7 +43,6 @@ public class EndSessionActivity extends AppCompatActivity {
     private TextView differenceAmountTextView;
     private ProgressBar progressBar;
 
-    private ExecutorService executorService;
     private ApiService apiService;
     private CashierSession activeSession;
 
@@ -101,11 +99,10 @@ public class EndSessionActivity extends AppCompatActivity {
             differenceAmountTextView = findViewById(R.id.difference_amount_text_view);
             progressBar = findViewById(R.id.progress_bar);
 
-            executorService = Executors.newSingleThreadExecutor();
             denominationInputs = new HashMap<>();
 
             // Initialize Retrofit API service
-            apiService = ApiClient.getClient(this).create(ApiService.class);
+            apiService = ApiClient.getApiService(this);
 
             // Set initial text values
             totalAmountTextView.setText("Total: 0");
@@ -316,7 +313,7 @@ public class EndSessionActivity extends AppCompatActivity {
             // call.enqueue(...);
 
             // Simulate success response after a delay
-            executorService.execute(() -> {
+            AppExecutors.getInstance().execute(AppExecutors.Lane.NETWORK, this, () -> {
                 try {
                     Thread.sleep(1500); // Simulate network delay
 
@@ -357,13 +354,4 @@ public class EndSessionActivity extends AppCompatActivity {
     }
 
 
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (executorService != null) {
-            executorService.shutdown();
-        }
-    }
-
-
 }
\ No newline at end of file
@@ -33,8 +33,7 @@ import android.widget.EditText;
 import android.widget.ProgressBar;
 import android.widget.Toast;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import com.restaurant.management.utils.AppExecutors;
 
 public class LoginActivity extends AppCompatActivity {
     private static final String API_URL = "https://api.pood.lol/users/login";
@@ -45,7 +44,6 @@ public class LoginActivity extends AppCompatActivity {
     private Button loginButton;
     private ProgressBar progressBar;
 
-    private ExecutorService executorService;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -61,7 +59,6 @@ public class LoginActivity extends AppCompatActivity {
         loginButton = findViewById(R.id.login_button);
         progressBar = findViewById(R.id.progress_bar);
 
-        executorService = Executors.newSingleThreadExecutor();
 
         // Set up login button click listener
         loginButton.setOnClickListener(v -> attemptLogin());
@@ -80,7 +77,7 @@ public class LoginActivity extends AppCompatActivity {
         progressBar.setVisibility(View.VISIBLE);
         loginButton.setEnabled(false);
 
-        executorService.execute(() -> {
+        AppExecutors.getInstance().execute(AppExecutors.Lane.NETWORK, this, () -> {
             HttpURLConnection connection = null;
             try {
                 // Create the API request
@@ -277,10 +274,4 @@ public class LoginActivity extends AppCompatActivity {
         startActivity(intent);
         finish();
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        executorService.shutdown();
-    }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import android.app.AlertDialog;
 import android.content.Intent;
 import android.os.Bundle;
 import android.util.Log;
+import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
@@ -28,15 +29,17 @@ import com.restaurant.management.models.OrderStatus;
 import com.restaurant.management.models.OrderType;
 import com.restaurant.management.models.ProductItem;
 import com.restaurant.management.models.Promo;
+import com.restaurant.management.models.SyncStatus;
 import com.restaurant.management.models.Variant;
 import com.restaurant.management.helpers.OrderItemSyncData;
+import com.restaurant.management.repositories.SyncStatusStore;
+import com.restaurant.management.utils.AppExecutors;
 import com.restaurant.management.utils.NetworkUtils;
+import com.restaurant.management.utils.PerfTracer;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class OfflineDataActivity extends AppCompatActivity {
     private static final String TAG = "OfflineDataActivity";
@@ -53,7 +56,6 @@ public class OfflineDataActivity extends AppCompatActivity {
 
     private DatabaseManager databaseManager;
     private RestaurantApplication app;
-    private ExecutorService executor;
 
     private List<OfflineDataItem> offlineDataItems = new ArrayList<>();
 
@@ -76,6 +78,10 @@ public class OfflineDataActivity extends AppCompatActivity {
 
         loadOfflineData();
         updateNetworkStatus();
+
+        // Keeps the unsynced count current while a sync runs in the background
+        SyncStatusStore.getInstance(this).getSyncStatus()
+                .observe(this, status -> updateSummary(status.getUnsyncedItemCount()));
     }
 
     private void initializeViews() {
@@ -92,7 +98,6 @@ public class OfflineDataActivity extends AppCompatActivity {
     private void initializeDatabase() {
         databaseManager = DatabaseManager.getInstance(this);
         app = (RestaurantApplication) getApplication();
-        executor = Executors.newSingleThreadExecutor();
     }
 
     private void setupRecyclerView() {
@@ -124,7 +129,7 @@ public class OfflineDataActivity extends AppCompatActivity {
     private void loadOfflineData() {
         progressBar.setVisibility(View.VISIBLE);
 
-        executor.execute(() -> {
+        AppExecutors.getInstance().execute(AppExecutors.Lane.DATABASE, this, () -> {
             try {
                 List<OfflineDataItem> items = new ArrayList<>();
 
@@ -199,8 +204,7 @@ public class OfflineDataActivity extends AppCompatActivity {
 
                 // Get all orders (synced + unsynced)
                 int totalOrders = tableCounts.getOrDefault("orders", 0);
-                List<OrderItemSyncData> unsyncedItems = databaseManager.getUnsyncedOrderItems();
-                int unsyncedOrderItems = unsyncedItems.size();
+                int unsyncedOrderItems = databaseManager.getUnsyncedOrderItemCount();
                 Log.d(TAG, "Total orders: " + totalOrders + ", Unsynced order items: " + unsyncedOrderItems);
                 if (totalOrders > 0) {
                     String description = totalOrders + " orders total";
@@ -306,16 +310,9 @@ public class OfflineDataActivity extends AppCompatActivity {
     }
 
     private void updateSummary() {
-        // Overloaded method for backward compatibility
-        executor.execute(() -> {
-            try {
-                List<OrderItemSyncData> unsyncedItems = databaseManager.getUnsyncedOrderItems();
-                runOnUiThread(() -> updateSummary(unsyncedItems.size()));
-            } catch (Exception e) {
-                Log.e(TAG, "Error getting unsynced count", e);
-                runOnUiThread(() -> updateSummary(0));
-            }
-        });
+        // Overloaded method for backward compatibility; uses the last published count
+        SyncStatus status = SyncStatusStore.getInstance(this).getSyncStatus().getValue();
+        updateSummary(status != null ? status.getUnsyncedItemCount() : 0);
     }
 
     private void updateNetworkStatus() {
@@ -349,7 +346,7 @@ public class OfflineDataActivity extends AppCompatActivity {
         loadingDialog.show();
 
         // Fetch data on background thread
-        executor.execute(() -> {
+        AppExecutors.getInstance().execute(AppExecutors.Lane.DATABASE, this, () -> {
             try {
                 String dataPreview = getDataPreview(item.getType(), item.getCount());
 
@@ -603,10 +600,9 @@ public class OfflineDataActivity extends AppCompatActivity {
 
         try {
             List<OrderItemSyncData> allItems = databaseManager.getAllOrderItems();
-            List<OrderItemSyncData> unsyncedItems = databaseManager.getUnsyncedOrderItems();
 
             sb.append(String.format("Total Order Items: %d\n", allItems.size()));
-            sb.append(String.format("Unsynced Items: %d\n", unsyncedItems.size()));
+            sb.append(String.format("Unsynced Items: %d\n", databaseManager.getUnsyncedOrderItemCount()));
             sb.append("\n");
 
             // Show recent items (first 10)
@@ -714,7 +710,8 @@ public class OfflineDataActivity extends AppCompatActivity {
         progressBar.setVisibility(View.VISIBLE);
         btnDeleteAll.setEnabled(false);
 
-        executor.execute(() -> {
+        // Not tied to the screen: a delete the user confirmed must not be dropped
+        AppExecutors.getInstance().execute(AppExecutors.Lane.DATABASE, () -> {
             try {
                 // Clear all cached data using DatabaseManager
                 databaseManager.clearAllCachedData();
@@ -735,15 +732,91 @@ public class OfflineDataActivity extends AppCompatActivity {
         });
     }
 
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.offline_data_menu, menu);
+        // The performance panel is a developer tool
+        menu.findItem(R.id.action_performance).setVisible(BuildConfig.DEBUG);
+        return true;
+    }
+
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         if (item.getItemId() == android.R.id.home) {
             finish();
             return true;
         }
+        if (item.getItemId() == R.id.action_performance) {
+            showPerformancePanel();
+            return true;
+        }
         return super.onOptionsItemSelected(item);
     }
 
+    private void showPerformancePanel() {
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle(R.string.performance);
+
+        TextView textView = new TextView(this);
+        textView.setText(buildPerformanceReport());
+        textView.setPadding(20, 20, 20, 20);
+        textView.setTextSize(12);
+        textView.setTypeface(android.graphics.Typeface.MONOSPACE);
+
+        ScrollView scrollView = new ScrollView(this);
+        scrollView.addView(textView);
+        scrollView.setLayoutParams(new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT,
+                800 // Max height
+        ));
+
+        builder.setView(scrollView);
+        builder.setPositiveButton("Close", null);
+
+        boolean tracing = PerfTracer.isEnabled();
+        builder.setNeutralButton(tracing ? "Stop Tracing" : "Start Tracing", (dialog, which) -> {
+            PerfTracer.setEnabled(!tracing);
+            Toast.makeText(this, tracing ? "Tracing stopped" : "Tracing started", Toast.LENGTH_SHORT).show();
+        });
+        builder.setNegativeButton("Clear", (dialog, which) -> PerfTracer.clear());
+
+        builder.show();
+    }
+
+    private String buildPerformanceReport() {
+        StringBuilder report = new StringBuilder();
+
+        report.append("TRACE SPANS");
+        report.append(PerfTracer.isEnabled() ? "\n" : " - tracing is off\n");
+        List<PerfTracer.OperationStats> operations = PerfTracer.getStats();
+        if (operations.isEmpty()) {
+            report.append("No spans recorded\n");
+        }
+        for (PerfTracer.OperationStats operation : operations) {
+            report.append(operation).append("\n");
+        }
+
+        List<PerfTracer.OperationStats> nested = PerfTracer.getNestedStats();
+        if (!nested.isEmpty()) {
+            report.append("\nNESTED SPANS\n");
+            for (PerfTracer.OperationStats operation : nested) {
+                report.append(operation).append("\n");
+            }
+        }
+
+        report.append("\nEXECUTOR LANES\n");
+        for (AppExecutors.LaneStats lane : AppExecutors.getInstance().getStats()) {
+            report.append(lane).append("\n");
+        }
+
+        report.append("\nSTARTUP (ms)\n");
+        for (Map.Entry<String, Long> timing : app.getStartupTimings().entrySet()) {
+            report.append(timing.getKey()).append(": ").append(timing.getValue()).append("\n");
+        }
+
+        return report.toString();
+    }
+
     @Override
     protected void onResume() {
         super.onResume();
@@ -754,9 +827,6 @@ public class OfflineDataActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (executor != null) {
-            executor.shutdown();
-        }
         // Note: No need to close DatabaseManager as it uses singleton pattern
         // and handles its own lifecycle
     }
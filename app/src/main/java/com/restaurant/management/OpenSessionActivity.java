@@ -26,8 +26,7 @@ import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import com.restaurant.management.utils.AppExecutors;
 
 public class OpenSessionActivity extends AppCompatActivity {
 
@@ -40,7 +39,6 @@ public class OpenSessionActivity extends AppCompatActivity {
     private Button confirmOpenSessionButton;
     private TextView totalAmountTextView;
     private ProgressBar progressBar;
-    private ExecutorService executorService;
     private Map<Integer, EditText> denominationInputs;
 
     @Override
@@ -64,7 +62,6 @@ public class OpenSessionActivity extends AppCompatActivity {
         totalAmountTextView = findViewById(R.id.total_amount_text_view);
         progressBar = findViewById(R.id.progress_bar);
 
-        executorService = Executors.newSingleThreadExecutor();
         denominationInputs = new HashMap<>();
 
         // Load denominations
@@ -77,7 +74,7 @@ public class OpenSessionActivity extends AppCompatActivity {
     private void loadDenominations() {
         progressBar.setVisibility(View.VISIBLE);
 
-        executorService.execute(() -> {
+        AppExecutors.getInstance().execute(AppExecutors.Lane.NETWORK, this, () -> {
             try {
                 // Create connection to the denominations API
                 URL url = new URL("https://api.pood.lol/cash-denominations");
@@ -256,7 +253,7 @@ public class OpenSessionActivity extends AppCompatActivity {
         progressBar.setVisibility(View.VISIBLE);
         confirmOpenSessionButton.setEnabled(false);
 
-        executorService.execute(() -> {
+        AppExecutors.getInstance().execute(AppExecutors.Lane.NETWORK, this, () -> {
             HttpURLConnection connection = null;
             try {
                 // Create the API request
@@ -369,10 +366,4 @@ public class OpenSessionActivity extends AppCompatActivity {
         onBackPressed();
         return true;
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        executorService.shutdown();
-    }
 }
\ No newline at end of file
@@ -3,7 +3,6 @@ package com.restaurant.management;
 import android.Manifest;
 import android.bluetooth.BluetoothAdapter;
 import android.bluetooth.BluetoothDevice;
-import android.bluetooth.BluetoothSocket;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.os.Build;
@@ -26,20 +25,15 @@ import com.restaurant.management.helpers.OrderApiHelper;
 import com.restaurant.management.helpers.OrderUiHelper;
 import com.restaurant.management.models.Order;
 import com.restaurant.management.models.Tax;
+import com.restaurant.management.printing.BluetoothPrinterService;
 import com.restaurant.management.printing.PrintTemplateManager;
-import com.restaurant.management.network.ApiClient; // Import ApiClient
-import com.restaurant.management.network.ApiService; // Import ApiService
-import com.restaurant.management.models.TaxResponse; // Import TaxResponse
+import com.restaurant.management.repositories.ReferenceDataStore;
+import com.restaurant.management.utils.PricingEngine;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.List;
 import java.util.Set;
-import java.util.UUID;
-
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
 
 import com.chuckerteam.chucker.api.Chucker;
 import android.hardware.Sensor;
@@ -69,7 +63,6 @@ public class OrderActivity extends AppCompatActivity {
     private static final int SHAKE_THRESHOLD = 600;
 
     // Thermal printer constants
-    private static final UUID PRINTER_UUID = UUID.fromString("00001101-0000-1000-8000-00805F9B34FB");
     private static final int CHAR_WIDTH = 32;
 
     // ESC/POS Commands (keep as is if needed, but not directly used in this snippet's modification)
@@ -98,15 +91,12 @@ public class OrderActivity extends AppCompatActivity {
     private Button printBillButton;
     private Button printCheckerButton;
     private BluetoothAdapter bluetoothAdapter;
-    private BluetoothSocket bluetoothSocket;
-    private OutputStream outputStream;
 
     // Track what action to perform after permissions are granted
     private boolean pendingBillPrint = false;
     private boolean pendingCheckerPrint = false;
 
     // Retrofit ApiService instance
-    private ApiService apiService;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -116,9 +106,6 @@ public class OrderActivity extends AppCompatActivity {
         // Initialize sensor manager for shake detection
         initializeShakeDetection();
 
-        // Initialize ApiService
-        apiService = ApiClient.getApiService(); // Assuming you have an ApiClient to get the service
-
         initializeHelpers();
         setupToolbar();
         initializeViews();
@@ -128,8 +115,8 @@ public class OrderActivity extends AppCompatActivity {
         // Initialize template manager
         templateManager = new PrintTemplateManager(this);
 
-        // Fetch tax and service rates from API
-        fetchTaxAndServiceRates();
+        // Tax and service rates from the reference-data store
+        observeTaxAndServiceRates();
 
         orderId = getIntent().getLongExtra("order_id", -1);
         sessionId = getIntent().getLongExtra("session_id", -1);
@@ -261,42 +248,21 @@ public class OrderActivity extends AppCompatActivity {
         }
     }
 
-    private void fetchTaxAndServiceRates() {
-        // Use the ApiService to make the call
-        apiService.getTaxRates().enqueue(new Callback<TaxResponse>() {
-            @Override
-            public void onResponse(Call<TaxResponse> call, Response<TaxResponse> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    TaxResponse taxResponse = response.body();
-                    if ("success".equals(taxResponse.getStatus()) && taxResponse.getData() != null) {
-                        parseRatesResponse(taxResponse.getData());
-                    } else {
-                        // Handle API success but 'status' not success or data is null
-                        runOnUiThread(() -> setDefaultRates());
-                    }
-                } else {
-                    // Handle HTTP error (e.g., 404, 500)
-                    runOnUiThread(() -> setDefaultRates());
-                }
-            }
-
-            @Override
-            public void onFailure(Call<TaxResponse> call, Throwable t) {
-                // Handle network error or unexpected exception
-                runOnUiThread(() -> {
-                    setDefaultRates();
-                    // Optional: Log the error or show a more specific toast
-                    // Toast.makeText(OrderActivity.this, "Failed to fetch rates: " + t.getMessage(), Toast.LENGTH_LONG).show();
-                });
-            }
-        });
+    private void observeTaxAndServiceRates() {
+        // Rates come from the process-wide store, seeded from SQLite and refreshed in the background
+        ReferenceDataStore.getInstance(this).getTaxes().observe(this, this::applyTaxRates);
     }
 
-    private void parseRatesResponse(List<Tax> dataArray) {
+    private void applyTaxRates(List<Tax> dataArray) {
         for (Tax item : dataArray) {
             int id = item.getId();
             String description = item.getDescription();
-            double amount = Double.parseDouble(item.getAmount());
+            double amount;
+            try {
+                amount = Double.parseDouble(item.getAmount());
+            } catch (NumberFormatException e) {
+                continue;
+            }
 
             if (id == 1) { // Tax
                 taxRate = amount / 100.0; // Convert percentage to decimal
@@ -307,9 +273,7 @@ public class OrderActivity extends AppCompatActivity {
             }
         }
 
-        runOnUiThread(() -> {
-            ratesLoaded = true;
-        });
+        ratesLoaded = true;
     }
 
     private void setDefaultRates() {
@@ -483,40 +447,36 @@ public class OrderActivity extends AppCompatActivity {
     }
 
     private void connectAndPrintBill(BluetoothDevice device) {
-        new Thread(() -> {
-            try {
-                connectToPrinter(device);
-                printThermalBill();
-                runOnUiThread(() -> Toast.makeText(this, "Bill printed successfully", Toast.LENGTH_SHORT).show());
-            } catch (IOException e) {
-                runOnUiThread(() -> Toast.makeText(this, "Failed to print bill: " + e.getMessage(), Toast.LENGTH_SHORT).show());
-            } finally {
-                disconnectPrinter();
-            }
-        }).start();
+        BluetoothPrinterService.getInstance().submit(device, this::printThermalBill,
+                new BluetoothPrinterService.PrintCallback() {
+                    @Override
+                    public void onPrinted() {
+                        Toast.makeText(OrderActivity.this, "Bill printed successfully", Toast.LENGTH_SHORT).show();
+                    }
+
+                    @Override
+                    public void onFailed(String message) {
+                        Toast.makeText(OrderActivity.this, "Failed to print bill: " + message, Toast.LENGTH_SHORT).show();
+                    }
+                });
     }
 
     private void connectAndPrintChecker(BluetoothDevice device) {
-        new Thread(() -> {
-            try {
-                connectToPrinter(device);
-                printKitchenChecker();
-                runOnUiThread(() -> Toast.makeText(this, "Kitchen checker printed successfully", Toast.LENGTH_SHORT).show());
-            } catch (IOException e) {
-                runOnUiThread(() -> Toast.makeText(this, "Failed to print checker: " + e.getMessage(), Toast.LENGTH_SHORT).show());
-            } finally {
-                disconnectPrinter();
-            }
-        }).start();
-    }
+        BluetoothPrinterService.getInstance().submit(device, this::printKitchenChecker,
+                new BluetoothPrinterService.PrintCallback() {
+                    @Override
+                    public void onPrinted() {
+                        Toast.makeText(OrderActivity.this, "Kitchen checker printed successfully", Toast.LENGTH_SHORT).show();
+                    }
 
-    private void connectToPrinter(BluetoothDevice device) throws IOException {
-        bluetoothSocket = device.createRfcommSocketToServiceRecord(PRINTER_UUID);
-        bluetoothSocket.connect();
-        outputStream = bluetoothSocket.getOutputStream();
+                    @Override
+                    public void onFailed(String message) {
+                        Toast.makeText(OrderActivity.this, "Failed to print checker: " + message, Toast.LENGTH_SHORT).show();
+                    }
+                });
     }
 
-    private void printThermalBill() throws IOException {
+    private void printThermalBill(OutputStream outputStream) throws IOException {
         // Check if rates are loaded, if not wait a bit or use defaults
         if (!ratesLoaded) {
             setDefaultRates();
@@ -526,26 +486,11 @@ public class OrderActivity extends AppCompatActivity {
         templateManager.printCustomerBill(outputStream, order, taxRate, taxDescription, serviceRate, serviceDescription);
     }
 
-    private void printKitchenChecker() throws IOException {
+    private void printKitchenChecker(OutputStream outputStream) throws IOException {
         // Use template manager to print kitchen checker
         templateManager.printKitchenChecker(outputStream, order);
     }
 
-    private void disconnectPrinter() {
-        try {
-            if (outputStream != null) {
-                outputStream.close();
-                outputStream = null;
-            }
-            if (bluetoothSocket != null) {
-                bluetoothSocket.close();
-                bluetoothSocket = null;
-            }
-        } catch (IOException e) {
-            // Silent cleanup
-        }
-    }
-
     // Existing methods (unchanged)
     @Override
     protected void onActivityResult(int requestCode, int resultCode, Intent data) {
@@ -696,6 +641,7 @@ public class OrderActivity extends AppCompatActivity {
         intent.putExtra("table_number", order.getTableNumber());
         intent.putExtra("final_amount", order.getFinalAmount());
         intent.putExtra("session_id", order.getSessionId());
+        intent.putExtra("item_totals", PricingEngine.billableLineTotals(order.getItems()));
 
         startActivityForResult(intent, PAYMENT_REQUEST_CODE);
     }
@@ -740,9 +686,4 @@ public class OrderActivity extends AppCompatActivity {
         return true;
     }
 
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        disconnectPrinter();
-    }
 }
\ No newline at end of file
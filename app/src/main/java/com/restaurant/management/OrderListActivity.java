@@ -15,6 +15,8 @@ import com.restaurant.management.helpers.OrderListApiHelper;
 import com.restaurant.management.helpers.OrderListUiHelper;
 import com.restaurant.management.models.Order;
 import com.restaurant.management.models.OrderStatus;
+import com.restaurant.management.utils.AppExecutors;
+import com.restaurant.management.utils.PerfTracer;
 
 import com.chuckerteam.chucker.api.Chucker;
 import android.hardware.Sensor;
@@ -29,6 +31,14 @@ public class OrderListActivity extends AppCompatActivity implements OrderAdapter
 
     private long sessionId = -1;
 
+    // Paging state for the current filter; a new generation discards pages from older requests
+    private String pageStatus;
+    private String pageSearch;
+    private String nextCursor;
+    private boolean loadingPage;
+    private boolean showingCachedPage;
+    private int pageGeneration;
+
     private OrderListApiHelper apiHelper;
     private OrderListUiHelper uiHelper;
     private OrderDialogHelper dialogHelper;
@@ -159,6 +169,8 @@ public class OrderListActivity extends AppCompatActivity implements OrderAdapter
 
             // Set up listeners
             uiHelper.setRefreshListener(this::fetchOrders);
+            uiHelper.setFilterChangeListener(this::fetchOrders);
+            uiHelper.setLoadMoreListener(this::loadNextPage);
             uiHelper.setTitleUpdateListener(title -> {
                 try {
                     if (getSupportActionBar() != null) {
@@ -205,24 +217,94 @@ public class OrderListActivity extends AppCompatActivity implements OrderAdapter
         fetchOrders(); // Then proceed to fetch actual orders
     }
 
+    // Restarts the list from the first page for the current status and search filter
     private void fetchOrders() {
+        int generation = ++pageGeneration;
+        pageStatus = uiHelper.getStatusFilter();
+        pageSearch = uiHelper.getSearchQuery();
+        nextCursor = null;
+        loadingPage = true;
+        showingCachedPage = false;
         uiHelper.showLoading(true);
 
-        apiHelper.fetchOrders(sessionId, new OrderListApiHelper.OrdersCallback() {
+        if (pageSearch.isEmpty()) {
+            // Paint the last known first page straight away while the network catches up
+            String status = pageStatus;
+            AppExecutors.getInstance().execute(AppExecutors.Lane.DATABASE, this, () -> {
+                OrderListApiHelper.OrderPage cached;
+                try (PerfTracer.Span ignored = PerfTracer.begin("orderList.cachedPage")) {
+                    cached = apiHelper.getCachedFirstPage(sessionId, status);
+                }
+                if (cached == null) {
+                    return;
+                }
+                runOnUiThread(() -> {
+                    if (generation != pageGeneration || !loadingPage || nextCursor != null || isFinishing()) {
+                        return;
+                    }
+                    showingCachedPage = true;
+                    uiHelper.showOrders(cached.orders, false);
+                });
+            });
+        }
+
+        fetchPage(generation, null);
+    }
+
+    private void loadNextPage() {
+        if (loadingPage || nextCursor == null) {
+            return;
+        }
+        loadingPage = true;
+        fetchPage(pageGeneration, nextCursor);
+    }
+
+    private void fetchPage(int generation, String cursor) {
+        boolean firstPage = cursor == null;
+        // From the request until its response is back on the main thread
+        PerfTracer.Span pageSpan = PerfTracer.beginAsync(firstPage ? "screen.orderList.firstPage" : "screen.orderList.nextPage");
+
+        apiHelper.fetchOrderPage(sessionId, pageStatus, pageSearch, cursor, new OrderListApiHelper.OrderPageCallback() {
             @Override
-            public void onSuccess(List<Order> orders) {
+            public void onSuccess(List<Order> orders, String next) {
                 runOnUiThread(() -> {
-                    uiHelper.showLoading(false);
-                    uiHelper.updateOrdersList(orders);
-                    uiHelper.showContent();
+                    pageSpan.end();
+                    if (generation != pageGeneration || isFinishing()) {
+                        return;
+                    }
+                    loadingPage = false;
+                    nextCursor = next;
+                    if (firstPage) {
+                        uiHelper.showLoading(false);
+                        showingCachedPage = false;
+                    }
+
+                    int shown = uiHelper.showOrders(orders, !firstPage);
+                    // Nothing on this page survived the status guard, so the list cannot scroll to ask for more
+                    if (shown == 0 && nextCursor != null) {
+                        loadNextPage();
+                    }
                 });
             }
 
             @Override
             public void onError(String errorMessage) {
                 runOnUiThread(() -> {
+                    pageSpan.end();
+                    if (generation != pageGeneration || isFinishing()) {
+                        return;
+                    }
+                    loadingPage = false;
+                    if (!firstPage) {
+                        // Keep what is on screen; scrolling again retries the page
+                        return;
+                    }
                     uiHelper.showLoading(false);
-                    uiHelper.showEmptyView(errorMessage);
+                    if (showingCachedPage) {
+                        Toast.makeText(OrderListActivity.this, errorMessage, Toast.LENGTH_SHORT).show();
+                    } else {
+                        uiHelper.showEmptyView(errorMessage);
+                    }
                 });
             }
         });
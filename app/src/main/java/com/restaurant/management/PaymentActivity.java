@@ -3,7 +3,6 @@ package com.restaurant.management;
 import android.Manifest;
 import android.bluetooth.BluetoothAdapter;
 import android.bluetooth.BluetoothDevice;
-import android.bluetooth.BluetoothSocket;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.os.Build;
@@ -25,20 +24,17 @@ import androidx.appcompat.widget.Toolbar;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
-
 import com.google.android.material.textfield.TextInputEditText;
 import com.restaurant.management.helpers.PaymentApiHelper;
 import com.restaurant.management.helpers.PaymentUIHelper;
 import com.restaurant.management.models.Discount;
 import com.restaurant.management.models.PaymentMethod;
 import com.restaurant.management.models.RoundingConfig;
+import com.restaurant.management.models.Tax;
+import com.restaurant.management.utils.PerfTracer;
+import com.restaurant.management.utils.PricingEngine;
+import com.restaurant.management.repositories.ReferenceDataStore;
+import com.restaurant.management.printing.BluetoothPrinterService;
 import com.restaurant.management.printing.PrintTemplateManager;
 
 import java.io.IOException;
@@ -49,7 +45,6 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
-import java.util.UUID;
 
 public class PaymentActivity extends AppCompatActivity implements
         PaymentUIHelper.DiscountSelectionListener,
@@ -65,7 +60,6 @@ public class PaymentActivity extends AppCompatActivity implements
     private boolean ratesLoaded = false;
 
     // Thermal printer constants
-    private static final UUID PRINTER_UUID = UUID.fromString("00001101-0000-1000-8000-00805F9B34FB");
     private static final int CHAR_WIDTH = 32;
 
     // ESC/POS Commands
@@ -83,6 +77,7 @@ public class PaymentActivity extends AppCompatActivity implements
 
     // Helper classes
     private PaymentApiHelper apiHelper;
+    private ReferenceDataStore referenceDataStore;
     private PaymentUIHelper uiHelper;
 
     // Printing component
@@ -120,15 +115,19 @@ public class PaymentActivity extends AppCompatActivity implements
     private double discountedAmount = 0.0;
     private RoundingConfig roundingConfig;
     private boolean isUpdatingDiscount = false;
+    private double[] itemTotals;
+    // Set while the shown totals were priced on the device and still need the server's confirmation
+    private PricingEngine.Quote currentQuote;
+    // From onCreate until the payment form is set up
+    private PerfTracer.Span loadSpan;
 
     // Thermal printer fields
     private BluetoothAdapter bluetoothAdapter;
-    private BluetoothSocket bluetoothSocket;
-    private OutputStream outputStream;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        loadSpan = PerfTracer.beginAsync("screen.payment.load");
         setContentView(R.layout.activity_payment);
 
         // Initialize helpers
@@ -145,8 +144,10 @@ public class PaymentActivity extends AppCompatActivity implements
         // Initialize Bluetooth
         initializeBluetooth();
 
-        // Fetch tax and service rates from API
-        fetchTaxAndServiceRates();
+        // Reference data comes from the process-wide store and is refreshed in the background
+        referenceDataStore = ReferenceDataStore.getInstance(this);
+        referenceDataStore.refresh();
+        observeTaxAndServiceRates();
 
         // Initialize template manager
         templateManager = new PrintTemplateManager(this);
@@ -156,8 +157,12 @@ public class PaymentActivity extends AppCompatActivity implements
             return;
         }
 
-        // Call the checkout API to get the most current order information
-        callCheckoutAPI();
+        // Priced on the device when the order's items are known; checkout then only verifies at submission
+        if (canPriceLocally()) {
+            proceedWithSetup();
+        } else {
+            callCheckoutAPI();
+        }
     }
 
     private void initializeBluetooth() {
@@ -188,75 +193,30 @@ public class PaymentActivity extends AppCompatActivity implements
         discountedTotalTextView = findViewById(R.id.discounted_total_text_view);
     }
 
-    private void fetchTaxAndServiceRates() {
-        new Thread(() -> {
-            try {
-                URL url = new URL("https://api.pood.lol/taxes/rates");
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                connection.setRequestMethod("GET");
-                connection.setConnectTimeout(5000);
-                connection.setReadTimeout(5000);
-
-                int responseCode = connection.getResponseCode();
-                if (responseCode == HttpURLConnection.HTTP_OK) {
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-                    reader.close();
-
-                    parseRatesResponse(response.toString());
-                } else {
-                    runOnUiThread(() -> {
-                        setDefaultRates();
-                    });
-                }
-            } catch (Exception e) {
-                runOnUiThread(() -> {
-                    setDefaultRates();
-                });
-            }
-        }).start();
+    private void observeTaxAndServiceRates() {
+        // Served from the in-memory store; a late refresh simply updates the rates again
+        referenceDataStore.getTaxes().observe(this, this::applyTaxRates);
     }
 
-    private void parseRatesResponse(String jsonResponse) {
-        try {
-            JSONObject root = new JSONObject(jsonResponse);
-            String status = root.getString("status");
-
-            if ("success".equals(status)) {
-                JSONArray dataArray = root.getJSONArray("data");
-
-                for (int i = 0; i < dataArray.length(); i++) {
-                    JSONObject item = dataArray.getJSONObject(i);
-                    int id = item.getInt("id");
-                    String description = item.getString("description");
-                    double amount = item.getDouble("amount");
-
-                    if (id == 1) { // Tax
-                        taxRate = amount / 100.0; // Convert percentage to decimal
-                        taxDescription = description;
-                    } else if (id == 2) { // Service Charge
-                        serviceRate = amount / 100.0; // Convert percentage to decimal
-                        serviceDescription = description;
-                    }
-                }
+    private void applyTaxRates(List<Tax> taxes) {
+        for (Tax item : taxes) {
+            double amount;
+            try {
+                amount = Double.parseDouble(item.getAmount());
+            } catch (NumberFormatException e) {
+                continue;
+            }
 
-                runOnUiThread(() -> {
-                    ratesLoaded = true;
-                });
-            } else {
-                runOnUiThread(() -> {
-                    setDefaultRates();
-                });
+            if (item.getId() == 1) { // Tax
+                taxRate = amount / 100.0; // Convert percentage to decimal
+                taxDescription = item.getDescription();
+            } else if (item.getId() == 2) { // Service Charge
+                serviceRate = amount / 100.0; // Convert percentage to decimal
+                serviceDescription = item.getDescription();
             }
-        } catch (JSONException e) {
-            runOnUiThread(() -> {
-                setDefaultRates();
-            });
         }
+        ratesLoaded = true;
+        repriceLocally();
     }
 
     private void setDefaultRates() {
@@ -281,6 +241,7 @@ public class PaymentActivity extends AppCompatActivity implements
         finalAmount = intent.getDoubleExtra("final_amount", 0.0);
         originalAmount = finalAmount;
         sessionId = intent.getLongExtra("session_id", -1);
+        itemTotals = intent.getDoubleArrayExtra("item_totals");
 
         if (orderId == -1) {
             Toast.makeText(this, R.string.invalid_order_data, Toast.LENGTH_LONG).show();
@@ -302,13 +263,16 @@ public class PaymentActivity extends AppCompatActivity implements
 
         setLoadingState(true);
         isUpdatingDiscount = true;
+        PerfTracer.Span checkoutSpan = PerfTracer.beginAsync("payment.checkout");
 
         apiHelper.callCheckout(orderId, discountId, new PaymentApiHelper.CheckoutCallback() {
             @Override
             public void onSuccess(PaymentApiHelper.CheckoutResponse response) {
                 runOnUiThread(() -> {
+                    checkoutSpan.end();
                     isUpdatingDiscount = false;
                     setLoadingState(false);
+                    currentQuote = null;
 
                     // Update order information from API response
                     if (response.orderNumber != null && !response.orderNumber.isEmpty()) {
@@ -341,6 +305,7 @@ public class PaymentActivity extends AppCompatActivity implements
             @Override
             public void onError(String message) {
                 runOnUiThread(() -> {
+                    checkoutSpan.end();
                     isUpdatingDiscount = false;
                     setLoadingState(false);
                     Toast.makeText(PaymentActivity.this, message, Toast.LENGTH_SHORT).show();
@@ -360,6 +325,33 @@ public class PaymentActivity extends AppCompatActivity implements
         });
     }
 
+    private boolean canPriceLocally() {
+        return itemTotals != null && itemTotals.length > 0;
+    }
+
+    /**
+     * Recomputes the totals on the device for the current discount, rates and rounding.
+     * Returns false when that isn't possible yet, e.g. before the tax rates have loaded.
+     */
+    private boolean repriceLocally() {
+        if (!ratesLoaded || !canPriceLocally()) {
+            return false;
+        }
+
+        try (PerfTracer.Span ignored = PerfTracer.begin("payment.reprice")) {
+            PricingEngine engine = new PricingEngine(taxRate * 100, serviceRate * 100, roundingConfig);
+            currentQuote = engine.quote(itemTotals, selectedDiscount);
+            originalAmount = engine.quote(itemTotals, null).getTotal();
+        }
+        finalAmount = currentQuote.getTotal();
+        discountedAmount = currentQuote.getDiscount();
+
+        updatePricingDisplay();
+        updateAmountPaidWithRounding();
+        updateChangeDisplay();
+        return true;
+    }
+
     private void revertToNoDiscount() {
         selectedDiscount = null;
         discountedAmount = 0.0;
@@ -376,9 +368,10 @@ public class PaymentActivity extends AppCompatActivity implements
     private void proceedWithSetup() {
         setupUI();
         setupListeners();
-        fetchDiscounts();
-        fetchPaymentMethods();
-        fetchRoundingConfig();
+        observeDiscounts();
+        observePaymentMethods();
+        observeRoundingConfig();
+        loadSpan.end();
     }
 
     private void setupUI() {
@@ -410,70 +403,43 @@ public class PaymentActivity extends AppCompatActivity implements
         processPaymentButton.setOnClickListener(v -> validateAndProcessPayment());
     }
 
-    private void fetchRoundingConfig() {
-        apiHelper.fetchRoundingConfig(new PaymentApiHelper.RoundingConfigCallback() {
-            @Override
-            public void onSuccess(RoundingConfig config) {
-                runOnUiThread(() -> {
-                    roundingConfig = config;
-                    updateAmountPaidWithRounding();
-                });
-            }
+    private void observeRoundingConfig() {
+        if (referenceDataStore.getRoundingConfig().getValue() == null) {
+            roundingConfig = new RoundingConfig(99, 1, "00 - Hundreds", 100);
+            updateAmountPaidWithRounding();
+        }
 
-            @Override
-            public void onError() {
-                runOnUiThread(() -> {
-                    roundingConfig = new RoundingConfig(99, 1, "00 - Hundreds", 100);
-                    updateAmountPaidWithRounding();
-                });
+        referenceDataStore.getRoundingConfig().observe(this, config -> {
+            roundingConfig = config;
+            if (!repriceLocally()) {
+                updateAmountPaidWithRounding();
             }
         });
     }
 
-    private void fetchDiscounts() {
-        apiHelper.fetchDiscounts(new PaymentApiHelper.DiscountsCallback() {
-            @Override
-            public void onSuccess(List<Discount> discounts) {
-                runOnUiThread(() -> {
-                    discountList.clear();
-                    discountList.addAll(discounts);
-                    setupDiscountSpinner();
-                });
-            }
+    private void observeDiscounts() {
+        if (referenceDataStore.getDiscounts().getValue() == null) {
+            setupDiscountSpinner();
+        }
 
-            @Override
-            public void onError() {
-                runOnUiThread(() -> {
-                    setupDiscountSpinner();
-                    Toast.makeText(PaymentActivity.this, R.string.error_loading_discounts, Toast.LENGTH_SHORT).show();
-                });
-            }
+        referenceDataStore.getDiscounts().observe(this, discounts -> {
+            discountList.clear();
+            discountList.addAll(discounts);
+            setupDiscountSpinner();
         });
     }
 
-    private void fetchPaymentMethods() {
-        setLoadingState(true);
-
-        apiHelper.fetchPaymentMethods(new PaymentApiHelper.PaymentMethodsCallback() {
-            @Override
-            public void onSuccess(List<PaymentMethod> methods) {
-                runOnUiThread(() -> {
-                    paymentMethods.clear();
-                    paymentMethods.addAll(methods);
-                    populatePaymentMethodsUI();
-                    setLoadingState(false);
-                });
-            }
+    private void observePaymentMethods() {
+        if (referenceDataStore.getPaymentMethods().getValue() == null) {
+            paymentMethods.clear();
+            paymentMethods.addAll(PaymentApiHelper.getDefaultPaymentMethods());
+            populatePaymentMethodsUI();
+        }
 
-            @Override
-            public void onError() {
-                runOnUiThread(() -> {
-                    paymentMethods.clear();
-                    paymentMethods.addAll(PaymentApiHelper.getDefaultPaymentMethods());
-                    populatePaymentMethodsUI();
-                    setLoadingState(false);
-                });
-            }
+        referenceDataStore.getPaymentMethods().observe(this, methods -> {
+            paymentMethods.clear();
+            paymentMethods.addAll(methods);
+            populatePaymentMethodsUI();
         });
     }
 
@@ -501,7 +467,9 @@ public class PaymentActivity extends AppCompatActivity implements
         }
 
         double amountToPay = finalAmount;
-        double roundedAmount = uiHelper.applyRounding(amountToPay, roundingConfig);
+        double roundedAmount = currentQuote != null
+                ? currentQuote.getCashTotal()
+                : uiHelper.applyRounding(amountToPay, roundingConfig);
         amountPaidEditText.setText(String.valueOf(Math.round(roundedAmount)));
         updateChangeDisplay();
     }
@@ -539,7 +507,60 @@ public class PaymentActivity extends AppCompatActivity implements
         }
 
         setLoadingState(true);
-        processPayment();
+        verifyTotalAndProcessPayment();
+    }
+
+    /**
+     * A locally priced total is checked against the checkout endpoint once before paying.
+     * If the server disagrees its figures are shown instead and the cashier confirms again.
+     */
+    private void verifyTotalAndProcessPayment() {
+        if (currentQuote == null) {
+            // Already priced by the server
+            processPayment();
+            return;
+        }
+
+        Long discountId = (selectedDiscount != null && selectedDiscount.getId() != -1)
+                ? selectedDiscount.getId() : null;
+        PerfTracer.Span verifySpan = PerfTracer.beginAsync("payment.verifyCheckout");
+
+        apiHelper.callCheckout(orderId, discountId, new PaymentApiHelper.CheckoutCallback() {
+            @Override
+            public void onSuccess(PaymentApiHelper.CheckoutResponse response) {
+                runOnUiThread(() -> {
+                    verifySpan.end();
+                    if (Math.round(response.finalAmount) == Math.round(finalAmount)) {
+                        processPayment();
+                        return;
+                    }
+
+                    Log.w(TAG, "Local total " + finalAmount + " differs from checkout total " + response.finalAmount);
+                    // The server priced with rates or rounding this device doesn't have yet
+                    referenceDataStore.invalidate(ReferenceDataStore.KEY_TAXES);
+                    referenceDataStore.invalidate(ReferenceDataStore.KEY_DISCOUNTS);
+                    referenceDataStore.invalidate(ReferenceDataStore.KEY_ROUNDING);
+                    currentQuote = null;
+                    finalAmount = response.finalAmount;
+                    discountedAmount = response.discountAmount;
+
+                    setLoadingState(false);
+                    updatePricingDisplay();
+                    updateAmountPaidWithRounding();
+                    updateChangeDisplay();
+                    Toast.makeText(PaymentActivity.this, R.string.checkout_total_updated, Toast.LENGTH_LONG).show();
+                });
+            }
+
+            @Override
+            public void onError(String message) {
+                runOnUiThread(() -> {
+                    verifySpan.end();
+                    setLoadingState(false);
+                    Toast.makeText(PaymentActivity.this, message, Toast.LENGTH_SHORT).show();
+                });
+            }
+        });
     }
 
     private void processPayment() {
@@ -713,29 +734,20 @@ public class PaymentActivity extends AppCompatActivity implements
     }
 
     private void connectAndPrintReceipt(BluetoothDevice device) {
-        new Thread(() -> {
-            try {
-                connectToPrinter(device);
-                printThermalReceipt();
-                runOnUiThread(() -> {
-                    Toast.makeText(this, "Receipt printed successfully", Toast.LENGTH_SHORT).show();
-                    finishPaymentActivity();
-                });
-            } catch (IOException e) {
-                runOnUiThread(() -> {
-                    Toast.makeText(this, "Failed to print receipt: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                    finishPaymentActivity();
-                });
-            } finally {
-                disconnectPrinter();
-            }
-        }).start();
-    }
+        BluetoothPrinterService.getInstance().submit(device, this::printThermalReceipt,
+                new BluetoothPrinterService.PrintCallback() {
+                    @Override
+                    public void onPrinted() {
+                        Toast.makeText(PaymentActivity.this, "Receipt printed successfully", Toast.LENGTH_SHORT).show();
+                        finishPaymentActivity();
+                    }
 
-    private void connectToPrinter(BluetoothDevice device) throws IOException {
-        bluetoothSocket = device.createRfcommSocketToServiceRecord(PRINTER_UUID);
-        bluetoothSocket.connect();
-        outputStream = bluetoothSocket.getOutputStream();
+                    @Override
+                    public void onFailed(String message) {
+                        Toast.makeText(PaymentActivity.this, "Failed to print receipt: " + message, Toast.LENGTH_SHORT).show();
+                        finishPaymentActivity();
+                    }
+                });
     }
 
     private String getPaymentMethodForPrint() {
@@ -757,7 +769,7 @@ public class PaymentActivity extends AppCompatActivity implements
         return "Cash Sales"; // Ultimate fallback
     }
 
-    private void printThermalReceipt() throws IOException {
+    private void printThermalReceipt(OutputStream outputStream) throws IOException {
         // Check if rates are loaded, if not wait a bit or use defaults
         if (!ratesLoaded) {
             setDefaultRates();
@@ -791,11 +803,6 @@ public class PaymentActivity extends AppCompatActivity implements
                 serviceDescription
         );
     }
-    private void printLine(String text) throws IOException {
-        outputStream.write(text.getBytes("UTF-8"));
-        outputStream.write(ESC_FEED_LINE);
-    }
-
     private String formatTotalLine(String label, String amount) {
         int labelWidth = CHAR_WIDTH - amount.length();
         return String.format("%-" + labelWidth + "s%s", label, amount);
@@ -809,21 +816,6 @@ public class PaymentActivity extends AppCompatActivity implements
         return new SimpleDateFormat("dd/MM/yy HH:mm", Locale.getDefault()).format(date);
     }
 
-    private void disconnectPrinter() {
-        try {
-            if (outputStream != null) {
-                outputStream.close();
-                outputStream = null;
-            }
-            if (bluetoothSocket != null) {
-                bluetoothSocket.close();
-                bluetoothSocket = null;
-            }
-        } catch (IOException e) {
-            // Silent cleanup
-        }
-    }
-
     private void finishPaymentActivity() {
         try {
             Intent resultIntent = new Intent();
@@ -888,12 +880,6 @@ public class PaymentActivity extends AppCompatActivity implements
         return true;
     }
 
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        disconnectPrinter();
-    }
-
     // PaymentUIHelper.DiscountSelectionListener implementation
     @Override
     public void onDiscountSelected(Discount discount) {
@@ -902,7 +888,9 @@ public class PaymentActivity extends AppCompatActivity implements
         }
 
         selectedDiscount = discount;
-        callCheckoutAPIWithDiscount(discount.getId());
+        if (!repriceLocally()) {
+            callCheckoutAPIWithDiscount(discount.getId());
+        }
     }
 
     @Override
@@ -912,7 +900,9 @@ public class PaymentActivity extends AppCompatActivity implements
         }
 
         selectedDiscount = null;
-        callCheckoutAPIWithDiscount(null);
+        if (!repriceLocally()) {
+            callCheckoutAPIWithDiscount(null);
+        }
     }
 
     // PaymentUIHelper.PaymentMethodSelectionListener implementation
@@ -2,6 +2,8 @@ package com.restaurant.management;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.view.KeyEvent;
@@ -31,6 +33,8 @@ import com.restaurant.management.database.DatabaseManager;
 import com.restaurant.management.models.Product;
 import com.restaurant.management.models.ProductItem;
 import com.restaurant.management.models.MenuCategory;
+import com.restaurant.management.utils.AppExecutors;
+import com.restaurant.management.utils.PerfTracer;
 import com.restaurant.management.utils.ProductFilter;
 import com.restaurant.management.utils.TableItemDecoration;
 
@@ -49,12 +53,11 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class ProductListActivity extends AppCompatActivity implements NavigationView.OnNavigationItemSelectedListener, ProductAdapter.OnProductClickListener {
 
     private static final String TAG = "ProductListActivity";
+    private static final long SEARCH_DEBOUNCE_MS = 150;
 
     private DrawerLayout drawerLayout;
     private RecyclerView recyclerView;
@@ -63,13 +66,15 @@ public class ProductListActivity extends AppCompatActivity implements Navigation
     private List<Product> productList = new ArrayList<>();
     private List<Product> filteredProductList = new ArrayList<>();
     private DatabaseManager databaseManager;
-    private ExecutorService executorService;
     private TextView emptyView;
 
     // Filter components
     private TextInputEditText searchEditText;
     private AutoCompleteTextView categoryAutoComplete;
     private ProductFilter productFilter;
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private final Runnable debouncedFilter = this::applyFilter;
+    private int filterGeneration;
 
     // Category lookup for better performance
     private Map<String, MenuCategory> categoryMap = new HashMap<>();
@@ -107,9 +112,8 @@ public class ProductListActivity extends AppCompatActivity implements Navigation
         // Initialize filter components
         initializeFilterListeners();
 
-        // Initialize database and executor
+        // Initialize database
         databaseManager = DatabaseManager.getInstance(this);
-        executorService = Executors.newSingleThreadExecutor();
 
         // Load products from database
         loadProductsFromDatabase();
@@ -166,8 +170,9 @@ public class ProductListActivity extends AppCompatActivity implements Navigation
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                // Filter products as text changes
-                applyFilter();
+                // Wait for a pause in typing before filtering
+                searchHandler.removeCallbacks(debouncedFilter);
+                searchHandler.postDelayed(debouncedFilter, SEARCH_DEBOUNCE_MS);
             }
 
             @Override
@@ -218,6 +223,7 @@ public class ProductListActivity extends AppCompatActivity implements Navigation
     }
 
     private void applyFilter() {
+        searchHandler.removeCallbacks(debouncedFilter);
         if (productFilter == null || productList.isEmpty()) {
             return;
         }
@@ -225,8 +231,21 @@ public class ProductListActivity extends AppCompatActivity implements Navigation
         // Update filter parameters
         productFilter.setSearchQuery(searchEditText.getText().toString());
 
-        // Apply filters
-        filteredProductList = productFilter.filter();
+        // Query the index off the main thread; results from an older query are dropped
+        ProductFilter filter = productFilter;
+        int generation = ++filterGeneration;
+        AppExecutors.getInstance().execute(AppExecutors.Lane.DATABASE, this, () -> {
+            List<Product> results = filter.filter();
+            runOnUiThread(() -> {
+                if (generation == filterGeneration && !isFinishing()) {
+                    showFilterResults(results);
+                }
+            });
+        });
+    }
+
+    private void showFilterResults(List<Product> results) {
+        filteredProductList = results;
 
         // Update adapter
         adapter.updateList(filteredProductList);
@@ -271,13 +290,17 @@ public class ProductListActivity extends AppCompatActivity implements Navigation
     private void loadProductsFromDatabase() {
         Log.d(TAG, "Loading products from database...");
         showLoading(true);
+        // From the request to the list being on screen
+        PerfTracer.Span loadSpan = PerfTracer.beginAsync("screen.productList.load");
 
         // Execute database query in background thread
-        executorService.execute(() -> {
+        AppExecutors.getInstance().execute(AppExecutors.Lane.DATABASE, this, () -> {
+            PerfTracer.Span querySpan = PerfTracer.begin("productList.query");
             try {
                 // Check if data exists first
                 if (!databaseManager.hasMenuItems()) {
                     runOnUiThread(() -> {
+                        loadSpan.end();
                         showLoading(false);
                         showEmptyView(true);
                         emptyView.setText("No products available. Please sync data first.");
@@ -296,6 +319,9 @@ public class ProductListActivity extends AppCompatActivity implements Navigation
                 // Convert ProductItems to Products
                 List<Product> products = convertMenuItemsToProducts(menuItems);
 
+                // Build the search index here rather than on the main thread
+                ProductFilter filter = new ProductFilter(products);
+
                 // Update UI on main thread
                 runOnUiThread(() -> {
                     showLoading(false);
@@ -305,7 +331,7 @@ public class ProductListActivity extends AppCompatActivity implements Navigation
                         Log.d(TAG, "Converted to " + productList.size() + " products");
 
                         // Initialize filter with full product list
-                        productFilter = new ProductFilter(productList);
+                        productFilter = filter;
 
                         // Extract and populate category dropdown
                         Set<String> categories = extractCategoriesFromProducts(productList);
@@ -320,6 +346,7 @@ public class ProductListActivity extends AppCompatActivity implements Navigation
                         showEmptyView(true);
                         emptyView.setText("No active products available.");
                     }
+                    loadSpan.end();
                 });
 
             } catch (Exception e) {
@@ -331,7 +358,10 @@ public class ProductListActivity extends AppCompatActivity implements Navigation
                     showEmptyView(true);
                     emptyView.setText("Error loading products from database");
                     showError("Database Error: " + e.getMessage());
+                    loadSpan.end();
                 });
+            } finally {
+                querySpan.end();
             }
         });
     }
@@ -557,9 +587,7 @@ public class ProductListActivity extends AppCompatActivity implements Navigation
         // Note: No need to close DatabaseManager as it uses singleton pattern
         // and handles its own lifecycle
 
-        if (executorService != null && !executorService.isShutdown()) {
-            executorService.shutdown();
-        }
+        searchHandler.removeCallbacks(debouncedFilter);
 
         // --- START: Sensor unregistration (Copied from DashboardActivity) ---
         if (sensorManager != null) {
@@ -18,8 +18,6 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
 import com.google.android.material.textfield.TextInputEditText;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 
 import com.chuckerteam.chucker.api.Chucker;
 import android.hardware.Sensor;
@@ -28,10 +26,13 @@ import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
 
 import com.restaurant.management.models.PaymentMethod;
+import com.restaurant.management.database.DatabaseManager;
 import com.restaurant.management.models.PaymentReconciliation;
+import com.restaurant.management.models.ReconciliationSummary;
 import com.restaurant.management.models.SessionSummary;
 import com.restaurant.management.network.ApiClient;
 import com.restaurant.management.network.ApiService;
+import com.restaurant.management.utils.AppExecutors;
 import com.restaurant.management.models.ApiResponse;
 
 import org.json.JSONArray;
@@ -100,9 +101,6 @@ public class ReconciliationActivity extends AppCompatActivity {
     // Format for currency values
     private DecimalFormat currencyFormat = new DecimalFormat("#,##0.00");
 
-    private int pendingPaymentMethodRequests = 0;
-    private double totalSalesAmount = 0.0;
-    private Set<String> uniqueOrderIds = new HashSet<>();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -350,163 +348,60 @@ public class ReconciliationActivity extends AppCompatActivity {
         });
     }
 
-    private void fetchPaymentMethodTransactions(long sessionId, String paymentModeId) {
-        apiService.getPaymentMethodTransactions(sessionId, paymentModeId).enqueue(new Callback<ApiResponse<List<JsonElement>>>() {
+    // One request returns every mode's totals; the payments themselves never leave the server
+    private void fetchReconciliationSummary() {
+        apiService.getReconciliationSummary(sessionId).enqueue(new Callback<ApiResponse<ReconciliationSummary>>() {
             @Override
-            public void onResponse(Call<ApiResponse<List<JsonElement>>> call, Response<ApiResponse<List<JsonElement>>> response) {
-                try {
-                    if (response.isSuccessful() && response.body() != null && "success".equals(response.body().getStatus())) {
-                        List<JsonElement> data = response.body().getData();
-                        Log.d(TAG, "Processing transactions for paymentModeId: " + paymentModeId); // Log the mode ID being processed
-
-                        if (data != null) {
-                            double totalAmount = 0.0;
-                            Set<String> orderIds = new HashSet<>();
-
-                            Log.d(TAG, "Data list size for " + paymentModeId + ": " + data.size()); // Check if data is empty
-
-                            for (JsonElement element : data) {
-                                if (element.isJsonObject()) {
-                                    JsonObject transaction = element.getAsJsonObject();
-                                    if (transaction.has("amount")) {
-                                        JsonElement amountElement = transaction.get("amount");
-                                        if (amountElement != null && !amountElement.isJsonNull() && amountElement.isJsonPrimitive()) {
-                                            try {
-                                                double currentAmount = Double.parseDouble(amountElement.getAsString()); // Get as string then parse
-                                                totalAmount += currentAmount;
-                                                Log.d(TAG, "  Adding amount " + currentAmount + " to total for " + paymentModeId + ". Current total: " + totalAmount);
-                                            } catch (NumberFormatException e) {
-                                                Log.e(TAG, "Invalid 'amount' format in transaction for mode " + paymentModeId + ": " + amountElement.toString(), e);
-                                            }
-                                        } else {
-                                            Log.w(TAG, "'amount' field is null, not primitive, or invalid type in transaction for mode " + paymentModeId + ": " + (amountElement != null ? amountElement.toString() : "null"));
-                                        }
-                                    } else {
-                                        Log.w(TAG, "'amount' field missing in transaction for mode " + paymentModeId);
-                                    }
-
-                                    if (transaction.has("order_id") && !transaction.get("order_id").isJsonNull() && transaction.get("order_id").isJsonPrimitive()) {
-                                        String orderId = transaction.get("order_id").getAsString();
-                                        if (!orderId.isEmpty()) {
-                                            orderIds.add(orderId);
-                                        }
-                                    }
-                                }
-                            }
-
-                            final double finalTotalAmount = totalAmount;
-                            Log.d(TAG, "Final calculated total for " + paymentModeId + ": " + finalTotalAmount); // Log the final total
-
-                            final Set<String> finalOrderIds = orderIds;
-
-                            Log.d(TAG, "Attempting to match reconciliation for " + paymentModeId + " (fetched ID)");
-                            Log.d(TAG, "Total PaymentReconciliations in sessionSummary: " + sessionSummary.getPaymentReconciliations().size());
-
-                            boolean matchFound = false;
-
-                            for (final PaymentReconciliation reconciliation : sessionSummary.getPaymentReconciliations()) {
-                                Log.d(TAG, "  Comparing reconciliation code '" + reconciliation.getId() + "' with fetched paymentModeId '" + paymentModeId + "'");
-
-                                if (reconciliation.getId().equals(paymentModeId)) {
-                                    Log.d(TAG, "  MATCH FOUND for reconciliation code: " + reconciliation.getId());
-
-                                    reconciliation.setSystemAmount(finalTotalAmount);
-                                    matchFound = true;
-
-                                    runOnUiThread(new Runnable() {
-                                        @Override
-                                        public void run() {
-                                            updateSystemTotal(paymentModeId, finalTotalAmount);
-                                            View itemView = paymentModeViews.get(paymentModeId);
-                                            if (itemView != null) {
-                                                TextInputEditText etPhysicalCount = itemView.findViewById(R.id.etPaymentModeCount);
-                                                if (etPhysicalCount != null) {
-                                                    etPhysicalCount.setText(String.valueOf(finalTotalAmount));
-                                                    etPhysicalCount.getEditableText().clear();
-                                                    etPhysicalCount.append(String.valueOf(finalTotalAmount));
-                                                }
-                                            }
-                                            processCompletedPaymentRequest(finalTotalAmount, finalOrderIds);
-                                        }
-                                    });
-                                    break;
-                                }
-                            }
-                            if (!matchFound) {
-                                Log.e(TAG, "ERROR: No matching PaymentReconciliation found for paymentModeId: " + paymentModeId + ". System total will remain 0.");
-                            }
-                        } else {
-                            runOnUiThread(new Runnable() {
-                                @Override
-                                public void run() {
-                                    processCompletedPaymentRequest(0.0, new HashSet<String>());
-                                }
-                            });
-                        }
-                    } else {
-                        String errorMessage = response.message();
-                        if (response.errorBody() != null) {
-                            try {
-                                String errorBodyString = response.errorBody().string();
-                                JSONObject errorJson = new JSONObject(errorBodyString);
-                                errorMessage = errorJson.optString("message", errorMessage);
-                            } catch (Exception e) {
-                                Log.e(TAG, "Error parsing error body for transactions: " + e.getMessage());
-                            }
-                        }
-                        final String finalErrorMessage = errorMessage; // Make it effectively final
-                        Log.w(TAG, "Failed to get transactions for mode " + paymentModeId + ": " + response.code() + " - " + finalErrorMessage);
-                        runOnUiThread(new Runnable() {
-                            @Override
-                            public void run() {
-                                Toast.makeText(ReconciliationActivity.this,
-                                        "Error fetching transactions for " + paymentModeId + ": " + finalErrorMessage,
-                                        Toast.LENGTH_SHORT).show();
-                                processCompletedPaymentRequest(0.0, new HashSet<String>());
-                            }
-                        });
-                    }
-                } catch (Exception e) {
-                    Log.e(TAG, "Error processing transaction data for payment mode " + paymentModeId, e);
-                    final String finalErrorMessage = e.getMessage(); // Make it effectively final
-                    runOnUiThread(new Runnable() {
-                        @Override
-                        public void run() {
-                            Toast.makeText(ReconciliationActivity.this,
-                                    "Error processing transactions for " + paymentModeId + ": " + finalErrorMessage,
-                                    Toast.LENGTH_SHORT).show();
-                            processCompletedPaymentRequest(0.0, new HashSet<String>());
-                        }
-                    });
+            public void onResponse(Call<ApiResponse<ReconciliationSummary>> call, Response<ApiResponse<ReconciliationSummary>> response) {
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()
+                        && response.body().getData() != null) {
+                    ReconciliationSummary summary = response.body().getData();
+                    runOnUiThread(() -> applyReconciliationSummary(summary));
+                } else {
+                    Log.w(TAG, "Reconciliation summary request failed: " + response.code());
+                    loadLocalReconciliationSummary();
                 }
             }
 
             @Override
-            public void onFailure(Call<ApiResponse<List<JsonElement>>> call, Throwable t) {
-                Log.e(TAG, "Network error fetching transactions for payment mode " + paymentModeId, t);
-                final String finalErrorMessage = t.getMessage(); // Make it effectively final
-                runOnUiThread(new Runnable() {
-                    @Override
-                    public void run() {
-                        Toast.makeText(ReconciliationActivity.this,
-                                "Network error fetching transactions: " + finalErrorMessage,
-                                Toast.LENGTH_SHORT).show();
-                        processCompletedPaymentRequest(0.0, new HashSet<String>());
-                    }
-                });
+            public void onFailure(Call<ApiResponse<ReconciliationSummary>> call, Throwable t) {
+                Log.e(TAG, "Network error fetching reconciliation summary", t);
+                loadLocalReconciliationSummary();
             }
         });
     }
 
-    private synchronized void processCompletedPaymentRequest(double amount, Set<String> orderIds) {
-        totalSalesAmount += amount;
-        uniqueOrderIds.addAll(orderIds);
-        pendingPaymentMethodRequests--;
+    // Falls back to the payments recorded on this device for the session
+    private void loadLocalReconciliationSummary() {
+        AppExecutors.getInstance().execute(AppExecutors.Lane.DATABASE, this, () -> {
+            ReconciliationSummary summary = DatabaseManager.getInstance(this).getReconciliationSummary(sessionId);
+            runOnUiThread(() -> {
+                Toast.makeText(ReconciliationActivity.this,
+                        R.string.reconciliation_using_local_totals, Toast.LENGTH_LONG).show();
+                applyReconciliationSummary(summary);
+            });
+        });
+    }
 
-        if (pendingPaymentMethodRequests <= 0) {
-            updateTotalSalesAndOrders(totalSalesAmount, uniqueOrderIds.size());
-            progressBar.setVisibility(View.GONE);
+    private void applyReconciliationSummary(ReconciliationSummary summary) {
+        for (PaymentReconciliation reconciliation : sessionSummary.getPaymentReconciliations()) {
+            String paymentModeId = reconciliation.getId();
+            double systemAmount = summary.getTotalFor(paymentModeId);
+            reconciliation.setSystemAmount(systemAmount);
+            updateSystemTotal(paymentModeId, systemAmount);
+
+            View itemView = paymentModeViews.get(paymentModeId);
+            if (itemView != null) {
+                TextInputEditText etPhysicalCount = itemView.findViewById(R.id.etPaymentModeCount);
+                if (etPhysicalCount != null) {
+                    etPhysicalCount.getEditableText().clear();
+                    etPhysicalCount.append(String.valueOf(systemAmount));
+                }
+            }
         }
+
+        updateTotalSalesAndOrders(summary.getTotalAmount(), summary.getOrderCount());
+        progressBar.setVisibility(View.GONE);
     }
 
     private void updateTotalSalesAndOrders(double totalAmount, int orderCount) {
@@ -671,10 +566,6 @@ public class ReconciliationActivity extends AppCompatActivity {
         paymentModesContainer.removeAllViews();
         paymentModeViews.clear();
 
-        // Reset total sales tracking (existing code, no changes)
-        totalSalesAmount = 0.0;
-        uniqueOrderIds.clear(); // Clear the set of order IDs
-
         // If no payment methods, display a message and return (existing code, no changes)
         if (paymentMethods.isEmpty()) {
             TextView emptyMessage = new TextView(this);
@@ -687,9 +578,6 @@ public class ReconciliationActivity extends AppCompatActivity {
             return;
         }
 
-        // Set the number of pending requests to the number of payment methods (existing code, no changes)
-        pendingPaymentMethodRequests = paymentMethods.size();
-
         // Get LayoutInflater (existing code, no changes)
         LayoutInflater inflater = LayoutInflater.from(this);
 
@@ -781,10 +669,10 @@ public class ReconciliationActivity extends AppCompatActivity {
 
             // Add view to container (existing code, no changes)
             paymentModesContainer.addView(itemView);
-
-            // Fetch transaction details for this payment method (existing code, no changes)
-            fetchPaymentMethodTransactions(sessionId, method.getId());
         }
+
+        // System totals for every mode arrive together
+        fetchReconciliationSummary();
     }
 
     private void validateAndEndSession() {
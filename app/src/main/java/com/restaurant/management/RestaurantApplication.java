@@ -1,39 +1,40 @@
 package com.restaurant.management;
 
-import android.app.AlarmManager;
 import android.app.Application;
-import android.app.PendingIntent;
-import android.content.Context;
-import android.content.Intent;
-import android.content.IntentFilter;
-import android.net.ConnectivityManager;
-import android.os.SystemClock;
 import android.util.Log;
 
 import com.restaurant.management.database.DatabaseManager;
+import com.restaurant.management.database.PoodDatabaseHelper;
 import com.restaurant.management.models.ProductItem;
-import com.restaurant.management.models.Variant;
 import com.restaurant.management.models.MenuCategory;
 import com.restaurant.management.models.Promo;
 import com.restaurant.management.models.OrderType;
 import com.restaurant.management.models.OrderStatus;
+import com.restaurant.management.network.ApiClient;
+import com.restaurant.management.printing.BluetoothPrinterService;
+import com.restaurant.management.repositories.ReferenceDataStore;
+import com.restaurant.management.repositories.SyncStatusStore;
+import com.restaurant.management.utils.AppExecutors;
 import com.restaurant.management.utils.NetworkUtils;
-import com.restaurant.management.services.NetworkChangeReceiver;
-import com.restaurant.management.services.OfflineSyncService;
-import com.restaurant.management.helpers.OrderItemSyncData;
+import com.restaurant.management.utils.PerfTracer;
+import com.restaurant.management.services.SyncScheduler;
+import com.restaurant.management.helpers.JsonStreamParser;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import okhttp3.Call;
 import okhttp3.Callback;
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -42,146 +43,117 @@ public class RestaurantApplication extends Application {
     private static final String TAG = "RestaurantApplication";
     private static final String BASE_API_URL = "https://api.pood.lol/";
 
-    private NetworkChangeReceiver networkChangeReceiver;
-    private static final long SYNC_INTERVAL_MS = 30 * 60 * 1000; // 30 minutes
-
     private DatabaseManager databaseManager;
     private OkHttpClient client;
+    private AppStartup startup;
     private AtomicInteger pendingRequests = new AtomicInteger(0);
 
     @Override
     public void onCreate() {
         super.onCreate();
 
-        databaseManager = DatabaseManager.getInstance(this);
-        client = new OkHttpClient();
-
-        // Register network change receiver
-        registerNetworkChangeReceiver();
+        // Trace spans are recorded from launch on debug builds; release builds never show the panel
+        PerfTracer.setEnabled(BuildConfig.DEBUG);
 
-        // Schedule periodic sync
-        schedulePeriodicSync();
+        startup = new AppStartup(this);
 
-        // Download all data on every app start
-        downloadAllDataOnStart();
+        // Critical path: only what LoginActivity needs to draw, or what must precede any later use
+        startup.runCritical("http_cache", () -> ApiClient.installHttpCache(this));
+        startup.runCritical("database_manager", () -> databaseManager = DatabaseManager.getInstance(this));
 
-        // Start initial sync if network is available
-        if (NetworkUtils.isNetworkAvailable(this)) {
-            startSyncService();
-        }
+        // Everything else waits for the first frame, most urgent first
+        startup.defer("sync_status", AppExecutors.Lane.DATABASE, () -> SyncStatusStore.getInstance(this))
+                .defer("data_download", AppExecutors.Lane.NETWORK, this::downloadAllDataOnStart)
+                .defer("sync_schedule", AppExecutors.Lane.HOUSEKEEPING, () -> {
+                    // One persisted, network-constrained job handles every sync trigger
+                    SyncScheduler.schedulePeriodicSync(this);
+                    // Pick up anything saved offline in an earlier process
+                    SyncScheduler.requestSyncIfPending(this);
+                });
+        startup.start();
 
         Log.d(TAG, "RestaurantApplication initialized with DatabaseManager");
     }
 
-    private void registerNetworkChangeReceiver() {
-        networkChangeReceiver = new NetworkChangeReceiver();
-        IntentFilter filter = new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION);
-        registerReceiver(networkChangeReceiver, filter);
-        Log.d(TAG, "Network change receiver registered");
-    }
-
-    private void schedulePeriodicSync() {
-        try {
-            AlarmManager alarmManager = (AlarmManager) getSystemService(Context.ALARM_SERVICE);
-            Intent intent = new Intent(this, OfflineSyncService.class);
-            PendingIntent pendingIntent = PendingIntent.getService(this, 0, intent,
-                    PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
-
-            // Schedule repeating sync every 30 minutes
-            alarmManager.setInexactRepeating(
-                    AlarmManager.ELAPSED_REALTIME_WAKEUP,
-                    SystemClock.elapsedRealtime() + SYNC_INTERVAL_MS,
-                    SYNC_INTERVAL_MS,
-                    pendingIntent
-            );
-
-            Log.d(TAG, "Periodic sync scheduled");
-        } catch (Exception e) {
-            Log.e(TAG, "Error scheduling periodic sync", e);
-        }
+    /**
+     * Startup stage timings in milliseconds
+     */
+    public Map<String, Long> getStartupTimings() {
+        return startup.getTimings();
     }
 
     /**
-     * Start sync service manually
+     * Request a sync; it runs as soon as the network is available
      */
     public void startSyncService() {
-        try {
-            Intent syncIntent = new Intent(this, OfflineSyncService.class);
-            startService(syncIntent);
-        } catch (Exception e) {
-            Log.e(TAG, "Error starting sync service", e);
-        }
+        SyncScheduler.requestSync(this);
     }
 
     /**
      * Get count of unsynced order items
      */
     public void getUnsyncedItemsCount(UnsyncedCountCallback callback) {
-        new Thread(() -> {
+        AppExecutors.getInstance().execute(AppExecutors.Lane.DATABASE, () -> {
             try {
-                List<OrderItemSyncData> unsyncedItems = databaseManager.getUnsyncedOrderItems();
-                int count = unsyncedItems.size();
+                int count = databaseManager.getUnsyncedOrderItemCount();
                 callback.onResult(count);
                 Log.d(TAG, "Unsynced items count: " + count);
             } catch (Exception e) {
                 Log.e(TAG, "Error getting unsynced items count", e);
                 callback.onResult(0);
             }
-        }).start();
+        });
     }
 
     /**
      * Force sync all unsynced items
      */
     public void forceSyncNow() {
-        if (NetworkUtils.isNetworkAvailable(this)) {
-            Log.d(TAG, "Force sync initiated");
-            startSyncService();
-        } else {
-            Log.w(TAG, "Cannot force sync - no network available");
-        }
+        Log.d(TAG, "Force sync initiated");
+        startSyncService();
     }
 
     /**
      * Check if there are pending offline items
      */
     public void hasPendingOfflineItems(PendingItemsCallback callback) {
-        new Thread(() -> {
+        AppExecutors.getInstance().execute(AppExecutors.Lane.DATABASE, () -> {
             try {
-                List<OrderItemSyncData> unsyncedItems = databaseManager.getUnsyncedOrderItems();
-                boolean hasPending = !unsyncedItems.isEmpty();
+                boolean hasPending = databaseManager.getUnsyncedOrderItemCount() > 0;
                 callback.onResult(hasPending);
                 Log.d(TAG, "Has pending offline items: " + hasPending);
             } catch (Exception e) {
                 Log.e(TAG, "Error checking pending offline items", e);
                 callback.onResult(false);
             }
-        }).start();
+        });
     }
 
     /**
      * Get app database statistics
      */
     public void getDatabaseStats(DatabaseStatsCallback callback) {
-        new Thread(() -> {
+        AppExecutors.getInstance().execute(AppExecutors.Lane.HOUSEKEEPING, () -> {
             try {
+                // Counted in SQL; none of these tables are loaded
+                Map<String, Integer> tableCounts = databaseManager.getAllTableCounts();
                 DatabaseStats stats = new DatabaseStats();
-                stats.menuItemsCount = databaseManager.getAllMenuItems().size();
-                stats.categoriesCount = databaseManager.getAllMenuCategories().size();
-                stats.promosCount = databaseManager.getPromos().size();
-                stats.orderTypesCount = databaseManager.getOrderTypes().size();
-                stats.orderStatusesCount = databaseManager.getOrderStatuses().size();
-                stats.ordersCount = databaseManager.getAllOrdersCount();
-                stats.orderItemsCount = databaseManager.getAllOrderItemsCount();
-                stats.variantsCount = databaseManager.getAllVariantsCount();
-                stats.unsyncedItemsCount = databaseManager.getUnsyncedOrderItems().size();
+                stats.menuItemsCount = tableCounts.getOrDefault("menu_items", 0);
+                stats.categoriesCount = tableCounts.getOrDefault("menu_categories", 0);
+                stats.promosCount = tableCounts.getOrDefault("promos", 0);
+                stats.orderTypesCount = tableCounts.getOrDefault("order_types", 0);
+                stats.orderStatusesCount = tableCounts.getOrDefault("order_statuses", 0);
+                stats.ordersCount = tableCounts.getOrDefault("orders", 0);
+                stats.orderItemsCount = tableCounts.getOrDefault("order_items", 0);
+                stats.variantsCount = tableCounts.getOrDefault("variants", 0);
+                stats.unsyncedItemsCount = databaseManager.getUnsyncedOrderItemCount();
 
                 callback.onResult(stats);
             } catch (Exception e) {
                 Log.e(TAG, "Error getting database stats", e);
                 callback.onResult(new DatabaseStats());
             }
-        }).start();
+        });
     }
 
     // Callback interfaces
@@ -222,19 +194,23 @@ public class RestaurantApplication extends Application {
         }
 
         Log.d(TAG, "Starting download of all data");
+        client = ApiClient.getSharedHttpClient();
         // Download categories, menu items, promos, order types, and order statuses
         pendingRequests.set(5);
-        downloadMenuCategories();
-        downloadMenuItems();
-        downloadPromos();
+        downloadMenuCategories(false);
+        downloadMenuItems(false);
+        downloadPromos(false);
         downloadOrderTypes();
         downloadOrderStatuses();
+
+        // Taxes, discounts, payment modes and rounding are owned by the reference-data store
+        ReferenceDataStore.getInstance(this).refresh();
     }
 
-    private void downloadMenuCategories() {
-        String apiUrl = BASE_API_URL + "menu-categories";
-
-        Request request = new Request.Builder().url(apiUrl).build();
+    private void downloadMenuCategories(boolean forceFullReload) {
+        String tableName = PoodDatabaseHelper.TABLE_CATEGORIES;
+        String watermark = forceFullReload ? null : databaseManager.getSyncWatermark(tableName);
+        Request request = new Request.Builder().url(buildRefreshUrl("menu-categories", watermark)).build();
 
         client.newCall(request).enqueue(new Callback() {
             @Override
@@ -245,6 +221,7 @@ public class RestaurantApplication extends Application {
 
             @Override
             public void onResponse(Call call, Response response) throws IOException {
+                boolean reloading = false;
                 try {
                     String responseBody = response.body().string();
 
@@ -254,24 +231,53 @@ public class RestaurantApplication extends Application {
                     }
 
                     JSONObject jsonResponse = new JSONObject(responseBody);
+                    if (watermark != null && jsonResponse.optBoolean("full_reload", false)) {
+                        Log.d(TAG, "Server requested full reload of categories");
+                        databaseManager.clearSyncWatermark(tableName);
+                        reloading = true;
+                        downloadMenuCategories(true);
+                        return;
+                    }
+
                     List<MenuCategory> categories = parseMenuCategories(jsonResponse);
 
-                    databaseManager.saveMenuCategories(categories);
-                    Log.d(TAG, "Saved " + categories.size() + " menu categories");
+                    String latest = watermark;
+                    for (MenuCategory category : categories) {
+                        latest = laterTimestamp(latest, category.getUpdatedAt());
+                    }
+
+                    boolean written;
+                    if (isDeltaResponse(jsonResponse, watermark)) {
+                        List<Long> deletedIds = parseDeletedIds(jsonResponse);
+                        written = databaseManager.applyMenuCategoryChanges(categories, deletedIds);
+                        Log.d(TAG, "Applied " + categories.size() + " changed and " +
+                                deletedIds.size() + " deleted menu categories");
+                    } else {
+                        written = databaseManager.saveMenuCategories(categories);
+                        Log.d(TAG, "Saved " + categories.size() + " menu categories");
+                    }
+
+                    if (written) {
+                        saveNextWatermark(tableName, jsonResponse, latest);
+                    } else {
+                        Log.w(TAG, "Categories were not written; keeping the previous watermark");
+                    }
 
                 } catch (Exception e) {
                     Log.e(TAG, "Error processing categories download: " + e.getMessage());
                 } finally {
-                    decrementPendingRequests();
+                    if (!reloading) {
+                        decrementPendingRequests();
+                    }
                 }
             }
         });
     }
 
-    private void downloadMenuItems() {
-        String apiUrl = BASE_API_URL + "menu-items";
-
-        Request request = new Request.Builder().url(apiUrl).build();
+    private void downloadMenuItems(boolean forceFullReload) {
+        String tableName = PoodDatabaseHelper.TABLE_MENU_ITEMS;
+        String watermark = forceFullReload ? null : databaseManager.getSyncWatermark(tableName);
+        Request request = new Request.Builder().url(buildRefreshUrl("menu-items", watermark)).build();
 
         client.newCall(request).enqueue(new Callback() {
             @Override
@@ -282,33 +288,68 @@ public class RestaurantApplication extends Application {
 
             @Override
             public void onResponse(Call call, Response response) throws IOException {
+                boolean reloading = false;
                 try {
-                    String responseBody = response.body().string();
-
                     if (!response.isSuccessful()) {
                         Log.e(TAG, "Menu items server error: " + response.code());
                         return;
                     }
 
-                    JSONObject jsonResponse = new JSONObject(responseBody);
-                    List<ProductItem> items = parseMenuItems(jsonResponse);
+                    // Parsed records are staged and only written once the whole envelope has been read
+                    List<ProductItem> received = new ArrayList<>();
+                    String latest = watermark;
+                    JsonStreamParser.Envelope envelope;
+                    try (Reader body = response.body().charStream()) {
+                        envelope = JsonStreamParser.readMenuItems(body, received);
+                    }
+                    for (ProductItem item : received) {
+                        latest = laterTimestamp(latest, item.getUpdatedAt());
+                    }
+                    Collections.sort(received, (item1, item2) -> item1.getName().compareToIgnoreCase(item2.getName()));
+                    if (envelope.skippedCount > 0) {
+                        Log.w(TAG, "Skipped " + envelope.skippedCount + " malformed menu items");
+                    }
+
+                    if (watermark != null && envelope.fullReload) {
+                        Log.d(TAG, "Server requested full reload of menu items");
+                        databaseManager.clearSyncWatermark(tableName);
+                        reloading = true;
+                        downloadMenuItems(true);
+                        return;
+                    }
 
-                    databaseManager.saveMenuItems(items);
-                    Log.d(TAG, "Saved " + items.size() + " menu items");
+                    boolean written;
+                    if (watermark != null && envelope.deletedIds != null) {
+                        written = databaseManager.applyMenuItemChanges(received, envelope.deletedIds);
+                        Log.d(TAG, "Applied " + received.size() + " changed and " +
+                                envelope.deletedIds.size() + " deleted menu items");
+                    } else {
+                        written = databaseManager.saveMenuItems(received);
+                        Log.d(TAG, "Saved " + received.size() + " menu items");
+                    }
+
+                    if (written) {
+                        saveNextWatermark(tableName, envelope.serverTime, latest);
+                    } else {
+                        Log.w(TAG, "Menu items were not written; keeping the previous watermark");
+                    }
 
                 } catch (Exception e) {
                     Log.e(TAG, "Error processing menu items download: " + e.getMessage());
                 } finally {
-                    decrementPendingRequests();
+                    response.close();
+                    if (!reloading) {
+                        decrementPendingRequests();
+                    }
                 }
             }
         });
     }
 
-    private void downloadPromos() {
-        String apiUrl = BASE_API_URL + "promos";
-
-        Request request = new Request.Builder().url(apiUrl).build();
+    private void downloadPromos(boolean forceFullReload) {
+        String tableName = PoodDatabaseHelper.TABLE_PROMOS;
+        String watermark = forceFullReload ? null : databaseManager.getSyncWatermark(tableName);
+        Request request = new Request.Builder().url(buildRefreshUrl("promos", watermark)).build();
 
         client.newCall(request).enqueue(new Callback() {
             @Override
@@ -319,29 +360,125 @@ public class RestaurantApplication extends Application {
 
             @Override
             public void onResponse(Call call, Response response) throws IOException {
+                boolean reloading = false;
                 try {
-                    String responseBody = response.body().string();
-
                     if (!response.isSuccessful()) {
                         Log.e(TAG, "Promos server error: " + response.code());
                         return;
                     }
 
-                    JSONObject jsonResponse = new JSONObject(responseBody);
-                    List<Promo> promos = parsePromos(jsonResponse);
+                    // Only active promos are kept; inactive ones are dropped like tombstones
+                    List<Promo> received = new ArrayList<>();
+                    JsonStreamParser.Envelope envelope;
+                    try (Reader body = response.body().charStream()) {
+                        envelope = JsonStreamParser.readPromos(body, received);
+                    }
+                    List<Promo> activePromos = new ArrayList<>();
+                    List<Long> removedIds = new ArrayList<>();
+                    String latest = watermark;
+                    for (Promo promo : received) {
+                        latest = laterTimestamp(latest, promo.getUpdatedAt());
+                        if (promo.isActive()) {
+                            activePromos.add(promo);
+                        } else {
+                            removedIds.add(promo.getPromoId());
+                        }
+                    }
+                    if (envelope.skippedCount > 0) {
+                        Log.w(TAG, "Skipped " + envelope.skippedCount + " malformed promos");
+                    }
+
+                    if (watermark != null && envelope.fullReload) {
+                        Log.d(TAG, "Server requested full reload of promos");
+                        databaseManager.clearSyncWatermark(tableName);
+                        reloading = true;
+                        downloadPromos(true);
+                        return;
+                    }
+
+                    boolean written;
+                    if (watermark != null && envelope.deletedIds != null) {
+                        removedIds.addAll(envelope.deletedIds);
+                        written = databaseManager.applyPromoChanges(activePromos, removedIds);
+                        Log.d(TAG, "Applied " + activePromos.size() + " changed and " +
+                                removedIds.size() + " removed promos");
+                    } else {
+                        written = databaseManager.savePromos(activePromos);
+                        Log.d(TAG, "Saved " + activePromos.size() + " promos");
+                    }
 
-                    databaseManager.savePromos(promos);
-                    Log.d(TAG, "Saved " + promos.size() + " promos");
+                    if (written) {
+                        saveNextWatermark(tableName, envelope.serverTime, latest);
+                    } else {
+                        Log.w(TAG, "Promos were not written; keeping the previous watermark");
+                    }
 
                 } catch (Exception e) {
                     Log.e(TAG, "Error processing promos download: " + e.getMessage());
                 } finally {
-                    decrementPendingRequests();
+                    response.close();
+                    if (!reloading) {
+                        decrementPendingRequests();
+                    }
                 }
             }
         });
     }
 
+    /**
+     * Builds the refresh URL for a reference-data endpoint, asking only for rows changed
+     * since the stored watermark when one exists.
+     */
+    private String buildRefreshUrl(String endpoint, String watermark) {
+        HttpUrl.Builder urlBuilder = HttpUrl.parse(BASE_API_URL + endpoint).newBuilder();
+        if (watermark != null) {
+            urlBuilder.addQueryParameter("updated_since", watermark);
+        }
+        return urlBuilder.build().toString();
+    }
+
+    // A response is only a delta when the server understood updated_since and reports tombstones;
+    // anything else is a full list and replaces the cached table as before.
+    private boolean isDeltaResponse(JSONObject jsonResponse, String watermark) {
+        return watermark != null && jsonResponse.has("deleted_ids") && !jsonResponse.isNull("deleted_ids");
+    }
+
+    private List<Long> parseDeletedIds(JSONObject jsonResponse) throws JSONException {
+        List<Long> deletedIds = new ArrayList<>();
+        JSONArray idsArray = jsonResponse.optJSONArray("deleted_ids");
+        if (idsArray != null) {
+            for (int i = 0; i < idsArray.length(); i++) {
+                deletedIds.add(idsArray.getLong(i));
+            }
+        }
+        return deletedIds;
+    }
+
+    private void saveNextWatermark(String tableName, JSONObject jsonResponse, String latestUpdatedAt) {
+        saveNextWatermark(tableName, jsonResponse.optString("server_time", ""), latestUpdatedAt);
+    }
+
+    private void saveNextWatermark(String tableName, String serverTime, String latestUpdatedAt) {
+        // Prefer the server clock so rows written while this response was built are not skipped
+        String next = serverTime;
+        if (next == null || next.isEmpty()) {
+            next = latestUpdatedAt;
+        }
+        if (next != null && !next.isEmpty()) {
+            databaseManager.saveSyncWatermark(tableName, next);
+        }
+    }
+
+    private String laterTimestamp(String current, String candidate) {
+        if (candidate == null || candidate.isEmpty()) {
+            return current;
+        }
+        if (current == null || candidate.compareTo(current) > 0) {
+            return candidate;
+        }
+        return current;
+    }
+
     private void downloadOrderTypes() {
         String apiUrl = BASE_API_URL + "order-types";
 
@@ -368,6 +505,7 @@ public class RestaurantApplication extends Application {
                     List<OrderType> orderTypes = parseOrderTypes(jsonResponse);
 
                     databaseManager.saveOrderTypes(orderTypes);
+                    ReferenceDataStore.getInstance(RestaurantApplication.this).publishOrderTypes(orderTypes);
                     Log.d(TAG, "Saved " + orderTypes.size() + " order types");
 
                 } catch (Exception e) {
@@ -411,6 +549,7 @@ public class RestaurantApplication extends Application {
                     }
 
                     databaseManager.saveOrderStatuses(orderStatuses);
+                    ReferenceDataStore.getInstance(RestaurantApplication.this).publishOrderStatuses(orderStatuses);
                     Log.d(TAG, "Saved " + orderStatuses.size() + " order statuses");
 
                 } catch (Exception e) {
@@ -559,146 +698,6 @@ public class RestaurantApplication extends Application {
         return categories;
     }
 
-    private List<ProductItem> parseMenuItems(JSONObject jsonResponse) throws JSONException {
-        List<ProductItem> items = new ArrayList<>();
-
-        if (jsonResponse.has("data") && !jsonResponse.isNull("data")) {
-            JSONArray itemsArray;
-
-            if (jsonResponse.get("data") instanceof JSONArray) {
-                itemsArray = jsonResponse.getJSONArray("data");
-            } else {
-                JSONObject singleItem = jsonResponse.getJSONObject("data");
-                itemsArray = new JSONArray();
-                itemsArray.put(singleItem);
-            }
-
-            for (int i = 0; i < itemsArray.length(); i++) {
-                JSONObject itemJson = itemsArray.getJSONObject(i);
-                ProductItem item = new ProductItem();
-
-                item.setId(itemJson.optLong("id", -1));
-                item.setName(itemJson.optString("name", ""));
-                item.setDescription(itemJson.optString("description", ""));
-                item.setPrice(parsePrice(itemJson.optString("price", "0")));
-
-                if (itemJson.has("category_name") && !itemJson.isNull("category_name")) {
-                    item.setCategory(itemJson.optString("category_name", ""));
-                } else if (itemJson.has("category") && !itemJson.isNull("category")) {
-                    Object categoryObj = itemJson.get("category");
-                    if (categoryObj instanceof JSONObject) {
-                        JSONObject categoryJson = (JSONObject) categoryObj;
-                        if (categoryJson.has("name")) {
-                            item.setCategory(categoryJson.optString("name", ""));
-                        }
-                    } else {
-                        item.setCategory(itemJson.optString("category", ""));
-                    }
-                }
-
-                item.setActive(itemJson.optBoolean("is_active", true));
-                item.setCreatedAt(itemJson.optString("created_at", ""));
-                item.setUpdatedAt(itemJson.optString("updated_at", ""));
-
-                if (itemJson.has("image_url") && !itemJson.isNull("image_url")) {
-                    item.setImageUrl(itemJson.optString("image_url", ""));
-                } else if (itemJson.has("image_path") && !itemJson.isNull("image_path")) {
-                    item.setImageUrl(itemJson.optString("image_path", ""));
-                }
-
-                List<Variant> variants = new ArrayList<>();
-                if (itemJson.has("variants") && !itemJson.isNull("variants")) {
-                    JSONArray variantsArray = itemJson.getJSONArray("variants");
-
-                    for (int j = 0; j < variantsArray.length(); j++) {
-                        JSONObject variantJson = variantsArray.getJSONObject(j);
-                        Variant variant = new Variant();
-                        variant.setId(variantJson.optLong("id", -1));
-                        variant.setName(variantJson.optString("name", ""));
-                        variant.setPrice(parsePrice(variantJson.optString("price", "0")));
-                        variant.setActive(variantJson.optBoolean("is_active", true));
-                        variant.setCreatedAt(variantJson.optString("created_at", ""));
-                        variant.setUpdatedAt(variantJson.optString("updated_at", ""));
-                        variants.add(variant);
-                    }
-                }
-
-                item.setVariants(variants);
-                items.add(item);
-            }
-
-            Collections.sort(items, (item1, item2) ->
-                    item1.getName().compareToIgnoreCase(item2.getName()));
-        }
-
-        return items;
-    }
-
-    private List<Promo> parsePromos(JSONObject jsonResponse) throws JSONException {
-        List<Promo> promos = new ArrayList<>();
-
-        if (jsonResponse.has("data") && !jsonResponse.isNull("data")) {
-            JSONArray promosArray;
-
-            if (jsonResponse.get("data") instanceof JSONArray) {
-                promosArray = jsonResponse.getJSONArray("data");
-            } else {
-                JSONObject singlePromo = jsonResponse.getJSONObject("data");
-                promosArray = new JSONArray();
-                promosArray.put(singlePromo);
-            }
-
-            for (int i = 0; i < promosArray.length(); i++) {
-                JSONObject promoJson = promosArray.getJSONObject(i);
-                Promo promo = new Promo();
-
-                promo.setPromoId(promoJson.optLong("promo_id", -1));
-                promo.setPromoName(promoJson.optString("promo_name", ""));
-                promo.setPromoDescription(promoJson.optString("promo_description", ""));
-                promo.setStartDate(promoJson.optString("start_date", ""));
-                promo.setEndDate(promoJson.optString("end_date", ""));
-                promo.setTermAndCondition(promoJson.optString("term_and_condition", ""));
-                promo.setType(promoJson.optString("type", ""));
-                promo.setDiscountType(promoJson.optString("discount_type", ""));
-                promo.setDiscountAmount(promoJson.optString("discount_amount", ""));
-                promo.setActive(promoJson.optBoolean("is_active", false));
-
-                if (promoJson.has("picture") && !promoJson.isNull("picture")) {
-                    promo.setPicture(promoJson.optString("picture", ""));
-                } else if (promoJson.has("image_url") && !promoJson.isNull("image_url")) {
-                    promo.setPicture(promoJson.optString("image_url", ""));
-                } else if (promoJson.has("image_path") && !promoJson.isNull("image_path")) {
-                    promo.setPicture(promoJson.optString("image_path", ""));
-                }
-
-                if (promoJson.has("promo_items") && !promoJson.isNull("promo_items")) {
-                    JSONArray itemsArray = promoJson.getJSONArray("promo_items");
-                    List<Promo.PromoItem> promoItems = new ArrayList<>();
-
-                    for (int j = 0; j < itemsArray.length(); j++) {
-                        JSONObject itemJson = itemsArray.getJSONObject(j);
-                        Promo.PromoItem item = new Promo.PromoItem(
-                                itemJson.optLong("id", -1),
-                                itemJson.optLong("item_id", -1),
-                                itemJson.optString("item_name", "")
-                        );
-                        promoItems.add(item);
-                    }
-                    promo.setPromoItems(promoItems);
-                }
-
-                if (promo.isActive()) {
-                    promos.add(promo);
-                }
-            }
-
-            Collections.sort(promos, (promo1, promo2) ->
-                    promo1.getPromoName().compareToIgnoreCase(promo2.getPromoName()));
-        }
-
-        return promos;
-    }
-
     private void decrementPendingRequests() {
         int remaining = pendingRequests.decrementAndGet();
         if (remaining == 0) {
@@ -720,14 +719,6 @@ public class RestaurantApplication extends Application {
         });
     }
 
-    private double parsePrice(String priceString) {
-        try {
-            return Double.parseDouble(priceString);
-        } catch (NumberFormatException e) {
-            return 0.0;
-        }
-    }
-
     private String getAuthToken() {
         try {
             return getSharedPreferences("restaurant_prefs", MODE_PRIVATE)
@@ -759,8 +750,9 @@ public class RestaurantApplication extends Application {
     }
 
     // Order management methods
-    public long saveOrderLocally(long sessionId, String tableNumber, String customerName, long orderTypeId) {
-        return databaseManager.saveOrderLocally(sessionId, tableNumber, customerName, orderTypeId);
+    public long saveOrderLocally(long sessionId, String tableNumber, String customerName, long orderTypeId,
+                                 String clientUuid) {
+        return databaseManager.saveOrderLocally(sessionId, tableNumber, customerName, orderTypeId, clientUuid);
     }
 
     public void markOrderAsSynced(long localOrderId, long serverOrderId) {
@@ -780,18 +772,18 @@ public class RestaurantApplication extends Application {
     }
 
     @Override
-    public void onTerminate() {
-        super.onTerminate();
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
 
-        // Unregister network receiver
-        if (networkChangeReceiver != null) {
-            try {
-                unregisterReceiver(networkChangeReceiver);
-                Log.d(TAG, "Network receiver unregistered");
-            } catch (Exception e) {
-                Log.e(TAG, "Error unregistering network receiver", e);
-            }
+        // Once the app is in the background nobody is printing, so release the printer links
+        if (level >= TRIM_MEMORY_BACKGROUND) {
+            BluetoothPrinterService.getInstance().disconnectAll();
         }
+    }
+
+    @Override
+    public void onTerminate() {
+        super.onTerminate();
 
         // Note: No need to close DatabaseManager as it uses singleton pattern
         // and handles its own lifecycle
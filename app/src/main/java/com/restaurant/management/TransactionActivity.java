@@ -3,12 +3,12 @@ package com.restaurant.management;
 import android.Manifest;
 import android.bluetooth.BluetoothAdapter;
 import android.bluetooth.BluetoothDevice;
-import android.bluetooth.BluetoothSocket;
 import android.content.pm.PackageManager;
 import android.os.Build;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
+import android.widget.AbsListView;
 import android.widget.ExpandableListView;
 import android.widget.ProgressBar;
 import android.widget.TextView;
@@ -19,18 +19,21 @@ import android.content.Intent;
 import androidx.appcompat.app.AlertDialog;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
+import com.restaurant.management.printing.BluetoothPrinterService;
 import com.restaurant.management.printing.PrintTemplateManager;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.HashSet;
 import java.util.Set;
-import java.util.UUID;
 
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
 import com.restaurant.management.adapters.TransactionExpandableListAdapter;
+import com.restaurant.management.models.ApiResponse;
 import com.restaurant.management.models.CashierSession;
+import com.restaurant.management.models.Order;
 import com.restaurant.management.models.OrderItem;
 import com.restaurant.management.models.Transaction;
 import com.restaurant.management.models.SessionPaymentsResponse;
@@ -64,17 +67,22 @@ public class TransactionActivity extends AppCompatActivity implements Transactio
     private static final String TAG = "TransactionActivity";
 
     private static final int BLUETOOTH_PERMISSION_REQUEST = 105;
-    private static final UUID PRINTER_UUID = UUID.fromString("00001101-0000-1000-8000-00805F9B34FB");
 
     private PrintTemplateManager templateManager;
     private BluetoothAdapter bluetoothAdapter;
-    private BluetoothSocket bluetoothSocket;
-    private OutputStream outputStream;
     private Transaction pendingPrintTransaction = null;
     private ExpandableListView expandableListView;
     private TransactionExpandableListAdapter listAdapter;
+    private static final int SESSION_PAGE_SIZE = 20;
+    private static final int SESSION_PREFETCH_ROWS = 5;
+
     private List<CashierSession> sessionList;
+    // Only sessions that are expanded (or being expanded) have their payments in memory
     private Map<CashierSession, List<Transaction>> transactionMap;
+    private final Map<CashierSession, Double> sessionTotals = new HashMap<>();
+    private final Set<CashierSession> loadingPayments = new HashSet<>();
+    private boolean loadingSessions;
+    private boolean hasMoreSessions = true;
     private ProgressBar progressBar;
     private TextView emptyView;
 
@@ -116,14 +124,41 @@ public class TransactionActivity extends AppCompatActivity implements Transactio
         // Set up expandable list view click listeners
         expandableListView.setOnGroupClickListener((parent, v, groupPosition, id) -> false);
 
+        expandableListView.setOnGroupExpandListener(this::loadSessionPayments);
+
+        // Collapsing releases the session's payments, so memory tracks what is open rather than history size
+        expandableListView.setOnGroupCollapseListener(groupPosition ->
+                transactionMap.remove(sessionList.get(groupPosition)));
+
         expandableListView.setOnChildClickListener((parent, v, groupPosition, childPosition, id) -> {
-            Transaction transaction = transactionMap.get(sessionList.get(groupPosition)).get(childPosition);
-            showOrderDetails(transaction);
+            Transaction transaction = (Transaction) listAdapter.getChild(groupPosition, childPosition);
+            if (transaction != null) {
+                showOrderDetails(transaction);
+            }
             return true;
         });
+
+        expandableListView.setOnScrollListener(new AbsListView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(AbsListView view, int scrollState) {
+            }
+
+            @Override
+            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+                if (listAdapter != null && totalItemCount > 0
+                        && firstVisibleItem + visibleItemCount >= totalItemCount - SESSION_PREFETCH_ROWS) {
+                    fetchTransactions();
+                }
+            }
+        });
     }
 
     private void showOrderDetails(Transaction transaction) {
+        if (transaction.getOrderItems() == null) {
+            loadOrderItems(transaction);
+            return;
+        }
+
         String message = String.format(Locale.getDefault(),
                 "Order #%d - Table %s - %s",
                 transaction.getOrderId(),
@@ -133,6 +168,30 @@ public class TransactionActivity extends AppCompatActivity implements Transactio
         Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
     }
 
+    // Order items are only fetched when a transaction is opened
+    private void loadOrderItems(Transaction transaction) {
+        apiService.getOrderById(transaction.getOrderId()).enqueue(new Callback<Order>() {
+            @Override
+            public void onResponse(Call<Order> call, Response<Order> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    List<OrderItem> items = response.body().getItems();
+                    transaction.setOrderItems(items != null ? items : new ArrayList<>());
+                    if (listAdapter != null) {
+                        listAdapter.notifyDataSetChanged();
+                    }
+                    showOrderDetails(transaction);
+                } else {
+                    Toast.makeText(TransactionActivity.this, "Error loading order items: " + response.code(), Toast.LENGTH_SHORT).show();
+                }
+            }
+
+            @Override
+            public void onFailure(Call<Order> call, Throwable t) {
+                Toast.makeText(TransactionActivity.this, "Error loading order items: " + t.getMessage(), Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
     @Override
     public void onPrintClick(Transaction transaction) {
         pendingPrintTransaction = transaction;
@@ -254,30 +313,22 @@ public class TransactionActivity extends AppCompatActivity implements Transactio
     }
 
     private void connectAndPrintReceipt(BluetoothDevice device, Transaction transaction) {
-        new Thread(() -> {
-            try {
-                connectToPrinter(device);
-                printTransactionReceipt(transaction);
-                runOnUiThread(() -> {
-                    Toast.makeText(this, "Receipt reprinted successfully", Toast.LENGTH_SHORT).show();
-                });
-            } catch (IOException e) {
-                runOnUiThread(() -> {
-                    Toast.makeText(this, "Failed to reprint receipt: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                });
-            } finally {
-                disconnectPrinter();
-            }
-        }).start();
-    }
+        BluetoothPrinterService.getInstance().submit(device,
+                outputStream -> printTransactionReceipt(outputStream, transaction),
+                new BluetoothPrinterService.PrintCallback() {
+                    @Override
+                    public void onPrinted() {
+                        Toast.makeText(TransactionActivity.this, "Receipt reprinted successfully", Toast.LENGTH_SHORT).show();
+                    }
 
-    private void connectToPrinter(BluetoothDevice device) throws IOException {
-        bluetoothSocket = device.createRfcommSocketToServiceRecord(PRINTER_UUID);
-        bluetoothSocket.connect();
-        outputStream = bluetoothSocket.getOutputStream();
+                    @Override
+                    public void onFailed(String message) {
+                        Toast.makeText(TransactionActivity.this, "Failed to reprint receipt: " + message, Toast.LENGTH_SHORT).show();
+                    }
+                });
     }
 
-    private void printTransactionReceipt(Transaction transaction) throws IOException {
+    private void printTransactionReceipt(OutputStream outputStream, Transaction transaction) throws IOException {
         // Use the template manager to print receipt
         // We'll use default tax and service rates, or you could fetch them from API
         double taxRate = 0.10; // 10% default
@@ -308,21 +359,6 @@ public class TransactionActivity extends AppCompatActivity implements Transactio
         );
     }
 
-    private void disconnectPrinter() {
-        try {
-            if (outputStream != null) {
-                outputStream.close();
-                outputStream = null;
-            }
-            if (bluetoothSocket != null) {
-                bluetoothSocket.close();
-                bluetoothSocket = null;
-            }
-        } catch (IOException e) {
-            // Silent cleanup
-        }
-    }
-
     @Override
     public void onRequestPermissionsResult(int requestCode, String[] permissions, int[] grantResults) {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
@@ -349,20 +385,32 @@ public class TransactionActivity extends AppCompatActivity implements Transactio
         }
     }
 
+    // Loads the next page of session headers; payments stay on the server until a group is expanded
     private void fetchTransactions() {
-        showLoading(true);
+        if (loadingSessions || !hasMoreSessions) {
+            return;
+        }
+        loadingSessions = true;
+        boolean firstPage = sessionList.isEmpty();
+        if (firstPage) {
+            showLoading(true);
+        }
 
-        // Use ApiService to make the call to get session payments
-        apiService.getSessionPayments().enqueue(new Callback<SessionPaymentsResponse>() {
+        apiService.getSessionPaymentHeaders(SESSION_PAGE_SIZE, sessionList.size()).enqueue(new Callback<SessionPaymentsResponse>() {
             @Override
             public void onResponse(Call<SessionPaymentsResponse> call, Response<SessionPaymentsResponse> response) {
+                loadingSessions = false;
                 if (response.isSuccessful() && response.body() != null) {
                     SessionPaymentsResponse data = response.body();
                     if ("success".equals(data.getStatus())) {
-                        parseSessionsAndTransactions(data);
-                        setupExpandableListView();
+                        addSessionHeaders(data.getData());
+                        if (firstPage) {
+                            setupExpandableListView();
+                        } else {
+                            listAdapter.notifyDataSetChanged();
+                        }
                     } else {
-                        handleError("API returned non-success status: " + data.getMessage()); // Log API message
+                        reportSessionsError(firstPage, "API returned non-success status: " + data.getMessage()); // Log API message
                     }
                 } else {
                     // Log HTTP error details
@@ -374,7 +422,7 @@ public class TransactionActivity extends AppCompatActivity implements Transactio
                     } catch (IOException e) {
                         Log.e(TAG, "Error reading error body", e);
                     }
-                    handleError("HTTP error: " + response.code() + " " + response.message() + " - " + errorBody);
+                    reportSessionsError(firstPage, "HTTP error: " + response.code() + " " + response.message() + " - " + errorBody);
                     // Handle 401 Unauthorized specifically
                     if (response.code() == 401) {
                         Toast.makeText(TransactionActivity.this, getString(R.string.session_expired_relogin), Toast.LENGTH_LONG).show();
@@ -389,132 +437,160 @@ public class TransactionActivity extends AppCompatActivity implements Transactio
                         finish();
                     }
                 }
-                showLoading(false);
+                if (firstPage) {
+                    showLoading(false);
+                }
             }
 
             @Override
             public void onFailure(Call<SessionPaymentsResponse> call, Throwable t) {
-                handleError("Network error: " + t.getMessage());
-                showLoading(false);
+                loadingSessions = false;
+                reportSessionsError(firstPage, "Network error: " + t.getMessage());
+                if (firstPage) {
+                    showLoading(false);
+                }
             }
         });
     }
 
-    private void parseSessionsAndTransactions(SessionPaymentsResponse response) {
-        List<SessionWithPayments> sessionsData = response.getData();
+    // A failed first page replaces the screen; a failed later page keeps what is already listed
+    private void reportSessionsError(boolean firstPage, String message) {
+        if (firstPage) {
+            handleError(message);
+        } else {
+            Toast.makeText(this, "Error loading more sessions: " + message, Toast.LENGTH_SHORT).show();
+        }
+    }
 
-        if (sessionsData == null || sessionsData.isEmpty()) {
-            showEmptyView(true);
+    private void addSessionHeaders(List<SessionWithPayments> sessionsData) {
+        if (sessionsData == null || sessionsData.size() < SESSION_PAGE_SIZE) {
+            hasMoreSessions = false;
+        }
+        if (sessionsData == null) {
             return;
         }
 
-        // Clear existing data
-        sessionList.clear();
-        transactionMap.clear();
-
-        // Use the Gson converter in ApiClient; manual SimpleDateFormat parsing
-        // for model fields should ideally be avoided if models are correctly mapped to Date.
-        // If SessionWithPayments.getCashierSessionOpenedAt() returns a Date, use it directly.
-        // If PaymentData.getPaymentDate() returns a Date, use it directly.
-        // Assuming your models (SessionWithPayments, PaymentData) are updated to use java.util.Date.
-
         for (SessionWithPayments sessionData : sessionsData) {
-            // Get ID and OpenedAt directly from SessionWithPayments if they are Date/Long
-            Long sessionId = (long) sessionData.getCashierSessionId(); // Ensure this returns Long
-            Date sessionOpenedAt = sessionData.getCashierSessionOpenedAt(); // Ensure this returns Date
-
             CashierSession session = new CashierSession();
-            session.setSessionId(sessionId); // Use setSessionId (expects Long)
-            session.setOpenedAt(sessionOpenedAt); // Use setOpenedAt (expects Date)
-
-            // As per CashierSession model, if you want to set the userId, you'd get it from sessionData if available
-            // session.setUserId(sessionData.getUserId()); // Add this if SessionWithPayments has getUserId()
-
-
+            session.setSessionId((long) sessionData.getCashierSessionId());
+            session.setOpenedAt(sessionData.getCashierSessionOpenedAt());
             sessionList.add(session);
 
-            // Parse payments for this session
-            List<PaymentData> payments = sessionData.getPayments();
-            List<Transaction> transactions = new ArrayList<>();
-
-            if (payments != null) {
-                // If payment.getPaymentDate() returns Date, this manual parsing is not needed.
-                SimpleDateFormat paymentDateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSSSS", Locale.US);
-                paymentDateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+            if (sessionData.getTotalAmount() != null) {
+                sessionTotals.put(session, sessionData.getTotalAmount());
+            }
+        }
+    }
 
-                for (PaymentData payment : payments) {
-                    int paymentId = payment.getPaymentId();
-                    int orderId = payment.getOrderId();
-                    String tableNumber = payment.getOrderTableNumber();
-                    double amount = payment.getPaymentAmount();
-                    // int paymentMode = payment.getPaymentMode(); // Not directly used in Transaction constructor
-                    String paymentModeText = payment.getPaymentModeName();
+    private void loadSessionPayments(int groupPosition) {
+        CashierSession session = sessionList.get(groupPosition);
+        if (transactionMap.containsKey(session) || loadingPayments.contains(session)) {
+            return;
+        }
+        loadingPayments.add(session);
 
-                    Date paymentDate = null; // Initialize to null
-                    try {
-                        String dateStr = payment.getPaymentDate(); // This returns a String
-                        if (dateStr != null && !dateStr.isEmpty()) {
-                            paymentDate = paymentDateFormat.parse(dateStr); // <--- PARSE THE STRING TO DATE
-                        }
-                    } catch (ParseException e) {
-                        // Handle parsing error, e.g., log it and use current date or null
-                        Log.e(TAG, "Error parsing payment date: " + payment.getPaymentDate(), e);
-                        paymentDate = new Date(); // Fallback to current date or handle as error
+        apiService.getPaymentsForSession(session.getSessionId(), false).enqueue(new Callback<ApiResponse<List<PaymentData>>>() {
+            @Override
+            public void onResponse(Call<ApiResponse<List<PaymentData>>> call, Response<ApiResponse<List<PaymentData>>> response) {
+                loadingPayments.remove(session);
+                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
+                    // The group may have been collapsed while the request was in flight
+                    int position = sessionList.indexOf(session);
+                    if (position >= 0 && expandableListView.isGroupExpanded(position)) {
+                        transactionMap.put(session, toTransactions(response.body().getData()));
+                        listAdapter.notifyDataSetChanged();
                     }
+                } else {
+                    onSessionPaymentsFailed(session, "HTTP error: " + response.code());
+                }
+            }
 
-                    // Parse order items
-                    List<PaymentData.OrderItemData> itemsData = payment.getOrderItems();
-                    List<OrderItem> orderItems = new ArrayList<>();
+            @Override
+            public void onFailure(Call<ApiResponse<List<PaymentData>>> call, Throwable t) {
+                loadingPayments.remove(session);
+                onSessionPaymentsFailed(session, "Network error: " + t.getMessage());
+            }
+        });
+    }
 
-                    if (itemsData != null) {
-                        for (PaymentData.OrderItemData itemData : itemsData) {
-                            OrderItem orderItem = new OrderItem();
+    private void onSessionPaymentsFailed(CashierSession session, String message) {
+        Log.e(TAG, "Failed to load payments for session " + session.getSessionId() + ": " + message);
+        Toast.makeText(this, "Error loading payments: " + message, Toast.LENGTH_SHORT).show();
+        int groupPosition = sessionList.indexOf(session);
+        if (groupPosition >= 0) {
+            expandableListView.collapseGroup(groupPosition);
+        }
+    }
 
-                            orderItem.setId(itemData.getItemId());
-                            orderItem.setMenuItemId(itemData.getMenuItemId());
-                            orderItem.setQuantity(itemData.getQuantity());
-                            orderItem.setUnitPrice(itemData.getUnitPrice());
-                            orderItem.setTotalPrice(itemData.getTotalPrice());
+    private List<Transaction> toTransactions(List<PaymentData> payments) {
+        List<Transaction> transactions = new ArrayList<>();
+        if (payments == null) {
+            return transactions;
+        }
 
-                            if (itemData.getMenuItemName() != null) {
-                                orderItem.setMenuItemName(itemData.getMenuItemName());
-                            } else {
-                                orderItem.setMenuItemName("Item #" + itemData.getMenuItemId());
-                            }
+        SimpleDateFormat paymentDateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSSSS", Locale.US);
+        paymentDateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
 
-                            if (itemData.getNotes() != null) {
-                                orderItem.setNotes(itemData.getNotes());
-                            }
+        for (PaymentData payment : payments) {
+            Date paymentDate = null;
+            try {
+                String dateStr = payment.getPaymentDate();
+                if (dateStr != null && !dateStr.isEmpty()) {
+                    paymentDate = paymentDateFormat.parse(dateStr);
+                }
+            } catch (ParseException e) {
+                Log.e(TAG, "Error parsing payment date: " + payment.getPaymentDate(), e);
+                paymentDate = new Date(); // Fallback to current date
+            }
 
-                            orderItem.setOrderId(orderId);
+            // Items are left null until the transaction is opened, unless the server sent them anyway
+            List<OrderItem> orderItems = payment.getOrderItems() != null
+                    ? toOrderItems(payment.getOrderItems(), payment.getOrderId()) : null;
+
+            transactions.add(new Transaction(
+                    payment.getPaymentId(),
+                    payment.getOrderId(),
+                    payment.getOrderTableNumber(),
+                    payment.getPaymentAmount(),
+                    payment.getPaymentModeName(),
+                    paymentDate,
+                    orderItems,
+                    payment.getCustomerName()
+            ));
+        }
+        return transactions;
+    }
 
-                            if (itemData.getVariantId() != null) {
-                                orderItem.setVariantId(itemData.getVariantId());
-                            }
+    private List<OrderItem> toOrderItems(List<PaymentData.OrderItemData> itemsData, int orderId) {
+        List<OrderItem> orderItems = new ArrayList<>();
+        for (PaymentData.OrderItemData itemData : itemsData) {
+            OrderItem orderItem = new OrderItem();
 
-                            orderItems.add(orderItem);
-                        }
-                    }
+            orderItem.setId(itemData.getItemId());
+            orderItem.setMenuItemId(itemData.getMenuItemId());
+            orderItem.setQuantity(itemData.getQuantity());
+            orderItem.setUnitPrice(itemData.getUnitPrice());
+            orderItem.setTotalPrice(itemData.getTotalPrice());
 
-                    String customerName = payment.getCustomerName();
+            if (itemData.getMenuItemName() != null) {
+                orderItem.setMenuItemName(itemData.getMenuItemName());
+            } else {
+                orderItem.setMenuItemName("Item #" + itemData.getMenuItemId());
+            }
 
-                    Transaction transaction = new Transaction(
-                            paymentId,
-                            orderId,
-                            tableNumber,
-                            amount,
-                            paymentModeText,
-                            paymentDate,
-                            orderItems,
-                            customerName
-                    );
+            if (itemData.getNotes() != null) {
+                orderItem.setNotes(itemData.getNotes());
+            }
 
-                    transactions.add(transaction);
-                }
+            orderItem.setOrderId(orderId);
+
+            if (itemData.getVariantId() != null) {
+                orderItem.setVariantId(itemData.getVariantId());
             }
 
-            transactionMap.put(session, transactions);
+            orderItems.add(orderItem);
         }
+        return orderItems;
     }
 
     private void setupExpandableListView() {
@@ -527,12 +603,11 @@ public class TransactionActivity extends AppCompatActivity implements Transactio
 
         // Updated constructor call - pass 'this' as the print click listener
         listAdapter = new TransactionExpandableListAdapter(this, sessionList, transactionMap, this);
+        listAdapter.setSessionTotals(sessionTotals);
         expandableListView.setAdapter(listAdapter);
 
-        // Expand all groups initially
-        for (int i = 0; i < listAdapter.getGroupCount(); i++) {
-            expandableListView.expandGroup(i);
-        }
+        // Open the most recent session; older ones load their payments when expanded
+        expandableListView.expandGroup(0);
     }
 
     private void showLoading(boolean show) {
@@ -571,10 +646,4 @@ public class TransactionActivity extends AppCompatActivity implements Transactio
         onBackPressed();
         return true;
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        disconnectPrinter();
-    }
 }
\ No newline at end of file
@@ -10,6 +10,8 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
@@ -19,16 +21,21 @@ import com.restaurant.management.models.OrderItem;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 import java.util.TimeZone;
 
-public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHolder> {
+public class OrderAdapter extends ListAdapter<Order, OrderAdapter.OrderViewHolder> {
     private static final String TAG = "OrderAdapter";
-    private List<Order> orders;
+    private static final int MAX_POOLED_ITEM_VIEWS = 40;
+
     private OnOrderClickListener listener;
     private Context context;
+    // Item rows are recycled across every order card instead of each card inflating its own
+    private final RecyclerView.RecycledViewPool itemViewPool = new RecyclerView.RecycledViewPool();
     private SimpleDateFormat apiDateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
     private SimpleDateFormat displayDateFormat = new SimpleDateFormat("MMM dd, yyyy HH:mm", Locale.US);
 
@@ -36,10 +43,33 @@ public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHol
         void onOrderClick(Order order);
     }
 
+    // Rows are matched by order id; only orders whose visible fields changed are rebound
+    private static final DiffUtil.ItemCallback<Order> DIFF_CALLBACK = new DiffUtil.ItemCallback<Order>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Order oldItem, @NonNull Order newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Order oldItem, @NonNull Order newItem) {
+            return Double.compare(oldItem.getTotalAmount(), newItem.getTotalAmount()) == 0
+                    && Objects.equals(oldItem.getStatus(), newItem.getStatus())
+                    && Objects.equals(oldItem.getOrderNumber(), newItem.getOrderNumber())
+                    && Objects.equals(oldItem.getTableNumber(), newItem.getTableNumber())
+                    && Objects.equals(oldItem.getCustomerName(), newItem.getCustomerName())
+                    && Objects.equals(oldItem.getOrderTypeName(), newItem.getOrderTypeName())
+                    && Objects.equals(oldItem.getCreatedAt(), newItem.getCreatedAt())
+                    && sameItems(oldItem.getItems(), newItem.getItems());
+        }
+    };
+
     public OrderAdapter(List<Order> orders, OnOrderClickListener listener, Context context) {
-        this.orders = orders;
+        super(DIFF_CALLBACK);
         this.listener = listener;
         this.context = context;
+        setHasStableIds(true);
+        itemViewPool.setMaxRecycledViews(0, MAX_POOLED_ITEM_VIEWS);
+        submitList(orders != null ? new ArrayList<>(orders) : null);
 
         // Set timezone for parsing API dates (UTC)
         apiDateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
@@ -95,7 +125,7 @@ public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHol
 
     @Override
     public void onBindViewHolder(@NonNull OrderViewHolder holder, int position) {
-        Order order = orders.get(position);
+        Order order = getItem(position);
         holder.bind(order);
 
         // Set up the nested RecyclerView for order items
@@ -104,42 +134,61 @@ public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHol
             holder.orderItemsRecyclerView.setVisibility(View.VISIBLE);
 
             // Set order status
-            TextView orderStatusTextView = holder.itemView.findViewById(R.id.order_status_text_view);
             String status = order.getStatus();
-            if (status != null && !status.isEmpty()) {
-                orderStatusTextView.setText(status.toUpperCase());
-                orderStatusTextView.setVisibility(View.VISIBLE);
-
-                // Set background color based on status
-                setStatusBackground(orderStatusTextView, status.toLowerCase());
-            } else {
-                orderStatusTextView.setVisibility(View.GONE);
-            }
+            if (holder.orderStatusTextView != null) {
+                if (status != null && !status.isEmpty()) {
+                    holder.orderStatusTextView.setText(status.toUpperCase());
+                    holder.orderStatusTextView.setVisibility(View.VISIBLE);
 
-            // Configure the RecyclerView
-            LinearLayoutManager layoutManager = new LinearLayoutManager(context);
-            holder.orderItemsRecyclerView.setLayoutManager(layoutManager);
+                    // Set background color based on status
+                    setStatusBackground(holder.orderStatusTextView, status.toLowerCase());
+                } else {
+                    holder.orderStatusTextView.setVisibility(View.GONE);
+                }
+            }
 
-            // Create and set the adapter
-            OrderItemCompactAdapter itemsAdapter = new OrderItemCompactAdapter(orderItems, context);
-            holder.orderItemsRecyclerView.setAdapter(itemsAdapter);
+            holder.itemsAdapter.setItems(orderItems);
         } else if (holder.orderItemsRecyclerView != null) {
             holder.orderItemsRecyclerView.setVisibility(View.GONE);
         }
     }
 
     @Override
-    public int getItemCount() {
-        return orders.size();
+    public long getItemId(int position) {
+        return getItem(position).getId();
     }
 
+    /** Diffs the new orders against the shown ones off the main thread and rebinds only what changed. */
     public void updateOrders(List<Order> newOrders) {
-        this.orders = newOrders;
-        notifyDataSetChanged();
+        // The differ skips a list it has already seen, so always hand it a fresh copy
+        submitList(newOrders != null ? new ArrayList<>(newOrders) : null);
+    }
+
+    private static boolean sameItems(List<OrderItem> oldItems, List<OrderItem> newItems) {
+        if (oldItems == newItems) {
+            return true;
+        }
+        if (oldItems == null || newItems == null || oldItems.size() != newItems.size()) {
+            return false;
+        }
+        for (int i = 0; i < oldItems.size(); i++) {
+            OrderItem oldItem = oldItems.get(i);
+            OrderItem newItem = newItems.get(i);
+            if (oldItem.getId() != newItem.getId()
+                    || oldItem.getQuantity() != newItem.getQuantity()
+                    || Double.compare(oldItem.getTotalPrice(), newItem.getTotalPrice()) != 0
+                    || !Objects.equals(oldItem.getStatus(), newItem.getStatus())
+                    || !Objects.equals(oldItem.getNotes(), newItem.getNotes())
+                    || !Objects.equals(oldItem.getDisplayName(), newItem.getDisplayName())) {
+                return false;
+            }
+        }
+        return true;
     }
 
     class OrderViewHolder extends RecyclerView.ViewHolder {
         private RecyclerView orderItemsRecyclerView;
+        private final OrderItemCompactAdapter itemsAdapter;
         private CardView cardView;
         private TextView orderNumberTextView;
         private TextView tableNumberTextView;
@@ -163,11 +212,21 @@ public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHol
             orderTypeTextView = itemView.findViewById(R.id.order_type_text_view);
             orderItemsRecyclerView = itemView.findViewById(R.id.order_items_recycler_view);
 
+            // The nested list is wired once per card; binds only swap in the order's items
+            itemsAdapter = new OrderItemCompactAdapter(new ArrayList<>(), context);
+            if (orderItemsRecyclerView != null) {
+                LinearLayoutManager layoutManager = new LinearLayoutManager(context);
+                layoutManager.setRecycleChildrenOnDetach(true);
+                orderItemsRecyclerView.setLayoutManager(layoutManager);
+                orderItemsRecyclerView.setRecycledViewPool(itemViewPool);
+                orderItemsRecyclerView.setAdapter(itemsAdapter);
+            }
+
             if (cardView != null) {
                 cardView.setOnClickListener(v -> {
                     int position = getAdapterPosition();
                     if (position != RecyclerView.NO_POSITION && listener != null) {
-                        listener.onOrderClick(orders.get(position));
+                        listener.onOrderClick(getItem(position));
                     }
                 });
             }
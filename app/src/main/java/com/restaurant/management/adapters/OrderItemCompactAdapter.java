@@ -14,6 +14,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.restaurant.management.R;
 import com.restaurant.management.models.OrderItem;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class OrderItemCompactAdapter extends RecyclerView.Adapter<OrderItemCompactAdapter.ViewHolder> {
@@ -45,6 +46,12 @@ public class OrderItemCompactAdapter extends RecyclerView.Adapter<OrderItemCompa
         return orderItems.size();
     }
 
+    /** Rebinds this (reused) adapter to another order's items. */
+    public void setItems(List<OrderItem> items) {
+        this.orderItems = items != null ? items : new ArrayList<>();
+        notifyDataSetChanged();
+    }
+
     class ViewHolder extends RecyclerView.ViewHolder {
         private TextView itemNameTextView;
         private TextView quantityTextView;
@@ -8,18 +8,40 @@ import android.widget.TextView;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.restaurant.management.R;
 import com.restaurant.management.models.Product;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class ProductAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
     private static final int TYPE_HEADER = 0;
     private static final int TYPE_ITEM = 1;
+    // Headers take ids from the bottom of the long range, which server item ids never reach
+    private static final long HEADER_ID_BASE = Long.MIN_VALUE;
 
-    private List<Product> productList;
+    private static final DiffUtil.ItemCallback<Product> DIFF_CALLBACK = new DiffUtil.ItemCallback<Product>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && Objects.equals(oldItem.getCategoryName(), newItem.getCategoryName())
+                    && Objects.equals(oldItem.getPrice(), newItem.getPrice());
+        }
+    };
+
+    private final AsyncListDiffer<Product> differ;
     private Context context;
     private OnProductClickListener listener;
 
@@ -29,8 +51,14 @@ public class ProductAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
 
     public ProductAdapter(Context context, List<Product> productList, OnProductClickListener listener) {
         this.context = context;
-        this.productList = productList;
         this.listener = listener;
+        // The header sits at position 0, so diff results are shifted down one row
+        this.differ = new AsyncListDiffer<>(new HeaderOffsetCallback(this),
+                new AsyncDifferConfig.Builder<>(DIFF_CALLBACK).build());
+        setHasStableIds(true);
+        if (productList != null) {
+            differ.submitList(new ArrayList<>(productList));
+        }
         Log.d("ProductAdapter", "Adapter created with " + (productList != null ? productList.size() : 0) + " items");
     }
 
@@ -56,7 +84,7 @@ public class ProductAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
         } else if (holder instanceof ProductViewHolder) {
             // Adjust position to account for header
             int productPosition = position - 1;
-            Product product = productList.get(productPosition);
+            Product product = differ.getCurrentList().get(productPosition);
 
             Log.d("ProductAdapter", "Binding product at position " + productPosition + ": " + product.getName());
 
@@ -89,9 +117,16 @@ public class ProductAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
     @Override
     public int getItemCount() {
         // Add 1 for the header
-        int count = (productList != null ? productList.size() : 0) + 1;
-        Log.d("ProductAdapter", "getItemCount: " + count);
-        return count;
+        return differ.getCurrentList().size() + 1;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position == 0 ? headerId(0) : differ.getCurrentList().get(position - 1).getId();
+    }
+
+    private static long headerId(int headerIndex) {
+        return HEADER_ID_BASE + headerIndex;
     }
 
     @Override
@@ -99,11 +134,37 @@ public class ProductAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
         return position == 0 ? TYPE_HEADER : TYPE_ITEM;
     }
 
+    /** Diffs against the shown products on a background thread; only changed rows are rebound. */
     public void updateList(List<Product> newList) {
-        this.productList.clear();
-        this.productList.addAll(newList);
-        notifyDataSetChanged();
-        //Log.d("ProductAdapter", "notifyDataSetChanged called");
+        differ.submitList(newList != null ? new ArrayList<>(newList) : null);
+    }
+
+    private static class HeaderOffsetCallback implements ListUpdateCallback {
+        private final RecyclerView.Adapter<?> adapter;
+
+        HeaderOffsetCallback(RecyclerView.Adapter<?> adapter) {
+            this.adapter = adapter;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            adapter.notifyItemRangeInserted(position + 1, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            adapter.notifyItemRangeRemoved(position + 1, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            adapter.notifyItemMoved(fromPosition + 1, toPosition + 1);
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            adapter.notifyItemRangeChanged(position + 1, count, payload);
+        }
     }
 
     // Header ViewHolder
@@ -6,26 +6,49 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.restaurant.management.R;
 import com.restaurant.management.models.ProductItem;
 import com.restaurant.management.utils.PriceFormatter;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-public class ProductItemAdapter extends RecyclerView.Adapter<ProductItemAdapter.ViewHolder> {
+public class ProductItemAdapter extends ListAdapter<ProductItem, ProductItemAdapter.ViewHolder> {
 
-    private List<ProductItem> menuItems;
     private OnItemClickListener listener;
 
     public interface OnItemClickListener {
         void onItemClick(ProductItem menuItem);
     }
 
+    private static final DiffUtil.ItemCallback<ProductItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<ProductItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ProductItem oldItem, @NonNull ProductItem newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ProductItem oldItem, @NonNull ProductItem newItem) {
+            return Double.compare(oldItem.getPrice(), newItem.getPrice()) == 0
+                    && Objects.equals(oldItem.getName(), newItem.getName());
+        }
+    };
+
     public ProductItemAdapter(List<ProductItem> menuItems, OnItemClickListener listener) {
-        this.menuItems = menuItems;
+        super(DIFF_CALLBACK);
         this.listener = listener;
+        setHasStableIds(true);
+        updateItems(menuItems);
+    }
+
+    /** Diffs against the shown items on a background thread; only changed rows are rebound. */
+    public void updateItems(List<ProductItem> newItems) {
+        submitList(newItems != null ? new ArrayList<>(newItems) : null);
     }
 
     @NonNull
@@ -38,13 +61,13 @@ public class ProductItemAdapter extends RecyclerView.Adapter<ProductItemAdapter.
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        ProductItem menuItem = menuItems.get(position);
+        ProductItem menuItem = getItem(position);
         holder.bind(menuItem, listener);
     }
 
     @Override
-    public int getItemCount() {
-        return menuItems.size();
+    public long getItemId(int position) {
+        return getItem(position).getId();
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
@@ -9,6 +9,8 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
@@ -18,23 +20,47 @@ import com.restaurant.management.models.Promo;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
-public class PromoAdapter extends RecyclerView.Adapter<PromoAdapter.PromoViewHolder> {
+public class PromoAdapter extends ListAdapter<Promo, PromoAdapter.PromoViewHolder> {
 
     private final Context context;
-    private final List<Promo> promos;
     private OnPromoClickListener listener;
 
     public interface OnPromoClickListener {
         void onPromoClick(Promo promo);
     }
 
+    // Cards are matched by promo id; only cards whose displayed fields changed are rebound
+    private static final DiffUtil.ItemCallback<Promo> DIFF_CALLBACK = new DiffUtil.ItemCallback<Promo>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Promo oldItem, @NonNull Promo newItem) {
+            return oldItem.getPromoId() == newItem.getPromoId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Promo oldItem, @NonNull Promo newItem) {
+            return oldItem.isActive() == newItem.isActive()
+                    && Objects.equals(oldItem.getUpdatedAt(), newItem.getUpdatedAt())
+                    && Objects.equals(oldItem.getPromoDescription(), newItem.getPromoDescription())
+                    && Objects.equals(oldItem.getDisplayName(), newItem.getDisplayName())
+                    && Objects.equals(oldItem.getFormattedDiscount(), newItem.getFormattedDiscount())
+                    && Objects.equals(oldItem.getStartDate(), newItem.getStartDate())
+                    && Objects.equals(oldItem.getEndDate(), newItem.getEndDate())
+                    && Objects.equals(oldItem.getType(), newItem.getType())
+                    && Objects.equals(oldItem.getPicture(), newItem.getPicture());
+        }
+    };
+
     public PromoAdapter(Context context, List<Promo> promos) {
+        super(DIFF_CALLBACK);
         this.context = context;
-        this.promos = promos;
+        setHasStableIds(true);
+        updatePromos(promos);
     }
 
     public void setOnPromoClickListener(OnPromoClickListener listener) {
@@ -50,19 +76,17 @@ public class PromoAdapter extends RecyclerView.Adapter<PromoAdapter.PromoViewHol
 
     @Override
     public void onBindViewHolder(@NonNull PromoViewHolder holder, int position) {
-        Promo promo = promos.get(position);
+        Promo promo = getItem(position);
         holder.bind(promo);
     }
 
     @Override
-    public int getItemCount() {
-        return promos.size();
+    public long getItemId(int position) {
+        return getItem(position).getPromoId();
     }
 
     public void updatePromos(List<Promo> newPromos) {
-        this.promos.clear();
-        this.promos.addAll(newPromos);
-        notifyDataSetChanged();
+        submitList(newPromos != null ? new ArrayList<>(newPromos) : null);
     }
 
     class PromoViewHolder extends RecyclerView.ViewHolder {
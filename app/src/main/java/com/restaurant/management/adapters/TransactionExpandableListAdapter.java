@@ -15,6 +15,7 @@ import com.restaurant.management.models.Transaction;
 import com.restaurant.management.models.OrderItem;
 
 import java.text.SimpleDateFormat;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -28,6 +29,11 @@ public class TransactionExpandableListAdapter extends BaseExpandableListAdapter
     private SimpleDateFormat timeFormat;
     private SimpleDateFormat timeOnlyFormat; // Add a new format for time only
     private OnPrintClickListener printClickListener;
+    // Server-side totals for sessions whose payments have not been loaded
+    private Map<CashierSession, Double> sessionTotals = new HashMap<>();
+
+    private static final int CHILD_TYPE_TRANSACTION = 0;
+    private static final int CHILD_TYPE_LOADING = 1;
 
     // Interface for print button clicks
     public interface OnPrintClickListener {
@@ -60,9 +66,29 @@ public class TransactionExpandableListAdapter extends BaseExpandableListAdapter
         return sessionList.size();
     }
 
+    public void setSessionTotals(Map<CashierSession, Double> sessionTotals) {
+        this.sessionTotals = sessionTotals;
+    }
+
+    /** Payments are fetched when a group is expanded; until then the group shows one loading row. */
+    public boolean isLoaded(int groupPosition) {
+        return transactionMap.get(sessionList.get(groupPosition)) != null;
+    }
+
     @Override
     public int getChildrenCount(int groupPosition) {
-        return transactionMap.get(sessionList.get(groupPosition)).size();
+        List<Transaction> transactions = transactionMap.get(sessionList.get(groupPosition));
+        return transactions != null ? transactions.size() : 1;
+    }
+
+    @Override
+    public int getChildTypeCount() {
+        return 2;
+    }
+
+    @Override
+    public int getChildType(int groupPosition, int childPosition) {
+        return isLoaded(groupPosition) ? CHILD_TYPE_TRANSACTION : CHILD_TYPE_LOADING;
     }
 
     @Override
@@ -72,7 +98,8 @@ public class TransactionExpandableListAdapter extends BaseExpandableListAdapter
 
     @Override
     public Object getChild(int groupPosition, int childPosition) {
-        return transactionMap.get(sessionList.get(groupPosition)).get(childPosition);
+        List<Transaction> transactions = transactionMap.get(sessionList.get(groupPosition));
+        return transactions != null ? transactions.get(childPosition) : null;
     }
 
     @Override
@@ -104,13 +131,16 @@ public class TransactionExpandableListAdapter extends BaseExpandableListAdapter
         TextView startTimeTextView = convertView.findViewById(R.id.start_time_text_view); // This ID is now present in XML
         TextView totalTextView = convertView.findViewById(R.id.total_text_view);
 
-        // Get total transactions amount for this session
+        // Get total transactions amount for this session, from the header until its payments are loaded
         List<Transaction> transactions = transactionMap.get(session);
+        Double headerTotal = sessionTotals.get(session);
         double totalAmount = 0;
         if (transactions != null) { // Add null check for transactions list
             for (Transaction transaction : transactions) {
                 totalAmount += transaction.getAmount();
             }
+        } else if (headerTotal != null) {
+            totalAmount = headerTotal;
         }
 
 
@@ -123,13 +153,22 @@ public class TransactionExpandableListAdapter extends BaseExpandableListAdapter
                 timeFormat.format(session.getOpenedAt()) : "N/A");
 
         // Set the total amount
-        totalTextView.setText(formatCurrency(totalAmount));
+        totalTextView.setText(transactions != null || headerTotal != null ? formatCurrency(totalAmount) : "-");
 
         return convertView;
     }
 
     @Override
     public View getChildView(int groupPosition, int childPosition, boolean isLastChild, View convertView, ViewGroup parent) {
+        if (!isLoaded(groupPosition)) {
+            if (convertView == null) {
+                LayoutInflater inflater = (LayoutInflater) context.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
+                convertView = inflater.inflate(android.R.layout.simple_list_item_1, parent, false);
+            }
+            ((TextView) convertView.findViewById(android.R.id.text1)).setText(R.string.loading_payments);
+            return convertView;
+        }
+
         Transaction transaction = (Transaction) getChild(groupPosition, childPosition);
 
         if (convertView == null) {
@@ -225,7 +264,7 @@ public class TransactionExpandableListAdapter extends BaseExpandableListAdapter
 
     @Override
     public boolean isChildSelectable(int groupPosition, int childPosition) {
-        return true;
+        return isLoaded(groupPosition);
     }
 
     private String formatCurrency(double amount) {
@@ -7,16 +7,23 @@ import com.restaurant.management.database.repositories.MenuRepository;
 import com.restaurant.management.database.repositories.PromoRepository;
 import com.restaurant.management.database.repositories.OrderRepository;
 import com.restaurant.management.database.repositories.OrderItemRepository;
+import com.restaurant.management.database.repositories.PaymentRepository;
+import com.restaurant.management.database.repositories.ReferenceDataRepository;
+import com.restaurant.management.database.repositories.SyncWatermarkRepository;
 import com.restaurant.management.models.*;
 import com.restaurant.management.helpers.OrderItemSyncData;
+import com.restaurant.management.helpers.OrderSyncData;
+import com.restaurant.management.utils.PerfTracer;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Main database manager class that provides a unified interface to all repositories
  * Uses Facade pattern to simplify database operations
+ * Each facade call is timed as a db.* trace span
  */
 public class DatabaseManager {
     private static final String TAG = "DatabaseManager";
@@ -27,6 +34,15 @@ public class DatabaseManager {
     private final PromoRepository promoRepository;
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
+    private final SyncWatermarkRepository syncWatermarkRepository;
+    private final ReferenceDataRepository referenceDataRepository;
+    private final PaymentRepository paymentRepository;
+    private final List<SyncStateListener> syncStateListeners = new CopyOnWriteArrayList<>();
+
+    /** Told after any write that may change how many rows are waiting for sync. */
+    public interface SyncStateListener {
+        void onSyncStateChanged();
+    }
 
     private DatabaseManager(Context context) {
         this.dbHelper = PoodDatabaseHelper.getInstance(context);
@@ -34,6 +50,9 @@ public class DatabaseManager {
         this.promoRepository = new PromoRepository(context);
         this.orderRepository = new OrderRepository(context);
         this.orderItemRepository = new OrderItemRepository(context);
+        this.syncWatermarkRepository = new SyncWatermarkRepository(context);
+        this.referenceDataRepository = new ReferenceDataRepository(context);
+        this.paymentRepository = new PaymentRepository(context);
     }
 
     public static synchronized DatabaseManager getInstance(Context context) {
@@ -43,181 +62,385 @@ public class DatabaseManager {
         return instance;
     }
 
+    public void addSyncStateListener(SyncStateListener listener) {
+        syncStateListeners.add(listener);
+    }
+
+    private void notifySyncStateChanged() {
+        for (SyncStateListener listener : syncStateListeners) {
+            listener.onSyncStateChanged();
+        }
+    }
+
     // Menu Operations
-    public void saveMenuItems(List<ProductItem> menuItems) {
-        menuRepository.saveMenuItems(menuItems);
+    public boolean saveMenuItems(List<ProductItem> menuItems) {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.saveMenuItems")) {
+            return menuRepository.saveMenuItems(menuItems);
+        }
+    }
+
+    public boolean applyMenuItemChanges(List<ProductItem> changedItems, List<Long> deletedItemIds) {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.applyMenuItemChanges")) {
+            return menuRepository.applyMenuItemChanges(changedItems, deletedItemIds);
+        }
     }
 
     public List<ProductItem> getAllMenuItems() {
-        return menuRepository.getAllMenuItems();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getAllMenuItems")) {
+            return menuRepository.getAllMenuItems();
+        }
     }
 
     public List<ProductItem> getMenuItems() {
-        return menuRepository.getAllMenuItems();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getMenuItems")) {
+            return menuRepository.getAllMenuItems();
+        }
     }
 
-    public void saveMenuCategories(List<MenuCategory> categories) {
-        menuRepository.saveMenuCategories(categories);
+    public List<ProductItem> getMenuItemsPage(int limit, int offset) {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getMenuItemsPage")) {
+            return menuRepository.getMenuItemsPage(limit, offset);
+        }
+    }
+
+    public List<ProductItem> getMenuItemsByIds(List<Long> ids) {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getMenuItemsByIds")) {
+            return menuRepository.getMenuItemsByIds(ids);
+        }
+    }
+
+    public List<Long> searchMenuItemIds(String query, int limit, int offset) {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.searchMenuItemIds")) {
+            return menuRepository.searchMenuItemIds(query, limit, offset);
+        }
+    }
+
+    public boolean saveMenuCategories(List<MenuCategory> categories) {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.saveMenuCategories")) {
+            return menuRepository.saveMenuCategories(categories);
+        }
+    }
+
+    public boolean applyMenuCategoryChanges(List<MenuCategory> changedCategories, List<Long> deletedCategoryIds) {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.applyMenuCategoryChanges")) {
+            return menuRepository.applyMenuCategoryChanges(changedCategories, deletedCategoryIds);
+        }
     }
 
     public List<MenuCategory> getAllMenuCategories() {
-        return menuRepository.getAllMenuCategories();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getAllMenuCategories")) {
+            return menuRepository.getAllMenuCategories();
+        }
     }
 
     public List<MenuCategory> getMenuCategories() {
-        return menuRepository.getAllMenuCategories();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getMenuCategories")) {
+            return menuRepository.getAllMenuCategories();
+        }
     }
 
     public List<Variant> getAllVariants() {
-        return menuRepository.getAllVariants();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getAllVariants")) {
+            return menuRepository.getAllVariants();
+        }
     }
 
     public boolean hasMenuItems() {
-        return menuRepository.hasMenuItems();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.hasMenuItems")) {
+            return menuRepository.hasMenuItems();
+        }
     }
 
     public boolean hasMenuCategories() {
-        return menuRepository.hasMenuCategories();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.hasMenuCategories")) {
+            return menuRepository.hasMenuCategories();
+        }
     }
 
     // Promo Operations
-    public void savePromos(List<Promo> promos) {
-        promoRepository.savePromos(promos);
+    public boolean savePromos(List<Promo> promos) {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.savePromos")) {
+            return promoRepository.savePromos(promos);
+        }
+    }
+
+    public boolean applyPromoChanges(List<Promo> changedPromos, List<Long> deletedPromoIds) {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.applyPromoChanges")) {
+            return promoRepository.applyPromoChanges(changedPromos, deletedPromoIds);
+        }
     }
 
     public List<Promo> getAllActivePromos() {
-        return promoRepository.getAllActivePromos();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getAllActivePromos")) {
+            return promoRepository.getAllActivePromos();
+        }
     }
 
     public List<Promo> getPromos() {
-        return promoRepository.getAllPromos();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getPromos")) {
+            return promoRepository.getAllPromos();
+        }
     }
 
     public boolean hasPromos() {
-        return promoRepository.hasPromos();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.hasPromos")) {
+            return promoRepository.hasPromos();
+        }
     }
 
     // Order Operations
     public void saveOrderTypes(List<OrderType> orderTypes) {
-        orderRepository.saveOrderTypes(orderTypes);
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.saveOrderTypes")) {
+            orderRepository.saveOrderTypes(orderTypes);
+        }
     }
 
     public List<OrderType> getOrderTypes() {
-        return orderRepository.getOrderTypes();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getOrderTypes")) {
+            return orderRepository.getOrderTypes();
+        }
     }
 
     public void saveOrderStatuses(List<OrderStatus> orderStatuses) {
-        orderRepository.saveOrderStatuses(orderStatuses);
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.saveOrderStatuses")) {
+            orderRepository.saveOrderStatuses(orderStatuses);
+        }
     }
 
     public List<OrderStatus> getOrderStatuses() {
-        return orderRepository.getOrderStatuses();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getOrderStatuses")) {
+            return orderRepository.getOrderStatuses();
+        }
     }
 
-    public long saveOrderLocally(long sessionId, String tableNumber, String customerName, long orderTypeId) {
-        return orderRepository.saveOrderLocally(sessionId, tableNumber, customerName, orderTypeId);
+    public long saveOrderLocally(long sessionId, String tableNumber, String customerName, long orderTypeId,
+                                 String clientUuid) {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.saveOrderLocally")) {
+            long localId = orderRepository.saveOrderLocally(sessionId, tableNumber, customerName, orderTypeId, clientUuid);
+            notifySyncStateChanged();
+            return localId;
+        }
     }
 
     public void markOrderAsSynced(long localOrderId, long serverOrderId) {
-        orderRepository.markOrderAsSynced(localOrderId, serverOrderId);
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.markOrderAsSynced")) {
+            orderRepository.markOrderAsSynced(localOrderId, serverOrderId);
+            notifySyncStateChanged();
+        }
     }
 
     public List<Order> getAllOrders() {
-        return orderRepository.getAllOrders();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getAllOrders")) {
+            return orderRepository.getAllOrders();
+        }
     }
 
     public List<Long> getUnsyncedOrderIds() {
-        return orderRepository.getUnsyncedOrderIds();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getUnsyncedOrderIds")) {
+            return orderRepository.getUnsyncedOrderIds();
+        }
+    }
+
+    public List<OrderSyncData> getUnsyncedOrders() {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getUnsyncedOrders")) {
+            return orderRepository.getUnsyncedOrders();
+        }
     }
 
     public int getAllOrdersCount() {
-        return orderRepository.getAllOrdersCount();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getAllOrdersCount")) {
+            return orderRepository.getAllOrdersCount();
+        }
+    }
+
+    public int getUnsyncedOrderCount() {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getUnsyncedOrderCount")) {
+            return orderRepository.getUnsyncedOrderCount();
+        }
     }
 
     // Order Item Operations
-    public long saveOrderItemLocally(long orderId, CreateOrderItemRequest request) {
-        return orderItemRepository.saveOrderItemLocally(orderId, request);
+    public long saveOrderItemLocally(long orderId, boolean orderIsLocal, CreateOrderItemRequest request,
+                                     String clientUuid) {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.saveOrderItemLocally")) {
+            long localId = orderItemRepository.saveOrderItemLocally(orderId, orderIsLocal, request, clientUuid);
+            notifySyncStateChanged();
+            return localId;
+        }
     }
 
     public void markOrderItemAsSynced(long localItemId, long serverItemId) {
-        orderItemRepository.markOrderItemAsSynced(localItemId, serverItemId);
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.markOrderItemAsSynced")) {
+            orderItemRepository.markOrderItemAsSynced(localItemId, serverItemId);
+            notifySyncStateChanged();
+        }
+    }
+
+    public int commitSyncBatch(Map<Long, Long> localToServerItemIds, Map<Long, String> failedItemErrors) {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.commitSyncBatch")) {
+            int syncedCount = orderItemRepository.commitSyncBatch(localToServerItemIds, failedItemErrors);
+            notifySyncStateChanged();
+            return syncedCount;
+        }
     }
 
     public List<OrderItemSyncData> getUnsyncedOrderItems() {
-        return orderItemRepository.getUnsyncedOrderItems();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getUnsyncedOrderItems")) {
+            return orderItemRepository.getUnsyncedOrderItems();
+        }
     }
 
     public List<OrderItemSyncData> getAllOrderItems() {
-        return orderItemRepository.getAllOrderItems();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getAllOrderItems")) {
+            return orderItemRepository.getAllOrderItems();
+        }
     }
 
     public List<OrderItemSyncData> getOrderItems(long orderId) {
-        return orderItemRepository.getOrderItems(orderId);
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getOrderItems")) {
+            return orderItemRepository.getOrderItems(orderId);
+        }
     }
 
     public void cleanupSyncedOrderItems(int daysOld) {
-        orderItemRepository.cleanupSyncedOrderItems(daysOld);
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.cleanupSyncedOrderItems")) {
+            orderItemRepository.cleanupSyncedOrderItems(daysOld);
+        }
     }
 
     public int getAllOrderItemsCount() {
-        return orderItemRepository.getAllOrderItemsCount();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getAllOrderItemsCount")) {
+            return orderItemRepository.getAllOrderItemsCount();
+        }
+    }
+
+    public int getUnsyncedOrderItemCount() {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getUnsyncedOrderItemCount")) {
+            return orderItemRepository.getUnsyncedOrderItemCount();
+        }
     }
 
     public int getAllVariantsCount() {
-        return menuRepository.getAllVariants().size();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getAllVariantsCount")) {
+            return getTableCount(PoodDatabaseHelper.TABLE_VARIANTS);
+        }
+    }
+
+    // Delta Sync Watermarks
+    public String getSyncWatermark(String tableName) {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getSyncWatermark")) {
+            return syncWatermarkRepository.getWatermark(tableName);
+        }
+    }
+
+    public void saveSyncWatermark(String tableName, String watermark) {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.saveSyncWatermark")) {
+            syncWatermarkRepository.saveWatermark(tableName, watermark);
+        }
+    }
+
+    public void clearSyncWatermark(String tableName) {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.clearSyncWatermark")) {
+            syncWatermarkRepository.clearWatermark(tableName);
+        }
+    }
+
+    // Reference Data Payloads
+    public String getReferencePayload(String key) {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getReferencePayload")) {
+            return referenceDataRepository.getPayload(key);
+        }
+    }
+
+    public void saveReferencePayload(String key, String payload) {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.saveReferencePayload")) {
+            referenceDataRepository.savePayload(key, payload);
+        }
+    }
+
+    public void replaceReferencePayloadGroup(String key, String payload, String groupPrefix, String keepPrefix) {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.replaceReferencePayloadGroup")) {
+            referenceDataRepository.replaceGroupPayload(key, payload, groupPrefix, keepPrefix);
+        }
+    }
+
+    // Payment Operations
+    public void recordPayment(long sessionId, long orderId, String paymentModeId, double amount) {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.recordPayment")) {
+            paymentRepository.recordPayment(sessionId, orderId, paymentModeId, amount);
+        }
+    }
+
+    public ReconciliationSummary getReconciliationSummary(long sessionId) {
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getReconciliationSummary")) {
+            return paymentRepository.getReconciliationSummary(sessionId);
+        }
     }
 
     // Database Utility Operations
     public void clearAllData() {
-        dbHelper.clearAllData();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.clearAllData")) {
+            dbHelper.clearAllData();
+            notifySyncStateChanged();
+        }
     }
 
     public void clearAllCachedData() {
-        try {
-            dbHelper.getWritableDatabase().beginTransaction();
-            dbHelper.getWritableDatabase().delete(PoodDatabaseHelper.TABLE_CATEGORIES, null, null);
-            dbHelper.getWritableDatabase().delete(PoodDatabaseHelper.TABLE_MENU_ITEMS, null, null);
-            dbHelper.getWritableDatabase().delete(PoodDatabaseHelper.TABLE_VARIANTS, null, null);
-            dbHelper.getWritableDatabase().delete(PoodDatabaseHelper.TABLE_PROMOS, null, null);
-            dbHelper.getWritableDatabase().delete(PoodDatabaseHelper.TABLE_ORDER_TYPES, null, null);
-            dbHelper.getWritableDatabase().delete(PoodDatabaseHelper.TABLE_ORDER_STATUSES, null, null);
-            dbHelper.getWritableDatabase().delete(PoodDatabaseHelper.TABLE_ORDERS,
-                    DatabaseSchema.COLUMN_IS_SYNCED + " = 0", null);
-            dbHelper.getWritableDatabase().delete(PoodDatabaseHelper.TABLE_ORDER_ITEMS,
-                    DatabaseSchema.COLUMN_ITEM_IS_SYNCED + " = 0", null);
-            dbHelper.getWritableDatabase().setTransactionSuccessful();
-        } catch (Exception e) {
-            Log.e(TAG, "Error clearing cached data", e);
-        } finally {
-            dbHelper.getWritableDatabase().endTransaction();
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.clearAllCachedData")) {
+            try {
+                dbHelper.getWritableDatabase().beginTransaction();
+                dbHelper.getWritableDatabase().delete(PoodDatabaseHelper.TABLE_CATEGORIES, null, null);
+                dbHelper.getWritableDatabase().delete(PoodDatabaseHelper.TABLE_MENU_ITEMS, null, null);
+                dbHelper.getWritableDatabase().delete(PoodDatabaseHelper.TABLE_VARIANTS, null, null);
+                dbHelper.getWritableDatabase().delete(PoodDatabaseHelper.TABLE_MENU_SEARCH, null, null);
+                dbHelper.getWritableDatabase().delete(PoodDatabaseHelper.TABLE_PROMOS, null, null);
+                dbHelper.getWritableDatabase().delete(PoodDatabaseHelper.TABLE_ORDER_TYPES, null, null);
+                dbHelper.getWritableDatabase().delete(PoodDatabaseHelper.TABLE_ORDER_STATUSES, null, null);
+                dbHelper.getWritableDatabase().delete(PoodDatabaseHelper.TABLE_SYNC_WATERMARKS, null, null);
+                dbHelper.getWritableDatabase().delete(PoodDatabaseHelper.TABLE_REFERENCE_DATA, null, null);
+                dbHelper.getWritableDatabase().delete(PoodDatabaseHelper.TABLE_ORDERS,
+                        DatabaseSchema.COLUMN_IS_SYNCED + " = 0", null);
+                dbHelper.getWritableDatabase().delete(PoodDatabaseHelper.TABLE_ORDER_ITEMS,
+                        DatabaseSchema.COLUMN_ITEM_IS_SYNCED + " = 0", null);
+                dbHelper.getWritableDatabase().setTransactionSuccessful();
+            } catch (Exception e) {
+                Log.e(TAG, "Error clearing cached data", e);
+            } finally {
+                dbHelper.getWritableDatabase().endTransaction();
+            }
+            notifySyncStateChanged();
         }
     }
 
     public Map<String, Integer> getAllTableCounts() {
-        Map<String, Integer> counts = new HashMap<>();
-        try {
-            counts.put("menu_categories", getTableCount(PoodDatabaseHelper.TABLE_CATEGORIES));
-            counts.put("menu_items", getTableCount(PoodDatabaseHelper.TABLE_MENU_ITEMS));
-            counts.put("variants", getTableCount(PoodDatabaseHelper.TABLE_VARIANTS));
-            counts.put("promos", getTableCount(PoodDatabaseHelper.TABLE_PROMOS));
-            counts.put("order_types", getTableCount(PoodDatabaseHelper.TABLE_ORDER_TYPES));
-            counts.put("order_statuses", getTableCount(PoodDatabaseHelper.TABLE_ORDER_STATUSES));
-            counts.put("orders", getTableCount(PoodDatabaseHelper.TABLE_ORDERS));
-            counts.put("order_items", getTableCount(PoodDatabaseHelper.TABLE_ORDER_ITEMS));
-        } catch (Exception e) {
-            Log.e(TAG, "Error getting table counts", e);
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getAllTableCounts")) {
+            Map<String, Integer> counts = new HashMap<>();
+            try {
+                counts.put("menu_categories", getTableCount(PoodDatabaseHelper.TABLE_CATEGORIES));
+                counts.put("menu_items", getTableCount(PoodDatabaseHelper.TABLE_MENU_ITEMS));
+                counts.put("variants", getTableCount(PoodDatabaseHelper.TABLE_VARIANTS));
+                counts.put("promos", getTableCount(PoodDatabaseHelper.TABLE_PROMOS));
+                counts.put("order_types", getTableCount(PoodDatabaseHelper.TABLE_ORDER_TYPES));
+                counts.put("order_statuses", getTableCount(PoodDatabaseHelper.TABLE_ORDER_STATUSES));
+                counts.put("orders", getTableCount(PoodDatabaseHelper.TABLE_ORDERS));
+                counts.put("order_items", getTableCount(PoodDatabaseHelper.TABLE_ORDER_ITEMS));
+            } catch (Exception e) {
+                Log.e(TAG, "Error getting table counts", e);
+            }
+            return counts;
         }
-        return counts;
     }
 
     public int getCashierSessionsCount() {
-        int count = 0;
-        try {
-            count = getTableCount("cashier_sessions");
-        } catch (Exception e) {
-            // Table doesn't exist
+        try (PerfTracer.Span ignored = PerfTracer.begin("db.getCashierSessionsCount")) {
+            int count = 0;
+            try {
+                count = getTableCount("cashier_sessions");
+            } catch (Exception e) {
+                // Table doesn't exist
+            }
+            return count;
         }
-        return count;
     }
 
     private int getTableCount(String tableName) {
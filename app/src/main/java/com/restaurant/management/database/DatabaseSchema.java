@@ -64,6 +64,7 @@ public class DatabaseSchema {
     public static final String COLUMN_SERVER_ORDER_ID = "server_order_id";
     public static final String COLUMN_IS_SYNCED = "is_synced";
     public static final String COLUMN_ORDER_CREATED_AT = "order_created_at";
+    public static final String COLUMN_ORDER_CLIENT_UUID = "client_uuid";
 
     // Order Items table columns
     public static final String COLUMN_ITEM_ID = "item_id";
@@ -82,6 +83,33 @@ public class DatabaseSchema {
     public static final String COLUMN_ITEM_IS_SYNCED = "is_synced";
     public static final String COLUMN_ITEM_SERVER_ID = "server_id";
     public static final String COLUMN_ITEM_CREATED_AT = "item_created_at";
+    public static final String COLUMN_ITEM_CLIENT_UUID = "client_uuid";
+    public static final String COLUMN_ITEM_SYNC_ATTEMPTS = "sync_attempts";
+    public static final String COLUMN_ITEM_LAST_SYNC_ERROR = "last_sync_error";
+    public static final String COLUMN_ITEM_LOCAL_ORDER_ID = "local_order_id";
+
+    // Sync watermarks table columns
+    public static final String COLUMN_WATERMARK_TABLE = "table_name";
+    public static final String COLUMN_WATERMARK_VALUE = "high_water_mark";
+
+    // Reference data table columns
+    public static final String COLUMN_REF_KEY = "data_key";
+    public static final String COLUMN_REF_PAYLOAD = "payload";
+    public static final String COLUMN_REF_FETCHED_AT = "fetched_at";
+
+    // Payments table columns
+    public static final String COLUMN_PAYMENT_ID = "payment_id";
+    public static final String COLUMN_PAYMENT_SESSION_ID = "session_id";
+    public static final String COLUMN_PAYMENT_ORDER_ID = "order_id";
+    public static final String COLUMN_PAYMENT_MODE_ID = "payment_mode_id";
+    public static final String COLUMN_PAYMENT_AMOUNT = "amount";
+    public static final String COLUMN_PAYMENT_PAID_AT = "paid_at";
+
+    // Menu search (FTS4) columns; each row's docid is the menu item id
+    public static final String COLUMN_SEARCH_NAME = "name";
+    public static final String COLUMN_SEARCH_DESCRIPTION = "description";
+    public static final String COLUMN_SEARCH_CATEGORY = "category";
+    public static final String COLUMN_SEARCH_VARIANTS = "variant_names";
 
     // Create table statements
     public static final String CREATE_MENU_ITEMS_TABLE = "CREATE TABLE " + PoodDatabaseHelper.TABLE_MENU_ITEMS + "("
@@ -178,4 +206,108 @@ public class DatabaseSchema {
             + "FOREIGN KEY(" + COLUMN_ORDER_ITEM_ORDER_ID + ") REFERENCES " + PoodDatabaseHelper.TABLE_ORDERS + "(" + COLUMN_ORDER_ID + "),"
             + "FOREIGN KEY(" + COLUMN_MENU_ITEM_ID_FK + ") REFERENCES " + PoodDatabaseHelper.TABLE_MENU_ITEMS + "(" + COLUMN_ID + ")"
             + ")";
-}
\ No newline at end of file
+
+    // Secondary indexes (schema version 7)
+    public static final String INDEX_ORDER_ITEMS_SYNC = "idx_order_items_sync";
+    public static final String INDEX_ORDER_ITEMS_ORDER = "idx_order_items_order";
+    public static final String INDEX_VARIANTS_MENU_ITEM = "idx_variants_menu_item";
+    public static final String INDEX_ORDERS_SYNC = "idx_orders_sync";
+    public static final String INDEX_PAYMENTS_SESSION = "idx_payments_session";
+
+    // Unsynced item scans filter on is_synced and sort by creation time
+    public static final String CREATE_ORDER_ITEMS_SYNC_INDEX = "CREATE INDEX IF NOT EXISTS " + INDEX_ORDER_ITEMS_SYNC
+            + " ON " + PoodDatabaseHelper.TABLE_ORDER_ITEMS + "("
+            + COLUMN_ITEM_IS_SYNCED + ", " + COLUMN_ITEM_CREATED_AT + ")";
+
+    public static final String CREATE_ORDER_ITEMS_ORDER_INDEX = "CREATE INDEX IF NOT EXISTS " + INDEX_ORDER_ITEMS_ORDER
+            + " ON " + PoodDatabaseHelper.TABLE_ORDER_ITEMS + "("
+            + COLUMN_ORDER_ITEM_ORDER_ID + ", " + COLUMN_ITEM_CREATED_AT + ")";
+
+    public static final String CREATE_VARIANTS_MENU_ITEM_INDEX = "CREATE INDEX IF NOT EXISTS " + INDEX_VARIANTS_MENU_ITEM
+            + " ON " + PoodDatabaseHelper.TABLE_VARIANTS + "(" + COLUMN_MENU_ITEM_ID + ")";
+
+    public static final String CREATE_ORDERS_SYNC_INDEX = "CREATE INDEX IF NOT EXISTS " + INDEX_ORDERS_SYNC
+            + " ON " + PoodDatabaseHelper.TABLE_ORDERS + "("
+            + COLUMN_IS_SYNCED + ", " + COLUMN_ORDER_CREATED_AT + ")";
+
+    // Per-table high-water marks for delta refreshes (schema version 8)
+    public static final String CREATE_SYNC_WATERMARKS_TABLE = "CREATE TABLE IF NOT EXISTS " + PoodDatabaseHelper.TABLE_SYNC_WATERMARKS + "("
+            + COLUMN_WATERMARK_TABLE + " TEXT PRIMARY KEY,"
+            + COLUMN_WATERMARK_VALUE + " TEXT"
+            + ")";
+
+    // Last known server payload per reference endpoint (schema version 9)
+    public static final String CREATE_REFERENCE_DATA_TABLE = "CREATE TABLE IF NOT EXISTS " + PoodDatabaseHelper.TABLE_REFERENCE_DATA + "("
+            + COLUMN_REF_KEY + " TEXT PRIMARY KEY,"
+            + COLUMN_REF_PAYLOAD + " TEXT,"
+            + COLUMN_REF_FETCHED_AT + " INTEGER"
+            + ")";
+
+    // Full-text index over menu items and their variant names (schema version 10)
+    public static final String CREATE_MENU_SEARCH_TABLE = "CREATE VIRTUAL TABLE IF NOT EXISTS " + PoodDatabaseHelper.TABLE_MENU_SEARCH
+            + " USING fts4("
+            + COLUMN_SEARCH_NAME + ", "
+            + COLUMN_SEARCH_DESCRIPTION + ", "
+            + COLUMN_SEARCH_CATEGORY + ", "
+            + COLUMN_SEARCH_VARIANTS + ", "
+            + "tokenize=unicode61 \"remove_diacritics=1\""
+            + ")";
+
+    // Backfills the search table from menu rows saved before it existed
+    public static final String POPULATE_MENU_SEARCH_TABLE = "INSERT INTO " + PoodDatabaseHelper.TABLE_MENU_SEARCH + "("
+            + "docid, " + COLUMN_SEARCH_NAME + ", " + COLUMN_SEARCH_DESCRIPTION + ", "
+            + COLUMN_SEARCH_CATEGORY + ", " + COLUMN_SEARCH_VARIANTS + ")"
+            + " SELECT mi." + COLUMN_ID + ", mi." + COLUMN_NAME + ", mi." + COLUMN_DESCRIPTION + ", mi." + COLUMN_CATEGORY_NAME + ","
+            + " (SELECT group_concat(v." + COLUMN_VARIANT_NAME + ", ' ') FROM " + PoodDatabaseHelper.TABLE_VARIANTS + " v"
+            + " WHERE v." + COLUMN_MENU_ITEM_ID + " = mi." + COLUMN_ID + ")"
+            + " FROM " + PoodDatabaseHelper.TABLE_MENU_ITEMS + " mi";
+
+    // Payments taken on this device, kept so reconciliation can be totalled offline (schema version 11)
+    public static final String CREATE_PAYMENTS_TABLE = "CREATE TABLE IF NOT EXISTS " + PoodDatabaseHelper.TABLE_PAYMENTS + "("
+            + COLUMN_PAYMENT_ID + " INTEGER PRIMARY KEY AUTOINCREMENT,"
+            + COLUMN_PAYMENT_SESSION_ID + " INTEGER NOT NULL,"
+            + COLUMN_PAYMENT_ORDER_ID + " INTEGER NOT NULL,"
+            + COLUMN_PAYMENT_MODE_ID + " TEXT NOT NULL,"
+            + COLUMN_PAYMENT_AMOUNT + " REAL NOT NULL,"
+            + COLUMN_PAYMENT_PAID_AT + " TEXT DEFAULT CURRENT_TIMESTAMP"
+            + ")";
+
+    // Reconciliation totals group one session's payments by mode
+    public static final String CREATE_PAYMENTS_SESSION_INDEX = "CREATE INDEX IF NOT EXISTS " + INDEX_PAYMENTS_SESSION
+            + " ON " + PoodDatabaseHelper.TABLE_PAYMENTS + "("
+            + COLUMN_PAYMENT_SESSION_ID + ", " + COLUMN_PAYMENT_MODE_ID + ")";
+
+    // Client-generated key sent with every create request so retries are deduplicated (schema version 12)
+    public static final String ADD_ORDERS_CLIENT_UUID_COLUMN = "ALTER TABLE " + PoodDatabaseHelper.TABLE_ORDERS
+            + " ADD COLUMN " + COLUMN_ORDER_CLIENT_UUID + " TEXT";
+
+    public static final String ADD_ORDER_ITEMS_CLIENT_UUID_COLUMN = "ALTER TABLE " + PoodDatabaseHelper.TABLE_ORDER_ITEMS
+            + " ADD COLUMN " + COLUMN_ITEM_CLIENT_UUID + " TEXT";
+
+    // A random (version 4) UUID in the same 8-4-4-4-12 form as UUID.randomUUID().toString()
+    private static final String RANDOM_UUID_EXPRESSION = "lower(hex(randomblob(4))) || '-' || lower(hex(randomblob(2)))"
+            + " || '-4' || substr(lower(hex(randomblob(2))), 2)"
+            + " || '-' || substr('89ab', 1 + (abs(random()) % 4), 1) || substr(lower(hex(randomblob(2))), 2)"
+            + " || '-' || lower(hex(randomblob(6)))";
+
+    // Rows saved before the column existed get a random key of their own
+    public static final String BACKFILL_ORDERS_CLIENT_UUID = "UPDATE " + PoodDatabaseHelper.TABLE_ORDERS
+            + " SET " + COLUMN_ORDER_CLIENT_UUID + " = " + RANDOM_UUID_EXPRESSION
+            + " WHERE " + COLUMN_ORDER_CLIENT_UUID + " IS NULL";
+
+    public static final String BACKFILL_ORDER_ITEMS_CLIENT_UUID = "UPDATE " + PoodDatabaseHelper.TABLE_ORDER_ITEMS
+            + " SET " + COLUMN_ITEM_CLIENT_UUID + " = " + RANDOM_UUID_EXPRESSION
+            + " WHERE " + COLUMN_ITEM_CLIENT_UUID + " IS NULL";
+
+    // Failed sync attempts are recorded per item, in the same transaction as the batch's successes (schema version 13)
+    public static final String ADD_ORDER_ITEMS_SYNC_ATTEMPTS_COLUMN = "ALTER TABLE " + PoodDatabaseHelper.TABLE_ORDER_ITEMS
+            + " ADD COLUMN " + COLUMN_ITEM_SYNC_ATTEMPTS + " INTEGER DEFAULT 0";
+
+    public static final String ADD_ORDER_ITEMS_LAST_SYNC_ERROR_COLUMN = "ALTER TABLE " + PoodDatabaseHelper.TABLE_ORDER_ITEMS
+            + " ADD COLUMN " + COLUMN_ITEM_LAST_SYNC_ERROR + " TEXT";
+
+    // Set only while an item's order exists locally and not yet on the server; order_id can then
+    // be told apart from a server order id that happens to be equal (schema version 14)
+    public static final String ADD_ORDER_ITEMS_LOCAL_ORDER_ID_COLUMN = "ALTER TABLE " + PoodDatabaseHelper.TABLE_ORDER_ITEMS
+            + " ADD COLUMN " + COLUMN_ITEM_LOCAL_ORDER_ID + " INTEGER";
+}
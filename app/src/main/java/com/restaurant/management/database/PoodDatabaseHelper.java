@@ -9,7 +9,7 @@ import android.database.sqlite.SQLiteOpenHelper;
  */
 public class PoodDatabaseHelper extends SQLiteOpenHelper {
     private static final String DATABASE_NAME = "pood.db";
-    private static final int DATABASE_VERSION = 6;
+    private static final int DATABASE_VERSION = 14;
 
     // Table names
     public static final String TABLE_MENU_ITEMS = "menu_items";
@@ -20,11 +20,22 @@ public class PoodDatabaseHelper extends SQLiteOpenHelper {
     public static final String TABLE_ORDER_STATUSES = "order_statuses";
     public static final String TABLE_ORDERS = "orders";
     public static final String TABLE_ORDER_ITEMS = "order_items";
+    public static final String TABLE_SYNC_WATERMARKS = "sync_watermarks";
+    public static final String TABLE_REFERENCE_DATA = "reference_data";
+    public static final String TABLE_MENU_SEARCH = "menu_search";
+    public static final String TABLE_PAYMENTS = "payments";
 
     private static PoodDatabaseHelper instance;
 
     private PoodDatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this(context, DATABASE_NAME);
+    }
+
+    // Visible for migration tests, which run against a throwaway database file
+    PoodDatabaseHelper(Context context, String databaseName) {
+        super(context, databaseName, null, DATABASE_VERSION);
+        // WAL lets sync reads run alongside cashier inserts instead of blocking on them
+        setWriteAheadLoggingEnabled(true);
     }
 
     public static synchronized PoodDatabaseHelper getInstance(Context context) {
@@ -44,6 +55,15 @@ public class PoodDatabaseHelper extends SQLiteOpenHelper {
         db.execSQL(DatabaseSchema.CREATE_ORDER_STATUSES_TABLE);
         db.execSQL(DatabaseSchema.CREATE_ORDERS_TABLE);
         db.execSQL(DatabaseSchema.CREATE_ORDER_ITEMS_TABLE);
+        db.execSQL(DatabaseSchema.CREATE_SYNC_WATERMARKS_TABLE);
+        db.execSQL(DatabaseSchema.CREATE_REFERENCE_DATA_TABLE);
+        db.execSQL(DatabaseSchema.CREATE_MENU_SEARCH_TABLE);
+        db.execSQL(DatabaseSchema.CREATE_PAYMENTS_TABLE);
+        createIndexes(db);
+        db.execSQL(DatabaseSchema.CREATE_PAYMENTS_SESSION_INDEX);
+        addClientUuidColumns(db);
+        addSyncFailureColumns(db);
+        db.execSQL(DatabaseSchema.ADD_ORDER_ITEMS_LOCAL_ORDER_ID_COLUMN);
     }
 
     @Override
@@ -61,6 +81,52 @@ public class PoodDatabaseHelper extends SQLiteOpenHelper {
         if (oldVersion < 6) {
             db.execSQL(DatabaseSchema.CREATE_ORDER_ITEMS_TABLE);
         }
+        if (oldVersion < 7) {
+            createIndexes(db);
+        }
+        if (oldVersion < 8) {
+            db.execSQL(DatabaseSchema.CREATE_SYNC_WATERMARKS_TABLE);
+        }
+        if (oldVersion < 9) {
+            db.execSQL(DatabaseSchema.CREATE_REFERENCE_DATA_TABLE);
+        }
+        if (oldVersion < 10) {
+            db.execSQL(DatabaseSchema.CREATE_MENU_SEARCH_TABLE);
+            db.execSQL(DatabaseSchema.POPULATE_MENU_SEARCH_TABLE);
+        }
+        if (oldVersion < 11) {
+            db.execSQL(DatabaseSchema.CREATE_PAYMENTS_TABLE);
+            db.execSQL(DatabaseSchema.CREATE_PAYMENTS_SESSION_INDEX);
+        }
+        if (oldVersion < 12) {
+            addClientUuidColumns(db);
+            db.execSQL(DatabaseSchema.BACKFILL_ORDERS_CLIENT_UUID);
+            db.execSQL(DatabaseSchema.BACKFILL_ORDER_ITEMS_CLIENT_UUID);
+        }
+        if (oldVersion < 13) {
+            addSyncFailureColumns(db);
+        }
+        if (oldVersion < 14) {
+            // Items saved so far were all added to orders opened from the server list, so none is backfilled
+            db.execSQL(DatabaseSchema.ADD_ORDER_ITEMS_LOCAL_ORDER_ID_COLUMN);
+        }
+    }
+
+    private void addClientUuidColumns(SQLiteDatabase db) {
+        db.execSQL(DatabaseSchema.ADD_ORDERS_CLIENT_UUID_COLUMN);
+        db.execSQL(DatabaseSchema.ADD_ORDER_ITEMS_CLIENT_UUID_COLUMN);
+    }
+
+    private void addSyncFailureColumns(SQLiteDatabase db) {
+        db.execSQL(DatabaseSchema.ADD_ORDER_ITEMS_SYNC_ATTEMPTS_COLUMN);
+        db.execSQL(DatabaseSchema.ADD_ORDER_ITEMS_LAST_SYNC_ERROR_COLUMN);
+    }
+
+    private void createIndexes(SQLiteDatabase db) {
+        db.execSQL(DatabaseSchema.CREATE_ORDER_ITEMS_SYNC_INDEX);
+        db.execSQL(DatabaseSchema.CREATE_ORDER_ITEMS_ORDER_INDEX);
+        db.execSQL(DatabaseSchema.CREATE_VARIANTS_MENU_ITEM_INDEX);
+        db.execSQL(DatabaseSchema.CREATE_ORDERS_SYNC_INDEX);
     }
 
     public void clearAllData() {
@@ -75,6 +141,10 @@ public class PoodDatabaseHelper extends SQLiteOpenHelper {
             db.delete(TABLE_ORDER_STATUSES, null, null);
             db.delete(TABLE_ORDERS, null, null);
             db.delete(TABLE_ORDER_ITEMS, null, null);
+            db.delete(TABLE_SYNC_WATERMARKS, null, null);
+            db.delete(TABLE_REFERENCE_DATA, null, null);
+            db.delete(TABLE_MENU_SEARCH, null, null);
+            db.delete(TABLE_PAYMENTS, null, null);
             db.setTransactionSuccessful();
         } catch (Exception e) {
             android.util.Log.e("PoodDatabase", "Error clearing data", e);
@@ -11,51 +11,108 @@ import com.restaurant.management.database.DatabaseSchema;
 import com.restaurant.management.models.ProductItem;
 import com.restaurant.management.models.Variant;
 import com.restaurant.management.models.MenuCategory;
+import com.restaurant.management.utils.MenuSearchIndex;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Repository for menu-related database operations
  */
 public class MenuRepository {
     private static final String TAG = "MenuRepository";
+    private static final String[] SEARCH_COLUMNS = {
+            DatabaseSchema.COLUMN_SEARCH_NAME, DatabaseSchema.COLUMN_SEARCH_DESCRIPTION,
+            DatabaseSchema.COLUMN_SEARCH_CATEGORY, DatabaseSchema.COLUMN_SEARCH_VARIANTS};
+    // Ranking weight per menu_search column: name, description, category, variant names
+    private static final int[] SEARCH_COLUMN_WEIGHTS = {10, 1, 3, 4};
     private final PoodDatabaseHelper dbHelper;
 
     public MenuRepository(Context context) {
         this.dbHelper = PoodDatabaseHelper.getInstance(context);
     }
 
-    public void saveMenuItems(List<ProductItem> menuItems) {
+    /**
+     * Replaces the whole menu, variants and search index included, in one transaction.
+     * Returns false if the transaction rolled back.
+     */
+    public boolean saveMenuItems(List<ProductItem> menuItems) {
         SQLiteDatabase db = dbHelper.getWritableDatabase();
+        boolean committed = false;
         try {
             db.beginTransaction();
             db.delete(PoodDatabaseHelper.TABLE_MENU_ITEMS, null, null);
             db.delete(PoodDatabaseHelper.TABLE_VARIANTS, null, null);
+            db.delete(PoodDatabaseHelper.TABLE_MENU_SEARCH, null, null);
 
             for (ProductItem item : menuItems) {
-                ContentValues values = new ContentValues();
-                values.put(DatabaseSchema.COLUMN_ID, item.getId());
-                values.put(DatabaseSchema.COLUMN_NAME, item.getName());
-                values.put(DatabaseSchema.COLUMN_DESCRIPTION, item.getDescription());
-                values.put(DatabaseSchema.COLUMN_PRICE, item.getPrice());
-                values.put(DatabaseSchema.COLUMN_IS_ACTIVE, item.isActive() ? 1 : 0);
-                values.put(DatabaseSchema.COLUMN_IMAGE_PATH, item.getImageUrl());
-                values.put(DatabaseSchema.COLUMN_CREATED_AT, item.getCreatedAt());
-                values.put(DatabaseSchema.COLUMN_UPDATED_AT, item.getUpdatedAt());
-                values.put(DatabaseSchema.COLUMN_CATEGORY_NAME, item.getCategory());
-                db.insert(PoodDatabaseHelper.TABLE_MENU_ITEMS, null, values);
+                db.insert(PoodDatabaseHelper.TABLE_MENU_ITEMS, null, createMenuItemValues(item));
 
                 if (item.getVariants() != null) {
                     saveVariantsForItem(db, item.getId(), item.getVariants());
                 }
+                indexMenuItem(db, item);
             }
             db.setTransactionSuccessful();
+            committed = true;
         } catch (Exception e) {
             Log.e(TAG, "Error saving menu items to database", e);
         } finally {
             db.endTransaction();
         }
+        return committed;
+    }
+
+    /**
+     * Applies a delta refresh in one transaction: changed items are upserted in place
+     * (their variant lists replaced), and tombstoned items are removed with their variants.
+     * Returns false if the transaction rolled back.
+     */
+    public boolean applyMenuItemChanges(List<ProductItem> changedItems, List<Long> deletedItemIds) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        boolean committed = false;
+        try {
+            db.beginTransaction();
+            for (ProductItem item : changedItems) {
+                db.insertWithOnConflict(PoodDatabaseHelper.TABLE_MENU_ITEMS, null,
+                        createMenuItemValues(item), SQLiteDatabase.CONFLICT_REPLACE);
+                db.delete(PoodDatabaseHelper.TABLE_VARIANTS, DatabaseSchema.COLUMN_MENU_ITEM_ID + " = ?",
+                        new String[]{String.valueOf(item.getId())});
+                if (item.getVariants() != null) {
+                    saveVariantsForItem(db, item.getId(), item.getVariants());
+                }
+                indexMenuItem(db, item);
+            }
+            for (Long deletedId : deletedItemIds) {
+                String[] args = new String[]{String.valueOf(deletedId)};
+                db.delete(PoodDatabaseHelper.TABLE_VARIANTS, DatabaseSchema.COLUMN_MENU_ITEM_ID + " = ?", args);
+                db.delete(PoodDatabaseHelper.TABLE_MENU_ITEMS, DatabaseSchema.COLUMN_ID + " = ?", args);
+                db.delete(PoodDatabaseHelper.TABLE_MENU_SEARCH, "docid = ?", args);
+            }
+            db.setTransactionSuccessful();
+            committed = true;
+        } catch (Exception e) {
+            Log.e(TAG, "Error applying menu item changes", e);
+        } finally {
+            db.endTransaction();
+        }
+        return committed;
+    }
+
+    private ContentValues createMenuItemValues(ProductItem item) {
+        ContentValues values = new ContentValues();
+        values.put(DatabaseSchema.COLUMN_ID, item.getId());
+        values.put(DatabaseSchema.COLUMN_NAME, item.getName());
+        values.put(DatabaseSchema.COLUMN_DESCRIPTION, item.getDescription());
+        values.put(DatabaseSchema.COLUMN_PRICE, item.getPrice());
+        values.put(DatabaseSchema.COLUMN_IS_ACTIVE, item.isActive() ? 1 : 0);
+        values.put(DatabaseSchema.COLUMN_IMAGE_PATH, item.getImageUrl());
+        values.put(DatabaseSchema.COLUMN_CREATED_AT, item.getCreatedAt());
+        values.put(DatabaseSchema.COLUMN_UPDATED_AT, item.getUpdatedAt());
+        values.put(DatabaseSchema.COLUMN_CATEGORY_NAME, item.getCategory());
+        return values;
     }
 
     private void saveVariantsForItem(SQLiteDatabase db, long menuItemId, List<Variant> variants) {
@@ -72,33 +129,228 @@ public class MenuRepository {
         }
     }
 
+    // Replaces the item's full-text row; must run inside the caller's transaction
+    private void indexMenuItem(SQLiteDatabase db, ProductItem item) {
+        String[] args = new String[]{String.valueOf(item.getId())};
+        db.delete(PoodDatabaseHelper.TABLE_MENU_SEARCH, "docid = ?", args);
+
+        StringBuilder variantNames = new StringBuilder();
+        if (item.getVariants() != null) {
+            for (Variant variant : item.getVariants()) {
+                if (variant.getName() != null) {
+                    if (variantNames.length() > 0) variantNames.append(' ');
+                    variantNames.append(variant.getName());
+                }
+            }
+        }
+
+        ContentValues values = new ContentValues();
+        values.put("docid", item.getId());
+        values.put(DatabaseSchema.COLUMN_SEARCH_NAME, item.getName());
+        values.put(DatabaseSchema.COLUMN_SEARCH_DESCRIPTION, item.getDescription());
+        values.put(DatabaseSchema.COLUMN_SEARCH_CATEGORY, item.getCategory());
+        values.put(DatabaseSchema.COLUMN_SEARCH_VARIANTS, variantNames.toString());
+        db.insert(PoodDatabaseHelper.TABLE_MENU_SEARCH, null, values);
+    }
+
+    /**
+     * Ranked prefix search over name, description, category and variant names. Returns one page
+     * of matching menu item ids, best match first; every query token must prefix-match some word.
+     * Ranking, ordering and paging all happen in SQL, so only the requested page is read.
+     */
+    public List<Long> searchMenuItemIds(String query, int limit, int offset) {
+        List<Long> ids = new ArrayList<>();
+        List<String> tokens = MenuSearchIndex.tokenize(query);
+        if (tokens.isEmpty()) {
+            return ids;
+        }
+
+        StringBuilder matchExpression = new StringBuilder();
+        for (String token : tokens) {
+            if (matchExpression.length() > 0) matchExpression.append(' ');
+            matchExpression.append(token).append('*');
+        }
+
+        // Each token scores the weight of every column it prefix-matches in; a name that starts
+        // with the first token scores the name weight once more. Ties fall back to name order.
+        List<String> args = new ArrayList<>();
+        args.add(matchExpression.toString());
+        StringBuilder rank = new StringBuilder();
+        for (String token : tokens) {
+            for (int column = 0; column < SEARCH_COLUMNS.length; column++) {
+                appendRankTerm(rank, args, SEARCH_COLUMN_WEIGHTS[column], SEARCH_COLUMNS[column] + ":" + token + "*");
+            }
+        }
+        appendRankTerm(rank, args, SEARCH_COLUMN_WEIGHTS[0], SEARCH_COLUMNS[0] + ":^" + tokens.get(0) + "*");
+
+        args.add(String.valueOf(limit));
+        args.add(String.valueOf(offset));
+
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor cursor = null;
+        try {
+            cursor = db.rawQuery("SELECT docid FROM " + PoodDatabaseHelper.TABLE_MENU_SEARCH
+                    + " WHERE " + PoodDatabaseHelper.TABLE_MENU_SEARCH + " MATCH ?"
+                    + " ORDER BY (" + rank + ") DESC, " + DatabaseSchema.COLUMN_SEARCH_NAME + " COLLATE NOCASE ASC"
+                    + " LIMIT ? OFFSET ?",
+                    args.toArray(new String[0]));
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getLong(0));
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error searching menu items", e);
+        } finally {
+            if (cursor != null) cursor.close();
+        }
+        return ids;
+    }
+
+    // The subquery does not depend on the outer row, so SQLite evaluates each term's match once
+    private void appendRankTerm(StringBuilder rank, List<String> args, int weight, String columnMatch) {
+        if (rank.length() > 0) rank.append(" + ");
+        rank.append(weight).append(" * (docid IN (SELECT docid FROM ").append(PoodDatabaseHelper.TABLE_MENU_SEARCH)
+                .append(" WHERE ").append(PoodDatabaseHelper.TABLE_MENU_SEARCH).append(" MATCH ?))");
+        args.add(columnMatch);
+    }
+
+    /**
+     * Loads every menu item with its variants using two queries: all variants are read
+     * once and grouped by menu item id in memory, then attached while reading the items.
+     */
     public List<ProductItem> getAllMenuItems() {
-        List<ProductItem> menuItems = new ArrayList<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Map<Long, List<Variant>> variantsByMenuItem = getVariantsGroupedByMenuItem(db, null, null);
+
         String selectQuery = "SELECT * FROM " + PoodDatabaseHelper.TABLE_MENU_ITEMS +
                 " ORDER BY " + DatabaseSchema.COLUMN_NAME + " ASC";
         Cursor cursor = db.rawQuery(selectQuery, null);
+        List<ProductItem> menuItems = readMenuItems(cursor, variantsByMenuItem);
+        cursor.close();
+        return menuItems;
+    }
 
+    /** One page of the menu in name order, hydrated with variants for just that page. */
+    public List<ProductItem> getMenuItemsPage(int limit, int offset) {
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        String selectQuery = "SELECT * FROM " + PoodDatabaseHelper.TABLE_MENU_ITEMS +
+                " ORDER BY " + DatabaseSchema.COLUMN_NAME + " ASC LIMIT ? OFFSET ?";
+        Cursor cursor = db.rawQuery(selectQuery, new String[]{String.valueOf(limit), String.valueOf(offset)});
+        List<ProductItem> menuItems = readMenuItems(cursor, new HashMap<>());
+        cursor.close();
+
+        attachVariants(db, menuItems);
+        return menuItems;
+    }
+
+    /** Loads the given menu items, in the order of ids (e.g. search rank). */
+    public List<ProductItem> getMenuItemsByIds(List<Long> ids) {
+        List<ProductItem> ordered = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return ordered;
+        }
+
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        String[] args = new String[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            args[i] = String.valueOf(ids.get(i));
+        }
+        Cursor cursor = db.rawQuery("SELECT * FROM " + PoodDatabaseHelper.TABLE_MENU_ITEMS +
+                " WHERE " + DatabaseSchema.COLUMN_ID + " IN (" + placeholders(ids.size()) + ")", args);
+        List<ProductItem> menuItems = readMenuItems(cursor, new HashMap<>());
+        cursor.close();
+        attachVariants(db, menuItems);
+
+        Map<Long, ProductItem> itemsById = new HashMap<>();
+        for (ProductItem item : menuItems) {
+            itemsById.put(item.getId(), item);
+        }
+        for (Long id : ids) {
+            ProductItem item = itemsById.get(id);
+            if (item != null) {
+                ordered.add(item);
+            }
+        }
+        return ordered;
+    }
+
+    private void attachVariants(SQLiteDatabase db, List<ProductItem> menuItems) {
+        if (menuItems.isEmpty()) {
+            return;
+        }
+        String[] args = new String[menuItems.size()];
+        for (int i = 0; i < menuItems.size(); i++) {
+            args[i] = String.valueOf(menuItems.get(i).getId());
+        }
+        Map<Long, List<Variant>> variantsByMenuItem = getVariantsGroupedByMenuItem(db,
+                DatabaseSchema.COLUMN_MENU_ITEM_ID + " IN (" + placeholders(args.length) + ")", args);
+        for (ProductItem item : menuItems) {
+            List<Variant> variants = variantsByMenuItem.get(item.getId());
+            item.setVariants(variants != null ? variants : new ArrayList<>());
+        }
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(i == 0 ? "?" : ",?");
+        }
+        return builder.toString();
+    }
+
+    private List<ProductItem> readMenuItems(Cursor cursor, Map<Long, List<Variant>> variantsByMenuItem) {
+        List<ProductItem> menuItems = new ArrayList<>();
         if (cursor.moveToFirst()) {
+            int idIndex = cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_ID);
+            int nameIndex = cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_NAME);
+            int descriptionIndex = cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_DESCRIPTION);
+            int priceIndex = cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_PRICE);
+            int isActiveIndex = cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_IS_ACTIVE);
+            int imagePathIndex = cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_IMAGE_PATH);
+            int createdAtIndex = cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_CREATED_AT);
+            int updatedAtIndex = cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_UPDATED_AT);
+            int categoryNameIndex = cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_CATEGORY_NAME);
             do {
                 ProductItem item = new ProductItem();
-                item.setId(cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_ID)));
-                item.setName(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_NAME)));
-                item.setDescription(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_DESCRIPTION)));
-                item.setPrice(cursor.getDouble(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_PRICE)));
-                item.setActive(cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_IS_ACTIVE)) == 1);
-                item.setImageUrl(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_IMAGE_PATH)));
-                item.setCreatedAt(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_CREATED_AT)));
-                item.setUpdatedAt(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_UPDATED_AT)));
-                item.setCategory(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_CATEGORY_NAME)));
-                item.setVariants(getVariantsForMenuItem(item.getId()));
+                item.setId(cursor.getLong(idIndex));
+                item.setName(cursor.getString(nameIndex));
+                item.setDescription(cursor.getString(descriptionIndex));
+                item.setPrice(cursor.getDouble(priceIndex));
+                item.setActive(cursor.getInt(isActiveIndex) == 1);
+                item.setImageUrl(cursor.getString(imagePathIndex));
+                item.setCreatedAt(cursor.getString(createdAtIndex));
+                item.setUpdatedAt(cursor.getString(updatedAtIndex));
+                item.setCategory(cursor.getString(categoryNameIndex));
+
+                List<Variant> variants = variantsByMenuItem.get(item.getId());
+                item.setVariants(variants != null ? variants : new ArrayList<>());
                 menuItems.add(item);
             } while (cursor.moveToNext());
         }
-        cursor.close();
         return menuItems;
     }
 
+    private Map<Long, List<Variant>> getVariantsGroupedByMenuItem(SQLiteDatabase db, String selection, String[] selectionArgs) {
+        Map<Long, List<Variant>> variantsByMenuItem = new HashMap<>();
+        Cursor cursor = db.query(PoodDatabaseHelper.TABLE_VARIANTS, null, selection, selectionArgs, null, null,
+                DatabaseSchema.COLUMN_MENU_ITEM_ID + ", " + DatabaseSchema.COLUMN_VARIANT_ID);
+
+        if (cursor.moveToFirst()) {
+            int menuItemIdIndex = cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_MENU_ITEM_ID);
+            VariantColumns columns = new VariantColumns(cursor);
+            do {
+                long menuItemId = cursor.getLong(menuItemIdIndex);
+                List<Variant> variants = variantsByMenuItem.get(menuItemId);
+                if (variants == null) {
+                    variants = new ArrayList<>();
+                    variantsByMenuItem.put(menuItemId, variants);
+                }
+                variants.add(createVariantFromCursor(cursor, columns));
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+        return variantsByMenuItem;
+    }
+
     public List<Variant> getVariantsForMenuItem(long menuItemId) {
         List<Variant> variants = new ArrayList<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
@@ -107,21 +359,45 @@ public class MenuRepository {
         Cursor cursor = db.rawQuery(selectQuery, new String[]{String.valueOf(menuItemId)});
 
         if (cursor.moveToFirst()) {
+            VariantColumns columns = new VariantColumns(cursor);
             do {
-                Variant variant = new Variant();
-                variant.setId(cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_VARIANT_ID)));
-                variant.setName(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_VARIANT_NAME)));
-                variant.setPrice(cursor.getDouble(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_VARIANT_PRICE)));
-                variant.setActive(cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_VARIANT_IS_ACTIVE)) == 1);
-                variant.setCreatedAt(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_VARIANT_CREATED_AT)));
-                variant.setUpdatedAt(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_VARIANT_UPDATED_AT)));
-                variants.add(variant);
+                variants.add(createVariantFromCursor(cursor, columns));
             } while (cursor.moveToNext());
         }
         cursor.close();
         return variants;
     }
 
+    // Column positions of a variants cursor, looked up once rather than for every row
+    private static class VariantColumns {
+        final int id;
+        final int name;
+        final int price;
+        final int isActive;
+        final int createdAt;
+        final int updatedAt;
+
+        VariantColumns(Cursor cursor) {
+            id = cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_VARIANT_ID);
+            name = cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_VARIANT_NAME);
+            price = cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_VARIANT_PRICE);
+            isActive = cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_VARIANT_IS_ACTIVE);
+            createdAt = cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_VARIANT_CREATED_AT);
+            updatedAt = cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_VARIANT_UPDATED_AT);
+        }
+    }
+
+    private Variant createVariantFromCursor(Cursor cursor, VariantColumns columns) {
+        Variant variant = new Variant();
+        variant.setId(cursor.getLong(columns.id));
+        variant.setName(cursor.getString(columns.name));
+        variant.setPrice(cursor.getDouble(columns.price));
+        variant.setActive(cursor.getInt(columns.isActive) == 1);
+        variant.setCreatedAt(cursor.getString(columns.createdAt));
+        variant.setUpdatedAt(cursor.getString(columns.updatedAt));
+        return variant;
+    }
+
     public List<Variant> getAllVariants() {
         List<Variant> variants = new ArrayList<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
@@ -145,32 +421,62 @@ public class MenuRepository {
         return variants;
     }
 
-    public void saveMenuCategories(List<MenuCategory> categories) {
+    public boolean saveMenuCategories(List<MenuCategory> categories) {
         SQLiteDatabase db = dbHelper.getWritableDatabase();
+        boolean committed = false;
         try {
             db.beginTransaction();
             db.delete(PoodDatabaseHelper.TABLE_CATEGORIES, null, null);
             for (MenuCategory category : categories) {
-                ContentValues values = new ContentValues();
-                values.put(DatabaseSchema.COLUMN_CAT_ID, category.getId());
-                values.put(DatabaseSchema.COLUMN_CAT_NAME, category.getName());
-                values.put(DatabaseSchema.COLUMN_CAT_DESCRIPTION, category.getDescription());
-                values.put(DatabaseSchema.COLUMN_CAT_CREATED_AT, category.getCreatedAt());
-                values.put(DatabaseSchema.COLUMN_CAT_UPDATED_AT, category.getUpdatedAt());
-                values.put(DatabaseSchema.COLUMN_CAT_IS_DISPLAYED, category.isDisplayed() ? 1 : 0);
-                values.put(DatabaseSchema.COLUMN_CAT_DISPLAY_PICTURE, category.getDisplayPicture());
-                values.put(DatabaseSchema.COLUMN_CAT_GROUP, category.getMenuCategoryGroup());
-                values.put(DatabaseSchema.COLUMN_CAT_SKU_ID, category.getSkuId());
-                values.put(DatabaseSchema.COLUMN_CAT_IS_HIGHLIGHT, category.isHighlight() ? 1 : 0);
-                values.put(DatabaseSchema.COLUMN_CAT_IS_DISPLAY_FOR_SELF_ORDER, category.isDisplayForSelfOrder() ? 1 : 0);
-                db.insert(PoodDatabaseHelper.TABLE_CATEGORIES, null, values);
+                db.insert(PoodDatabaseHelper.TABLE_CATEGORIES, null, createCategoryValues(category));
             }
             db.setTransactionSuccessful();
+            committed = true;
         } catch (Exception e) {
             Log.e(TAG, "Error saving categories to database", e);
         } finally {
             db.endTransaction();
         }
+        return committed;
+    }
+
+    public boolean applyMenuCategoryChanges(List<MenuCategory> changedCategories, List<Long> deletedCategoryIds) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        boolean committed = false;
+        try {
+            db.beginTransaction();
+            for (MenuCategory category : changedCategories) {
+                db.insertWithOnConflict(PoodDatabaseHelper.TABLE_CATEGORIES, null,
+                        createCategoryValues(category), SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            for (Long deletedId : deletedCategoryIds) {
+                db.delete(PoodDatabaseHelper.TABLE_CATEGORIES, DatabaseSchema.COLUMN_CAT_ID + " = ?",
+                        new String[]{String.valueOf(deletedId)});
+            }
+            db.setTransactionSuccessful();
+            committed = true;
+        } catch (Exception e) {
+            Log.e(TAG, "Error applying category changes", e);
+        } finally {
+            db.endTransaction();
+        }
+        return committed;
+    }
+
+    private ContentValues createCategoryValues(MenuCategory category) {
+        ContentValues values = new ContentValues();
+        values.put(DatabaseSchema.COLUMN_CAT_ID, category.getId());
+        values.put(DatabaseSchema.COLUMN_CAT_NAME, category.getName());
+        values.put(DatabaseSchema.COLUMN_CAT_DESCRIPTION, category.getDescription());
+        values.put(DatabaseSchema.COLUMN_CAT_CREATED_AT, category.getCreatedAt());
+        values.put(DatabaseSchema.COLUMN_CAT_UPDATED_AT, category.getUpdatedAt());
+        values.put(DatabaseSchema.COLUMN_CAT_IS_DISPLAYED, category.isDisplayed() ? 1 : 0);
+        values.put(DatabaseSchema.COLUMN_CAT_DISPLAY_PICTURE, category.getDisplayPicture());
+        values.put(DatabaseSchema.COLUMN_CAT_GROUP, category.getMenuCategoryGroup());
+        values.put(DatabaseSchema.COLUMN_CAT_SKU_ID, category.getSkuId());
+        values.put(DatabaseSchema.COLUMN_CAT_IS_HIGHLIGHT, category.isHighlight() ? 1 : 0);
+        values.put(DatabaseSchema.COLUMN_CAT_IS_DISPLAY_FOR_SELF_ORDER, category.isDisplayForSelfOrder() ? 1 : 0);
+        return values;
     }
 
     public List<MenuCategory> getAllMenuCategories() {
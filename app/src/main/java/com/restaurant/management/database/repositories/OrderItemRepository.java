@@ -3,6 +3,7 @@ package com.restaurant.management.database.repositories;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.util.Log;
 
@@ -14,6 +15,7 @@ import com.restaurant.management.helpers.OrderItemSyncData;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Repository for order item-related database operations
@@ -26,12 +28,20 @@ public class OrderItemRepository {
         this.dbHelper = PoodDatabaseHelper.getInstance(context);
     }
 
-    public long saveOrderItemLocally(long orderId, CreateOrderItemRequest request) {
+    /**
+     * Queues an order item for sync. Pass orderIsLocal when orderId is the local id of an order
+     * that has not reached the server yet; the item is then held back until that order syncs.
+     */
+    public long saveOrderItemLocally(long orderId, boolean orderIsLocal, CreateOrderItemRequest request,
+                                     String clientUuid) {
         SQLiteDatabase db = dbHelper.getWritableDatabase();
         long itemId = -1;
         try {
             ContentValues values = new ContentValues();
             values.put(DatabaseSchema.COLUMN_ORDER_ITEM_ORDER_ID, orderId);
+            if (orderIsLocal) {
+                values.put(DatabaseSchema.COLUMN_ITEM_LOCAL_ORDER_ID, orderId);
+            }
             values.put(DatabaseSchema.COLUMN_MENU_ITEM_ID_FK, request.getMenuItemId());
             values.put(DatabaseSchema.COLUMN_VARIANT_ID_FK, request.getVariantId());
             values.put(DatabaseSchema.COLUMN_ITEM_QUANTITY, request.getQuantity());
@@ -45,6 +55,7 @@ public class OrderItemRepository {
             values.put(DatabaseSchema.COLUMN_ITEM_KITCHEN_PRINTED, request.isKitchenPrinted() ? 1 : 0);
             values.put(DatabaseSchema.COLUMN_ITEM_IS_SYNCED, 0);
             values.put(DatabaseSchema.COLUMN_ITEM_CREATED_AT, getCurrentTimestamp());
+            values.put(DatabaseSchema.COLUMN_ITEM_CLIENT_UUID, clientUuid);
             itemId = db.insert(PoodDatabaseHelper.TABLE_ORDER_ITEMS, null, values);
         } catch (Exception e) {
             Log.e(TAG, "Error saving order item locally", e);
@@ -67,6 +78,44 @@ public class OrderItemRepository {
         }
     }
 
+    /**
+     * Commits the outcome of one sync batch in a single transaction: synced items get their
+     * server id, failed ones stay unsynced with their attempt count and last error updated.
+     * Returns the number of items marked synced, which is 0 if the transaction rolled back.
+     */
+    public int commitSyncBatch(Map<Long, Long> localToServerItemIds, Map<Long, String> failedItemErrors) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        int syncedCount = 0;
+        try {
+            db.beginTransaction();
+            ContentValues values = new ContentValues();
+            for (Map.Entry<Long, Long> entry : localToServerItemIds.entrySet()) {
+                values.clear();
+                values.put(DatabaseSchema.COLUMN_ITEM_SERVER_ID, entry.getValue());
+                values.put(DatabaseSchema.COLUMN_ITEM_IS_SYNCED, 1);
+                values.putNull(DatabaseSchema.COLUMN_ITEM_LAST_SYNC_ERROR);
+                syncedCount += db.update(PoodDatabaseHelper.TABLE_ORDER_ITEMS, values,
+                        DatabaseSchema.COLUMN_ITEM_ID + " = ?",
+                        new String[]{String.valueOf(entry.getKey())});
+            }
+
+            String recordFailure = "UPDATE " + PoodDatabaseHelper.TABLE_ORDER_ITEMS
+                    + " SET " + DatabaseSchema.COLUMN_ITEM_SYNC_ATTEMPTS + " = " + DatabaseSchema.COLUMN_ITEM_SYNC_ATTEMPTS + " + 1, "
+                    + DatabaseSchema.COLUMN_ITEM_LAST_SYNC_ERROR + " = ?"
+                    + " WHERE " + DatabaseSchema.COLUMN_ITEM_ID + " = ?";
+            for (Map.Entry<Long, String> entry : failedItemErrors.entrySet()) {
+                db.execSQL(recordFailure, new Object[]{entry.getValue(), entry.getKey()});
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error committing order item sync batch", e);
+            syncedCount = 0;
+        } finally {
+            db.endTransaction();
+        }
+        return syncedCount;
+    }
+
     public List<OrderItemSyncData> getUnsyncedOrderItems() {
         List<OrderItemSyncData> unsyncedItems = new ArrayList<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
@@ -151,6 +200,9 @@ public class OrderItemRepository {
         item.setOriginalPrice(cursor.getDouble(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_ITEM_ORIGINAL_PRICE)));
         item.setKitchenPrinted(cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_ITEM_KITCHEN_PRINTED)) == 1);
         item.setCreatedAt(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_ITEM_CREATED_AT)));
+        item.setClientUuid(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_ITEM_CLIENT_UUID)));
+        item.setLocalOrderId(cursor.isNull(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_ITEM_LOCAL_ORDER_ID)) ?
+                null : cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_ITEM_LOCAL_ORDER_ID)));
         return item;
     }
 
@@ -201,6 +253,18 @@ public class OrderItemRepository {
         return getTableCount(PoodDatabaseHelper.TABLE_ORDER_ITEMS);
     }
 
+    // Answered from the sync index, without loading the rows
+    public int getUnsyncedOrderItemCount() {
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        try {
+            return (int) DatabaseUtils.queryNumEntries(db, PoodDatabaseHelper.TABLE_ORDER_ITEMS,
+                    DatabaseSchema.COLUMN_ITEM_IS_SYNCED + " = 0");
+        } catch (Exception e) {
+            Log.e(TAG, "Error counting unsynced order items", e);
+            return 0;
+        }
+    }
+
     private int getTableCount(String tableName) {
         SQLiteDatabase db = dbHelper.getReadableDatabase();
         int count = 0;
@@ -3,6 +3,7 @@ package com.restaurant.management.database.repositories;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.util.Log;
 
@@ -13,6 +14,7 @@ import com.restaurant.management.models.OrderType;
 import com.restaurant.management.models.OrderStatus;
 import com.restaurant.management.models.CreateOrderItemRequest;
 import com.restaurant.management.helpers.OrderItemSyncData;
+import com.restaurant.management.helpers.OrderSyncData;
 
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -107,7 +109,8 @@ public class OrderRepository {
         return orderStatuses;
     }
 
-    public long saveOrderLocally(long sessionId, String tableNumber, String customerName, long orderTypeId) {
+    public long saveOrderLocally(long sessionId, String tableNumber, String customerName, long orderTypeId,
+                                 String clientUuid) {
         SQLiteDatabase db = dbHelper.getWritableDatabase();
         long orderId = -1;
         try {
@@ -118,6 +121,7 @@ public class OrderRepository {
             values.put(DatabaseSchema.COLUMN_ORDER_TYPE_ID, orderTypeId);
             values.put(DatabaseSchema.COLUMN_IS_SYNCED, 0);
             values.put(DatabaseSchema.COLUMN_ORDER_CREATED_AT, getCurrentTimestamp());
+            values.put(DatabaseSchema.COLUMN_ORDER_CLIENT_UUID, clientUuid);
             orderId = db.insert(PoodDatabaseHelper.TABLE_ORDERS, null, values);
         } catch (Exception e) {
             Log.e(TAG, "Error saving order locally", e);
@@ -126,17 +130,33 @@ public class OrderRepository {
         return orderId;
     }
 
+    /**
+     * Records the server id for a locally created order and points its order items at that id,
+     * in one transaction so no item is ever left referencing an order the server doesn't know.
+     * Only items saved against the local order move; a server order with the same id keeps its own.
+     */
     public void markOrderAsSynced(long localOrderId, long serverOrderId) {
         SQLiteDatabase db = dbHelper.getWritableDatabase();
         try {
+            db.beginTransaction();
             ContentValues values = new ContentValues();
             values.put(DatabaseSchema.COLUMN_SERVER_ORDER_ID, serverOrderId);
             values.put(DatabaseSchema.COLUMN_IS_SYNCED, 1);
             db.update(PoodDatabaseHelper.TABLE_ORDERS, values,
                     DatabaseSchema.COLUMN_ORDER_ID + " = ?",
                     new String[]{String.valueOf(localOrderId)});
+
+            ContentValues itemValues = new ContentValues();
+            itemValues.put(DatabaseSchema.COLUMN_ORDER_ITEM_ORDER_ID, serverOrderId);
+            itemValues.putNull(DatabaseSchema.COLUMN_ITEM_LOCAL_ORDER_ID);
+            db.update(PoodDatabaseHelper.TABLE_ORDER_ITEMS, itemValues,
+                    DatabaseSchema.COLUMN_ITEM_LOCAL_ORDER_ID + " = ?",
+                    new String[]{String.valueOf(localOrderId)});
+            db.setTransactionSuccessful();
         } catch (Exception e) {
             Log.e(TAG, "Error marking order as synced", e);
+        } finally {
+            db.endTransaction();
         }
     }
 
@@ -181,6 +201,33 @@ public class OrderRepository {
         return unsyncedIds;
     }
 
+    public List<OrderSyncData> getUnsyncedOrders() {
+        List<OrderSyncData> unsyncedOrders = new ArrayList<>();
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        try {
+            Cursor cursor = db.query(PoodDatabaseHelper.TABLE_ORDERS, null,
+                    DatabaseSchema.COLUMN_IS_SYNCED + " = ?", new String[]{"0"},
+                    null, null, DatabaseSchema.COLUMN_ORDER_CREATED_AT + " ASC");
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    OrderSyncData order = new OrderSyncData();
+                    order.setLocalId(cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_ORDER_ID)));
+                    order.setSessionId(cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_SESSION_ID)));
+                    order.setTableNumber(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_TABLE_NUMBER)));
+                    order.setCustomerName(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_CUSTOMER_NAME)));
+                    order.setOrderTypeId(cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_ORDER_TYPE_ID)));
+                    order.setCreatedAt(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_ORDER_CREATED_AT)));
+                    order.setClientUuid(cursor.getString(cursor.getColumnIndexOrThrow(DatabaseSchema.COLUMN_ORDER_CLIENT_UUID)));
+                    unsyncedOrders.add(order);
+                }
+                cursor.close();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error getting unsynced orders", e);
+        }
+        return unsyncedOrders;
+    }
+
     private String getCurrentTimestamp() {
         return new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss", java.util.Locale.getDefault())
                 .format(new java.util.Date());
@@ -190,6 +237,17 @@ public class OrderRepository {
         return getTableCount(PoodDatabaseHelper.TABLE_ORDERS);
     }
 
+    public int getUnsyncedOrderCount() {
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        try {
+            return (int) DatabaseUtils.queryNumEntries(db, PoodDatabaseHelper.TABLE_ORDERS,
+                    DatabaseSchema.COLUMN_IS_SYNCED + " = 0");
+        } catch (Exception e) {
+            Log.e(TAG, "Error counting unsynced orders", e);
+            return 0;
+        }
+    }
+
     private int getTableCount(String tableName) {
         SQLiteDatabase db = dbHelper.getReadableDatabase();
         int count = 0;
@@ -0,0 +1,86 @@
+package com.restaurant.management.database.repositories;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.restaurant.management.database.PoodDatabaseHelper;
+import com.restaurant.management.database.DatabaseSchema;
+import com.restaurant.management.models.ReconciliationSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repository for the payments taken on this device and their per-session reconciliation totals
+ */
+public class PaymentRepository {
+    private static final String TAG = "PaymentRepository";
+    private final PoodDatabaseHelper dbHelper;
+
+    private static final String MODE_TOTALS_QUERY = "SELECT "
+            + DatabaseSchema.COLUMN_PAYMENT_MODE_ID + ", "
+            + "SUM(" + DatabaseSchema.COLUMN_PAYMENT_AMOUNT + "), "
+            + "COUNT(*), "
+            + "COUNT(DISTINCT " + DatabaseSchema.COLUMN_PAYMENT_ORDER_ID + ")"
+            + " FROM " + PoodDatabaseHelper.TABLE_PAYMENTS
+            + " WHERE " + DatabaseSchema.COLUMN_PAYMENT_SESSION_ID + " = ?"
+            + " GROUP BY " + DatabaseSchema.COLUMN_PAYMENT_MODE_ID;
+
+    // An order split across modes counts once in the session total
+    private static final String SESSION_TOTALS_QUERY = "SELECT "
+            + "COALESCE(SUM(" + DatabaseSchema.COLUMN_PAYMENT_AMOUNT + "), 0), "
+            + "COUNT(DISTINCT " + DatabaseSchema.COLUMN_PAYMENT_ORDER_ID + ")"
+            + " FROM " + PoodDatabaseHelper.TABLE_PAYMENTS
+            + " WHERE " + DatabaseSchema.COLUMN_PAYMENT_SESSION_ID + " = ?";
+
+    public PaymentRepository(Context context) {
+        this.dbHelper = PoodDatabaseHelper.getInstance(context);
+    }
+
+    public void recordPayment(long sessionId, long orderId, String paymentModeId, double amount) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        try {
+            ContentValues values = new ContentValues();
+            values.put(DatabaseSchema.COLUMN_PAYMENT_SESSION_ID, sessionId);
+            values.put(DatabaseSchema.COLUMN_PAYMENT_ORDER_ID, orderId);
+            values.put(DatabaseSchema.COLUMN_PAYMENT_MODE_ID, paymentModeId);
+            values.put(DatabaseSchema.COLUMN_PAYMENT_AMOUNT, amount);
+            db.insert(PoodDatabaseHelper.TABLE_PAYMENTS, null, values);
+        } catch (Exception e) {
+            Log.e(TAG, "Error recording payment for order " + orderId, e);
+        }
+    }
+
+    public ReconciliationSummary getReconciliationSummary(long sessionId) {
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        String[] args = {String.valueOf(sessionId)};
+        List<ReconciliationSummary.ModeTotal> modeTotals = new ArrayList<>();
+        double totalAmount = 0.0;
+        int orderCount = 0;
+
+        Cursor cursor = null;
+        try {
+            cursor = db.rawQuery(MODE_TOTALS_QUERY, args);
+            while (cursor.moveToNext()) {
+                modeTotals.add(new ReconciliationSummary.ModeTotal(cursor.getString(0),
+                        cursor.getDouble(1), cursor.getInt(2), cursor.getInt(3)));
+            }
+            cursor.close();
+
+            cursor = db.rawQuery(SESSION_TOTALS_QUERY, args);
+            if (cursor.moveToFirst()) {
+                totalAmount = cursor.getDouble(0);
+                orderCount = cursor.getInt(1);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error totalling payments for session " + sessionId, e);
+        } finally {
+            if (cursor != null) cursor.close();
+        }
+
+        return new ReconciliationSummary(totalAmount, orderCount, modeTotals);
+    }
+}
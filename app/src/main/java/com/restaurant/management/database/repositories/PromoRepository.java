@@ -24,32 +24,62 @@ public class PromoRepository {
         this.dbHelper = PoodDatabaseHelper.getInstance(context);
     }
 
-    public void savePromos(List<Promo> promos) {
+    public boolean savePromos(List<Promo> promos) {
         SQLiteDatabase db = dbHelper.getWritableDatabase();
+        boolean committed = false;
         try {
             db.beginTransaction();
             db.delete(PoodDatabaseHelper.TABLE_PROMOS, null, null);
             for (Promo promo : promos) {
-                ContentValues values = new ContentValues();
-                values.put(DatabaseSchema.COLUMN_PROMO_ID, promo.getPromoId());
-                values.put(DatabaseSchema.COLUMN_PROMO_NAME, promo.getPromoName());
-                values.put(DatabaseSchema.COLUMN_PROMO_DESCRIPTION, promo.getPromoDescription());
-                values.put(DatabaseSchema.COLUMN_PROMO_START_DATE, promo.getStartDate());
-                values.put(DatabaseSchema.COLUMN_PROMO_END_DATE, promo.getEndDate());
-                values.put(DatabaseSchema.COLUMN_PROMO_TERM_CONDITION, promo.getTermAndCondition());
-                values.put(DatabaseSchema.COLUMN_PROMO_PICTURE, promo.getPicture());
-                values.put(DatabaseSchema.COLUMN_PROMO_TYPE, promo.getType());
-                values.put(DatabaseSchema.COLUMN_PROMO_DISCOUNT_TYPE, promo.getDiscountType());
-                values.put(DatabaseSchema.COLUMN_PROMO_DISCOUNT_AMOUNT, promo.getDiscountAmount());
-                values.put(DatabaseSchema.COLUMN_PROMO_IS_ACTIVE, promo.isActive() ? 1 : 0);
-                db.insert(PoodDatabaseHelper.TABLE_PROMOS, null, values);
+                db.insert(PoodDatabaseHelper.TABLE_PROMOS, null, createPromoValues(promo));
             }
             db.setTransactionSuccessful();
+            committed = true;
         } catch (Exception e) {
             Log.e(TAG, "Error saving promos", e);
         } finally {
             db.endTransaction();
         }
+        return committed;
+    }
+
+    public boolean applyPromoChanges(List<Promo> changedPromos, List<Long> deletedPromoIds) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        boolean committed = false;
+        try {
+            db.beginTransaction();
+            for (Promo promo : changedPromos) {
+                db.insertWithOnConflict(PoodDatabaseHelper.TABLE_PROMOS, null,
+                        createPromoValues(promo), SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            for (Long deletedId : deletedPromoIds) {
+                db.delete(PoodDatabaseHelper.TABLE_PROMOS, DatabaseSchema.COLUMN_PROMO_ID + " = ?",
+                        new String[]{String.valueOf(deletedId)});
+            }
+            db.setTransactionSuccessful();
+            committed = true;
+        } catch (Exception e) {
+            Log.e(TAG, "Error applying promo changes", e);
+        } finally {
+            db.endTransaction();
+        }
+        return committed;
+    }
+
+    private ContentValues createPromoValues(Promo promo) {
+        ContentValues values = new ContentValues();
+        values.put(DatabaseSchema.COLUMN_PROMO_ID, promo.getPromoId());
+        values.put(DatabaseSchema.COLUMN_PROMO_NAME, promo.getPromoName());
+        values.put(DatabaseSchema.COLUMN_PROMO_DESCRIPTION, promo.getPromoDescription());
+        values.put(DatabaseSchema.COLUMN_PROMO_START_DATE, promo.getStartDate());
+        values.put(DatabaseSchema.COLUMN_PROMO_END_DATE, promo.getEndDate());
+        values.put(DatabaseSchema.COLUMN_PROMO_TERM_CONDITION, promo.getTermAndCondition());
+        values.put(DatabaseSchema.COLUMN_PROMO_PICTURE, promo.getPicture());
+        values.put(DatabaseSchema.COLUMN_PROMO_TYPE, promo.getType());
+        values.put(DatabaseSchema.COLUMN_PROMO_DISCOUNT_TYPE, promo.getDiscountType());
+        values.put(DatabaseSchema.COLUMN_PROMO_DISCOUNT_AMOUNT, promo.getDiscountAmount());
+        values.put(DatabaseSchema.COLUMN_PROMO_IS_ACTIVE, promo.isActive() ? 1 : 0);
+        return values;
     }
 
     public List<Promo> getAllActivePromos() {
@@ -0,0 +1,83 @@
+package com.restaurant.management.database.repositories;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.restaurant.management.database.PoodDatabaseHelper;
+import com.restaurant.management.database.DatabaseSchema;
+
+/**
+ * Repository for the raw reference-data payloads (taxes, discounts, payment modes, rounding)
+ */
+public class ReferenceDataRepository {
+    private static final String TAG = "ReferenceDataRepository";
+    private final PoodDatabaseHelper dbHelper;
+
+    public ReferenceDataRepository(Context context) {
+        this.dbHelper = PoodDatabaseHelper.getInstance(context);
+    }
+
+    public String getPayload(String key) {
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        String payload = null;
+        Cursor cursor = null;
+        try {
+            cursor = db.query(PoodDatabaseHelper.TABLE_REFERENCE_DATA,
+                    new String[]{DatabaseSchema.COLUMN_REF_PAYLOAD},
+                    DatabaseSchema.COLUMN_REF_KEY + " = ?", new String[]{key},
+                    null, null, null);
+            if (cursor != null && cursor.moveToFirst()) {
+                payload = cursor.getString(0);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading reference data for " + key, e);
+        } finally {
+            if (cursor != null) cursor.close();
+        }
+        return payload;
+    }
+
+    public void savePayload(String key, String payload) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        try {
+            db.insertWithOnConflict(PoodDatabaseHelper.TABLE_REFERENCE_DATA, null,
+                    createPayloadValues(key, payload), SQLiteDatabase.CONFLICT_REPLACE);
+        } catch (Exception e) {
+            Log.e(TAG, "Error saving reference data for " + key, e);
+        }
+    }
+
+    /**
+     * Saves the payload and, in the same transaction, deletes every other row whose key starts
+     * with groupPrefix but not with keepPrefix, so a group keyed by session only keeps the current one.
+     */
+    public void replaceGroupPayload(String key, String payload, String groupPrefix, String keepPrefix) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        try {
+            db.beginTransaction();
+            db.delete(PoodDatabaseHelper.TABLE_REFERENCE_DATA,
+                    "substr(" + DatabaseSchema.COLUMN_REF_KEY + ", 1, ?) = ? AND substr("
+                            + DatabaseSchema.COLUMN_REF_KEY + ", 1, ?) != ?",
+                    new String[]{String.valueOf(groupPrefix.length()), groupPrefix,
+                            String.valueOf(keepPrefix.length()), keepPrefix});
+            db.insertWithOnConflict(PoodDatabaseHelper.TABLE_REFERENCE_DATA, null,
+                    createPayloadValues(key, payload), SQLiteDatabase.CONFLICT_REPLACE);
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error replacing reference data for " + key, e);
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private ContentValues createPayloadValues(String key, String payload) {
+        ContentValues values = new ContentValues();
+        values.put(DatabaseSchema.COLUMN_REF_KEY, key);
+        values.put(DatabaseSchema.COLUMN_REF_PAYLOAD, payload);
+        values.put(DatabaseSchema.COLUMN_REF_FETCHED_AT, System.currentTimeMillis());
+        return values;
+    }
+}
@@ -0,0 +1,65 @@
+package com.restaurant.management.database.repositories;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.restaurant.management.database.PoodDatabaseHelper;
+import com.restaurant.management.database.DatabaseSchema;
+
+/**
+ * Repository for the per-table high-water marks used by delta refreshes
+ */
+public class SyncWatermarkRepository {
+    private static final String TAG = "SyncWatermarkRepository";
+    private final PoodDatabaseHelper dbHelper;
+
+    public SyncWatermarkRepository(Context context) {
+        this.dbHelper = PoodDatabaseHelper.getInstance(context);
+    }
+
+    public String getWatermark(String tableName) {
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        String watermark = null;
+        Cursor cursor = null;
+        try {
+            cursor = db.query(PoodDatabaseHelper.TABLE_SYNC_WATERMARKS,
+                    new String[]{DatabaseSchema.COLUMN_WATERMARK_VALUE},
+                    DatabaseSchema.COLUMN_WATERMARK_TABLE + " = ?", new String[]{tableName},
+                    null, null, null);
+            if (cursor != null && cursor.moveToFirst()) {
+                watermark = cursor.getString(0);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading watermark for " + tableName, e);
+        } finally {
+            if (cursor != null) cursor.close();
+        }
+        return watermark;
+    }
+
+    public void saveWatermark(String tableName, String watermark) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        try {
+            ContentValues values = new ContentValues();
+            values.put(DatabaseSchema.COLUMN_WATERMARK_TABLE, tableName);
+            values.put(DatabaseSchema.COLUMN_WATERMARK_VALUE, watermark);
+            db.insertWithOnConflict(PoodDatabaseHelper.TABLE_SYNC_WATERMARKS, null, values,
+                    SQLiteDatabase.CONFLICT_REPLACE);
+        } catch (Exception e) {
+            Log.e(TAG, "Error saving watermark for " + tableName, e);
+        }
+    }
+
+    public void clearWatermark(String tableName) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        try {
+            db.delete(PoodDatabaseHelper.TABLE_SYNC_WATERMARKS,
+                    DatabaseSchema.COLUMN_WATERMARK_TABLE + " = ?", new String[]{tableName});
+        } catch (Exception e) {
+            Log.e(TAG, "Error clearing watermark for " + tableName, e);
+        }
+    }
+}
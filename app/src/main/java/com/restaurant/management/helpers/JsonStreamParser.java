@@ -0,0 +1,668 @@
+package com.restaurant.management.helpers;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.restaurant.management.models.Order;
+import com.restaurant.management.models.OrderItem;
+import com.restaurant.management.models.ProductItem;
+import com.restaurant.management.models.Promo;
+import com.restaurant.management.models.Variant;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pull parser for the large list endpoints (menu items, promos, orders).
+ *
+ * Reads the response body token by token into the caller's record list, so neither the raw
+ * body nor a full JSON tree is ever held in memory; callers stage the records and apply them
+ * once the whole envelope has been read. Field handling mirrors
+ * the org.json parsers it replaces: missing or null fields fall back to the same defaults.
+ * A record of the wrong shape, or a menu item or promo without an id, is skipped and counted
+ * in {@link Envelope#skippedCount}; only a body that is not valid JSON fails the whole read.
+ */
+public final class JsonStreamParser {
+
+    // Returns null for a record that cannot be used
+    private interface RecordReader<T> {
+        T read(JsonReader reader) throws IOException;
+    }
+
+    /** Top-level fields that surround the "data" array. */
+    public static class Envelope {
+        public String status;
+        public boolean hasData;
+        public int recordCount;
+        public int skippedCount;
+        public List<Long> deletedIds; // null when the response carries no tombstones
+        public boolean fullReload;
+        public String serverTime;
+        public String nextCursor; // null on the last page, or when the endpoint does not page
+    }
+
+    private JsonStreamParser() {
+    }
+
+    public static Envelope readMenuItems(Reader source, List<ProductItem> records) throws IOException {
+        return readEnvelope(source, records, JsonStreamParser::readMenuItem);
+    }
+
+    public static Envelope readPromos(Reader source, List<Promo> records) throws IOException {
+        return readEnvelope(source, records, JsonStreamParser::readPromo);
+    }
+
+    public static Envelope readOrders(Reader source, List<Order> records) throws IOException {
+        return readEnvelope(source, records, JsonStreamParser::readOrder);
+    }
+
+    private static <T> Envelope readEnvelope(Reader source, List<T> records, RecordReader<T> recordReader)
+            throws IOException {
+        Envelope envelope = new Envelope();
+        JsonReader reader = new JsonReader(source);
+        reader.setLenient(true);
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case "status":
+                    envelope.status = nextString(reader, null);
+                    break;
+                case "data":
+                    readData(reader, records, recordReader, envelope);
+                    break;
+                case "deleted_ids":
+                    envelope.deletedIds = readLongArray(reader);
+                    break;
+                case "full_reload":
+                    envelope.fullReload = nextBoolean(reader, false);
+                    break;
+                case "server_time":
+                    envelope.serverTime = nextString(reader, null);
+                    break;
+                case "next_cursor":
+                    envelope.nextCursor = nextString(reader, null);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        return envelope;
+    }
+
+    private static <T> void readData(JsonReader reader, List<T> records, RecordReader<T> recordReader,
+                                     Envelope envelope) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+            return;
+        }
+
+        envelope.hasData = true;
+
+        if (token == JsonToken.BEGIN_OBJECT) {
+            // Single record instead of an array
+            addRecord(reader, recordReader, records, envelope);
+        } else if (token != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+        } else {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                addRecord(reader, recordReader, records, envelope);
+            }
+            reader.endArray();
+        }
+    }
+
+    private static <T> void addRecord(JsonReader reader, RecordReader<T> recordReader, List<T> records,
+                                      Envelope envelope) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            envelope.skippedCount++;
+            return;
+        }
+        T record = recordReader.read(reader);
+        if (record == null) {
+            envelope.skippedCount++;
+            return;
+        }
+        records.add(record);
+        envelope.recordCount++;
+    }
+
+    private static ProductItem readMenuItem(JsonReader reader) throws IOException {
+        ProductItem item = new ProductItem();
+        item.setId(-1);
+        item.setName("");
+        item.setDescription("");
+        item.setActive(true);
+        item.setCreatedAt("");
+        item.setUpdatedAt("");
+
+        String categoryName = null;
+        String category = null;
+        String imageUrl = null;
+        String imagePath = null;
+        List<Variant> variants = new ArrayList<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    item.setId(nextLong(reader, -1));
+                    break;
+                case "name":
+                    item.setName(nextString(reader, ""));
+                    break;
+                case "description":
+                    item.setDescription(nextString(reader, ""));
+                    break;
+                case "price":
+                    item.setPrice(nextDouble(reader, 0.0));
+                    break;
+                case "category_name":
+                    categoryName = nextString(reader, null);
+                    break;
+                case "category":
+                    category = readCategoryName(reader);
+                    break;
+                case "is_active":
+                    item.setActive(nextBoolean(reader, true));
+                    break;
+                case "created_at":
+                    item.setCreatedAt(nextString(reader, ""));
+                    break;
+                case "updated_at":
+                    item.setUpdatedAt(nextString(reader, ""));
+                    break;
+                case "image_url":
+                    imageUrl = nextString(reader, null);
+                    break;
+                case "image_path":
+                    imagePath = nextString(reader, null);
+                    break;
+                case "variants":
+                    variants = readVariants(reader);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (categoryName != null) {
+            item.setCategory(categoryName);
+        } else if (category != null) {
+            item.setCategory(category);
+        }
+
+        if (imageUrl != null) {
+            item.setImageUrl(imageUrl);
+        } else if (imagePath != null) {
+            item.setImageUrl(imagePath);
+        }
+
+        if (item.getId() <= 0) {
+            return null;
+        }
+        item.setVariants(variants);
+        return item;
+    }
+
+    // "category" is either a plain name or an object with a "name" field
+    private static String readCategoryName(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            return nextString(reader, null);
+        }
+
+        String name = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("name".equals(reader.nextName())) {
+                name = nextString(reader, "");
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return name;
+    }
+
+    private static List<Variant> readVariants(JsonReader reader) throws IOException {
+        List<Variant> variants = new ArrayList<>();
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return variants;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            Variant variant = new Variant();
+            variant.setId(-1);
+            variant.setName("");
+            variant.setActive(true);
+            variant.setCreatedAt("");
+            variant.setUpdatedAt("");
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id":
+                        variant.setId(nextLong(reader, -1));
+                        break;
+                    case "name":
+                        variant.setName(nextString(reader, ""));
+                        break;
+                    case "price":
+                        variant.setPrice(nextDouble(reader, 0.0));
+                        break;
+                    case "is_active":
+                        variant.setActive(nextBoolean(reader, true));
+                        break;
+                    case "created_at":
+                        variant.setCreatedAt(nextString(reader, ""));
+                        break;
+                    case "updated_at":
+                        variant.setUpdatedAt(nextString(reader, ""));
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+            variants.add(variant);
+        }
+        reader.endArray();
+        return variants;
+    }
+
+    private static Promo readPromo(JsonReader reader) throws IOException {
+        Promo promo = new Promo();
+        promo.setPromoId(-1);
+        promo.setPromoName("");
+        promo.setPromoDescription("");
+        promo.setStartDate("");
+        promo.setEndDate("");
+        promo.setTermAndCondition("");
+        promo.setType("");
+        promo.setDiscountType("");
+        promo.setDiscountAmount("");
+        promo.setActive(false);
+        promo.setUpdatedAt("");
+
+        String picture = null;
+        String imageUrl = null;
+        String imagePath = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "promo_id":
+                    promo.setPromoId(nextLong(reader, -1));
+                    break;
+                case "promo_name":
+                    promo.setPromoName(nextString(reader, ""));
+                    break;
+                case "promo_description":
+                    promo.setPromoDescription(nextString(reader, ""));
+                    break;
+                case "start_date":
+                    promo.setStartDate(nextString(reader, ""));
+                    break;
+                case "end_date":
+                    promo.setEndDate(nextString(reader, ""));
+                    break;
+                case "term_and_condition":
+                    promo.setTermAndCondition(nextString(reader, ""));
+                    break;
+                case "type":
+                    promo.setType(nextString(reader, ""));
+                    break;
+                case "discount_type":
+                    promo.setDiscountType(nextString(reader, ""));
+                    break;
+                case "discount_amount":
+                    promo.setDiscountAmount(nextString(reader, ""));
+                    break;
+                case "is_active":
+                    promo.setActive(nextBoolean(reader, false));
+                    break;
+                case "updated_at":
+                    promo.setUpdatedAt(nextString(reader, ""));
+                    break;
+                case "picture":
+                    picture = nextString(reader, null);
+                    break;
+                case "image_url":
+                    imageUrl = nextString(reader, null);
+                    break;
+                case "image_path":
+                    imagePath = nextString(reader, null);
+                    break;
+                case "promo_items":
+                    promo.setPromoItems(readPromoItems(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (picture != null) {
+            promo.setPicture(picture);
+        } else if (imageUrl != null) {
+            promo.setPicture(imageUrl);
+        } else if (imagePath != null) {
+            promo.setPicture(imagePath);
+        }
+
+        if (promo.getPromoId() <= 0) {
+            return null;
+        }
+        return promo;
+    }
+
+    private static List<Promo.PromoItem> readPromoItems(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+
+        List<Promo.PromoItem> promoItems = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            long id = -1;
+            long itemId = -1;
+            String itemName = "";
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id":
+                        id = nextLong(reader, -1);
+                        break;
+                    case "item_id":
+                        itemId = nextLong(reader, -1);
+                        break;
+                    case "item_name":
+                        itemName = nextString(reader, "");
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+            promoItems.add(new Promo.PromoItem(id, itemId, itemName));
+        }
+        reader.endArray();
+        return promoItems;
+    }
+
+    private static Order readOrder(JsonReader reader) throws IOException {
+        Order order = new Order();
+        order.setId(-1);
+        order.setTableNumber("");
+        order.setStatus("");
+        order.setCreatedAt("");
+        order.setSessionId(-1);
+        order.setServerId(-1);
+        order.setOrderTypeId(-1L);
+        order.setOrderTypeName("");
+
+        String finalAmount = null;
+        String customerName = null;
+        long customerId = -1;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    order.setId(nextLong(reader, -1));
+                    break;
+                case "table_number":
+                    order.setTableNumber(nextString(reader, ""));
+                    break;
+                case "order_status_name":
+                    order.setStatus(nextString(reader, "").toLowerCase());
+                    break;
+                case "total_amount":
+                    order.setTotalAmount(parseAmount(nextString(reader, "0")));
+                    break;
+                case "final_amount":
+                    finalAmount = nextString(reader, null);
+                    break;
+                case "created_at":
+                    order.setCreatedAt(nextString(reader, ""));
+                    break;
+                case "customer_name":
+                    customerName = nextString(reader, null);
+                    break;
+                case "customer_id":
+                    customerId = nextLong(reader, -1);
+                    break;
+                case "cashier_session_id":
+                    order.setSessionId(nextLong(reader, -1));
+                    break;
+                case "server_id":
+                    order.setServerId(nextLong(reader, -1));
+                    break;
+                case "order_type_id":
+                    order.setOrderTypeId(nextLong(reader, -1));
+                    break;
+                case "order_type_name":
+                    order.setOrderTypeName(nextString(reader, ""));
+                    break;
+                case "order_items":
+                    order.setItems(readOrderItems(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        order.setOrderNumber(String.valueOf(order.getId()));
+        order.setFinalAmount(finalAmount != null ? parseAmount(finalAmount) : order.getTotalAmount());
+
+        if (customerName != null && !customerName.isEmpty()) {
+            order.setCustomerName(customerName);
+        } else if (customerId > 0) {
+            order.setCustomerName("Customer #" + customerId);
+        }
+
+        return order;
+    }
+
+    private static List<OrderItem> readOrderItems(JsonReader reader) throws IOException {
+        List<OrderItem> orderItems = new ArrayList<>();
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return orderItems;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            OrderItem item = new OrderItem();
+            item.setOrderId(-1);
+            item.setMenuItemId(-1);
+            item.setMenuItemName("");
+            item.setStatus("");
+            item.setCreatedAt("");
+            item.setUpdatedAt("");
+            boolean hasId = false;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id":
+                        if (reader.peek() == JsonToken.NULL) {
+                            reader.nextNull();
+                        } else {
+                            item.setId(nextLong(reader, -1));
+                            hasId = true;
+                        }
+                        break;
+                    case "order_id":
+                        item.setOrderId(nextLong(reader, -1));
+                        break;
+                    case "menu_item_id":
+                        item.setMenuItemId(nextLong(reader, -1));
+                        break;
+                    case "menu_item_name":
+                        item.setMenuItemName(nextString(reader, ""));
+                        break;
+                    case "variant_id":
+                        if (reader.peek() == JsonToken.NULL) {
+                            reader.nextNull();
+                        } else {
+                            item.setVariantId(nextLong(reader, -1));
+                        }
+                        break;
+                    case "variant_name":
+                        String variantName = nextString(reader, null);
+                        item.setVariantName(variantName != null && !variantName.isEmpty() ? variantName : null);
+                        break;
+                    case "quantity":
+                        item.setQuantity((int) nextLong(reader, 0));
+                        break;
+                    case "unit_price":
+                        item.setUnitPrice(nextDouble(reader, 0.0));
+                        break;
+                    case "total_price":
+                        item.setTotalPrice(nextDouble(reader, 0.0));
+                        break;
+                    case "notes":
+                        String notes = nextString(reader, null);
+                        item.setNotes(notes != null && !notes.isEmpty() ? notes : null);
+                        break;
+                    case "status":
+                        item.setStatus(nextString(reader, ""));
+                        break;
+                    case "kitchen_printed":
+                        item.setKitchenPrinted(nextBoolean(reader, false));
+                        break;
+                    case "created_at":
+                        item.setCreatedAt(nextString(reader, ""));
+                        break;
+                    case "updated_at":
+                        item.setUpdatedAt(nextString(reader, ""));
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+
+            // Placeholder rows from LEFT JOINs come back with a null id
+            if (hasId) {
+                orderItems.add(item);
+            }
+        }
+        reader.endArray();
+        return orderItems;
+    }
+
+    private static List<Long> readLongArray(JsonReader reader) throws IOException {
+        List<Long> values = new ArrayList<>();
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            values.add(nextLong(reader, -1));
+        }
+        reader.endArray();
+        return values;
+    }
+
+    // Value readers: accept the loose typing the API uses (numbers as strings and vice versa)
+
+    private static String nextString(JsonReader reader, String fallback) throws IOException {
+        switch (reader.peek()) {
+            case NULL:
+                reader.nextNull();
+                return fallback;
+            case BOOLEAN:
+                return String.valueOf(reader.nextBoolean());
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            default:
+                reader.skipValue();
+                return fallback;
+        }
+    }
+
+    private static long nextLong(JsonReader reader, long fallback) throws IOException {
+        String value = nextString(reader, null);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            try {
+                return (long) Double.parseDouble(value);
+            } catch (NumberFormatException ignored) {
+                return fallback;
+            }
+        }
+    }
+
+    private static double nextDouble(JsonReader reader, double fallback) throws IOException {
+        String value = nextString(reader, null);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            // Same thousands-separator handling as parseAmount, e.g. "35,000"
+            return Double.parseDouble(value.replace(",", ""));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static boolean nextBoolean(JsonReader reader, boolean fallback) throws IOException {
+        String value = nextString(reader, null);
+        if ("true".equalsIgnoreCase(value)) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(value)) {
+            return false;
+        }
+        return fallback;
+    }
+
+    private static double parseAmount(String amount) {
+        try {
+            return Double.parseDouble(amount.replace(",", ""));
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import android.util.Log;
 import com.restaurant.management.R;
 import com.restaurant.management.models.Order;
 import com.restaurant.management.models.OrderItem;
+import com.restaurant.management.network.ApiClient;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -42,7 +43,7 @@ public class OrderApiHelper {
 
     public OrderApiHelper(Context context) {
         this.context = context;
-        this.client = new OkHttpClient();
+        this.client = ApiClient.getSharedHttpClient();
     }
 
     public void fetchOrderDetails(long orderId, OrderCallback callback) {
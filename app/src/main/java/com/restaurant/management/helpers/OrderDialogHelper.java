@@ -19,9 +19,11 @@ import com.restaurant.management.models.CreateOrderResponse;
 import com.restaurant.management.models.OrderType;
 import com.restaurant.management.network.ApiService;
 import com.restaurant.management.network.RetrofitClient;
+import com.restaurant.management.services.SyncScheduler;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -182,7 +184,10 @@ public class OrderDialogHelper {
 
             // Save to local database first (offline-first approach)
             RestaurantApplication app = (RestaurantApplication) context.getApplicationContext();
-            long localOrderId = app.saveOrderLocally(sessionId, tableNumber, customerName, selectedOrderType.getId());
+            // The same key goes with the immediate create and any later sync retry, so the server keeps one order
+            String clientUuid = UUID.randomUUID().toString();
+            long localOrderId = app.saveOrderLocally(sessionId, tableNumber, customerName, selectedOrderType.getId(),
+                    clientUuid);
 
             if (localOrderId > 0) {
                 // Local save successful
@@ -198,7 +203,7 @@ public class OrderDialogHelper {
                 });
 
                 // Try to sync with server in background (don't block UI)
-                tryServerSync(localOrderId, sessionId, tableNumber, selectedOrderType.getId());
+                tryServerSync(localOrderId, clientUuid, sessionId, tableNumber, selectedOrderType.getId());
 
             } else {
                 // Local save failed
@@ -215,10 +220,12 @@ public class OrderDialogHelper {
         }
     }
 
-    private void tryServerSync(long localOrderId, long sessionId, String tableNumber, long orderTypeId) {
+    private void tryServerSync(long localOrderId, String clientUuid, long sessionId, String tableNumber,
+                               long orderTypeId) {
         // Check network connectivity
         if (!isNetworkAvailable()) {
             Log.d(TAG, "No network connectivity, order will sync later");
+            SyncScheduler.requestSync(context);
             return;
         }
 
@@ -232,7 +239,7 @@ public class OrderDialogHelper {
         );
 
         // Make API call in background
-        apiService.createOrder(request).enqueue(new Callback<CreateOrderResponse>() {
+        apiService.createOrder(clientUuid, request).enqueue(new Callback<CreateOrderResponse>() {
             @Override
             public void onResponse(Call<CreateOrderResponse> call, Response<CreateOrderResponse> response) {
                 if (response.isSuccessful() && response.body() != null) {
@@ -244,9 +251,11 @@ public class OrderDialogHelper {
                         Log.d(TAG, "Order synced successfully with server (Server ID: " + orderResponse.getOrderId() + ")");
                     } else {
                         Log.w(TAG, "Server rejected order sync: " + orderResponse.getStatus());
+                        SyncScheduler.requestSync(context);
                     }
                 } else {
                     Log.w(TAG, "Failed to sync order with server: HTTP " + response.code());
+                    SyncScheduler.requestSync(context);
                 }
             }
 
@@ -254,6 +263,7 @@ public class OrderDialogHelper {
             public void onFailure(Call<CreateOrderResponse> call, Throwable t) {
                 Log.w(TAG, "Failed to sync order with server: " + t.getMessage());
                 // Order remains unsynced, will retry later
+                SyncScheduler.requestSync(context);
             }
         });
     }
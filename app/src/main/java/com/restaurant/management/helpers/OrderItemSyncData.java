@@ -21,6 +21,8 @@ public class OrderItemSyncData {
     private String createdAt;
     private String menuItemName;
     private String variantName;
+    private String clientUuid;
+    private Long localOrderId;
 
     // Constructors
     public OrderItemSyncData() {}
@@ -80,6 +82,13 @@ public class OrderItemSyncData {
     public String getVariantName() { return variantName; }
     public void setVariantName(String variantName) { this.variantName = variantName; }
 
+    public String getClientUuid() { return clientUuid; }
+    public void setClientUuid(String clientUuid) { this.clientUuid = clientUuid; }
+
+    // Non-null while the item's order has not been created on the server
+    public Long getLocalOrderId() { return localOrderId; }
+    public void setLocalOrderId(Long localOrderId) { this.localOrderId = localOrderId; }
+
     // Convert to CreateOrderItemRequest for API sync
     public CreateOrderItemRequest toCreateOrderItemRequest() {
         CreateOrderItemRequest request = new CreateOrderItemRequest();
@@ -6,21 +6,25 @@ import android.util.Log;
 import com.restaurant.management.R;
 import com.restaurant.management.database.DatabaseManager;
 import com.restaurant.management.models.Order;
-import com.restaurant.management.models.OrderItem;
 import com.restaurant.management.models.OrderStatus;
 import com.restaurant.management.models.OrderType;
 import com.restaurant.management.network.ApiClient;
+import com.restaurant.management.utils.AppExecutors;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import okhttp3.CacheControl;
 import okhttp3.Call;
 import okhttp3.Callback;
+import okhttp3.HttpUrl;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -34,16 +38,31 @@ public class OrderListApiHelper {
     private static final String ORDER_STATUSES_API_URL = "https://api.pood.lol/order-statuses";
     private static final String ORDERS_API_URL = "https://api.pood.lol/orders";
     private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+    private static final String PAGE_CACHE_PREFIX = "orders:";
+
+    public static final int ORDER_PAGE_SIZE = 30;
+    public static final String STATUS_ALL = "all";
 
     private final Context context;
     private final OkHttpClient client;
     private final DatabaseManager databaseManager;
 
-    public interface OrdersCallback {
-        void onSuccess(List<Order> orders);
+    public interface OrderPageCallback {
+        void onSuccess(List<Order> orders, String nextCursor);
         void onError(String errorMessage);
     }
 
+    /** One page of orders plus the cursor for the next one (null when there are no more). */
+    public static class OrderPage {
+        public final List<Order> orders;
+        public final String nextCursor;
+
+        OrderPage(List<Order> orders, String nextCursor) {
+            this.orders = orders;
+            this.nextCursor = nextCursor;
+        }
+    }
+
     public interface OrderStatusesCallback {
         void onSuccess(List<OrderStatus> orderStatuses);
         void onError(String errorMessage);
@@ -72,18 +91,34 @@ public class OrderListApiHelper {
             return (OkHttpClient) retrofit.callFactory();
         } catch (Exception e) {
             Log.e(TAG, "Error creating HTTP client from ApiClient, using default", e);
-            return new OkHttpClient();
+            return ApiClient.getSharedHttpClient();
         }
     }
 
-    public void fetchOrders(long sessionId, OrdersCallback callback) {
-        String apiUrl = ORDERS_API_URL + "/sessions/" + sessionId + "?t=" + System.currentTimeMillis();
+    /**
+     * Fetches one page of a session's orders, filtered on the server by status and search text.
+     * Pass the cursor from the previous page to continue, or null for the first page. The first
+     * page of an unsearched listing is kept locally; see {@link #getCachedFirstPage}.
+     */
+    public void fetchOrderPage(long sessionId, String status, String search, String cursor,
+                               OrderPageCallback callback) {
+        HttpUrl.Builder urlBuilder = HttpUrl.get(ORDERS_API_URL + "/sessions/" + sessionId).newBuilder()
+                .addQueryParameter("limit", String.valueOf(ORDER_PAGE_SIZE));
+        if (status != null && !STATUS_ALL.equals(status)) {
+            urlBuilder.addQueryParameter("status", status);
+        }
+        if (search != null && !search.isEmpty()) {
+            urlBuilder.addQueryParameter("search", search);
+        }
+        if (cursor != null) {
+            urlBuilder.addQueryParameter("cursor", cursor);
+        }
 
+        // max-age=0 always goes to the server but revalidates any cached copy, so unchanged orders cost a 304
         String authToken = getAuthToken();
         Request.Builder requestBuilder = new Request.Builder()
-                .url(apiUrl)
-                .header("Cache-Control", "no-cache")
-                .header("Pragma", "no-cache");
+                .url(urlBuilder.build())
+                .cacheControl(new CacheControl.Builder().maxAge(0, TimeUnit.SECONDS).build());
 
         if (authToken != null && !authToken.isEmpty()) {
             requestBuilder.header("Authorization", "Bearer " + authToken);
@@ -91,7 +126,7 @@ public class OrderListApiHelper {
 
         Request request = requestBuilder.build();
 
-        Log.d(TAG, "Fetching orders for session: " + sessionId);
+        Log.d(TAG, "Fetching orders for session " + sessionId + " (status=" + status + ", cursor=" + cursor + ")");
 
         client.newCall(request).enqueue(new Callback() {
             @Override
@@ -103,34 +138,29 @@ public class OrderListApiHelper {
             @Override
             public void onResponse(Call call, Response response) throws IOException {
                 try {
-                    String responseBody = response.body().string();
-
                     if (!response.isSuccessful()) {
                         Log.e(TAG, "Order fetch failed with code: " + response.code());
                         callback.onError("Server error: " + response.code());
                         return;
                     }
 
-                    JSONObject jsonResponse = new JSONObject(responseBody);
-                    if (!jsonResponse.has("data")) {
+                    // A page is small enough to hold as text, which is also what gets cached
+                    String payload = response.body().string();
+                    OrderPage page = parseOrderPage(payload);
+                    if (page == null) {
                         Log.e(TAG, "Response missing 'data' field");
                         callback.onError("Invalid response format");
                         return;
                     }
 
-                    JSONArray ordersArray = jsonResponse.getJSONArray("data");
-                    List<Order> orders = new ArrayList<>();
-
-                    for (int i = 0; i < ordersArray.length(); i++) {
-                        JSONObject orderJson = ordersArray.getJSONObject(i);
-                        Order order = parseOrder(orderJson);
-                        if (order != null && order.getId() > 0) {
-                            orders.add(order);
-                        }
+                    if (cursor == null && (search == null || search.isEmpty())) {
+                        // Only the current session's pages are worth keeping
+                        databaseManager.replaceReferencePayloadGroup(pageCacheKey(sessionId, status), payload,
+                                PAGE_CACHE_PREFIX, sessionCachePrefix(sessionId));
                     }
 
-                    Log.d(TAG, "Successfully parsed " + orders.size() + " orders");
-                    callback.onSuccess(orders);
+                    Log.d(TAG, "Successfully parsed " + page.orders.size() + " orders");
+                    callback.onSuccess(page.orders, page.nextCursor);
 
                 } catch (Exception e) {
                     Log.e(TAG, "Error processing orders response", e);
@@ -140,6 +170,46 @@ public class OrderListApiHelper {
         });
     }
 
+    /** The last first page fetched for this session and status filter, or null. Reads SQLite. */
+    public OrderPage getCachedFirstPage(long sessionId, String status) {
+        String payload = databaseManager.getReferencePayload(pageCacheKey(sessionId, status));
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return parseOrderPage(payload);
+        } catch (IOException e) {
+            Log.e(TAG, "Error reading cached orders page", e);
+            return null;
+        }
+    }
+
+    private OrderPage parseOrderPage(String payload) throws IOException {
+        List<Order> received = new ArrayList<>();
+        JsonStreamParser.Envelope envelope = JsonStreamParser.readOrders(new StringReader(payload), received);
+        if (!envelope.hasData) {
+            return null;
+        }
+
+        List<Order> orders = new ArrayList<>();
+        for (Order order : received) {
+            if (order.getId() > 0) {
+                orders.add(order);
+            }
+        }
+
+        // Only the server knows its sort order, so a page without a cursor is the last one
+        return new OrderPage(orders, envelope.nextCursor);
+    }
+
+    private static String pageCacheKey(long sessionId, String status) {
+        return sessionCachePrefix(sessionId) + status;
+    }
+
+    private static String sessionCachePrefix(long sessionId) {
+        return PAGE_CACHE_PREFIX + sessionId + ":";
+    }
+
     public void fetchOrderStatuses(OrderStatusesCallback callback) {
         String authToken = getAuthToken();
         Request.Builder requestBuilder = new Request.Builder()
@@ -428,139 +498,27 @@ public class OrderListApiHelper {
         callback.onError(errorMessage);
     }
 
-    private Order parseOrder(JSONObject orderJson) {
-        try {
-            Order order = new Order();
-            order.setId(orderJson.optLong("id", -1));
-            order.setTableNumber(orderJson.optString("table_number", ""));
-            order.setOrderNumber(String.valueOf(order.getId()));
-
-            // Parse status - use order_status_name instead of status
-            String orderStatusName = orderJson.optString("order_status_name", "").toLowerCase();
-            order.setStatus(orderStatusName);
-
-            // Parse amounts with better error handling
-            order.setTotalAmount(parseAmount(orderJson.optString("total_amount", "0")));
-            order.setFinalAmount(parseAmount(orderJson.optString("final_amount",
-                    String.valueOf(order.getTotalAmount()))));
-
-            order.setCreatedAt(orderJson.optString("created_at", ""));
-
-            // Parse customer info
-            parseCustomerInfo(orderJson, order);
-
-            order.setSessionId(orderJson.optLong("cashier_session_id", -1));
-            order.setServerId(orderJson.optLong("server_id", -1));
-            order.setOrderTypeId(orderJson.optLong("order_type_id", -1));
-            order.setOrderTypeName(orderJson.optString("order_type_name", ""));
-
-            // Parse order items
-            if (orderJson.has("order_items")) {
-                JSONArray itemsArray = orderJson.getJSONArray("order_items");
-                List<OrderItem> orderItems = new ArrayList<>();
-
-                for (int i = 0; i < itemsArray.length(); i++) {
-                    JSONObject itemJson = itemsArray.getJSONObject(i);
-
-                    if (!itemJson.isNull("id")) {
-                        OrderItem item = parseOrderItem(itemJson);
-                        if (item != null) {
-                            orderItems.add(item);
-                        }
-                    }
-                }
-
-                order.setItems(orderItems);
-            }
-
-            return order;
-        } catch (Exception e) {
-            Log.e(TAG, "Error parsing order", e);
-            return null;
-        }
-    }
-
-    private double parseAmount(String amountStr) {
-        try {
-            return Double.parseDouble(amountStr.replace(",", ""));
-        } catch (NumberFormatException e) {
-            Log.w(TAG, "Failed to parse amount: " + amountStr);
-            return 0.0;
-        }
-    }
-
-    private void parseCustomerInfo(JSONObject orderJson, Order order) {
-        if (!orderJson.isNull("customer_name") && !orderJson.optString("customer_name", "").isEmpty()) {
-            order.setCustomerName(orderJson.optString("customer_name", ""));
-        } else if (!orderJson.isNull("customer_id")) {
-            long customerId = orderJson.optLong("customer_id", -1);
-            if (customerId > 0) {
-                order.setCustomerName("Customer #" + customerId);
-            }
-        }
-    }
-
-    private OrderItem parseOrderItem(JSONObject itemJson) {
-        try {
-            OrderItem item = new OrderItem();
-            item.setId(itemJson.optLong("id", -1));
-            item.setOrderId(itemJson.optLong("order_id", -1));
-            item.setMenuItemId(itemJson.optLong("menu_item_id", -1));
-            item.setMenuItemName(itemJson.optString("menu_item_name", ""));
-
-            if (!itemJson.isNull("variant_id")) {
-                item.setVariantId(itemJson.optLong("variant_id", -1));
-            }
-
-            if (!itemJson.isNull("variant_name") && !itemJson.optString("variant_name", "").isEmpty()) {
-                item.setVariantName(itemJson.optString("variant_name", ""));
-            } else {
-                item.setVariantName(null);
-            }
-
-            item.setQuantity(itemJson.optInt("quantity", 0));
-            item.setUnitPrice(itemJson.optDouble("unit_price", 0.0));
-            item.setTotalPrice(itemJson.optDouble("total_price", 0.0));
-
-            if (!itemJson.isNull("notes") && !itemJson.optString("notes", "").isEmpty()) {
-                item.setNotes(itemJson.optString("notes", ""));
-            } else {
-                item.setNotes(null);
-            }
-
-            item.setStatus(itemJson.optString("status", ""));
-            item.setKitchenPrinted(itemJson.optBoolean("kitchen_printed", false));
-            item.setCreatedAt(itemJson.optString("created_at", ""));
-            item.setUpdatedAt(itemJson.optString("updated_at", ""));
-
-            return item;
-        } catch (Exception e) {
-            Log.e(TAG, "Error parsing order item", e);
-            return null;
-        }
-    }
-
     // Cache management methods
     private void cacheFreshOrderStatuses(List<OrderStatus> orderStatuses) {
-        new Thread(() -> {
+        AppExecutors.getInstance().execute(AppExecutors.Lane.HOUSEKEEPING, () -> {
             try {
                 databaseManager.saveOrderStatuses(orderStatuses);
                 Log.d(TAG, "Cached " + orderStatuses.size() + " order statuses");
             } catch (Exception e) {
                 Log.e(TAG, "Error caching order statuses", e);
             }
-        }).start();
+        });
     }
 
     private void cacheFreshOrderTypes(List<OrderType> orderTypes) {
-        new Thread(() -> {
+        AppExecutors.getInstance().execute(AppExecutors.Lane.HOUSEKEEPING, () -> {
             try {
                 databaseManager.saveOrderTypes(orderTypes);
                 Log.d(TAG, "Cached " + orderTypes.size() + " order types");
             } catch (Exception e) {
                 Log.e(TAG, "Error caching order types", e);
             }
-        }).start();
+        });
     }
 
     // Public methods for accessing cached data
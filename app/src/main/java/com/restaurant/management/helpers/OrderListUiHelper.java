@@ -1,6 +1,8 @@
 package com.restaurant.management.helpers;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.view.View;
@@ -10,6 +12,7 @@ import android.widget.EditText;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 
+import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
@@ -34,22 +37,37 @@ public class OrderListUiHelper {
     private EditText searchEditText;
     private AutoCompleteTextView statusAutoComplete;
 
+    private static final long SEARCH_DEBOUNCE_MS = 300;
+    private static final int LOAD_MORE_THRESHOLD = 5;
+
     // Data
-    private List<Order> ordersList = new ArrayList<>();
     private List<Order> filteredOrdersList = new ArrayList<>();
     private String currentStatusFilter = "open";
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private final Runnable debouncedFilterChange = this::notifyFilterChanged;
 
     // Listener interface
     public interface OnRefreshListener {
         void onRefresh();
     }
 
+    /** Status or search text changed; the list has to be reloaded from the first page. */
+    public interface OnFilterChangeListener {
+        void onFilterChanged();
+    }
+
+    public interface OnLoadMoreListener {
+        void onLoadMore();
+    }
+
     public interface OnTitleUpdateListener {
         void onTitleUpdate(String title);
     }
 
     private OnRefreshListener refreshListener;
     private OnTitleUpdateListener titleUpdateListener;
+    private OnFilterChangeListener filterChangeListener;
+    private OnLoadMoreListener loadMoreListener;
 
     public OrderListUiHelper(Context context) {
         this.context = context;
@@ -64,10 +82,22 @@ public class OrderListUiHelper {
         statusAutoComplete = rootView.findViewById(R.id.statusAutoComplete);
 
         // Set up RecyclerView
-        ordersRecyclerView.setLayoutManager(new LinearLayoutManager(context));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(context);
+        ordersRecyclerView.setLayoutManager(layoutManager);
         orderAdapter = new OrderAdapter(filteredOrdersList, orderClickListener, context);
         ordersRecyclerView.setAdapter(orderAdapter);
 
+        // Infinite scroll: ask for the next page a few rows before the end
+        ordersRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0 && loadMoreListener != null
+                        && layoutManager.findLastVisibleItemPosition() >= filteredOrdersList.size() - LOAD_MORE_THRESHOLD) {
+                    loadMoreListener.onLoadMore();
+                }
+            }
+        });
+
         // Set up swipe refresh
         swipeRefreshLayout.setOnRefreshListener(() -> {
             if (refreshListener != null) {
@@ -82,7 +112,9 @@ public class OrderListUiHelper {
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                applyFilters();
+                // Every change is a server round trip now, so wait for a pause in typing
+                searchHandler.removeCallbacks(debouncedFilterChange);
+                searchHandler.postDelayed(debouncedFilterChange, SEARCH_DEBOUNCE_MS);
             }
 
             @Override
@@ -98,6 +130,23 @@ public class OrderListUiHelper {
         this.titleUpdateListener = listener;
     }
 
+    public void setFilterChangeListener(OnFilterChangeListener listener) {
+        this.filterChangeListener = listener;
+    }
+
+    public void setLoadMoreListener(OnLoadMoreListener listener) {
+        this.loadMoreListener = listener;
+    }
+
+    /** Lowercase status name to filter on, or {@link OrderListApiHelper#STATUS_ALL}. */
+    public String getStatusFilter() {
+        return currentStatusFilter;
+    }
+
+    public String getSearchQuery() {
+        return searchEditText.getText().toString().trim();
+    }
+
     public void setupStatusFilterSpinner(List<OrderStatus> orderStatuses) {
         // Add "All Orders" option at the beginning
         List<String> spinnerItems = new ArrayList<>();
@@ -118,17 +167,37 @@ public class OrderListUiHelper {
         statusAutoComplete.setOnItemClickListener((parent, view, position, id) -> {
             String selectedText = (String) parent.getItemAtPosition(position);
             if ("All Orders".equals(selectedText)) {
-                currentStatusFilter = "all";
+                currentStatusFilter = OrderListApiHelper.STATUS_ALL;
             } else {
                 currentStatusFilter = selectedText.toLowerCase();
             }
-            applyFilters();
+            searchHandler.removeCallbacks(debouncedFilterChange);
+            notifyFilterChanged();
         });
     }
 
-    public void updateOrdersList(List<Order> orders) {
-        this.ordersList = orders;
-        applyFilters();
+    /**
+     * Shows a page of server-filtered orders, either replacing the list (first page) or
+     * appending to it. Returns how many of the page's orders were kept.
+     */
+    public int showOrders(List<Order> orders, boolean append) {
+        List<Order> updated = append ? new ArrayList<>(filteredOrdersList) : new ArrayList<>();
+        int kept = 0;
+        for (Order order : orders) {
+            if (matchesFilters(order)) {
+                updated.add(order);
+                kept++;
+            }
+        }
+        filteredOrdersList = updated;
+        renderOrders();
+        return kept;
+    }
+
+    private void notifyFilterChanged() {
+        if (filterChangeListener != null) {
+            filterChangeListener.onFilterChanged();
+        }
     }
 
     public void showLoading(boolean show) {
@@ -159,34 +228,14 @@ public class OrderListUiHelper {
         ordersRecyclerView.setVisibility(View.GONE);
     }
 
-    private void applyFilters() {
-        filteredOrdersList.clear();
-        String searchQuery = searchEditText.getText().toString().trim();
-
-        for (Order order : ordersList) {
-            // Apply status filter first
-            boolean statusMatches = false;
-            if ("all".equals(currentStatusFilter)) {
-                statusMatches = true;
-            } else {
-                statusMatches = currentStatusFilter.equalsIgnoreCase(order.getStatus());
-            }
-
-            if (!statusMatches) {
-                continue;
-            }
+    // The server already filters by status; this only guards against one that ignores the parameter
+    private boolean matchesFilters(Order order) {
+        return OrderListApiHelper.STATUS_ALL.equals(currentStatusFilter)
+                || currentStatusFilter.equalsIgnoreCase(order.getStatus());
+    }
 
-            // Apply search filter
-            if (searchQuery.isEmpty()) {
-                filteredOrdersList.add(order);
-            } else {
-                String lowerQuery = searchQuery.toLowerCase();
-                if (order.getTableNumber().toLowerCase().contains(lowerQuery) ||
-                        order.getOrderNumber().toLowerCase().contains(lowerQuery)) {
-                    filteredOrdersList.add(order);
-                }
-            }
-        }
+    private void renderOrders() {
+        String searchQuery = getSearchQuery();
 
         // Update adapter
         orderAdapter.updateOrders(filteredOrdersList);
@@ -195,7 +244,7 @@ public class OrderListUiHelper {
         if (filteredOrdersList.isEmpty()) {
             String emptyMessage;
             if (!searchQuery.isEmpty()) {
-                String statusName = "all".equals(currentStatusFilter) ? "orders" :
+                String statusName = OrderListApiHelper.STATUS_ALL.equals(currentStatusFilter) ? "orders" :
                         (currentStatusFilter + " orders");
                 emptyMessage = "No " + statusName + " match your search";
             } else {
@@ -211,7 +260,7 @@ public class OrderListUiHelper {
     }
 
     private String getEmptyMessage() {
-        if ("all".equals(currentStatusFilter)) {
+        if (OrderListApiHelper.STATUS_ALL.equals(currentStatusFilter)) {
             return context.getString(R.string.no_orders_found);
         } else {
             String formattedStatus = currentStatusFilter.substring(0, 1).toUpperCase() +
@@ -224,7 +273,7 @@ public class OrderListUiHelper {
         if (titleUpdateListener != null) {
             String baseTitle = context.getString(R.string.orders_list_title);
             String statusDisplay;
-            if ("all".equals(currentStatusFilter)) {
+            if (OrderListApiHelper.STATUS_ALL.equals(currentStatusFilter)) {
                 statusDisplay = "All Orders";
             } else {
                 statusDisplay = currentStatusFilter.substring(0, 1).toUpperCase() +
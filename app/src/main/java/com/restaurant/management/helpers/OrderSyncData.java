@@ -0,0 +1,43 @@
+package com.restaurant.management.helpers;
+
+import com.restaurant.management.models.CreateOrderRequest;
+
+public class OrderSyncData {
+    private long localId;
+    private long sessionId;
+    private String tableNumber;
+    private String customerName;
+    private long orderTypeId;
+    private String createdAt;
+    private String clientUuid;
+
+    // Constructors
+    public OrderSyncData() {}
+
+    // Getters and Setters
+    public long getLocalId() { return localId; }
+    public void setLocalId(long localId) { this.localId = localId; }
+
+    public long getSessionId() { return sessionId; }
+    public void setSessionId(long sessionId) { this.sessionId = sessionId; }
+
+    public String getTableNumber() { return tableNumber; }
+    public void setTableNumber(String tableNumber) { this.tableNumber = tableNumber; }
+
+    public String getCustomerName() { return customerName; }
+    public void setCustomerName(String customerName) { this.customerName = customerName; }
+
+    public long getOrderTypeId() { return orderTypeId; }
+    public void setOrderTypeId(long orderTypeId) { this.orderTypeId = orderTypeId; }
+
+    public String getCreatedAt() { return createdAt; }
+    public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
+
+    public String getClientUuid() { return clientUuid; }
+    public void setClientUuid(String clientUuid) { this.clientUuid = clientUuid; }
+
+    // Convert to CreateOrderRequest for API sync
+    public CreateOrderRequest toCreateOrderRequest() {
+        return new CreateOrderRequest(sessionId, tableNumber, null, orderTypeId, null);
+    }
+}
@@ -2,9 +2,12 @@ package com.restaurant.management.helpers;
 
 import android.content.Context;
 
+import com.restaurant.management.R;
+import com.restaurant.management.database.DatabaseManager;
 import com.restaurant.management.models.Discount;
 import com.restaurant.management.models.PaymentMethod;
 import com.restaurant.management.models.RoundingConfig;
+import com.restaurant.management.network.ApiClient;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -79,7 +82,7 @@ public class PaymentApiHelper {
     public PaymentApiHelper(Context context, String authToken) {
         this.context = context;
         this.authToken = authToken;
-        this.client = new OkHttpClient();
+        this.client = ApiClient.getSharedHttpClient();
     }
 
     public void fetchRoundingConfig(RoundingConfigCallback callback) {
@@ -109,16 +112,8 @@ public class PaymentApiHelper {
                             throw new JSONException("API returned non-success status");
                         }
 
-                        JSONArray dataArray = jsonResponse.getJSONArray("data");
-                        if (dataArray.length() > 0) {
-                            JSONObject config = dataArray.getJSONObject(0);
-
-                            int roundingBelow = config.optInt("rounding_below", 99);
-                            int roundingDigit = config.optInt("rounding_digit", 1);
-                            String description = config.optString("rounding_digit_description", "00 - Hundreds");
-                            int roundingNumber = config.optInt("rounding_number", 100);
-
-                            RoundingConfig roundingConfig = new RoundingConfig(roundingBelow, roundingDigit, description, roundingNumber);
+                        RoundingConfig roundingConfig = parseRoundingConfig(jsonResponse);
+                        if (roundingConfig != null) {
                             callback.onSuccess(roundingConfig);
                         } else {
                             callback.onError();
@@ -160,7 +155,7 @@ public class PaymentApiHelper {
                             throw new JSONException("API returned non-success status");
                         }
 
-                        List<Discount> discounts = parseDiscountsFromJson(jsonResponse);
+                        List<Discount> discounts = parseDiscounts(jsonResponse);
                         callback.onSuccess(discounts);
                     } else {
                         callback.onError();
@@ -199,25 +194,7 @@ public class PaymentApiHelper {
                             throw new JSONException("API returned non-success status");
                         }
 
-                        JSONArray dataArray = jsonResponse.getJSONArray("data");
-                        List<PaymentMethod> paymentMethods = new ArrayList<>();
-
-                        for (int i = 0; i < dataArray.length(); i++) {
-                            JSONObject methodJson = dataArray.getJSONObject(i);
-
-                            long id = methodJson.getLong("id");
-                            long typeId = methodJson.getLong("payment_mode_type_id");
-                            String description = methodJson.getString("description");
-                            boolean isActive = methodJson.getBoolean("is_active");
-
-                            if (!isActive) {
-                                continue;
-                            }
-
-                            String code = getPaymentMethodCode((int) typeId);
-                            PaymentMethod method = new PaymentMethod(String.valueOf(id), description, code);
-                            paymentMethods.add(method);
-                        }
+                        List<PaymentMethod> paymentMethods = parsePaymentMethods(jsonResponse);
 
                         if (paymentMethods.isEmpty()) {
                             callback.onError();
@@ -355,6 +332,7 @@ public class PaymentApiHelper {
                             JSONObject jsonResponse = new JSONObject(responseBody);
 
                             if ("success".equals(jsonResponse.optString("status"))) {
+                                recordPaymentLocally(orderId, paymentMethodId, amount);
                                 callback.onSuccess();
                             } else {
                                 String message = jsonResponse.optString("message", "Payment failed");
@@ -380,7 +358,55 @@ public class PaymentApiHelper {
         }
     }
 
-    private List<Discount> parseDiscountsFromJson(JSONObject jsonResponse) throws JSONException {
+    // Keeps the reconciliation screen able to total the session when the server is unreachable
+    private void recordPaymentLocally(long orderId, String paymentMethodId, double amount) {
+        long sessionId = context.getSharedPreferences(context.getString(R.string.pref_file_name), Context.MODE_PRIVATE)
+                .getLong(context.getString(R.string.pref_active_session_id), -1);
+        if (sessionId != -1) {
+            DatabaseManager.getInstance(context).recordPayment(sessionId, orderId, paymentMethodId, amount);
+        }
+    }
+
+    public static RoundingConfig parseRoundingConfig(JSONObject jsonResponse) throws JSONException {
+        JSONArray dataArray = jsonResponse.getJSONArray("data");
+        if (dataArray.length() == 0) {
+            return null;
+        }
+
+        JSONObject config = dataArray.getJSONObject(0);
+        int roundingBelow = config.optInt("rounding_below", 99);
+        int roundingDigit = config.optInt("rounding_digit", 1);
+        String description = config.optString("rounding_digit_description", "00 - Hundreds");
+        int roundingNumber = config.optInt("rounding_number", 100);
+
+        return new RoundingConfig(roundingBelow, roundingDigit, description, roundingNumber);
+    }
+
+    public static List<PaymentMethod> parsePaymentMethods(JSONObject jsonResponse) throws JSONException {
+        JSONArray dataArray = jsonResponse.getJSONArray("data");
+        List<PaymentMethod> paymentMethods = new ArrayList<>();
+
+        for (int i = 0; i < dataArray.length(); i++) {
+            JSONObject methodJson = dataArray.getJSONObject(i);
+
+            long id = methodJson.getLong("id");
+            long typeId = methodJson.getLong("payment_mode_type_id");
+            String description = methodJson.getString("description");
+            boolean isActive = methodJson.getBoolean("is_active");
+
+            if (!isActive) {
+                continue;
+            }
+
+            String code = getPaymentMethodCode((int) typeId);
+            PaymentMethod method = new PaymentMethod(String.valueOf(id), description, code);
+            paymentMethods.add(method);
+        }
+
+        return paymentMethods;
+    }
+
+    public static List<Discount> parseDiscounts(JSONObject jsonResponse) throws JSONException {
         List<Discount> discounts = new ArrayList<>();
 
         if (jsonResponse.has("data") && !jsonResponse.isNull("data")) {
@@ -407,7 +433,7 @@ public class PaymentApiHelper {
         return discounts;
     }
 
-    private String getPaymentMethodCode(int typeId) {
+    private static String getPaymentMethodCode(int typeId) {
         switch (typeId) {
             case 1:
                 return "cash";
@@ -40,6 +40,9 @@ public class Promo {
     @SerializedName("promo_items")
     private List<PromoItem> promoItems;
 
+    @SerializedName("updated_at")
+    private String updatedAt;
+
     public static class PromoItem {
         @SerializedName("id")
         private long id;
@@ -100,6 +103,7 @@ public class Promo {
     public String getDiscountAmount() { return discountAmount; }
     public boolean isActive() { return isActive; }
     public List<PromoItem> getPromoItems() { return promoItems; }
+    public String getUpdatedAt() { return updatedAt; }
 
     // Setters
     public void setPromoId(long promoId) { this.promoId = promoId; }
@@ -114,6 +118,7 @@ public class Promo {
     public void setDiscountAmount(String discountAmount) { this.discountAmount = discountAmount; }
     public void setActive(boolean active) { isActive = active; }
     public void setPromoItems(List<PromoItem> promoItems) { this.promoItems = promoItems; }
+    public void setUpdatedAt(String updatedAt) { this.updatedAt = updatedAt; }
 
     // Helper methods
     public String getFormattedDiscount() {
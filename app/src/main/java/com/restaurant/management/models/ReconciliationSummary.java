@@ -0,0 +1,77 @@
+package com.restaurant.management.models;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-payment-mode totals for one cashier session, as returned by the reconciliation endpoint
+ * or computed from the payments recorded on this device.
+ */
+public class ReconciliationSummary {
+
+    @SerializedName("total_amount")
+    private double totalAmount;
+
+    @SerializedName("order_count")
+    private int orderCount;
+
+    @SerializedName("payment_modes")
+    private List<ModeTotal> paymentModes;
+
+    public static class ModeTotal {
+        @SerializedName("payment_mode_id")
+        private String paymentModeId;
+
+        @SerializedName("total_amount")
+        private double totalAmount;
+
+        @SerializedName("payment_count")
+        private int paymentCount;
+
+        @SerializedName("order_count")
+        private int orderCount;
+
+        public ModeTotal() {
+        }
+
+        public ModeTotal(String paymentModeId, double totalAmount, int paymentCount, int orderCount) {
+            this.paymentModeId = paymentModeId;
+            this.totalAmount = totalAmount;
+            this.paymentCount = paymentCount;
+            this.orderCount = orderCount;
+        }
+
+        public String getPaymentModeId() { return paymentModeId; }
+        public double getTotalAmount() { return totalAmount; }
+        public int getPaymentCount() { return paymentCount; }
+        public int getOrderCount() { return orderCount; }
+    }
+
+    public ReconciliationSummary() {
+        paymentModes = new ArrayList<>();
+    }
+
+    public ReconciliationSummary(double totalAmount, int orderCount, List<ModeTotal> paymentModes) {
+        this.totalAmount = totalAmount;
+        this.orderCount = orderCount;
+        this.paymentModes = paymentModes;
+    }
+
+    public double getTotalAmount() { return totalAmount; }
+    public int getOrderCount() { return orderCount; }
+    public List<ModeTotal> getPaymentModes() { return paymentModes; }
+
+    /** System total for one payment mode; 0 when the mode took no payments this session. */
+    public double getTotalFor(String paymentModeId) {
+        if (paymentModes != null) {
+            for (ModeTotal modeTotal : paymentModes) {
+                if (modeTotal.getPaymentModeId() != null && modeTotal.getPaymentModeId().equals(paymentModeId)) {
+                    return modeTotal.getTotalAmount();
+                }
+            }
+        }
+        return 0.0;
+    }
+}
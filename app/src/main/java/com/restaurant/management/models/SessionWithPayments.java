@@ -15,6 +15,10 @@ public class SessionWithPayments {
     @SerializedName("payments")
     private List<PaymentData> payments;
 
+    // Sent with the paged session headers, which carry no payments
+    @SerializedName("total_amount")
+    private Double totalAmount;
+
     public int getCashierSessionId() {
         return cashierSessionId;
     }
@@ -26,4 +30,8 @@ public class SessionWithPayments {
     public List<PaymentData> getPayments() {
         return payments;
     }
-}
\ No newline at end of file
+
+    public Double getTotalAmount() {
+        return totalAmount;
+    }
+}
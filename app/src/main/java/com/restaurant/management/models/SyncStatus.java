@@ -0,0 +1,30 @@
+package com.restaurant.management.models;
+
+/**
+ * How much locally saved data is still waiting to reach the server.
+ */
+public class SyncStatus {
+    private final int unsyncedOrderCount;
+    private final int unsyncedItemCount;
+
+    public SyncStatus(int unsyncedOrderCount, int unsyncedItemCount) {
+        this.unsyncedOrderCount = unsyncedOrderCount;
+        this.unsyncedItemCount = unsyncedItemCount;
+    }
+
+    public int getUnsyncedOrderCount() {
+        return unsyncedOrderCount;
+    }
+
+    public int getUnsyncedItemCount() {
+        return unsyncedItemCount;
+    }
+
+    public int getTotalUnsyncedCount() {
+        return unsyncedOrderCount + unsyncedItemCount;
+    }
+
+    public boolean hasPendingData() {
+        return getTotalUnsyncedCount() > 0;
+    }
+}
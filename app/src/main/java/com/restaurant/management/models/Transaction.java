@@ -112,6 +112,15 @@ public class Transaction {
         return orderItems;
     }
 
+    /**
+     * Set the order items once they have been fetched
+     *
+     * @param orderItems The order's items
+     */
+    public void setOrderItems(List<OrderItem> orderItems) {
+        this.orderItems = orderItems;
+    }
+
     /**
      * Get the total number of items in this transaction
      * Calculates by summing the quantities of all order items
@@ -120,6 +129,9 @@ public class Transaction {
      */
     public int getItemCount() {
         int count = 0;
+        if (orderItems == null) {
+            return count;
+        }
         for (OrderItem item : orderItems) {
             count += item.getQuantity();
         }
@@ -12,10 +12,17 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.restaurant.management.R; // Import your R class to access string resources for shared preferences keys
 
+import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.logging.HttpLoggingInterceptor;
@@ -25,11 +32,73 @@ import retrofit2.converter.gson.GsonConverterFactory;
 public class ApiClient {
     private static final String TAG = "ApiClient";
     private static final String BASE_URL = "https://api.pood.lol/";
-    private static Retrofit retrofit = null;
+    // The authenticated and plain clients are cached separately, so neither caller gets the other's
+    private static Retrofit authRetrofit = null;
+    private static ApiService authApiService = null;
+    private static Retrofit plainRetrofit = null;
+    private static ApiService plainApiService = null;
+    private static final long HTTP_CACHE_SIZE_BYTES = 10L * 1024 * 1024;
+    private static OkHttpClient sharedHttpClient = null;
+    private static Cache httpCache = null;
+
+    /**
+     * Attaches a disk cache to the shared client. Must run before the first request, which
+     * is why the Application calls it at the top of onCreate().
+     */
+    public static synchronized void installHttpCache(Context context) {
+        if (httpCache == null) {
+            httpCache = new Cache(new File(context.getCacheDir(), "http_cache"), HTTP_CACHE_SIZE_BYTES);
+            sharedHttpClient = null;
+        }
+    }
+
+    /**
+     * Drops every cached response. Reference data is cached per signed-in user, so this runs on
+     * logout. Does disk I/O.
+     */
+    public static void clearHttpCache() {
+        Cache cache;
+        synchronized (ApiClient.class) {
+            cache = httpCache;
+        }
+        if (cache == null) {
+            return;
+        }
+        try {
+            cache.evictAll();
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to clear the HTTP cache: " + e.getMessage());
+        }
+    }
 
-    public static Retrofit getClient(Context context) {
-        if (retrofit == null) {
-            OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder();
+    /**
+     * Process-wide base client. Every client in the app is derived from this one through
+     * newBuilder(), so they all share one connection pool and dispatcher and reuse the
+     * TLS/HTTP2 connections to the API host instead of opening their own.
+     */
+    public static synchronized OkHttpClient getSharedHttpClient() {
+        if (sharedHttpClient == null) {
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(64);
+            dispatcher.setMaxRequestsPerHost(10);
+
+            sharedHttpClient = new OkHttpClient.Builder()
+                    .connectionPool(new ConnectionPool(10, 5, TimeUnit.MINUTES))
+                    .dispatcher(dispatcher)
+                    .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                    .connectTimeout(30, TimeUnit.SECONDS)
+                    .readTimeout(30, TimeUnit.SECONDS)
+                    .writeTimeout(30, TimeUnit.SECONDS)
+                    .cache(httpCache)
+                    .addNetworkInterceptor(new ReferenceDataCacheInterceptor())
+                    .build();
+        }
+        return sharedHttpClient;
+    }
+
+    public static synchronized Retrofit getClient(Context context) {
+        if (authRetrofit == null) {
+            OkHttpClient.Builder clientBuilder = getSharedHttpClient().newBuilder();
 
             // Add logging interceptor for general request/response logging
             HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor();
@@ -103,19 +172,22 @@ public class ApiClient {
                     .create();
 
             // Build Retrofit instance
-            retrofit = new Retrofit.Builder()
+            authRetrofit = new Retrofit.Builder()
                     .baseUrl(BASE_URL)
                     .client(client)
                     .addConverterFactory(GsonConverterFactory.create(gson))
                     .build();
         }
 
-        return retrofit;
+        return authRetrofit;
     }
 
-    public static ApiService getApiService(Context context) {
+    public static synchronized ApiService getApiService(Context context) {
         try {
-            return getClient(context).create(ApiService.class);
+            if (authApiService == null) {
+                authApiService = getClient(context).create(ApiService.class);
+            }
+            return authApiService;
         } catch (Exception e) {
             Log.e(TAG, "Failed to create ApiService: " + e.getMessage(), e); // Log full exception
             throw e; // Re-throw to indicate failure
@@ -124,12 +196,12 @@ public class ApiClient {
 
     // Backward compatibility methods (without Chucker or Authorization - generally NOT RECOMMENDED for authenticated calls)
     // These methods should ideally be removed or marked deprecated if all calls are authenticated.
-    public static Retrofit getClient() {
-        if (retrofit == null) {
+    public static synchronized Retrofit getClient() {
+        if (plainRetrofit == null) {
             HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor();
             loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
 
-            OkHttpClient client = new OkHttpClient.Builder()
+            OkHttpClient client = getSharedHttpClient().newBuilder()
                     .addInterceptor(loggingInterceptor)
                     .build();
 
@@ -137,16 +209,20 @@ public class ApiClient {
                     .setDateFormat("yyyy-MM-dd'T'HH:mm:ss")
                     .create();
 
-            retrofit = new Retrofit.Builder()
+            plainRetrofit = new Retrofit.Builder()
                     .baseUrl(BASE_URL)
                     .client(client)
                     .addConverterFactory(GsonConverterFactory.create(gson))
                     .build();
         }
-        return retrofit;
+        return plainRetrofit;
     }
 
-    public static ApiService getApiService() {
-        return getClient().create(ApiService.class);
+    // Retrofit builds a new proxy on every create() call, so the service is created once and reused
+    public static synchronized ApiService getApiService() {
+        if (plainApiService == null) {
+            plainApiService = getClient().create(ApiService.class);
+        }
+        return plainApiService;
     }
 }
\ No newline at end of file
@@ -1,5 +1,4 @@
 package com.restaurant.management.network;
-import com.google.gson.JsonElement;
 
 import com.restaurant.management.models.CashierSession;
 import com.restaurant.management.models.PaymentMethod;
@@ -17,6 +16,8 @@ import com.restaurant.management.models.CreateOrderResponse;
 import com.restaurant.management.models.CreateOrderItemRequest;
 import com.restaurant.management.models.CreateOrderItemResponse;
 import com.restaurant.management.models.ApiResponse;
+import com.restaurant.management.models.PaymentData;
+import com.restaurant.management.models.ReconciliationSummary;
 import com.restaurant.management.models.DiscountResponse;
 import com.restaurant.management.models.SessionSummary;
 import com.restaurant.management.models.TaxResponse;
@@ -34,6 +35,7 @@ import retrofit2.http.Query;
 import retrofit2.http.Header;
 
 public interface ApiService {
+    String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 
     // Existing cashier session methods
     @GET("cashier/sessions/active")
@@ -49,8 +51,14 @@ public interface ApiService {
     @GET("cashier/sessions/{id}")
     Call<CashierSession> getSessionById(@Path("id") int sessionId);
 
-    @GET("payments/grouped/sessions/details")
-    Call<SessionPaymentsResponse> getSessionPayments();
+    // Session headers with their totals but no payments, newest first
+    @GET("payments/grouped/sessions")
+    Call<SessionPaymentsResponse> getSessionPaymentHeaders(@Query("limit") int limit, @Query("offset") int offset);
+
+    // One session's payments, without order items
+    @GET("payments/session/{sessionId}")
+    Call<ApiResponse<List<PaymentData>>> getPaymentsForSession(@Path("sessionId") long sessionId,
+                                                               @Query("include_items") boolean includeItems);
 
     @GET("promos")
     Call<PromoResponse> getActivePromos();
@@ -69,8 +77,12 @@ public interface ApiService {
     @GET("sessions/{sessionId}/orders")
     Call<List<Order>> getOrdersBySession(@Path("sessionId") long sessionId);
 
+    // The idempotency key is the client UUID stored with the local row, so a re-sent create is dropped server-side
     @POST("orders")
-    Call<CreateOrderResponse> createOrder(@Body CreateOrderRequest request);
+    Call<CreateOrderResponse> createOrder(
+            @Header(IDEMPOTENCY_KEY_HEADER) String idempotencyKey,
+            @Body CreateOrderRequest request
+    );
 
     @GET("order-types")
     Call<OrderTypesResponse> getOrderTypes();
@@ -83,6 +95,7 @@ public interface ApiService {
 
     @POST("orders/{orderId}/items")
     Call<CreateOrderItemResponse> addItemToOrder(
+            @Header(IDEMPOTENCY_KEY_HEADER) String idempotencyKey,
             @Path("orderId") long orderId,
             @Body CreateOrderItemRequest request
     );
@@ -98,11 +111,9 @@ public interface ApiService {
     @GET("payment-modes")
     Call<ApiResponse<List<PaymentMethod>>> getPaymentModes();
 
-    @GET("payments/session/{sessionId}/mode/{paymentModeId}")
-    Call<ApiResponse<List<JsonElement>>> getPaymentMethodTransactions(
-            @Path("sessionId") long sessionId,
-            @Path("paymentModeId") String paymentModeId
-    );
+    // Per-mode totals and counts for the whole session in one response
+    @GET("cashier-sessions/{sessionId}/reconciliation")
+    Call<ApiResponse<ReconciliationSummary>> getReconciliationSummary(@Path("sessionId") long sessionId);
 
     @GET("cashier-sessions/{sessionId}")
     Call<ApiResponse<SessionSummary>> getSessionDetails(
@@ -0,0 +1,60 @@
+package com.restaurant.management.network;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Network interceptor that gives reference-data endpoints a freshness lifetime when the
+ * server does not send one, so the disk cache can answer repeat requests locally and
+ * revalidate with If-None-Match / If-Modified-Since once the entry goes stale.
+ */
+public class ReferenceDataCacheInterceptor implements Interceptor {
+
+    // Path prefix -> max-age in seconds. Rarely-edited lookup tables stay fresh longer than menu data.
+    private static final Map<String, Integer> FRESHNESS_SECONDS = new LinkedHashMap<>();
+
+    static {
+        FRESHNESS_SECONDS.put("/menu-categories", 5 * 60);
+        FRESHNESS_SECONDS.put("/menu-items", 5 * 60);
+        FRESHNESS_SECONDS.put("/promos", 5 * 60);
+        FRESHNESS_SECONDS.put("/discounts", 5 * 60);
+        FRESHNESS_SECONDS.put("/taxes/rates", 30 * 60);
+        FRESHNESS_SECONDS.put("/payment-modes", 60 * 60);
+        FRESHNESS_SECONDS.put("/roundings/values", 60 * 60);
+        FRESHNESS_SECONDS.put("/order-types", 60 * 60);
+        FRESHNESS_SECONDS.put("/order-statuses", 60 * 60);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+
+        Integer maxAge = freshnessFor(chain.request().url().encodedPath());
+        if (maxAge == null || !response.isSuccessful() || hasServerCachePolicy(response)) {
+            return response;
+        }
+
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .header("Cache-Control", "private, max-age=" + maxAge)
+                .build();
+    }
+
+    static Integer freshnessFor(String path) {
+        for (Map.Entry<String, Integer> entry : FRESHNESS_SECONDS.entrySet()) {
+            if (path.startsWith(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private boolean hasServerCachePolicy(Response response) {
+        // An explicit max-age or no-store from the server always wins over the local policy
+        return response.cacheControl().maxAgeSeconds() != -1 || response.cacheControl().noStore();
+    }
+}
@@ -6,7 +6,6 @@ import android.content.SharedPreferences;
 import com.restaurant.management.R;
 
 import java.io.IOException;
-import java.util.concurrent.TimeUnit;
 
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
@@ -21,6 +20,7 @@ public class RetrofitClient {
     private static final String BASE_URL = "https://api.pood.lol/";
     private static RetrofitClient instance;
     private Retrofit retrofit;
+    private ApiService apiService;
     private Context context;
 
     private RetrofitClient(Context context) {
@@ -51,13 +51,10 @@ public class RetrofitClient {
             }
         };
 
-        // Create OkHttpClient with interceptors and timeouts
-        OkHttpClient okHttpClient = new OkHttpClient.Builder()
+        // Derive from the shared client so connections and the dispatcher are reused
+        OkHttpClient okHttpClient = ApiClient.getSharedHttpClient().newBuilder()
                 .addInterceptor(authInterceptor)
                 .addInterceptor(loggingInterceptor)
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
                 .build();
 
         // Create Retrofit instance
@@ -75,8 +72,11 @@ public class RetrofitClient {
         return instance;
     }
 
-    public ApiService getApiService() {
-        return retrofit.create(ApiService.class);
+    public synchronized ApiService getApiService() {
+        if (apiService == null) {
+            apiService = retrofit.create(ApiService.class);
+        }
+        return apiService;
     }
 
     private String getAuthToken() {
@@ -0,0 +1,250 @@
+package com.restaurant.management.printing;
+
+import android.bluetooth.BluetoothDevice;
+import android.bluetooth.BluetoothSocket;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.restaurant.management.utils.AppExecutors;
+import com.restaurant.management.utils.PerfTracer;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * App-scoped Bluetooth printer service.
+ *
+ * Keeps one warm RFCOMM connection per paired printer and runs print jobs one at a time,
+ * in submission order, on a background thread. A job is only retried, on a fresh connection,
+ * when nothing of it can have reached the printer: the connect failed, or the very first write
+ * failed on a reused connection that had gone stale. Once part of a ticket may have printed,
+ * the failure is reported instead so a checker or bill never comes out twice. Callers hear
+ * back on the main thread when the job printed or gave up.
+ */
+public class BluetoothPrinterService {
+    private static final String TAG = "BluetoothPrinterService";
+    private static final UUID PRINTER_UUID = UUID.fromString("00001101-0000-1000-8000-00805F9B34FB");
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 500;
+    // Printers drain their battery holding a link open, so idle connections are released
+    private static final long IDLE_TIMEOUT_MS = 5 * 60 * 1000;
+
+    private static BluetoothPrinterService instance;
+
+    /** Writes one document to an open printer stream. */
+    public interface PrintJob {
+        void print(OutputStream outputStream) throws IOException;
+    }
+
+    public interface PrintCallback {
+        void onPrinted();
+        void onFailed(String message);
+    }
+
+    // Only touched from the single-threaded printing lane
+    private final Map<String, PrinterConnection> connections = new HashMap<>();
+    private final ScheduledExecutorService worker = AppExecutors.getInstance().lane(AppExecutors.Lane.PRINTING);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private ScheduledFuture<?> idleCheck;
+
+    public static synchronized BluetoothPrinterService getInstance() {
+        if (instance == null) {
+            instance = new BluetoothPrinterService();
+        }
+        return instance;
+    }
+
+    private BluetoothPrinterService() {
+    }
+
+    /**
+     * Queues a job for the given printer. Jobs run strictly in FIFO order, so a checker
+     * submitted before a bill always comes out first.
+     */
+    public void submit(BluetoothDevice device, PrintJob job, PrintCallback callback) {
+        worker.execute(() -> runJob(device, job, callback));
+    }
+
+    /** Closes every open printer connection; queued jobs will reconnect on demand. */
+    public void disconnectAll() {
+        worker.execute(this::closeAllConnections);
+    }
+
+    private void runJob(BluetoothDevice device, PrintJob job, PrintCallback callback) {
+        // Connecting and rendering show up nested under this span
+        try (PerfTracer.Span ignored = PerfTracer.begin("print.job")) {
+            runJobAttempts(device, job, callback);
+        }
+    }
+
+    private void runJobAttempts(BluetoothDevice device, PrintJob job, PrintCallback callback) {
+        String lastError = null;
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            PrinterConnection existing = connections.get(device.getAddress());
+            boolean reused = existing != null && existing.socket.isConnected();
+            TrackingOutputStream stream = null;
+            try {
+                PrinterConnection connection = getConnection(device);
+                stream = new TrackingOutputStream(connection.outputStream);
+                job.print(stream);
+                connection.lastUsed = System.currentTimeMillis();
+                scheduleIdleCheck();
+                if (callback != null) {
+                    mainHandler.post(callback::onPrinted);
+                }
+                return;
+            } catch (SecurityException e) {
+                // Missing Bluetooth permission will not fix itself on retry
+                lastError = "Bluetooth permission required";
+                break;
+            } catch (IOException e) {
+                lastError = e.getMessage();
+                Log.w(TAG, "Print attempt " + attempt + " failed: " + lastError);
+                // Drop the (probably stale) socket so a retry reconnects
+                closeConnection(device.getAddress());
+
+                boolean nothingSent = stream == null || (reused && !stream.wroteAny);
+                if (!nothingSent) {
+                    // Part of the ticket may be on paper; let the cashier decide whether to reprint
+                    lastError = "Printing was interrupted, check the printout before printing again";
+                    break;
+                }
+                if (attempt < MAX_ATTEMPTS) {
+                    sleepBeforeRetry(attempt);
+                }
+            }
+        }
+
+        if (callback != null) {
+            String message = lastError != null ? lastError : "Printer unavailable";
+            mainHandler.post(() -> callback.onFailed(message));
+        }
+    }
+
+    private PrinterConnection getConnection(BluetoothDevice device) throws IOException {
+        PrinterConnection connection = connections.get(device.getAddress());
+        if (connection != null && connection.socket.isConnected()) {
+            return connection;
+        }
+        if (connection != null) {
+            closeConnection(device.getAddress());
+        }
+
+        try (PerfTracer.Span ignored = PerfTracer.begin("print.connect")) {
+            BluetoothSocket socket = device.createRfcommSocketToServiceRecord(PRINTER_UUID);
+            try {
+                socket.connect();
+                connection = new PrinterConnection(socket, socket.getOutputStream());
+            } catch (IOException e) {
+                closeQuietly(socket);
+                throw e;
+            }
+        }
+        connections.put(device.getAddress(), connection);
+        Log.d(TAG, "Connected to printer " + device.getAddress());
+        return connection;
+    }
+
+    private void scheduleIdleCheck() {
+        if (idleCheck != null) {
+            idleCheck.cancel(false);
+        }
+        idleCheck = worker.schedule(this::closeIdleConnections, IDLE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void closeIdleConnections() {
+        long cutoff = System.currentTimeMillis() - IDLE_TIMEOUT_MS;
+        String[] addresses = connections.keySet().toArray(new String[0]);
+        for (String address : addresses) {
+            if (connections.get(address).lastUsed <= cutoff) {
+                closeConnection(address);
+            }
+        }
+        if (!connections.isEmpty()) {
+            scheduleIdleCheck();
+        }
+    }
+
+    private void closeAllConnections() {
+        String[] addresses = connections.keySet().toArray(new String[0]);
+        for (String address : addresses) {
+            closeConnection(address);
+        }
+    }
+
+    private void closeConnection(String address) {
+        PrinterConnection connection = connections.remove(address);
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.outputStream.close();
+        } catch (IOException e) {
+            // Silent cleanup
+        }
+        closeQuietly(connection.socket);
+    }
+
+    private void closeQuietly(BluetoothSocket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Silent cleanup
+        }
+    }
+
+    private void sleepBeforeRetry(int attempt) {
+        try {
+            Thread.sleep(RETRY_DELAY_MS * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Records whether any write has gone through, to tell a stale socket from a half-printed job
+    private static class TrackingOutputStream extends FilterOutputStream {
+        boolean wroteAny;
+
+        TrackingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            wroteAny = true;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            wroteAny = true;
+        }
+
+        @Override
+        public void close() {
+            // The connection owns the underlying stream
+        }
+    }
+
+    private static class PrinterConnection {
+        final BluetoothSocket socket;
+        final OutputStream outputStream;
+        long lastUsed = System.currentTimeMillis();
+
+        PrinterConnection(BluetoothSocket socket, OutputStream outputStream) {
+            this.socket = socket;
+            this.outputStream = outputStream;
+        }
+    }
+}
@@ -0,0 +1,592 @@
+package com.restaurant.management.printing;
+
+import com.restaurant.management.models.OrderItem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable render plan for a {@link PrintTemplate}.
+ *
+ * Compiling walks the template once: formatting is merged and turned into ESC/POS bytes,
+ * literal text is pre-encoded, neighbouring static output is fused into single byte runs,
+ * and every {{placeholder}} and condition is parsed into a resolved accessor. Rendering then
+ * only evaluates the dynamic parts and appends into a reusable {@link RenderState} buffer.
+ */
+final class CompiledTemplate {
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{([^}]+)\\}\\}");
+    private static final String DEFAULT_SEPARATOR = "--------------------------------";
+
+    // ESC/POS Commands
+    private static final byte[] ESC_INIT = {0x1B, 0x40};
+    private static final byte[] ESC_ALIGN_CENTER = {0x1B, 0x61, 0x01};
+    private static final byte[] ESC_ALIGN_LEFT = {0x1B, 0x61, 0x00};
+    private static final byte[] ESC_ALIGN_RIGHT = {0x1B, 0x61, 0x02};
+    private static final byte[] ESC_BOLD_ON = {0x1B, 0x45, 0x01};
+    private static final byte[] ESC_BOLD_OFF = {0x1B, 0x45, 0x00};
+    private static final byte[] ESC_DOUBLE_HEIGHT = {0x1B, 0x21, 0x10};
+    private static final byte[] ESC_NORMAL_SIZE = {0x1B, 0x21, 0x00};
+    private static final byte[] ESC_CUT_PAPER = {0x1D, 0x56, 0x42, 0x00};
+    private static final byte[] ESC_FEED_LINE = {0x0A};
+
+    private final Node[] nodes;
+
+    private CompiledTemplate(Node[] nodes) {
+        this.nodes = nodes;
+    }
+
+    static CompiledTemplate compile(PrintTemplate template) {
+        NodeList plan = new NodeList();
+        plan.bytes(ESC_INIT);
+
+        for (PrintTemplate.Section section : template.getSections()) {
+            plan.bytes(formattingBytes(section.getFormatting()));
+            for (PrintTemplate.Line line : section.getLines()) {
+                compileLine(line, section.getFormatting(), plan);
+            }
+            for (int i = 0; i < section.getSpacingAfter(); i++) {
+                plan.bytes(ESC_FEED_LINE);
+            }
+        }
+
+        if (template.shouldCutPaper()) {
+            plan.bytes(ESC_FEED_LINE);
+            plan.bytes(ESC_FEED_LINE);
+            plan.bytes(ESC_CUT_PAPER);
+        }
+
+        return new CompiledTemplate(plan.build());
+    }
+
+    /**
+     * Renders the plan into state's buffer, then hands the whole job to the printer in one write.
+     */
+    void render(OutputStream outputStream, RenderState state, Map<String, Object> data) throws IOException {
+        state.reset(data);
+        renderNodes(nodes, state);
+        state.buffer.writeTo(outputStream);
+        outputStream.flush();
+    }
+
+    private static void renderNodes(Node[] nodes, RenderState state) {
+        for (Node node : nodes) {
+            node.render(state);
+        }
+    }
+
+    // Compilation
+
+    private static void compileLine(PrintTemplate.Line line, PrintTemplate.Formatting parentFormatting, NodeList plan) {
+        PrintTemplate.Formatting effective = mergeFormatting(parentFormatting, line.getFormatting());
+        plan.bytes(formattingBytes(effective));
+
+        String type = line.getType();
+        if ("text".equals(type)) {
+            compileText(line.getContent(), plan);
+        } else if ("separator".equals(type)) {
+            String separator = line.getContent();
+            if (separator == null || separator.isEmpty()) {
+                separator = DEFAULT_SEPARATOR;
+            }
+            plan.bytes(encode(separator));
+            plan.bytes(ESC_FEED_LINE);
+        } else if ("items_loop".equals(type)) {
+            // Loop bodies start from their own formatting, not the section's
+            NodeList body = new NodeList();
+            for (PrintTemplate.Line subLine : line.getSubLines()) {
+                compileLine(subLine, null, body);
+            }
+            byte[] emptyLine = null;
+            if (line.getEmptyText() != null) {
+                emptyLine = concat(encode(line.getEmptyText()), ESC_FEED_LINE);
+            }
+            plan.node(new ItemsLoopNode(emptyLine, body.build()));
+        } else if ("conditional".equals(type)) {
+            NodeList body = new NodeList();
+            for (PrintTemplate.Line subLine : line.getSubLines()) {
+                compileLine(subLine, effective, body);
+            }
+            plan.node(new ConditionalNode(Condition.parse(line.getCondition()), body.build()));
+        } else if ("total_line".equals(type)) {
+            int charWidth = line.getCharWidth() > 0 ? line.getCharWidth() : 32;
+            plan.node(new TotalLineNode(tokenize(line.getLabel()), tokenize(line.getAmount()), charWidth));
+        }
+
+        plan.bytes(ESC_NORMAL_SIZE);
+        plan.bytes(ESC_BOLD_OFF);
+    }
+
+    private static void compileText(String content, NodeList plan) {
+        Object[] segments = tokenize(content);
+        for (Object segment : segments) {
+            if (segment instanceof FieldRef) {
+                plan.node(new FieldNode((FieldRef) segment));
+            } else {
+                plan.bytes(encode((String) segment));
+            }
+        }
+        plan.bytes(ESC_FEED_LINE);
+    }
+
+    // Splits text into literal Strings and FieldRefs, using the same placeholder syntax as before
+    private static Object[] tokenize(String text) {
+        List<Object> segments = new ArrayList<>();
+        if (text == null) {
+            return new Object[0];
+        }
+
+        Matcher matcher = PLACEHOLDER.matcher(text);
+        int last = 0;
+        while (matcher.find()) {
+            if (matcher.start() > last) {
+                segments.add(text.substring(last, matcher.start()));
+            }
+            segments.add(new FieldRef(matcher.group(1).trim()));
+            last = matcher.end();
+        }
+        if (last < text.length()) {
+            segments.add(text.substring(last));
+        }
+        return segments.toArray();
+    }
+
+    private static PrintTemplate.Formatting mergeFormatting(PrintTemplate.Formatting sectionFormatting,
+                                                            PrintTemplate.Formatting lineFormatting) {
+        if (lineFormatting == null && sectionFormatting == null) {
+            return new PrintTemplate.Formatting();
+        }
+        if (lineFormatting == null) {
+            return sectionFormatting;
+        }
+        if (sectionFormatting == null) {
+            return lineFormatting;
+        }
+
+        // Line formatting overrides section formatting, but use section as fallback
+        PrintTemplate.Formatting merged = new PrintTemplate.Formatting();
+        merged.setAlign(lineFormatting.getAlign() != null && !lineFormatting.getAlign().equals("left") ?
+                lineFormatting.getAlign() : sectionFormatting.getAlign());
+        merged.setBold(lineFormatting.isBold() || sectionFormatting.isBold());
+        merged.setDoubleHeight(lineFormatting.isDoubleHeight() || sectionFormatting.isDoubleHeight());
+        return merged;
+    }
+
+    private static byte[] formattingBytes(PrintTemplate.Formatting formatting) {
+        if (formatting == null) {
+            return new byte[0];
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        String align = formatting.getAlign() != null ? formatting.getAlign() : "left";
+        switch (align) {
+            case "center":
+                bytes.write(ESC_ALIGN_CENTER, 0, ESC_ALIGN_CENTER.length);
+                break;
+            case "right":
+                bytes.write(ESC_ALIGN_RIGHT, 0, ESC_ALIGN_RIGHT.length);
+                break;
+            default:
+                bytes.write(ESC_ALIGN_LEFT, 0, ESC_ALIGN_LEFT.length);
+                break;
+        }
+        if (formatting.isBold()) {
+            bytes.write(ESC_BOLD_ON, 0, ESC_BOLD_ON.length);
+        }
+        if (formatting.isDoubleHeight()) {
+            bytes.write(ESC_DOUBLE_HEIGHT, 0, ESC_DOUBLE_HEIGHT.length);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encode(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = new byte[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    static boolean hasValidNotes(OrderItem item) {
+        String notes = item.getNotes();
+        return notes != null && !notes.trim().isEmpty() && !"null".equalsIgnoreCase(notes.trim());
+    }
+
+    /** Collects plan nodes, fusing consecutive static bytes into one run. */
+    private static final class NodeList {
+        private final List<Node> nodes = new ArrayList<>();
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+        void bytes(byte[] bytes) {
+            pending.write(bytes, 0, bytes.length);
+        }
+
+        void node(Node node) {
+            flushPending();
+            nodes.add(node);
+        }
+
+        Node[] build() {
+            flushPending();
+            return nodes.toArray(new Node[0]);
+        }
+
+        private void flushPending() {
+            if (pending.size() > 0) {
+                nodes.add(new BytesNode(pending.toByteArray()));
+                pending.reset();
+            }
+        }
+    }
+
+    // Plan nodes
+
+    private interface Node {
+        void render(RenderState state);
+    }
+
+    private static final class BytesNode implements Node {
+        private final byte[] bytes;
+
+        BytesNode(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void render(RenderState state) {
+            state.buffer.write(bytes);
+        }
+    }
+
+    private static final class FieldNode implements Node {
+        private final FieldRef field;
+
+        FieldNode(FieldRef field) {
+            this.field = field;
+        }
+
+        @Override
+        public void render(RenderState state) {
+            Object value = field.resolve(state);
+            if (value instanceof CharSequence) {
+                state.buffer.writeUtf8((CharSequence) value);
+            } else if (value != null) {
+                state.buffer.writeUtf8(value.toString());
+            }
+        }
+    }
+
+    private static final class TotalLineNode implements Node {
+        private final Object[] label;
+        private final Object[] amount;
+        private final int charWidth;
+
+        TotalLineNode(Object[] label, Object[] amount, int charWidth) {
+            this.label = label;
+            this.amount = amount;
+            this.charWidth = charWidth;
+        }
+
+        @Override
+        public void render(RenderState state) {
+            StringBuilder labelText = state.labelBuilder;
+            StringBuilder amountText = state.amountBuilder;
+            labelText.setLength(0);
+            amountText.setLength(0);
+            appendSegments(label, state, labelText);
+            appendSegments(amount, state, amountText);
+
+            // Left-align the label in whatever width the amount leaves over
+            int labelWidth = Math.max(0, charWidth - amountText.length());
+            state.buffer.writeUtf8(labelText);
+            for (int i = labelText.length(); i < labelWidth; i++) {
+                state.buffer.write(' ');
+            }
+            state.buffer.writeUtf8(amountText);
+            state.buffer.write(ESC_FEED_LINE);
+        }
+
+        private static void appendSegments(Object[] segments, RenderState state, StringBuilder target) {
+            for (Object segment : segments) {
+                if (segment instanceof FieldRef) {
+                    Object value = ((FieldRef) segment).resolve(state);
+                    if (value != null) {
+                        target.append(value);
+                    }
+                } else {
+                    target.append((String) segment);
+                }
+            }
+        }
+    }
+
+    private static final class ConditionalNode implements Node {
+        private final Condition condition;
+        private final Node[] body;
+
+        ConditionalNode(Condition condition, Node[] body) {
+            this.condition = condition;
+            this.body = body;
+        }
+
+        @Override
+        public void render(RenderState state) {
+            if (condition.evaluate(state)) {
+                renderNodes(body, state);
+            }
+        }
+    }
+
+    private static final class ItemsLoopNode implements Node {
+        private final byte[] emptyLine;
+        private final Node[] body;
+
+        ItemsLoopNode(byte[] emptyLine, Node[] body) {
+            this.emptyLine = emptyLine;
+            this.body = body;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void render(RenderState state) {
+            List<OrderItem> items = (List<OrderItem>) state.data.get("items");
+            if (items == null || items.isEmpty()) {
+                if (emptyLine != null) {
+                    state.buffer.write(emptyLine);
+                }
+                return;
+            }
+
+            OrderItem outerItem = state.item;
+            for (OrderItem item : items) {
+                state.item = item;
+                renderNodes(body, state);
+            }
+            state.item = outerItem;
+        }
+    }
+
+    // Field access
+
+    /** Per-item values that used to be copied into a fresh map for every loop iteration. */
+    private enum ItemField {
+        ITEM("item"),
+        ITEM_NAME("item_name"),
+        ITEM_QUANTITY("item_quantity"),
+        ITEM_PRICE("item_price"),
+        ITEM_TOTAL("item_total"),
+        ITEM_NOTES("item_notes"),
+        HAS_NOTES("has_notes");
+
+        private final String key;
+
+        ItemField(String key) {
+            this.key = key;
+        }
+
+        static ItemField forKey(String key) {
+            for (ItemField field : values()) {
+                if (field.key.equals(key)) {
+                    return field;
+                }
+            }
+            return null;
+        }
+
+        Object valueOf(OrderItem item) {
+            switch (this) {
+                case ITEM:
+                    return item;
+                case ITEM_NAME:
+                    return item.getDisplayName();
+                case ITEM_QUANTITY:
+                    return item.getQuantity();
+                case ITEM_PRICE:
+                    return PrintTemplateManager.formatCurrency(item.getUnitPrice());
+                case ITEM_TOTAL:
+                    return PrintTemplateManager.formatCurrency(item.getTotalPrice());
+                case ITEM_NOTES:
+                    return hasValidNotes(item) ? item.getNotes() : "";
+                case HAS_NOTES:
+                    return hasValidNotes(item);
+                default:
+                    return null;
+            }
+        }
+    }
+
+    /** A {{placeholder}} with its dotted path split and its item accessor resolved up front. */
+    private static final class FieldRef {
+        private final String root;
+        private final ItemField itemField;
+        private final String[] path;
+
+        FieldRef(String key) {
+            String[] parts = key.split("\\.");
+            this.root = parts[0];
+            this.itemField = ItemField.forKey(root);
+            this.path = parts;
+        }
+
+        Object resolve(RenderState state) {
+            Object current = lookup(state, root, itemField);
+            for (int i = 1; i < path.length; i++) {
+                if (current instanceof Map) {
+                    current = ((Map<?, ?>) current).get(path[i]);
+                } else {
+                    return null;
+                }
+            }
+            return current;
+        }
+    }
+
+    private static Object lookup(RenderState state, String key, ItemField itemField) {
+        if (itemField != null && state.item != null) {
+            return itemField.valueOf(state.item);
+        }
+        return state.data.get(key);
+    }
+
+    /** Pre-parsed has_/no_/boolean condition. */
+    private static final class Condition {
+        private static final int NEVER = 0;
+        private static final int HAS = 1;
+        private static final int NO = 2;
+        private static final int FLAG = 3;
+
+        private final int kind;
+        private final String key;
+        private final ItemField itemField;
+
+        private Condition(int kind, String key) {
+            this.kind = kind;
+            this.key = key;
+            this.itemField = key != null ? ItemField.forKey(key) : null;
+        }
+
+        static Condition parse(String condition) {
+            if (condition == null) {
+                return new Condition(NEVER, null);
+            }
+            if (condition.startsWith("has_")) {
+                return new Condition(HAS, condition.substring(4));
+            }
+            if (condition.startsWith("no_")) {
+                return new Condition(NO, condition.substring(3));
+            }
+            return new Condition(FLAG, condition);
+        }
+
+        boolean evaluate(RenderState state) {
+            if (kind == NEVER) {
+                return false;
+            }
+
+            Object value = lookup(state, key, itemField);
+            switch (kind) {
+                case HAS:
+                    return isPresent(value);
+                case NO:
+                    return !isPresent(value);
+                default:
+                    return value instanceof Boolean && (Boolean) value;
+            }
+        }
+
+        private static boolean isPresent(Object value) {
+            if (value == null) {
+                return false;
+            }
+            String text = value.toString();
+            return !text.isEmpty() && !text.equals("0") && !text.equals("false");
+        }
+    }
+
+    // Rendering state
+
+    /** Mutable per-printer scratch space, reused across renders so a print allocates almost nothing. */
+    static final class RenderState {
+        final RenderBuffer buffer = new RenderBuffer();
+        final StringBuilder labelBuilder = new StringBuilder(64);
+        final StringBuilder amountBuilder = new StringBuilder(32);
+        Map<String, Object> data;
+        OrderItem item;
+
+        void reset(Map<String, Object> data) {
+            this.data = data;
+            this.item = null;
+            buffer.reset();
+        }
+    }
+
+    /** Growable byte buffer with an allocation-free UTF-8 encoder. */
+    static final class RenderBuffer {
+        private byte[] bytes = new byte[4096];
+        private int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        void write(byte[] data) {
+            ensureCapacity(data.length);
+            System.arraycopy(data, 0, bytes, size, data.length);
+            size += data.length;
+        }
+
+        void write(int b) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) b;
+        }
+
+        void writeUtf8(CharSequence text) {
+            int length = text.length();
+            ensureCapacity(length * 3);
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    bytes[size++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[size++] = (byte) (0xC0 | (c >> 6));
+                    bytes[size++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    ensureCapacity(4);
+                    bytes[size++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[size++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    bytes[size++] = (byte) '?';
+                } else {
+                    bytes[size++] = (byte) (0xE0 | (c >> 12));
+                    bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[size++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        void writeTo(OutputStream outputStream) throws IOException {
+            outputStream.write(bytes, 0, size);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > bytes.length) {
+                byte[] grown = new byte[Math.max(bytes.length * 2, size + extra)];
+                System.arraycopy(bytes, 0, grown, 0, size);
+                bytes = grown;
+            }
+        }
+    }
+}
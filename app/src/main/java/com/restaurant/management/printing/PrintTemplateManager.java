@@ -5,7 +5,7 @@ import android.content.res.AssetManager;
 import android.util.Log;
 
 import com.restaurant.management.models.Order;
-import com.restaurant.management.models.OrderItem;
+import com.restaurant.management.utils.PerfTracer;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -15,11 +15,9 @@ import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Template-based printer manager that allows customizable print layouts
@@ -34,20 +32,12 @@ public class PrintTemplateManager {
     public static final String TEMPLATE_CUSTOMER_BILL = "customer_bill";
     public static final String TEMPLATE_PAYMENT_RECEIPT = "payment_receipt";
 
-    // ESC/POS Commands
-    private static final byte[] ESC_INIT = {0x1B, 0x40};
-    private static final byte[] ESC_ALIGN_CENTER = {0x1B, 0x61, 0x01};
-    private static final byte[] ESC_ALIGN_LEFT = {0x1B, 0x61, 0x00};
-    private static final byte[] ESC_ALIGN_RIGHT = {0x1B, 0x61, 0x02};
-    private static final byte[] ESC_BOLD_ON = {0x1B, 0x45, 0x01};
-    private static final byte[] ESC_BOLD_OFF = {0x1B, 0x45, 0x00};
-    private static final byte[] ESC_DOUBLE_HEIGHT = {0x1B, 0x21, 0x10};
-    private static final byte[] ESC_NORMAL_SIZE = {0x1B, 0x21, 0x00};
-    private static final byte[] ESC_CUT_PAPER = {0x1D, 0x56, 0x42, 0x00};
-    private static final byte[] ESC_FEED_LINE = {0x0A};
+    // Compiled plans are immutable and the template assets never change at runtime, so every
+    // manager instance shares them
+    private static final Map<String, CompiledTemplate> compiledTemplates = new ConcurrentHashMap<>();
 
     private final Context context;
-    private final Map<String, PrintTemplate> templateCache = new HashMap<>();
+    private final CompiledTemplate.RenderState renderState = new CompiledTemplate.RenderState();
 
     public PrintTemplateManager(Context context) {
         this.context = context;
@@ -57,7 +47,7 @@ public class PrintTemplateManager {
      * Print kitchen checker using template
      */
     public void printKitchenChecker(OutputStream outputStream, Order order) throws IOException {
-        PrintTemplate template = getTemplate(TEMPLATE_KITCHEN_CHECKER);
+        CompiledTemplate template = getCompiledTemplate(TEMPLATE_KITCHEN_CHECKER);
         Map<String, Object> data = buildKitchenCheckerData(order);
         executeTemplate(outputStream, template, data);
     }
@@ -68,7 +58,7 @@ public class PrintTemplateManager {
     public void printCustomerBill(OutputStream outputStream, Order order,
                                   double taxRate, String taxDescription,
                                   double serviceRate, String serviceDescription) throws IOException {
-        PrintTemplate template = getTemplate(TEMPLATE_CUSTOMER_BILL);
+        CompiledTemplate template = getCompiledTemplate(TEMPLATE_CUSTOMER_BILL);
         Map<String, Object> data = buildCustomerBillData(order, taxRate, taxDescription, serviceRate, serviceDescription);
         executeTemplate(outputStream, template, data);
     }
@@ -83,7 +73,7 @@ public class PrintTemplateManager {
                                     String paymentMethod, double amountPaid,
                                     double taxRate, String taxDescription,
                                     double serviceRate, String serviceDescription) throws IOException {
-        PrintTemplate template = getTemplate(TEMPLATE_PAYMENT_RECEIPT);
+        CompiledTemplate template = getCompiledTemplate(TEMPLATE_PAYMENT_RECEIPT);
         Map<String, Object> data = buildPaymentReceiptData(orderNumber, tableNumber,
                 originalAmount, finalAmount, discountAmount, discountName,
                 paymentMethod, amountPaid, taxRate, taxDescription, serviceRate, serviceDescription);
@@ -91,23 +81,30 @@ public class PrintTemplateManager {
     }
 
     /**
-     * Load template from assets or return default if not found
+     * Get the compiled render plan for a template, compiling it on first use
      */
-    private PrintTemplate getTemplate(String templateType) {
-        if (templateCache.containsKey(templateType)) {
-            return templateCache.get(templateType);
+    private CompiledTemplate getCompiledTemplate(String templateType) {
+        CompiledTemplate compiled = compiledTemplates.get(templateType);
+        if (compiled == null) {
+            compiled = CompiledTemplate.compile(loadTemplate(templateType));
+            CompiledTemplate existing = compiledTemplates.putIfAbsent(templateType, compiled);
+            if (existing != null) {
+                compiled = existing;
+            }
         }
+        return compiled;
+    }
 
+    /**
+     * Load template from assets or return default if not found
+     */
+    private PrintTemplate loadTemplate(String templateType) {
         try {
             String templateJson = loadTemplateFromAssets(templateType + ".json");
-            PrintTemplate template = PrintTemplate.fromJson(templateJson);
-            templateCache.put(templateType, template);
-            return template;
+            return PrintTemplate.fromJson(templateJson);
         } catch (Exception e) {
             Log.w(TAG, "Failed to load template: " + templateType + ", using default", e);
-            PrintTemplate defaultTemplate = getDefaultTemplate(templateType);
-            templateCache.put(templateType, defaultTemplate);
-            return defaultTemplate;
+            return getDefaultTemplate(templateType);
         }
     }
 
@@ -131,279 +128,13 @@ public class PrintTemplateManager {
     /**
      * Execute template with data
      */
-    private void executeTemplate(OutputStream outputStream, PrintTemplate template, Map<String, Object> data) throws IOException {
-        // Initialize printer
-        outputStream.write(ESC_INIT);
-
-        // Execute each section
-        for (PrintTemplate.Section section : template.getSections()) {
-            executeSection(outputStream, section, data);
-        }
-
-        // Cut paper if specified
-        if (template.shouldCutPaper()) {
-            outputStream.write(ESC_FEED_LINE);
-            outputStream.write(ESC_FEED_LINE);
-            outputStream.write(ESC_CUT_PAPER);
-        }
-
-        outputStream.flush();
-    }
-
-    /**
-     * Execute a template section
-     */
-    private void executeSection(OutputStream outputStream, PrintTemplate.Section section, Map<String, Object> data) throws IOException {
-        // Apply section formatting first
-        applyFormatting(outputStream, section.getFormatting());
-
-        Log.d(TAG, "Executing section: " + section.getName() +
-                " with formatting: align=" + section.getFormatting().getAlign());
-
-        // Process each line in the section
-        for (PrintTemplate.Line line : section.getLines()) {
-            executeLine(outputStream, line, data, section.getFormatting()); // Pass section formatting
-        }
-
-        // Add section spacing
-        for (int i = 0; i < section.getSpacingAfter(); i++) {
-            outputStream.write(ESC_FEED_LINE);
-        }
-    }
-
-    private PrintTemplate.Formatting mergeFormatting(PrintTemplate.Formatting sectionFormatting, PrintTemplate.Formatting lineFormatting) {
-        if (lineFormatting == null && sectionFormatting == null) {
-            return new PrintTemplate.Formatting(); // Default formatting
-        }
-
-        if (lineFormatting == null) {
-            return sectionFormatting;
-        }
-
-        if (sectionFormatting == null) {
-            return lineFormatting;
-        }
-
-        // Create merged formatting
-        PrintTemplate.Formatting merged = new PrintTemplate.Formatting();
-
-        // Line formatting overrides section formatting, but use section as fallback
-        merged.setAlign(lineFormatting.getAlign() != null && !lineFormatting.getAlign().equals("left") ?
-                lineFormatting.getAlign() : sectionFormatting.getAlign());
-        merged.setBold(lineFormatting.isBold() || sectionFormatting.isBold());
-        merged.setDoubleHeight(lineFormatting.isDoubleHeight() || sectionFormatting.isDoubleHeight());
-
-        return merged;
-    }
-
-    private void executeConditional(OutputStream outputStream, PrintTemplate.Line line, Map<String, Object> data, PrintTemplate.Formatting parentFormatting) throws IOException {
-        String condition = line.getCondition();
-        if (evaluateCondition(condition, data)) {
-            for (PrintTemplate.Line subLine : line.getSubLines()) {
-                executeLine(outputStream, subLine, data, parentFormatting); // Pass parent formatting
-            }
-        }
-    }
-
-    private void executeLine(OutputStream outputStream, PrintTemplate.Line line, Map<String, Object> data, PrintTemplate.Formatting sectionFormatting) throws IOException {
-        // Determine effective formatting (line formatting overrides section formatting)
-        PrintTemplate.Formatting effectiveFormatting = mergeFormatting(sectionFormatting, line.getFormatting());
-
-        // Apply line formatting
-        applyFormatting(outputStream, effectiveFormatting);
-
-        if (line.getType().equals("text")) {
-            // Simple text line
-            String text = replacePlaceholders(line.getContent(), data);
-            printLine(outputStream, text);
-        } else if (line.getType().equals("separator")) {
-            // Separator line
-            String separator = line.getContent();
-            if (separator == null || separator.isEmpty()) {
-                separator = "--------------------------------";
-            }
-            printLine(outputStream, separator);
-        } else if (line.getType().equals("items_loop")) {
-            // Loop through order items
-            executeItemsLoop(outputStream, line, data);
-        } else if (line.getType().equals("conditional")) {
-            // Conditional content
-            executeConditional(outputStream, line, data, effectiveFormatting); // Pass formatting
-        } else if (line.getType().equals("total_line")) {
-            // Formatted total line
-            executeTotalLine(outputStream, line, data);
-        }
-
-        // Reset formatting after line
-        outputStream.write(ESC_NORMAL_SIZE);
-        outputStream.write(ESC_BOLD_OFF);
-    }
-
-    /**
-     * Execute a template line
-     */
-    private void executeLine(OutputStream outputStream, PrintTemplate.Line line, Map<String, Object> data) throws IOException {
-        executeLine(outputStream, line, data, null); // No section formatting
-    }
-
-
-    /**
-     * Execute items loop
-     */
-    @SuppressWarnings("unchecked")
-    private void executeItemsLoop(OutputStream outputStream, PrintTemplate.Line line, Map<String, Object> data) throws IOException {
-        List<OrderItem> items = (List<OrderItem>) data.get("items");
-        if (items == null || items.isEmpty()) {
-            if (line.getEmptyText() != null) {
-                printLine(outputStream, line.getEmptyText());
-            }
-            return;
-        }
-
-        for (OrderItem item : items) {
-            Map<String, Object> itemData = new HashMap<>(data);
-            itemData.put("item", item);
-            itemData.put("item_name", getDisplayName(item));
-            itemData.put("item_quantity", item.getQuantity());
-            itemData.put("item_price", formatCurrency(item.getUnitPrice()));
-            itemData.put("item_total", formatCurrency(item.getTotalPrice()));
-            itemData.put("item_notes", hasValidNotes(item) ? item.getNotes() : "");
-            itemData.put("has_notes", hasValidNotes(item));
-
-            for (PrintTemplate.Line subLine : line.getSubLines()) {
-                executeLine(outputStream, subLine, itemData);
-            }
-        }
-    }
-
-    /**
-     * Execute conditional content
-     */
-    private void executeConditional(OutputStream outputStream, PrintTemplate.Line line, Map<String, Object> data) throws IOException {
-        String condition = line.getCondition();
-        if (evaluateCondition(condition, data)) {
-            for (PrintTemplate.Line subLine : line.getSubLines()) {
-                executeLine(outputStream, subLine, data);
-            }
-        }
-    }
-
-    /**
-     * Execute total line with proper formatting
-     */
-    private void executeTotalLine(OutputStream outputStream, PrintTemplate.Line line, Map<String, Object> data) throws IOException {
-        String label = replacePlaceholders(line.getLabel(), data);
-        String amount = replacePlaceholders(line.getAmount(), data);
-        String formatted = formatTotalLine(label, amount, line.getCharWidth());
-        printLine(outputStream, formatted);
-    }
-
-    /**
-     * Apply formatting commands
-     */
-    private void applyFormatting(OutputStream outputStream, PrintTemplate.Formatting formatting) throws IOException {
-        if (formatting == null) {
-            Log.d(TAG, "No formatting to apply");
-            return;
-        }
-
-        Log.d(TAG, "Applying formatting: align=" + formatting.getAlign() +
-                ", bold=" + formatting.isBold() + ", doubleHeight=" + formatting.isDoubleHeight());
-
-        // Alignment
-        switch (formatting.getAlign()) {
-            case "center":
-                outputStream.write(ESC_ALIGN_CENTER);
-                Log.d(TAG, "Applied CENTER alignment");
-                break;
-            case "right":
-                outputStream.write(ESC_ALIGN_RIGHT);
-                Log.d(TAG, "Applied RIGHT alignment");
-                break;
-            default:
-                outputStream.write(ESC_ALIGN_LEFT);
-                Log.d(TAG, "Applied LEFT alignment");
-                break;
-        }
-
-        // Bold
-        if (formatting.isBold()) {
-            outputStream.write(ESC_BOLD_ON);
-            Log.d(TAG, "Applied BOLD");
-        }
-
-        // Size
-        if (formatting.isDoubleHeight()) {
-            outputStream.write(ESC_DOUBLE_HEIGHT);
-            Log.d(TAG, "Applied DOUBLE HEIGHT");
-        }
-    }
-
-    /**
-     * Replace placeholders in text with actual data
-     */
-    private String replacePlaceholders(String text, Map<String, Object> data) {
-        if (text == null) return "";
-
-        Pattern pattern = Pattern.compile("\\{\\{([^}]+)\\}\\}");
-        Matcher matcher = pattern.matcher(text);
-        StringBuffer result = new StringBuffer();
-
-        while (matcher.find()) {
-            String key = matcher.group(1).trim();
-            Object value = getNestedValue(data, key);
-            String replacement = value != null ? value.toString() : "";
-            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
-        }
-        matcher.appendTail(result);
-
-        return result.toString();
-    }
-
-    /**
-     * Get nested value from data map (supports dot notation)
-     */
-    private Object getNestedValue(Map<String, Object> data, String key) {
-        String[] parts = key.split("\\.");
-        Object current = data;
-
-        for (String part : parts) {
-            if (current instanceof Map) {
-                current = ((Map<?, ?>) current).get(part);
-            } else {
-                return null;
+    private void executeTemplate(OutputStream outputStream, CompiledTemplate template, Map<String, Object> data) throws IOException {
+        // The render buffer is reused between prints, so one print at a time per manager
+        try (PerfTracer.Span ignored = PerfTracer.begin("print.render")) {
+            synchronized (renderState) {
+                template.render(outputStream, renderState, data);
             }
         }
-
-        return current;
-    }
-
-    /**
-     * Evaluate simple conditions
-     */
-    private boolean evaluateCondition(String condition, Map<String, Object> data) {
-        if (condition == null) return false;
-
-        // Simple conditions: "has_discount", "no_discount", "has_notes", etc.
-        if (condition.startsWith("has_")) {
-            String key = condition.substring(4);
-            Object value = data.get(key);
-            return value != null && !value.toString().isEmpty() && !value.toString().equals("0") && !value.toString().equals("false");
-        }
-
-        if (condition.startsWith("no_")) {
-            String key = condition.substring(3);
-            Object value = data.get(key);
-            return value == null || value.toString().isEmpty() || value.toString().equals("0") || value.toString().equals("false");
-        }
-
-        // Direct boolean check
-        Object value = data.get(condition);
-        if (value instanceof Boolean) {
-            return (Boolean) value;
-        }
-
-        return false;
     }
 
     /**
@@ -513,19 +244,7 @@ public class PrintTemplateManager {
     }
 
     // Helper methods
-    private void printLine(OutputStream outputStream, String text) throws IOException {
-        outputStream.write(text.getBytes("UTF-8"));
-        outputStream.write(ESC_FEED_LINE);
-    }
-
-    private String formatTotalLine(String label, String amount, int charWidth) {
-        if (charWidth <= 0) charWidth = 32; // Default width
-        int labelWidth = charWidth - amount.length();
-        if (labelWidth < 0) labelWidth = 0;
-        return String.format("%-" + labelWidth + "s%s", label, amount);
-    }
-
-    private String formatCurrency(double amount) {
+    static String formatCurrency(double amount) {
         return String.format(Locale.getDefault(), "%,.0f", amount);
     }
 
@@ -533,15 +252,6 @@ public class PrintTemplateManager {
         return new SimpleDateFormat("dd/MM/yy HH:mm", Locale.getDefault()).format(date);
     }
 
-    private String getDisplayName(OrderItem item) {
-        return item.getDisplayName();
-    }
-
-    private boolean hasValidNotes(OrderItem item) {
-        String notes = item.getNotes();
-        return notes != null && !notes.trim().isEmpty() && !"null".equalsIgnoreCase(notes.trim());
-    }
-
     /**
      * Get default template if file not found
      */
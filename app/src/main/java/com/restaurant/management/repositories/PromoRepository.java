@@ -7,17 +7,17 @@ import android.os.Looper;
 import android.util.Log;
 
 import com.restaurant.management.database.DatabaseManager;
+import com.restaurant.management.helpers.JsonStreamParser;
 import com.restaurant.management.models.Promo;
-
-import org.json.JSONArray;
-import org.json.JSONObject;
+import com.restaurant.management.network.ApiClient;
+import com.restaurant.management.utils.AppExecutors;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 
 import okhttp3.Call;
 import okhttp3.Callback;
@@ -31,7 +31,7 @@ public class PromoRepository {
 
     private DatabaseManager databaseManager;
     private Context context;
-    private ExecutorService executor;
+    private Executor executor;
     private Handler mainHandler;
     private OkHttpClient client;
 
@@ -43,9 +43,9 @@ public class PromoRepository {
     public PromoRepository(Context context) {
         this.context = context;
         this.databaseManager = DatabaseManager.getInstance(context);
-        this.executor = Executors.newCachedThreadPool();
+        this.executor = AppExecutors.getInstance().lane(AppExecutors.Lane.DATABASE);
         this.mainHandler = new Handler(Looper.getMainLooper());
-        this.client = new OkHttpClient();
+        this.client = ApiClient.getSharedHttpClient();
     }
 
     /**
@@ -101,25 +101,27 @@ public class PromoRepository {
             @Override
             public void onResponse(Call call, Response response) throws IOException {
                 try {
-                    String responseBody = response.body().string();
-
                     if (!response.isSuccessful()) {
                         Log.e(TAG, "API error: " + response.code() + ", falling back to offline data");
                         getOfflinePromos(callback);
                         return;
                     }
 
-                    JSONObject jsonResponse = new JSONObject(responseBody);
-                    List<Promo> promos = parsePromos(jsonResponse);
-
-                    // Save to database for future offline use
-                    executor.execute(() -> {
-                        try {
-                            databaseManager.savePromos(promos);
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error saving API promos to database", e);
+                    // Parse straight off the body, then replace the cached promos in one transaction
+                    List<Promo> received = new ArrayList<>();
+                    try (Reader body = response.body().charStream()) {
+                        JsonStreamParser.readPromos(body, received);
+                    }
+                    List<Promo> promos = new ArrayList<>();
+                    for (Promo promo : received) {
+                        if (promo.isActive()) {
+                            promos.add(promo);
                         }
-                    });
+                    }
+                    databaseManager.savePromos(promos);
+
+                    Collections.sort(promos, (promo1, promo2) ->
+                            promo1.getPromoName().compareToIgnoreCase(promo2.getPromoName()));
 
                     // Return the fresh data
                     mainHandler.post(() -> {
@@ -210,74 +212,6 @@ public class PromoRepository {
         });
     }
 
-    /**
-     * Parse promos from JSON response
-     */
-    private List<Promo> parsePromos(JSONObject jsonResponse) throws Exception {
-        List<Promo> promos = new ArrayList<>();
-
-        if (jsonResponse.has("data") && !jsonResponse.isNull("data")) {
-            JSONArray promosArray;
-
-            if (jsonResponse.get("data") instanceof JSONArray) {
-                promosArray = jsonResponse.getJSONArray("data");
-            } else {
-                JSONObject singlePromo = jsonResponse.getJSONObject("data");
-                promosArray = new JSONArray();
-                promosArray.put(singlePromo);
-            }
-
-            for (int i = 0; i < promosArray.length(); i++) {
-                JSONObject promoJson = promosArray.getJSONObject(i);
-                Promo promo = new Promo();
-
-                promo.setPromoId(promoJson.optLong("promo_id", -1));
-                promo.setPromoName(promoJson.optString("promo_name", ""));
-                promo.setPromoDescription(promoJson.optString("promo_description", ""));
-                promo.setStartDate(promoJson.optString("start_date", ""));
-                promo.setEndDate(promoJson.optString("end_date", ""));
-                promo.setTermAndCondition(promoJson.optString("term_and_condition", ""));
-                promo.setType(promoJson.optString("type", ""));
-                promo.setDiscountType(promoJson.optString("discount_type", ""));
-                promo.setDiscountAmount(promoJson.optString("discount_amount", ""));
-                promo.setActive(promoJson.optBoolean("is_active", false));
-
-                if (promoJson.has("picture") && !promoJson.isNull("picture")) {
-                    promo.setPicture(promoJson.optString("picture", ""));
-                } else if (promoJson.has("image_url") && !promoJson.isNull("image_url")) {
-                    promo.setPicture(promoJson.optString("image_url", ""));
-                } else if (promoJson.has("image_path") && !promoJson.isNull("image_path")) {
-                    promo.setPicture(promoJson.optString("image_path", ""));
-                }
-
-                if (promoJson.has("promo_items") && !promoJson.isNull("promo_items")) {
-                    JSONArray itemsArray = promoJson.getJSONArray("promo_items");
-                    List<Promo.PromoItem> promoItems = new ArrayList<>();
-
-                    for (int j = 0; j < itemsArray.length(); j++) {
-                        JSONObject itemJson = itemsArray.getJSONObject(j);
-                        Promo.PromoItem item = new Promo.PromoItem(
-                                itemJson.optLong("id", -1),
-                                itemJson.optLong("item_id", -1),
-                                itemJson.optString("item_name", "")
-                        );
-                        promoItems.add(item);
-                    }
-                    promo.setPromoItems(promoItems);
-                }
-
-                if (promo.isActive()) {
-                    promos.add(promo);
-                }
-            }
-
-            Collections.sort(promos, (promo1, promo2) ->
-                    promo1.getPromoName().compareToIgnoreCase(promo2.getPromoName()));
-        }
-
-        return promos;
-    }
-
     /**
      * Get authentication token from shared preferences
      */
@@ -295,9 +229,7 @@ public class PromoRepository {
      * Clean up resources
      */
     public void cleanup() {
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
-        }
+        // The executor is a shared app lane, so it is not shut down here
         // Note: No need to close DatabaseManager as it uses singleton pattern
         // and handles its own lifecycle
     }
@@ -0,0 +1,295 @@
+package com.restaurant.management.repositories;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.restaurant.management.R;
+import com.restaurant.management.database.DatabaseManager;
+import com.restaurant.management.helpers.PaymentApiHelper;
+import com.restaurant.management.models.Discount;
+import com.restaurant.management.models.OrderStatus;
+import com.restaurant.management.models.OrderType;
+import com.restaurant.management.models.PaymentMethod;
+import com.restaurant.management.models.RoundingConfig;
+import com.restaurant.management.models.Tax;
+import com.restaurant.management.network.ApiClient;
+import com.restaurant.management.utils.AppExecutors;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.CacheControl;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Process-wide holder for the reference data every payment and order screen needs.
+ *
+ * Values are seeded from SQLite as soon as the store is created and exposed as LiveData,
+ * so screens render from memory and never wait on the network. {@link #refresh()} re-fetches
+ * in the background and only publishes (and persists) an entry when the server's payload
+ * actually changed. {@link #invalidate(String)} skips the HTTP cache's freshness window for
+ * entries the server has shown to be out of date. Once a value from the network has been
+ * published, the SQLite seed never replaces it.
+ */
+public class ReferenceDataStore {
+    private static final String TAG = "ReferenceDataStore";
+    private static final String BASE_URL = "https://api.pood.lol/";
+
+    public static final String KEY_TAXES = "taxes";
+    public static final String KEY_DISCOUNTS = "discounts";
+    public static final String KEY_PAYMENT_MODES = "payment_modes";
+    public static final String KEY_ROUNDING = "rounding";
+    private static final String KEY_ORDER_TYPES = "order_types";
+    private static final String KEY_ORDER_STATUSES = "order_statuses";
+
+    private static ReferenceDataStore instance;
+
+    private final Context context;
+    private final DatabaseManager databaseManager;
+    private final OkHttpClient client;
+    private final Map<String, String> currentPayloads = new ConcurrentHashMap<>();
+    // Keys that already hold a value from the network; guarded by this
+    private final Set<String> networkKeys = new HashSet<>();
+
+    private final MutableLiveData<List<Tax>> taxes = new MutableLiveData<>();
+    private final MutableLiveData<List<Discount>> discounts = new MutableLiveData<>();
+    private final MutableLiveData<List<PaymentMethod>> paymentMethods = new MutableLiveData<>();
+    private final MutableLiveData<RoundingConfig> roundingConfig = new MutableLiveData<>();
+    private final MutableLiveData<List<OrderType>> orderTypes = new MutableLiveData<>();
+    private final MutableLiveData<List<OrderStatus>> orderStatuses = new MutableLiveData<>();
+
+    public static synchronized ReferenceDataStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new ReferenceDataStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ReferenceDataStore(Context context) {
+        this.context = context;
+        this.databaseManager = DatabaseManager.getInstance(context);
+        this.client = ApiClient.getSharedHttpClient();
+        AppExecutors.getInstance().execute(AppExecutors.Lane.DATABASE, this::loadFromDatabase);
+    }
+
+    public LiveData<List<Tax>> getTaxes() {
+        return taxes;
+    }
+
+    public LiveData<List<Discount>> getDiscounts() {
+        return discounts;
+    }
+
+    public LiveData<List<PaymentMethod>> getPaymentMethods() {
+        return paymentMethods;
+    }
+
+    public LiveData<RoundingConfig> getRoundingConfig() {
+        return roundingConfig;
+    }
+
+    public LiveData<List<OrderType>> getOrderTypes() {
+        return orderTypes;
+    }
+
+    public LiveData<List<OrderStatus>> getOrderStatuses() {
+        return orderStatuses;
+    }
+
+    /**
+     * Re-fetches every reference endpoint in the background. Cheap to call often: unchanged
+     * entries are answered by the HTTP cache and are not re-published.
+     */
+    public void refresh() {
+        fetch(KEY_TAXES, false);
+        fetch(KEY_DISCOUNTS, false);
+        fetch(KEY_PAYMENT_MODES, false);
+        fetch(KEY_ROUNDING, false);
+    }
+
+    /**
+     * Re-fetches a single entry after the server has shown it changed. The request revalidates
+     * with the server even while the cached response is still fresh.
+     */
+    public void invalidate(String key) {
+        fetch(key, true);
+    }
+
+    private void fetch(String key, boolean revalidate) {
+        String endpoint = endpointFor(key);
+        if (endpoint == null) {
+            Log.w(TAG, "Unknown reference data key: " + key);
+            return;
+        }
+
+        Request.Builder requestBuilder = new Request.Builder().url(BASE_URL + endpoint);
+        if (revalidate) {
+            // Treats the cached copy as stale, so an unchanged entry still comes back as a 304
+            requestBuilder.cacheControl(new CacheControl.Builder().maxAge(0, TimeUnit.SECONDS).build());
+        }
+        String authToken = getAuthToken();
+        if (authToken != null && !authToken.isEmpty()) {
+            requestBuilder.header("Authorization", "Bearer " + authToken);
+        }
+
+        client.newCall(requestBuilder.build()).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                Log.w(TAG, "Refresh of " + key + " failed, keeping cached value: " + e.getMessage());
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) throws IOException {
+                try {
+                    String responseBody = response.body().string();
+                    if (!response.isSuccessful()) {
+                        Log.w(TAG, "Refresh of " + key + " returned " + response.code());
+                        return;
+                    }
+                    if (responseBody.equals(currentPayloads.get(key))) {
+                        return;
+                    }
+                    if (publish(key, responseBody, true)) {
+                        databaseManager.saveReferencePayload(key, responseBody);
+                        Log.d(TAG, "Reference data changed: " + key);
+                    }
+                } catch (Exception e) {
+                    Log.e(TAG, "Error refreshing " + key, e);
+                } finally {
+                    response.close();
+                }
+            }
+        });
+    }
+
+    /** Called after order types are re-downloaded into SQLite. */
+    public synchronized void publishOrderTypes(List<OrderType> types) {
+        networkKeys.add(KEY_ORDER_TYPES);
+        orderTypes.postValue(types);
+    }
+
+    /** Called after order statuses are re-downloaded into SQLite. */
+    public synchronized void publishOrderStatuses(List<OrderStatus> statuses) {
+        networkKeys.add(KEY_ORDER_STATUSES);
+        orderStatuses.postValue(statuses);
+    }
+
+    private void loadFromDatabase() {
+        String[] keys = {KEY_TAXES, KEY_DISCOUNTS, KEY_PAYMENT_MODES, KEY_ROUNDING};
+        for (String key : keys) {
+            String payload = databaseManager.getReferencePayload(key);
+            if (payload != null) {
+                publish(key, payload, false);
+            }
+        }
+
+        List<OrderType> storedTypes = databaseManager.getOrderTypes();
+        List<OrderStatus> storedStatuses = databaseManager.getOrderStatuses();
+        synchronized (this) {
+            if (!networkKeys.contains(KEY_ORDER_TYPES)) {
+                orderTypes.postValue(storedTypes);
+            }
+            if (!networkKeys.contains(KEY_ORDER_STATUSES)) {
+                orderStatuses.postValue(storedStatuses);
+            }
+        }
+    }
+
+    // Parses and posts a payload; returns false (and leaves the current value alone) if it is unusable,
+    // or if it comes from SQLite and the network has already published this key. Synchronized so
+    // the check and the post happen in the same order as the values were decided.
+    private synchronized boolean publish(String key, String payload, boolean fromNetwork) {
+        if (!fromNetwork && networkKeys.contains(key)) {
+            return false;
+        }
+        try {
+            JSONObject json = new JSONObject(payload);
+            if (!"success".equals(json.optString("status"))) {
+                return false;
+            }
+
+            switch (key) {
+                case KEY_TAXES:
+                    taxes.postValue(parseTaxes(json));
+                    break;
+                case KEY_DISCOUNTS:
+                    discounts.postValue(PaymentApiHelper.parseDiscounts(json));
+                    break;
+                case KEY_PAYMENT_MODES:
+                    List<PaymentMethod> methods = PaymentApiHelper.parsePaymentMethods(json);
+                    if (methods.isEmpty()) {
+                        return false;
+                    }
+                    paymentMethods.postValue(methods);
+                    break;
+                case KEY_ROUNDING:
+                    RoundingConfig config = PaymentApiHelper.parseRoundingConfig(json);
+                    if (config == null) {
+                        return false;
+                    }
+                    roundingConfig.postValue(config);
+                    break;
+                default:
+                    return false;
+            }
+            currentPayloads.put(key, payload);
+            if (fromNetwork) {
+                networkKeys.add(key);
+            }
+            return true;
+        } catch (JSONException e) {
+            Log.e(TAG, "Invalid payload for " + key, e);
+            return false;
+        }
+    }
+
+    private List<Tax> parseTaxes(JSONObject json) throws JSONException {
+        List<Tax> result = new ArrayList<>();
+        JSONArray dataArray = json.getJSONArray("data");
+        for (int i = 0; i < dataArray.length(); i++) {
+            JSONObject item = dataArray.getJSONObject(i);
+            result.add(new Tax(item.getInt("id"), item.optString("name", ""),
+                    item.optString("description", ""), item.optString("amount", "0")));
+        }
+        return result;
+    }
+
+    private String endpointFor(String key) {
+        switch (key) {
+            case KEY_TAXES:
+                return "taxes/rates";
+            case KEY_DISCOUNTS:
+                return "discounts/";
+            case KEY_PAYMENT_MODES:
+                return "payment-modes";
+            case KEY_ROUNDING:
+                return "roundings/values";
+            default:
+                return null;
+        }
+    }
+
+    private String getAuthToken() {
+        SharedPreferences prefs = context.getSharedPreferences(
+                context.getString(R.string.pref_file_name), Context.MODE_PRIVATE);
+        return prefs.getString(context.getString(R.string.pref_token), "");
+    }
+}
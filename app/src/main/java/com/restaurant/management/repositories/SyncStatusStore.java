@@ -0,0 +1,71 @@
+package com.restaurant.management.repositories;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.restaurant.management.database.DatabaseManager;
+import com.restaurant.management.models.SyncStatus;
+import com.restaurant.management.utils.AppExecutors;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Process-wide count of orders and items still waiting for the server.
+ *
+ * The counts come from COUNT queries on the sync indexes, never from loading the rows, and are
+ * re-run whenever {@link DatabaseManager} saves, syncs or clears order data. Refreshes requested
+ * while one is already queued are folded into it, so a sync marking hundreds of items costs a
+ * handful of queries. Badges and status screens observe {@link #getSyncStatus()}.
+ */
+public class SyncStatusStore implements DatabaseManager.SyncStateListener {
+    private static final String TAG = "SyncStatusStore";
+
+    private static SyncStatusStore instance;
+
+    private final DatabaseManager databaseManager;
+    private final MutableLiveData<SyncStatus> syncStatus = new MutableLiveData<>();
+    private final AtomicBoolean refreshQueued = new AtomicBoolean(false);
+
+    public static synchronized SyncStatusStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new SyncStatusStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private SyncStatusStore(Context context) {
+        this.databaseManager = DatabaseManager.getInstance(context);
+        databaseManager.addSyncStateListener(this);
+        refresh();
+    }
+
+    public LiveData<SyncStatus> getSyncStatus() {
+        return syncStatus;
+    }
+
+    @Override
+    public void onSyncStateChanged() {
+        refresh();
+    }
+
+    /** Re-counts in the background and publishes the result. */
+    public void refresh() {
+        if (!refreshQueued.compareAndSet(false, true)) {
+            return;
+        }
+        AppExecutors.getInstance().execute(AppExecutors.Lane.DATABASE, () -> {
+            // Cleared before counting so a write landing mid-count queues another refresh
+            refreshQueued.set(false);
+            try {
+                syncStatus.postValue(new SyncStatus(
+                        databaseManager.getUnsyncedOrderCount(),
+                        databaseManager.getUnsyncedOrderItemCount()));
+            } catch (Exception e) {
+                Log.e(TAG, "Error counting unsynced data", e);
+            }
+        });
+    }
+}
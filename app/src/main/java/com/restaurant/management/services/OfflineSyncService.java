@@ -3,34 +3,48 @@ package com.restaurant.management.services;
 import android.app.Notification;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
-import android.app.Service;
-import android.content.Intent;
+import android.app.job.JobParameters;
+import android.app.job.JobService;
 import android.os.Build;
-import android.os.IBinder;
+import android.os.PersistableBundle;
 import android.util.Log;
 
 import androidx.core.app.NotificationCompat;
 
 import com.restaurant.management.database.DatabaseManager;
 import com.restaurant.management.helpers.OrderItemSyncData;
+import com.restaurant.management.helpers.OrderSyncData;
 import com.restaurant.management.models.CreateOrderItemResponse;
+import com.restaurant.management.models.CreateOrderResponse;
 import com.restaurant.management.network.ApiClient;
+import com.restaurant.management.utils.AppExecutors;
 import com.restaurant.management.utils.NetworkUtils;
+import com.restaurant.management.utils.OfflineManager;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
 
-public class OfflineSyncService extends Service {
+/**
+ * Pushes locally saved orders and items to the server. Runs as a JobScheduler job; schedule it
+ * through {@link SyncScheduler} rather than starting it directly.
+ */
+public class OfflineSyncService extends JobService {
     private static final String TAG = "OfflineSyncService";
     private static final int MAX_RETRY_ATTEMPTS = 3;
     private static final long RETRY_DELAY_MS = 5000; // 5 seconds
@@ -38,24 +52,51 @@ public class OfflineSyncService extends Service {
     private static final String NOTIFICATION_CHANNEL_ID = "sync_channel";
     private static final int NOTIFICATION_ID = 1001;
 
+    // Batched sync configuration (overridable through job extras)
+    public static final String EXTRA_BATCHED_SYNC = "batched_sync";
+    public static final String EXTRA_BATCH_SIZE = "batch_size";
+    public static final String EXTRA_MAX_BATCHES_IN_FLIGHT = "max_batches_in_flight";
+    private static final int DEFAULT_BATCH_SIZE = 20;
+    private static final int DEFAULT_MAX_BATCHES_IN_FLIGHT = 3;
+
     // Sync state tracking
+    // All guarded by syncLock. A pass keeps running on the instance that started it, even after
+    // onStopJob and onDestroy, so the sync state outlives any one service instance.
     private static volatile boolean isSyncing = false;
+    // Set when a sync is requested while one is running; the running job makes one more pass
+    private static boolean followUpRequested;
+    // The instance whose pass is running
+    private static OfflineSyncService activeService;
+    // A job that started while a pass was running; that pass runs again for it, then finishes it
+    private static JobParameters adoptedJob;
+    private static JobService adoptedJobOwner;
     private static final Object syncLock = new Object();
 
     private DatabaseManager databaseManager;
-    private ExecutorService executorService;
+    private ScheduledExecutorService syncExecutor;
     private NotificationManager notificationManager;
+    // The job this instance's pass is working for, and the service instance the system started it on
+    private JobParameters jobParameters;
+    private JobService jobOwner;
+    private volatile boolean stopped;
+
+    private boolean batchedSync = true;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int maxBatchesInFlight = DEFAULT_MAX_BATCHES_IN_FLIGHT;
 
     // Progress tracking
     private AtomicInteger totalItems = new AtomicInteger(0);
     private AtomicInteger processedItems = new AtomicInteger(0);
     private AtomicInteger successfulItems = new AtomicInteger(0);
+    // Last error seen for each item still being retried, recorded with the batch that gives up on it
+    private final Map<Long, String> lastItemErrors = new ConcurrentHashMap<>();
 
     @Override
     public void onCreate() {
         super.onCreate();
         databaseManager = DatabaseManager.getInstance(this);
-        executorService = Executors.newSingleThreadExecutor();
+        // Shared with the rest of the app's server I/O, delayed retries included
+        syncExecutor = AppExecutors.getInstance().lane(AppExecutors.Lane.NETWORK);
         notificationManager = (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
 
         createNotificationChannel();
@@ -63,33 +104,75 @@ public class OfflineSyncService extends Service {
     }
 
     @Override
-    public int onStartCommand(Intent intent, int flags, int startId) {
-        Log.d(TAG, "OfflineSyncService started");
+    public boolean onStartJob(JobParameters params) {
+        Log.d(TAG, "OfflineSyncService started (job " + params.getJobId() + ")");
 
-        // Prevent multiple sync operations
+        // The one-off and periodic jobs can fire together, and a rescheduled job can start while
+        // its stopped pass is still winding down; only one pass runs at a time
         synchronized (syncLock) {
             if (isSyncing) {
-                Log.d(TAG, "Sync already in progress, ignoring request");
-                stopSelf();
-                return START_NOT_STICKY;
+                if (adoptedJob == null) {
+                    adoptedJob = params;
+                    adoptedJobOwner = this;
+                    Log.d(TAG, "Sync already in progress, it will run again for this job");
+                    return true;
+                }
+                // The adopted job's pass covers this request too
+                followUpRequested = true;
+                Log.d(TAG, "Sync already in progress, queued a follow-up pass");
+                return false;
             }
+            isSyncing = true;
+            activeService = this;
+            jobParameters = params;
+            jobOwner = this;
+            stopped = false;
         }
 
-        if (!NetworkUtils.isNetworkAvailable(this)) {
-            Log.d(TAG, "No network available, stopping sync service");
-            stopSelf();
-            return START_NOT_STICKY;
-        }
-
-        // Start sync process
-        startSyncProcess();
+        readSyncConfiguration(params.getExtras());
+        runSyncPass();
+        return true;
+    }
 
-        return START_NOT_STICKY;
+    /**
+     * Queues one more pass on the running sync, for rows saved after it read its queue.
+     * Returns false when no sync is running.
+     */
+    static boolean requestFollowUpIfSyncing() {
+        synchronized (syncLock) {
+            if (!isSyncing) {
+                return false;
+            }
+            followUpRequested = true;
+            return true;
+        }
     }
 
     @Override
-    public IBinder onBind(Intent intent) {
-        return null;
+    public boolean onStopJob(JobParameters params) {
+        // Constraints no longer met (usually the network dropped); in-flight batches wind down
+        Log.d(TAG, "Sync job stopped by the system");
+        synchronized (syncLock) {
+            if (params == adoptedJob) {
+                // Its pass never started; the reschedule brings it back
+                adoptedJob = null;
+                adoptedJobOwner = null;
+            } else if (activeService != null && activeService.jobParameters == params) {
+                activeService.stopped = true;
+            } else {
+                stopped = true;
+            }
+        }
+        return true;
+    }
+
+    private void readSyncConfiguration(PersistableBundle extras) {
+        if (extras == null) {
+            return;
+        }
+        batchedSync = extras.getBoolean(EXTRA_BATCHED_SYNC, true);
+        batchSize = Math.max(1, extras.getInt(EXTRA_BATCH_SIZE, DEFAULT_BATCH_SIZE));
+        maxBatchesInFlight = Math.max(1, extras.getInt(EXTRA_MAX_BATCHES_IN_FLIGHT, DEFAULT_MAX_BATCHES_IN_FLIGHT));
     }
 
     private void createNotificationChannel() {
@@ -129,36 +212,24 @@ public class OfflineSyncService extends Service {
         Log.d(TAG, message + " (" + current + "/" + total + ")");
     }
 
-    private void startSyncProcess() {
-        synchronized (syncLock) {
-            isSyncing = true;
-        }
-
+    private void runSyncPass() {
         // Reset progress counters
         processedItems.set(0);
         successfulItems.set(0);
 
-        executorService.execute(this::syncUnsyncedData);
+        syncExecutor.execute(this::syncUnsyncedData);
     }
 
     private void syncUnsyncedData() {
         try {
-            // First sync order items
-            List<OrderItemSyncData> unsyncedItems = databaseManager.getUnsyncedOrderItems();
-
-            if (unsyncedItems.isEmpty()) {
-                Log.d(TAG, "No unsynced items found");
-                finishSync();
-                return;
-            }
-
-            totalItems.set(unsyncedItems.size());
-            Log.d(TAG, "Found " + unsyncedItems.size() + " unsynced items to sync");
-
-            updateNotification("Syncing items...", 0, totalItems.get());
-
-            // Use CompletableFuture for better async handling
-            syncItemsAsync(unsyncedItems)
+            // Orders go first: their items can only be posted once the server has issued an order id
+            List<OrderSyncData> unsyncedOrders = databaseManager.getUnsyncedOrders();
+            CompletableFuture<Void> ordersFuture = unsyncedOrders.isEmpty()
+                    ? CompletableFuture.completedFuture(null)
+                    : syncOrdersAsync(unsyncedOrders);
+
+            ordersFuture
+                    .thenComposeAsync(ignored -> syncUnsyncedItemsAsync(), syncExecutor)
                     .thenRun(this::finishSync)
                     .exceptionally(throwable -> {
                         Log.e(TAG, "Error during sync process", throwable);
@@ -172,6 +243,116 @@ public class OfflineSyncService extends Service {
         }
     }
 
+    private CompletableFuture<Void> syncUnsyncedItemsAsync() {
+        // Items of orders that are still local-only stay queued until their order has synced
+        List<OrderItemSyncData> unsyncedItems = new ArrayList<>();
+        for (OrderItemSyncData item : databaseManager.getUnsyncedOrderItems()) {
+            if (item.getLocalOrderId() == null) {
+                unsyncedItems.add(item);
+            }
+        }
+
+        if (unsyncedItems.isEmpty()) {
+            Log.d(TAG, "No unsynced items found");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        totalItems.set(unsyncedItems.size());
+        Log.d(TAG, "Found " + unsyncedItems.size() + " unsynced items to sync");
+
+        updateNotification("Syncing items...", 0, totalItems.get());
+
+        return batchedSync
+                ? syncItemsInBatchesAsync(unsyncedItems)
+                : syncItemsAsync(unsyncedItems);
+    }
+
+    /**
+     * Creates local-only orders on the server, at most {@link #maxBatchesInFlight} at a time.
+     * Each created order has its id remapped locally before this completes.
+     */
+    private CompletableFuture<Void> syncOrdersAsync(List<OrderSyncData> orders) {
+        Queue<OrderSyncData> pending = new ConcurrentLinkedQueue<>(orders);
+        int lanes = Math.min(maxBatchesInFlight, pending.size());
+        Log.d(TAG, "Syncing " + orders.size() + " offline orders (" + lanes + " in flight)");
+
+        CompletableFuture<?>[] laneFutures = new CompletableFuture[lanes];
+        for (int i = 0; i < lanes; i++) {
+            laneFutures[i] = drainOrderQueue(pending);
+        }
+        return CompletableFuture.allOf(laneFutures);
+    }
+
+    private CompletableFuture<Void> drainOrderQueue(Queue<OrderSyncData> orders) {
+        if (stopped || !NetworkUtils.isNetworkAvailable(this)) {
+            Log.d(TAG, "Network lost during order sync, stopping");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        OrderSyncData order = orders.poll();
+        if (order == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return postOrderWithRetryAsync(order, 0)
+                .thenAcceptAsync(serverId -> {
+                    if (serverId != null) {
+                        commitOrder(order, serverId);
+                    }
+                }, syncExecutor)
+                .thenCompose(ignored -> drainOrderQueue(orders));
+    }
+
+    private void commitOrder(OrderSyncData order, long serverOrderId) {
+        try {
+            // Marks the order synced and moves its items onto the server id in one transaction
+            databaseManager.markOrderAsSynced(order.getLocalId(), serverOrderId);
+            Log.d(TAG, "Synced order " + order.getLocalId() + " -> " + serverOrderId);
+        } catch (Exception e) {
+            Log.e(TAG, "Error remapping synced order " + order.getLocalId(), e);
+        }
+    }
+
+    /**
+     * Creates a single order, retrying with backoff. Completes with the server order id,
+     * or null once all attempts have failed.
+     */
+    private CompletableFuture<Long> postOrderWithRetryAsync(OrderSyncData order, int attemptCount) {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+
+        if (attemptCount >= MAX_RETRY_ATTEMPTS) {
+            Log.e(TAG, "Max retry attempts reached for order " + order.getLocalId());
+            future.complete(null);
+            return future;
+        }
+
+        Log.d(TAG, "Syncing order " + order.getLocalId() + " (attempt " + (attemptCount + 1) + ")");
+
+        ApiClient.getApiService().createOrder(order.getClientUuid(), order.toCreateOrderRequest())
+                .enqueue(new Callback<CreateOrderResponse>() {
+                    @Override
+                    public void onResponse(Call<CreateOrderResponse> call, Response<CreateOrderResponse> response) {
+                        CreateOrderResponse body = response.body();
+                        if (response.isSuccessful() && body != null && body.isSuccess() && body.getOrderId() > 0) {
+                            future.complete(body.getOrderId());
+                        } else {
+                            Log.e(TAG, "Server error syncing order " + order.getLocalId() + ": " + response.code());
+                            scheduleRetry(attemptCount, future,
+                                    () -> postOrderWithRetryAsync(order, attemptCount + 1));
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Call<CreateOrderResponse> call, Throwable t) {
+                        Log.e(TAG, "Network error syncing order " + order.getLocalId(), t);
+                        scheduleRetry(attemptCount, future,
+                                () -> postOrderWithRetryAsync(order, attemptCount + 1));
+                    }
+                });
+
+        return future;
+    }
+
     private CompletableFuture<Void> syncItemsAsync(List<OrderItemSyncData> items) {
         CompletableFuture<Void> future = CompletableFuture.completedFuture(null);
 
@@ -180,7 +361,7 @@ public class OfflineSyncService extends Service {
             final OrderItemSyncData item = items.get(i);
 
             future = future.thenCompose(ignored -> {
-                if (!NetworkUtils.isNetworkAvailable(this)) {
+                if (stopped || !NetworkUtils.isNetworkAvailable(this)) {
                     Log.d(TAG, "Network lost during sync, stopping");
                     return CompletableFuture.completedFuture(null);
                 }
@@ -192,76 +373,170 @@ public class OfflineSyncService extends Service {
         return future;
     }
 
+    /**
+     * Groups items by order and syncs them in batches, keeping at most
+     * {@link #maxBatchesInFlight} batches running at the same time
+     */
+    private CompletableFuture<Void> syncItemsInBatchesAsync(List<OrderItemSyncData> items) {
+        Queue<List<OrderItemSyncData>> batches = new ConcurrentLinkedQueue<>(buildBatches(items));
+        int lanes = Math.min(maxBatchesInFlight, batches.size());
+        Log.d(TAG, "Syncing " + items.size() + " items in " + batches.size() + " batches ("
+                + lanes + " in flight)");
+
+        CompletableFuture<?>[] laneFutures = new CompletableFuture[lanes];
+        for (int i = 0; i < lanes; i++) {
+            laneFutures[i] = drainBatchQueue(batches);
+        }
+        return CompletableFuture.allOf(laneFutures);
+    }
+
+    private List<List<OrderItemSyncData>> buildBatches(List<OrderItemSyncData> items) {
+        // Items arrive ordered by creation time; keep that order inside each order group
+        Map<Long, List<OrderItemSyncData>> itemsByOrder = new LinkedHashMap<>();
+        for (OrderItemSyncData item : items) {
+            List<OrderItemSyncData> orderItems = itemsByOrder.get(item.getOrderId());
+            if (orderItems == null) {
+                orderItems = new ArrayList<>();
+                itemsByOrder.put(item.getOrderId(), orderItems);
+            }
+            orderItems.add(item);
+        }
+
+        List<List<OrderItemSyncData>> batches = new ArrayList<>();
+        for (List<OrderItemSyncData> orderItems : itemsByOrder.values()) {
+            for (int from = 0; from < orderItems.size(); from += batchSize) {
+                int to = Math.min(from + batchSize, orderItems.size());
+                batches.add(new ArrayList<>(orderItems.subList(from, to)));
+            }
+        }
+        return batches;
+    }
+
+    private CompletableFuture<Void> drainBatchQueue(Queue<List<OrderItemSyncData>> batches) {
+        if (stopped || !NetworkUtils.isNetworkAvailable(this)) {
+            Log.d(TAG, "Network lost during batched sync, stopping");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<OrderItemSyncData> batch = batches.poll();
+        if (batch == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return syncBatchAsync(batch).thenCompose(ignored -> drainBatchQueue(batches));
+    }
+
+    private CompletableFuture<Void> syncBatchAsync(List<OrderItemSyncData> batch) {
+        Map<Long, Long> syncedItemIds = new ConcurrentHashMap<>();
+        Map<Long, String> failedItemErrors = new ConcurrentHashMap<>();
+        CompletableFuture<?>[] posts = new CompletableFuture[batch.size()];
+
+        for (int i = 0; i < batch.size(); i++) {
+            OrderItemSyncData item = batch.get(i);
+            posts[i] = postItemWithRetryAsync(item, 0).thenAccept(serverId -> {
+                String lastError = lastItemErrors.remove(item.getLocalId());
+                if (serverId != null) {
+                    syncedItemIds.put(item.getLocalId(), serverId);
+                } else {
+                    failedItemErrors.put(item.getLocalId(), lastError != null ? lastError : "Sync stopped");
+                }
+            });
+        }
+
+        return CompletableFuture.allOf(posts)
+                .thenRunAsync(() -> commitBatch(batch, syncedItemIds, failedItemErrors), syncExecutor);
+    }
+
+    private void commitBatch(List<OrderItemSyncData> batch, Map<Long, Long> syncedItemIds,
+                             Map<Long, String> failedItemErrors) {
+        // Successes and failures land in one transaction; failed items stay unsynced for the next run
+        int committed = databaseManager.commitSyncBatch(syncedItemIds, failedItemErrors);
+        successfulItems.addAndGet(committed);
+        Log.d(TAG, "Committed batch for order " + batch.get(0).getOrderId() + ": "
+                + committed + "/" + batch.size() + " items synced");
+        updateProgress(processedItems.addAndGet(batch.size()));
+    }
+
     private CompletableFuture<Void> syncSingleItemAsync(OrderItemSyncData item, int itemNumber) {
-        return syncSingleItemWithRetryAsync(item, 0, itemNumber);
+        return postItemWithRetryAsync(item, 0).thenAccept(serverId -> {
+            lastItemErrors.remove(item.getLocalId());
+            if (serverId != null) {
+                handleSuccessfulSync(item, serverId);
+                successfulItems.incrementAndGet();
+            }
+            processedItems.incrementAndGet();
+            updateProgress(itemNumber);
+        });
     }
 
-    private CompletableFuture<Void> syncSingleItemWithRetryAsync(OrderItemSyncData item, int attemptCount, int itemNumber) {
-        CompletableFuture<Void> future = new CompletableFuture<>();
+    /**
+     * Posts a single item, retrying with backoff. Completes with the server id,
+     * or null once all attempts have failed.
+     */
+    private CompletableFuture<Long> postItemWithRetryAsync(OrderItemSyncData item, int attemptCount) {
+        CompletableFuture<Long> future = new CompletableFuture<>();
 
         if (attemptCount >= MAX_RETRY_ATTEMPTS) {
             Log.e(TAG, "Max retry attempts reached for item " + item.getLocalId());
-            processedItems.incrementAndGet();
-            updateProgress(itemNumber);
             future.complete(null);
             return future;
         }
 
         Log.d(TAG, "Syncing item " + item.getLocalId() + " (attempt " + (attemptCount + 1) + ")");
 
-        ApiClient.getApiService().addItemToOrder(item.getOrderId(), item.toCreateOrderItemRequest())
+        ApiClient.getApiService().addItemToOrder(item.getClientUuid(), item.getOrderId(), item.toCreateOrderItemRequest())
                 .enqueue(new Callback<CreateOrderItemResponse>() {
                     @Override
                     public void onResponse(Call<CreateOrderItemResponse> call, Response<CreateOrderItemResponse> response) {
                         if (response.isSuccessful() && response.body() != null) {
-                            handleSuccessfulSync(item, response.body());
-                            successfulItems.incrementAndGet();
-                            processedItems.incrementAndGet();
-                            updateProgress(itemNumber);
-                            future.complete(null);
+                            future.complete(getServerIdFromResponse(response.body()));
                         } else {
                             Log.e(TAG, "Server error syncing item " + item.getLocalId() + ": " + response.code());
-                            retryAfterDelay(item, attemptCount, itemNumber, future);
+                            lastItemErrors.put(item.getLocalId(), "HTTP " + response.code());
+                            scheduleRetry(attemptCount, future,
+                                    () -> postItemWithRetryAsync(item, attemptCount + 1));
                         }
                     }
 
                     @Override
                     public void onFailure(Call<CreateOrderItemResponse> call, Throwable t) {
                         Log.e(TAG, "Network error syncing item " + item.getLocalId(), t);
-                        retryAfterDelay(item, attemptCount, itemNumber, future);
+                        lastItemErrors.put(item.getLocalId(), String.valueOf(t.getMessage()));
+                        scheduleRetry(attemptCount, future,
+                                () -> postItemWithRetryAsync(item, attemptCount + 1));
                     }
                 });
 
         return future;
     }
 
-    private void retryAfterDelay(OrderItemSyncData item, int attemptCount, int itemNumber, CompletableFuture<Void> future) {
+    private void scheduleRetry(int attemptCount, CompletableFuture<Long> future,
+                               Supplier<CompletableFuture<Long>> nextAttempt) {
         // Exponential backoff with jitter
         long delay = Math.min(RETRY_DELAY_MS * (1L << attemptCount), MAX_RETRY_DELAY_MS);
         long jitter = (long) (Math.random() * 1000); // Add up to 1 second jitter
 
-        executorService.execute(() -> {
-            try {
-                Thread.sleep(delay + jitter);
-                syncSingleItemWithRetryAsync(item, attemptCount + 1, itemNumber)
-                        .thenRun(() -> future.complete(null))
-                        .exceptionally(throwable -> {
-                            future.completeExceptionally(throwable);
-                            return null;
+        try {
+            // Scheduled rather than slept so waiting retries don't hold up other batches
+            syncExecutor.schedule(() -> {
+                nextAttempt.get()
+                        .whenComplete((serverId, throwable) -> {
+                            if (throwable != null) {
+                                future.completeExceptionally(throwable);
+                            } else {
+                                future.complete(serverId);
+                            }
                         });
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                processedItems.incrementAndGet();
-                updateProgress(itemNumber);
-                future.complete(null);
-            }
-        });
+            }, delay + jitter, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            Log.e(TAG, "Could not schedule retry", e);
+            future.complete(null);
+        }
     }
 
-    private void handleSuccessfulSync(OrderItemSyncData item, CreateOrderItemResponse response) {
-        executorService.execute(() -> {
+    private void handleSuccessfulSync(OrderItemSyncData item, long serverId) {
+        syncExecutor.execute(() -> {
             try {
-                long serverId = getServerIdFromResponse(response);
                 databaseManager.markOrderItemAsSynced(item.getLocalId(), serverId);
                 Log.d(TAG, "Successfully synced item " + item.getLocalId() + " -> " + serverId);
             } catch (Exception e) {
@@ -353,8 +628,41 @@ public class OfflineSyncService extends Service {
     }
 
     private void finishSync() {
+        JobParameters finishedJob;
+        JobService finishedJobOwner;
+        boolean runAgain;
         synchronized (syncLock) {
-            isSyncing = false;
+            finishedJob = stopped ? null : jobParameters;
+            finishedJobOwner = jobOwner;
+            if (adoptedJob != null) {
+                // Carry on for the job that started during this pass; the one just served is done
+                jobParameters = adoptedJob;
+                jobOwner = adoptedJobOwner;
+                adoptedJob = null;
+                adoptedJobOwner = null;
+                stopped = false;
+                followUpRequested = false;
+                runAgain = true;
+            } else if (followUpRequested && !stopped) {
+                // A stopped job is rescheduled anyway, which covers the queued request
+                followUpRequested = false;
+                runAgain = true;
+            } else {
+                followUpRequested = false;
+                isSyncing = false;
+                activeService = null;
+                runAgain = false;
+            }
+        }
+
+        if (runAgain) {
+            if (finishedJob != null && finishedJob != jobParameters) {
+                finishedJobOwner.jobFinished(finishedJob, false);
+            }
+            Log.d(TAG, "Sync was requested during this pass, running again");
+            readSyncConfiguration(jobParameters.getExtras());
+            runSyncPass();
+            return;
         }
 
         // Final progress log
@@ -362,50 +670,44 @@ public class OfflineSyncService extends Service {
                 successfulItems.get(), totalItems.get());
         Log.d(TAG, finalMessage);
 
-        // Clean up old synced items
-        executorService.execute(() -> {
+        // Clean up old synced items, then hand the job back to the scheduler
+        syncExecutor.execute(() -> {
             try {
                 databaseManager.cleanupSyncedOrderItems(7);
                 Log.d(TAG, "Cleaned up old synced items");
             } catch (Exception e) {
                 Log.e(TAG, "Error during cleanup", e);
             }
-        });
-
-        Log.d(TAG, "Sync process completed - " + finalMessage);
 
-        // Stop service after a short delay
-        executorService.execute(() -> {
-            try {
-                Thread.sleep(1000); // Brief delay before stopping
-                stopSelf();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                stopSelf();
-            }
+            Log.d(TAG, "Sync process completed - " + finalMessage);
+            completeJob(finishedJob, finishedJobOwner);
         });
     }
 
-    @Override
-    public void onDestroy() {
-        super.onDestroy();
-
-        synchronized (syncLock) {
-            isSyncing = false;
+    private void completeJob(JobParameters params, JobService owner) {
+        if (params == null) {
+            // onStopJob already asked for a reschedule
+            return;
         }
 
-        if (executorService != null && !executorService.isShutdown()) {
-            executorService.shutdown();
-            try {
-                if (!executorService.awaitTermination(5, TimeUnit.SECONDS)) {
-                    executorService.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                executorService.shutdownNow();
-                Thread.currentThread().interrupt();
+        boolean needsRetry = false;
+        try {
+            int remaining = databaseManager.getUnsyncedOrderCount() + databaseManager.getUnsyncedOrderItemCount();
+            if (remaining == 0) {
+                new OfflineManager(this).updateLastSyncTime();
             }
+            // Leftovers from a one-off run are retried with the job's backoff; the periodic job just waits
+            needsRetry = remaining > 0 && params.getJobId() == SyncScheduler.JOB_ID_SYNC;
+        } catch (Exception e) {
+            Log.e(TAG, "Error checking remaining unsynced data", e);
         }
+        owner.jobFinished(params, needsRetry);
+    }
 
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        // A stopped pass may still be winding down; it clears the sync state itself in finishSync
         Log.d(TAG, "OfflineSyncService destroyed");
     }
 }
\ No newline at end of file
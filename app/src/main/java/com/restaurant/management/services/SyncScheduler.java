@@ -0,0 +1,96 @@
+package com.restaurant.management.services;
+
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+import android.util.Log;
+
+import com.restaurant.management.database.DatabaseManager;
+
+/**
+ * Single entry point for starting offline sync.
+ *
+ * Every trigger (app start, a local save while offline, a manual "sync now") schedules the same
+ * JobScheduler job, which only runs once a network is available. Scheduling while that job is
+ * still pending is a no-op, so bursts of triggers coalesce into one run. Jobs are persisted, so a
+ * pending sync survives process death and reboots, and a run that leaves data unsynced is retried
+ * with exponential backoff.
+ */
+public final class SyncScheduler {
+    private static final String TAG = "SyncScheduler";
+
+    public static final int JOB_ID_SYNC = 2001;
+    public static final int JOB_ID_PERIODIC_SYNC = 2002;
+
+    private static final long PERIODIC_SYNC_INTERVAL_MS = 30 * 60 * 1000; // 30 minutes
+    private static final long INITIAL_BACKOFF_MS = 30 * 1000;
+
+    private SyncScheduler() {
+    }
+
+    /** Schedules a sync for the next time the network is up, unless one is already pending. */
+    public static void requestSync(Context context) {
+        JobScheduler jobScheduler = getJobScheduler(context);
+        if (jobScheduler == null) {
+            return;
+        }
+        if (jobScheduler.getPendingJob(JOB_ID_SYNC) != null) {
+            // A running job still counts as pending, so make sure it picks up the new rows
+            if (OfflineSyncService.requestFollowUpIfSyncing()) {
+                Log.d(TAG, "Sync running, queued a follow-up pass");
+            } else {
+                Log.d(TAG, "Sync already pending, coalescing request");
+            }
+            return;
+        }
+
+        JobInfo job = new JobInfo.Builder(JOB_ID_SYNC, new ComponentName(context, OfflineSyncService.class))
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_ANY)
+                .setBackoffCriteria(INITIAL_BACKOFF_MS, JobInfo.BACKOFF_POLICY_EXPONENTIAL)
+                .setPersisted(true)
+                .build();
+        schedule(jobScheduler, job);
+    }
+
+    /** Requests a sync only if there is local data waiting for the server. Does disk I/O. */
+    public static void requestSyncIfPending(Context context) {
+        DatabaseManager databaseManager = DatabaseManager.getInstance(context);
+        int unsynced = databaseManager.getUnsyncedOrderCount() + databaseManager.getUnsyncedOrderItemCount();
+        if (unsynced > 0) {
+            Log.d(TAG, unsynced + " unsynced rows, requesting sync");
+            requestSync(context);
+        }
+    }
+
+    /** Safety net for anything a trigger missed; keeps the existing schedule if there is one. */
+    public static void schedulePeriodicSync(Context context) {
+        JobScheduler jobScheduler = getJobScheduler(context);
+        if (jobScheduler == null || jobScheduler.getPendingJob(JOB_ID_PERIODIC_SYNC) != null) {
+            return;
+        }
+
+        JobInfo job = new JobInfo.Builder(JOB_ID_PERIODIC_SYNC, new ComponentName(context, OfflineSyncService.class))
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_ANY)
+                .setPeriodic(PERIODIC_SYNC_INTERVAL_MS)
+                .setPersisted(true)
+                .build();
+        schedule(jobScheduler, job);
+    }
+
+    private static void schedule(JobScheduler jobScheduler, JobInfo job) {
+        try {
+            if (jobScheduler.schedule(job) == JobScheduler.RESULT_SUCCESS) {
+                Log.d(TAG, "Scheduled sync job " + job.getId());
+            } else {
+                Log.w(TAG, "Sync job " + job.getId() + " was rejected by the scheduler");
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error scheduling sync job " + job.getId(), e);
+        }
+    }
+
+    private static JobScheduler getJobScheduler(Context context) {
+        return (JobScheduler) context.getApplicationContext().getSystemService(Context.JOB_SCHEDULER_SERVICE);
+    }
+}
@@ -0,0 +1,240 @@
+package com.restaurant.management.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * App-wide background threads, split into lanes so slow work can't starve the reads a screen is
+ * waiting on.
+ *
+ * Each lane has a fixed number of threads running at the lane's OS priority. Idle threads time
+ * out, so a quiet lane costs nothing. The lanes are shared and live as long as the process: use
+ * {@link #execute(Lane, LifecycleOwner, Runnable)} for work that belongs to a screen, and never
+ * shut a lane down.
+ */
+public final class AppExecutors {
+    private static final String TAG = "AppExecutors";
+    private static final long IDLE_TIMEOUT_SECONDS = 30;
+
+    public enum Lane {
+        /** Local database reads and writes a screen is waiting on. */
+        DATABASE("db", 2, Process.THREAD_PRIORITY_DEFAULT),
+        /** Offline sync and other calls to the server. */
+        NETWORK("net", 3, Process.THREAD_PRIORITY_BACKGROUND),
+        /** Bluetooth printing; one thread so receipts print in the order they were sent. */
+        PRINTING("print", 1, Process.THREAD_PRIORITY_BACKGROUND),
+        /** Cache writes, cleanup and statistics nobody is blocked on. */
+        HOUSEKEEPING("housekeeping", 1, Process.THREAD_PRIORITY_LOWEST);
+
+        final String threadName;
+        final int threads;
+        final int priority;
+
+        Lane(String threadName, int threads, int priority) {
+            this.threadName = threadName;
+            this.threads = threads;
+            this.priority = priority;
+        }
+    }
+
+    private static volatile AppExecutors instance;
+
+    private final Map<Lane, LaneExecutor> lanes = new EnumMap<>(Lane.class);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public static AppExecutors getInstance() {
+        if (instance == null) {
+            synchronized (AppExecutors.class) {
+                if (instance == null) {
+                    instance = new AppExecutors();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private AppExecutors() {
+        for (Lane lane : Lane.values()) {
+            lanes.put(lane, new LaneExecutor(lane));
+        }
+    }
+
+    /** The lane's executor, for callers that need futures or delayed scheduling. */
+    public ScheduledExecutorService lane(Lane lane) {
+        return lanes.get(lane);
+    }
+
+    public void execute(Lane lane, Runnable task) {
+        lanes.get(lane).execute(task);
+    }
+
+    /**
+     * Runs a task that belongs to a screen. The task is dropped if it is still queued when the
+     * owner is destroyed, and interrupted if it is already running.
+     */
+    public Future<?> execute(Lane lane, LifecycleOwner owner, Runnable task) {
+        Lifecycle lifecycle = owner.getLifecycle();
+        LifecycleTask lifecycleTask = new LifecycleTask(lifecycle, task);
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            lifecycleTask.cancel(false);
+            return lifecycleTask;
+        }
+
+        // Observers can only be added on the main thread; done() posts its removal after this
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            lifecycle.addObserver(lifecycleTask);
+        } else {
+            mainHandler.post(() -> lifecycle.addObserver(lifecycleTask));
+        }
+        lifecycleTask.queued = lanes.get(lane).schedule(lifecycleTask, 0, TimeUnit.MILLISECONDS);
+        return lifecycleTask;
+    }
+
+    /** A point-in-time snapshot of every lane. */
+    public List<LaneStats> getStats() {
+        List<LaneStats> stats = new ArrayList<>();
+        for (Map.Entry<Lane, LaneExecutor> entry : lanes.entrySet()) {
+            LaneExecutor executor = entry.getValue();
+            stats.add(new LaneStats(entry.getKey(),
+                    executor.getPoolSize(),
+                    executor.getActiveCount(),
+                    executor.getLargestPoolSize(),
+                    executor.getQueue().size(),
+                    executor.getCompletedTaskCount()));
+        }
+        return stats;
+    }
+
+    public static class LaneStats {
+        public final Lane lane;
+        public final int poolSize;
+        public final int activeCount;
+        public final int largestPoolSize;
+        public final int queueSize;
+        public final long completedTaskCount;
+
+        LaneStats(Lane lane, int poolSize, int activeCount, int largestPoolSize, int queueSize,
+                  long completedTaskCount) {
+            this.lane = lane;
+            this.poolSize = poolSize;
+            this.activeCount = activeCount;
+            this.largestPoolSize = largestPoolSize;
+            this.queueSize = queueSize;
+            this.completedTaskCount = completedTaskCount;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s: %d/%d active, %d queued, %d done, peak %d threads",
+                    lane, activeCount, poolSize, queueSize, completedTaskCount, largestPoolSize);
+        }
+    }
+
+    private static final class LaneExecutor extends ScheduledThreadPoolExecutor {
+        private final Lane lane;
+
+        LaneExecutor(Lane lane) {
+            super(lane.threads, new LaneThreadFactory(lane));
+            this.lane = lane;
+            setKeepAliveTime(IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            allowCoreThreadTimeOut(true);
+            // Tasks cancelled with their screen leave the queue straight away
+            setRemoveOnCancelPolicy(true);
+        }
+
+        @Override
+        protected void afterExecute(Runnable r, Throwable t) {
+            super.afterExecute(r, t);
+            // Tasks run wrapped in futures, which would otherwise swallow their exceptions
+            if (t == null && r instanceof Future<?> && ((Future<?>) r).isDone()) {
+                try {
+                    ((Future<?>) r).get();
+                } catch (CancellationException e) {
+                    // Cancelled on purpose
+                } catch (ExecutionException e) {
+                    t = e.getCause();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (t != null) {
+                Log.e(TAG, "Uncaught error on " + lane + " lane", t);
+            }
+        }
+    }
+
+    private static final class LaneThreadFactory implements ThreadFactory {
+        private final Lane lane;
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        LaneThreadFactory(Lane lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            // The OS priority has to be set from the thread itself
+            return new Thread(() -> {
+                Process.setThreadPriority(lane.priority);
+                runnable.run();
+            }, "pood-" + lane.threadName + "-" + count.getAndIncrement());
+        }
+    }
+
+    private final class LifecycleTask extends FutureTask<Void> implements DefaultLifecycleObserver {
+        private final Lifecycle lifecycle;
+        // The lane's wrapper around this task; cancelling it takes the task off the queue
+        volatile Future<?> queued;
+
+        LifecycleTask(Lifecycle lifecycle, Runnable task) {
+            super(task, null);
+            this.lifecycle = lifecycle;
+        }
+
+        @Override
+        public void onDestroy(@NonNull LifecycleOwner owner) {
+            cancel(true);
+            Future<?> wrapper = queued;
+            if (wrapper != null) {
+                wrapper.cancel(false);
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (!isCancelled()) {
+                try {
+                    get();
+                } catch (ExecutionException e) {
+                    Log.e(TAG, "Uncaught error in lifecycle-bound task", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            mainHandler.post(() -> lifecycle.removeObserver(this));
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.restaurant.management.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Prebuilt in-memory search index for menu lists.
+ *
+ * Every searchable field is case- and accent-folded and split into word tokens once, at build
+ * time, and each token is inserted into a prefix trie whose nodes hold the sorted positions of
+ * the items below them. A query is the intersection of its tokens' prefix matches, so "nas gor"
+ * finds "Nasi Goreng", and unaccented input still matches accented names, without scanning the list.
+ *
+ * The index is immutable once built and safe to query from any thread; rebuild it when the
+ * underlying menu changes.
+ */
+public class MenuSearchIndex<T> {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final int[] NO_MATCHES = new int[0];
+
+    /** Supplies the text fields an item should be searchable by. */
+    public interface FieldExtractor<T> {
+        String[] searchableFields(T item);
+    }
+
+    private final List<T> items;
+    private final TrieNode root = new TrieNode();
+
+    public MenuSearchIndex(List<T> items, FieldExtractor<T> extractor) {
+        this.items = items != null ? new ArrayList<>(items) : new ArrayList<>();
+
+        for (int position = 0; position < this.items.size(); position++) {
+            String[] fields = extractor.searchableFields(this.items.get(position));
+            if (fields == null) {
+                continue;
+            }
+            for (String field : fields) {
+                for (String token : tokenize(field)) {
+                    insert(token, position);
+                }
+            }
+        }
+        root.trim();
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Items whose fields contain a word starting with every token of the query, in their
+     * original order. A blank query matches everything.
+     */
+    public List<T> search(String query) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return query == null || query.trim().isEmpty()
+                    ? Collections.unmodifiableList(items) : Collections.emptyList();
+        }
+
+        int[] matches = null;
+        for (String token : tokens) {
+            int[] postings = lookup(token);
+            matches = matches == null ? postings : intersect(matches, postings);
+            if (matches.length == 0) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<T> result = new ArrayList<>(matches.length);
+        for (int position : matches) {
+            result.add(items.get(position));
+        }
+        return result;
+    }
+
+    /** Lowercases, strips accents and splits on anything that is not a letter or digit. */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        String folded = normalize(text);
+        int start = -1;
+        for (int i = 0; i < folded.length(); i++) {
+            if (Character.isLetterOrDigit(folded.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            tokens.add(folded.substring(start));
+        }
+        return tokens;
+    }
+
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private void insert(String token, int position) {
+        TrieNode node = root;
+        for (int i = 0; i < token.length(); i++) {
+            node = node.child(token.charAt(i));
+            node.add(position);
+        }
+    }
+
+    private int[] lookup(String prefix) {
+        TrieNode node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        return node != null ? node.postings : NO_MATCHES;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                result[count++] = a[i];
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static class TrieNode {
+        final Map<Character, TrieNode> children = new HashMap<>();
+        int[] postings = new int[2];
+        int postingCount;
+
+        TrieNode child(char c) {
+            TrieNode child = children.get(c);
+            if (child == null) {
+                child = new TrieNode();
+                children.put(c, child);
+            }
+            return child;
+        }
+
+        // Items are inserted in position order, so a repeat can only be the last entry
+        void add(int position) {
+            if (postingCount > 0 && postings[postingCount - 1] == position) {
+                return;
+            }
+            if (postingCount == postings.length) {
+                postings = Arrays.copyOf(postings, postingCount * 2);
+            }
+            postings[postingCount++] = position;
+        }
+
+        void trim() {
+            if (postings.length != postingCount) {
+                postings = Arrays.copyOf(postings, postingCount);
+            }
+            for (TrieNode child : children.values()) {
+                child.trim();
+            }
+        }
+    }
+}
@@ -6,11 +6,9 @@ import android.util.Log;
 
 import com.restaurant.management.RestaurantApplication;
 import com.restaurant.management.database.DatabaseManager;
-import com.restaurant.management.helpers.OrderItemSyncData;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -133,15 +131,11 @@ public class OfflineManager {
      * Get comprehensive offline status message for UI
      */
     public void getOfflineStatusMessage(OfflineStatusCallback callback) {
-        new Thread(() -> {
+        AppExecutors.getInstance().execute(AppExecutors.Lane.DATABASE, () -> {
             try {
-                // Get unsynced order items
-                List<OrderItemSyncData> unsyncedItems = databaseManager.getUnsyncedOrderItems();
-                int unsyncedItemsCount = unsyncedItems.size();
-
-                // Get unsynced orders
-                List<Long> unsyncedOrderIds = databaseManager.getUnsyncedOrderIds();
-                int unsyncedOrdersCount = unsyncedOrderIds.size();
+                // Counted from the sync indexes without loading the rows
+                int unsyncedItemsCount = databaseManager.getUnsyncedOrderItemCount();
+                int unsyncedOrdersCount = databaseManager.getUnsyncedOrderCount();
 
                 // Calculate total unsynced count
                 int totalUnsyncedCount = unsyncedItemsCount + unsyncedOrdersCount;
@@ -157,7 +151,7 @@ public class OfflineManager {
                 Log.e(TAG, "Error getting offline status", e);
                 callback.onResult("Status unknown", false, 0, 0);
             }
-        }).start();
+        });
     }
 
     private String buildStatusMessage(int unsyncedItemsCount, int unsyncedOrdersCount) {
@@ -191,11 +185,9 @@ public class OfflineManager {
      * Get detailed database statistics
      */
     public void getDatabaseStats(DatabaseStatsCallback callback) {
-        new Thread(() -> {
+        AppExecutors.getInstance().execute(AppExecutors.Lane.HOUSEKEEPING, () -> {
             try {
                 Map<String, Integer> tableCounts = databaseManager.getAllTableCounts();
-                List<OrderItemSyncData> unsyncedItems = databaseManager.getUnsyncedOrderItems();
-
                 DatabaseStats stats = new DatabaseStats();
                 stats.menuItemsCount = tableCounts.getOrDefault("menu_items", 0);
                 stats.categoriesCount = tableCounts.getOrDefault("menu_categories", 0);
@@ -205,7 +197,7 @@ public class OfflineManager {
                 stats.ordersCount = tableCounts.getOrDefault("orders", 0);
                 stats.orderItemsCount = tableCounts.getOrDefault("order_items", 0);
                 stats.variantsCount = tableCounts.getOrDefault("variants", 0);
-                stats.unsyncedItemsCount = unsyncedItems.size();
+                stats.unsyncedItemsCount = databaseManager.getUnsyncedOrderItemCount();
                 stats.lastSyncTime = getLastSyncTimeFormatted();
                 stats.lastDataFetchTime = getLastDataFetchTimeFormatted();
 
@@ -215,7 +207,7 @@ public class OfflineManager {
                 Log.e(TAG, "Error getting database stats", e);
                 callback.onResult(new DatabaseStats());
             }
-        }).start();
+        });
     }
 
     /**
@@ -235,7 +227,7 @@ public class OfflineManager {
      * Check if app has essential data for offline operation
      */
     public void checkOfflineReadiness(OfflineReadinessCallback callback) {
-        new Thread(() -> {
+        AppExecutors.getInstance().execute(AppExecutors.Lane.DATABASE, () -> {
             try {
                 boolean hasMenuItems = databaseManager.hasMenuItems();
                 boolean hasMenuCategories = databaseManager.hasMenuCategories();
@@ -254,7 +246,7 @@ public class OfflineManager {
                 Log.e(TAG, "Error checking offline readiness", e);
                 callback.onResult(new OfflineReadiness(false, false, false, "Unknown"));
             }
-        }).start();
+        });
     }
 
     /**
@@ -271,7 +263,7 @@ public class OfflineManager {
      * Clear all offline data (use with caution)
      */
     public void clearAllOfflineData() {
-        new Thread(() -> {
+        AppExecutors.getInstance().execute(AppExecutors.Lane.DATABASE, () -> {
             try {
                 databaseManager.clearAllCachedData();
 
@@ -285,7 +277,7 @@ public class OfflineManager {
             } catch (Exception e) {
                 Log.e(TAG, "Error clearing offline data", e);
             }
-        }).start();
+        });
     }
 
     // Callback interfaces
@@ -0,0 +1,205 @@
+package com.restaurant.management.utils;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Lightweight timing spans for finding where time goes on slow devices.
+ *
+ * A span is opened with {@link #begin(String)} and closed with {@link Span#end()}, usually in a
+ * try-with-resources block. Spans opened on a thread while another is open there are nested
+ * under it. Work that starts on one callback and finishes on another uses
+ * {@link #beginAsync(String)}, which never nests. Durations go into a fixed-size ring buffer, so
+ * memory stays flat however long the app runs. {@link #getStats()} summarises it per operation,
+ * keyed by each span's own name however it was reached, and {@link #getNestedStats()} per
+ * parent and child pair, e.g. {@code print.job > print.connect}.
+ *
+ * Tracing is off until {@link #setEnabled(boolean)} turns it on. While off, begin returns a
+ * shared no-op span, so an instrumented call costs one volatile read.
+ */
+public final class PerfTracer {
+    private static final int BUFFER_SIZE = 2048;
+    private static final String NESTING_SEPARATOR = " > ";
+
+    private static volatile boolean enabled;
+
+    // Ring buffer of finished spans, guarded by itself
+    private static final String[] sampleNames = new String[BUFFER_SIZE];
+    private static final String[] sampleParents = new String[BUFFER_SIZE];
+    private static final long[] sampleNanos = new long[BUFFER_SIZE];
+    private static int nextSample;
+    private static int sampleCount;
+
+    private static final ThreadLocal<Span> openSpan = new ThreadLocal<>();
+
+    private static final Span NO_OP = new Span(null, null, false) {
+        @Override
+        public void end() {
+        }
+    };
+
+    private PerfTracer() {
+    }
+
+    public static class Span implements AutoCloseable {
+        private final String name;
+        private final Span parent;
+        private final boolean nested;
+        private final long startNanos = System.nanoTime();
+        private boolean ended;
+
+        Span(String name, Span parent, boolean nested) {
+            this.name = name;
+            this.parent = parent;
+            this.nested = nested;
+        }
+
+        public void end() {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            record(name, parent != null ? parent.name : null, System.nanoTime() - startNanos);
+            if (nested && openSpan.get() == this) {
+                openSpan.set(parent);
+            }
+        }
+
+        @Override
+        public void close() {
+            end();
+        }
+    }
+
+    public static class OperationStats {
+        public final String name;
+        public final int count;
+        public final double p50Ms;
+        public final double p95Ms;
+        public final double p99Ms;
+        public final double maxMs;
+
+        OperationStats(String name, long[] sortedNanos) {
+            this.name = name;
+            this.count = sortedNanos.length;
+            this.p50Ms = toMillis(percentile(sortedNanos, 50));
+            this.p95Ms = toMillis(percentile(sortedNanos, 95));
+            this.p99Ms = toMillis(percentile(sortedNanos, 99));
+            this.maxMs = toMillis(sortedNanos[sortedNanos.length - 1]);
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s  n=%d  p50=%.1f  p95=%.1f  p99=%.1f  max=%.1f ms",
+                    name, count, p50Ms, p95Ms, p99Ms, maxMs);
+        }
+    }
+
+    public static void setEnabled(boolean enabled) {
+        PerfTracer.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Opens a span on the current thread, nested under whichever span is open there. */
+    public static Span begin(String name) {
+        if (!enabled) {
+            return NO_OP;
+        }
+        Span span = new Span(name, openSpan.get(), true);
+        openSpan.set(span);
+        return span;
+    }
+
+    /** Opens a span that may be ended on another thread or callback; it is never nested. */
+    public static Span beginAsync(String name) {
+        if (!enabled) {
+            return NO_OP;
+        }
+        return new Span(name, null, false);
+    }
+
+    /** Per-operation percentiles over the spans still in the buffer, sorted by name. */
+    public static List<OperationStats> getStats() {
+        return summarise(false);
+    }
+
+    /** Percentiles per parent and child pair, over the nested spans still in the buffer. */
+    public static List<OperationStats> getNestedStats() {
+        return summarise(true);
+    }
+
+    private static List<OperationStats> summarise(boolean byParent) {
+        Map<String, List<Long>> byName = new HashMap<>();
+        synchronized (sampleNames) {
+            for (int i = 0; i < sampleCount; i++) {
+                String key = sampleNames[i];
+                if (byParent) {
+                    if (sampleParents[i] == null) {
+                        continue;
+                    }
+                    key = sampleParents[i] + NESTING_SEPARATOR + key;
+                }
+                List<Long> durations = byName.get(key);
+                if (durations == null) {
+                    durations = new ArrayList<>();
+                    byName.put(key, durations);
+                }
+                durations.add(sampleNanos[i]);
+            }
+        }
+
+        Map<String, OperationStats> sorted = new TreeMap<>();
+        for (Map.Entry<String, List<Long>> entry : byName.entrySet()) {
+            List<Long> durations = entry.getValue();
+            long[] nanos = new long[durations.size()];
+            for (int i = 0; i < nanos.length; i++) {
+                nanos[i] = durations.get(i);
+            }
+            Arrays.sort(nanos);
+            sorted.put(entry.getKey(), new OperationStats(entry.getKey(), nanos));
+        }
+        return new ArrayList<>(sorted.values());
+    }
+
+    public static void clear() {
+        synchronized (sampleNames) {
+            Arrays.fill(sampleNames, null);
+            Arrays.fill(sampleParents, null);
+            nextSample = 0;
+            sampleCount = 0;
+        }
+    }
+
+    private static void record(String name, String parentName, long nanos) {
+        synchronized (sampleNames) {
+            sampleNames[nextSample] = name;
+            sampleParents[nextSample] = parentName;
+            sampleNanos[nextSample] = nanos;
+            nextSample = (nextSample + 1) % BUFFER_SIZE;
+            if (sampleCount < BUFFER_SIZE) {
+                sampleCount++;
+            }
+        }
+    }
+
+    // Nearest-rank percentile
+    private static long percentile(long[] sortedNanos, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sortedNanos.length);
+        return sortedNanos[Math.max(0, rank - 1)];
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
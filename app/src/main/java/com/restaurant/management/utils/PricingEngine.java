@@ -0,0 +1,143 @@
+package com.restaurant.management.utils;
+
+import com.restaurant.management.models.Discount;
+import com.restaurant.management.models.OrderItem;
+import com.restaurant.management.models.RoundingConfig;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Prices an order on the device the way the checkout endpoint does, so changing the discount
+ * doesn't need a round trip.
+ *
+ * All arithmetic is done on whole minor units (cents) in longs and percentages are held as
+ * basis points, so totals never pick up floating point drift. The discount applies to the item
+ * subtotal; service charge and tax are each charged on the discounted subtotal, matching how
+ * receipts split a total back into its parts. Every percentage is rounded half-up to the cent.
+ */
+public class PricingEngine {
+    private static final int MINOR_UNITS = 2;
+    private static final long BASIS_POINTS = 10000;
+
+    private final long taxBasisPoints;
+    private final long serviceBasisPoints;
+    private final RoundingConfig roundingConfig;
+
+    /** Rates are percentages, e.g. 10 for 10%. */
+    public PricingEngine(double taxPercent, double servicePercent, RoundingConfig roundingConfig) {
+        this.taxBasisPoints = toBasisPoints(taxPercent);
+        this.serviceBasisPoints = toBasisPoints(servicePercent);
+        this.roundingConfig = roundingConfig;
+    }
+
+    public static class Quote {
+        public final long subtotal;
+        public final long discount;
+        public final long serviceCharge;
+        public final long tax;
+        public final long total;
+        public final long cashTotal;
+
+        Quote(long subtotal, long discount, long serviceCharge, long tax, long total, long cashTotal) {
+            this.subtotal = subtotal;
+            this.discount = discount;
+            this.serviceCharge = serviceCharge;
+            this.tax = tax;
+            this.total = total;
+            this.cashTotal = cashTotal;
+        }
+
+        public double getSubtotal() { return fromMinor(subtotal); }
+        public double getDiscount() { return fromMinor(discount); }
+        public double getServiceCharge() { return fromMinor(serviceCharge); }
+        public double getTax() { return fromMinor(tax); }
+        public double getTotal() { return fromMinor(total); }
+        public double getCashTotal() { return fromMinor(cashTotal); }
+    }
+
+    /**
+     * Totals for the given item line totals. A null discount, or the spinner's "no discount"
+     * entry (id -1), prices the order undiscounted.
+     */
+    public Quote quote(double[] itemTotals, Discount discount) {
+        long subtotal = 0;
+        if (itemTotals != null) {
+            for (double itemTotal : itemTotals) {
+                subtotal += toMinor(itemTotal);
+            }
+        }
+
+        long discountAmount = 0;
+        if (discount != null && discount.getId() != -1 && discount.getAmount() > 0) {
+            long discountBasisPoints = Math.min(discount.getAmount(), 100) * (BASIS_POINTS / 100);
+            discountAmount = percentOf(subtotal, discountBasisPoints);
+        }
+
+        long discounted = subtotal - discountAmount;
+        long serviceCharge = percentOf(discounted, serviceBasisPoints);
+        long tax = percentOf(discounted, taxBasisPoints);
+        long total = discounted + serviceCharge + tax;
+
+        return new Quote(subtotal, discountAmount, serviceCharge, tax, total, roundForCash(total));
+    }
+
+    /** Line totals of the items that are billed, i.e. everything but cancelled items. */
+    public static double[] billableLineTotals(List<OrderItem> items) {
+        if (items == null) {
+            return new double[0];
+        }
+
+        double[] totals = new double[items.size()];
+        int count = 0;
+        for (OrderItem item : items) {
+            if (!"cancelled".equalsIgnoreCase(item.getStatus())) {
+                totals[count++] = item.getTotalPrice();
+            }
+        }
+        return Arrays.copyOf(totals, count);
+    }
+
+    /**
+     * Applies the cash rounding rule to a total in minor units: the whole-currency amount is
+     * rounded down when its remainder is at most {@code roundingBelow}, otherwise up.
+     */
+    long roundForCash(long totalMinor) {
+        if (roundingConfig == null || roundingConfig.getRoundingNumber() <= 0 || totalMinor < 0) {
+            return totalMinor;
+        }
+
+        long whole = BigDecimal.valueOf(totalMinor).movePointLeft(MINOR_UNITS)
+                .setScale(0, RoundingMode.HALF_UP).longValue();
+        long step = roundingConfig.getRoundingNumber();
+        long remainder = whole % step;
+        long rounded = remainder <= roundingConfig.getRoundingBelow()
+                ? whole - remainder
+                : whole + (step - remainder);
+        return BigDecimal.valueOf(rounded).movePointRight(MINOR_UNITS).longValueExact();
+    }
+
+    private static long percentOf(long amountMinor, long basisPoints) {
+        if (amountMinor <= 0 || basisPoints <= 0) {
+            return 0;
+        }
+        // Half-up on non-negative values
+        return (amountMinor * basisPoints + BASIS_POINTS / 2) / BASIS_POINTS;
+    }
+
+    private static long toBasisPoints(double percent) {
+        return BigDecimal.valueOf(percent).movePointRight(2)
+                .setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    static long toMinor(double amount) {
+        return BigDecimal.valueOf(amount).movePointRight(MINOR_UNITS)
+                .setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    static double fromMinor(long amountMinor) {
+        return BigDecimal.valueOf(amountMinor).movePointLeft(MINOR_UNITS).doubleValue();
+    }
+}
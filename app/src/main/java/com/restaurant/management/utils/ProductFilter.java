@@ -8,12 +8,15 @@ import java.util.List;
 import java.util.Set;
 
 public class ProductFilter {
-    private List<Product> originalList;
-    private String selectedCategory = "All";
-    private String searchQuery = "";
+    private final MenuSearchIndex<Product> searchIndex;
+    // Set from the UI thread, read by filter() on a worker
+    private volatile String selectedCategory = "All";
+    private volatile String searchQuery = "";
 
+    // Builds the search index up front, so construct this off the main thread when the list changes
     public ProductFilter(List<Product> originalList) {
-        this.originalList = originalList != null ? originalList : new ArrayList<>();
+        this.searchIndex = new MenuSearchIndex<>(originalList,
+                product -> new String[]{product.getName()});
     }
 
     public void setSelectedCategory(String category) {
@@ -21,28 +24,25 @@ public class ProductFilter {
     }
 
     public void setSearchQuery(String query) {
-        this.searchQuery = query != null ? query.toLowerCase().trim() : "";
+        this.searchQuery = query != null ? query.trim() : "";
     }
 
     public List<Product> filter() {
         List<Product> filteredList = new ArrayList<>();
 
+        String category = selectedCategory;
+        String query = searchQuery;
+
         // Check if "All" category is selected
-        boolean includeAllCategories = "All".equals(selectedCategory);
+        boolean includeAllCategories = "All".equals(category);
 
-        for (Product product : originalList) {
-            // Check if product matches category filter
+        // Search narrows the list through the index; only the matches are checked for category
+        for (Product product : searchIndex.search(query)) {
             boolean matchesCategory = includeAllCategories ||
                     (product.getCategoryName() != null &&
-                            selectedCategory.equals(product.getCategoryName()));
-
-            // Check if product matches search query
-            boolean matchesSearch = searchQuery.isEmpty() ||
-                    (product.getName() != null &&
-                            product.getName().toLowerCase().contains(searchQuery));
+                            category.equals(product.getCategoryName()));
 
-            // Add product if it matches both filters
-            if (matchesCategory && matchesSearch) {
+            if (matchesCategory) {
                 filteredList.add(product);
             }
         }
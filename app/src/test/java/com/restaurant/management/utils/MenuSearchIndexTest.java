@@ -0,0 +1,97 @@
+package com.restaurant.management.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MenuSearchIndexTest {
+
+    private static final List<String> MENU = Arrays.asList(
+            "Nasi Goreng",
+            "Mie Goreng",
+            "Nasi Putih",
+            "Cr\u00e8me Br\u00fbl\u00e9e",
+            "Es Teh Manis",
+            "Goreng Pisang");
+
+    private static MenuSearchIndex<String> index(List<String> items) {
+        return new MenuSearchIndex<>(items, item -> new String[]{item});
+    }
+
+    @Test
+    public void prefix_matchesStartOfAnyWord() {
+        MenuSearchIndex<String> index = index(MENU);
+
+        assertEquals(Arrays.asList("Nasi Goreng", "Nasi Putih"), index.search("nas"));
+        assertEquals(Arrays.asList("Nasi Goreng", "Mie Goreng", "Goreng Pisang"), index.search("gor"));
+    }
+
+    @Test
+    public void prefix_doesNotMatchInsideWord() {
+        MenuSearchIndex<String> index = index(MENU);
+
+        assertTrue(index.search("oreng").isEmpty());
+    }
+
+    @Test
+    public void multiToken_requiresEveryToken() {
+        MenuSearchIndex<String> index = index(MENU);
+
+        assertEquals(Collections.singletonList("Nasi Goreng"), index.search("nas gor"));
+        assertEquals(Collections.singletonList("Nasi Goreng"), index.search("gor nas"));
+        assertTrue(index.search("nas pis").isEmpty());
+    }
+
+    @Test
+    public void multiToken_matchesAcrossFields() {
+        MenuSearchIndex<String[]> index = new MenuSearchIndex<>(Arrays.asList(
+                new String[]{"Nasi Goreng", "Rice"},
+                new String[]{"Mie Goreng", "Noodles"}),
+                item -> item);
+
+        List<String[]> result = index.search("goreng noo");
+        assertEquals(1, result.size());
+        assertEquals("Mie Goreng", result.get(0)[0]);
+    }
+
+    @Test
+    public void search_ignoresCaseAccentsAndPunctuation() {
+        MenuSearchIndex<String> index = index(MENU);
+
+        assertEquals(Collections.singletonList("Cr\u00e8me Br\u00fbl\u00e9e"), index.search("CREME bru"));
+        assertEquals(Collections.singletonList("Es Teh Manis"), index.search("teh, manis!"));
+    }
+
+    @Test
+    public void search_keepsMenuOrderAndReportsEachItemOnce() {
+        MenuSearchIndex<String> index = index(Arrays.asList("Goreng Goreng", "Nasi Goreng"));
+
+        assertEquals(Arrays.asList("Goreng Goreng", "Nasi Goreng"), index.search("g"));
+    }
+
+    @Test
+    public void blankQuery_matchesEverything() {
+        MenuSearchIndex<String> index = index(MENU);
+
+        assertEquals(MENU, index.search(""));
+        assertEquals(MENU, index.search("   "));
+        assertEquals(MENU, index.search(null));
+    }
+
+    @Test
+    public void punctuationOnlyQuery_matchesNothing() {
+        MenuSearchIndex<String> index = index(MENU);
+
+        assertTrue(index.search("--").isEmpty());
+    }
+
+    @Test
+    public void tokenize_foldsAndSplits() {
+        assertEquals(Arrays.asList("creme", "brulee", "2"), MenuSearchIndex.tokenize("Cr\u00e8me-Br\u00fbl\u00e9e (2)"));
+        assertTrue(MenuSearchIndex.tokenize(null).isEmpty());
+    }
+}
@@ -0,0 +1,148 @@
+package com.restaurant.management.utils;
+
+import com.restaurant.management.models.Discount;
+import com.restaurant.management.models.OrderItem;
+import com.restaurant.management.models.RoundingConfig;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class PricingEngineTest {
+
+    private static Discount discount(long id, int percent) {
+        return new Discount(id, "Discount", null, percent, null, null, null);
+    }
+
+    private static OrderItem item(double totalPrice, String status) {
+        OrderItem item = new OrderItem();
+        item.setTotalPrice(totalPrice);
+        item.setStatus(status);
+        return item;
+    }
+
+    @Test
+    public void quote_discountsSubtotalThenChargesServiceAndTaxOnTheRest() {
+        PricingEngine engine = new PricingEngine(10, 5, null);
+
+        PricingEngine.Quote quote = engine.quote(new double[]{100.00, 50.00}, discount(3, 10));
+
+        assertEquals(15000, quote.subtotal);
+        assertEquals(1500, quote.discount);
+        assertEquals(675, quote.serviceCharge);
+        assertEquals(1350, quote.tax);
+        assertEquals(15525, quote.total);
+        assertEquals(155.25, quote.getTotal(), 0);
+    }
+
+    @Test
+    public void quote_sumsLinesInCentsWithoutFloatingPointDrift() {
+        PricingEngine engine = new PricingEngine(0, 0, null);
+
+        PricingEngine.Quote quote = engine.quote(new double[]{0.10, 0.20, 0.30}, null);
+
+        assertEquals(60, quote.subtotal);
+        assertEquals(0.60, quote.getTotal(), 0);
+    }
+
+    @Test
+    public void quote_roundsEachPercentageHalfUpToTheCent() {
+        // 10% of 0.05 is 0.005 and 5% of 0.05 is 0.0025
+        PricingEngine.Quote half = new PricingEngine(10, 5, null).quote(new double[]{0.05}, null);
+        assertEquals(1, half.tax);
+        assertEquals(0, half.serviceCharge);
+
+        // 10% of 0.04 is 0.004
+        PricingEngine.Quote below = new PricingEngine(10, 0, null).quote(new double[]{0.04}, null);
+        assertEquals(0, below.tax);
+
+        // 15% of 0.10 is 0.015
+        PricingEngine.Quote discounted = new PricingEngine(0, 0, null).quote(new double[]{0.10}, discount(1, 15));
+        assertEquals(2, discounted.discount);
+        assertEquals(8, discounted.total);
+    }
+
+    @Test
+    public void quote_noDiscountEntryPricesUndiscounted() {
+        PricingEngine engine = new PricingEngine(10, 5, null);
+        double[] lines = {100.00};
+
+        PricingEngine.Quote noDiscount = engine.quote(lines, discount(-1, 50));
+
+        assertEquals(0, noDiscount.discount);
+        assertEquals(engine.quote(lines, null).total, noDiscount.total);
+        assertEquals(11500, noDiscount.total);
+    }
+
+    @Test
+    public void quote_capsDiscountAtTheFullSubtotal() {
+        PricingEngine.Quote quote = new PricingEngine(10, 5, null).quote(new double[]{20.00}, discount(2, 150));
+
+        assertEquals(2000, quote.discount);
+        assertEquals(0, quote.total);
+    }
+
+    @Test
+    public void roundForCash_roundsDownUpToTheThresholdAndUpAboveIt() {
+        PricingEngine engine = new PricingEngine(0, 0, new RoundingConfig(499, 3, "thousands", 1000));
+
+        assertEquals(3500000, engine.roundForCash(3549900));
+        assertEquals(3600000, engine.roundForCash(3550000));
+        assertEquals(3500000, engine.roundForCash(3500000));
+    }
+
+    @Test
+    public void roundForCash_roundsCentsToWholeUnitsFirst() {
+        PricingEngine engine = new PricingEngine(0, 0, new RoundingConfig(499, 3, "thousands", 1000));
+
+        // 35,499.49 is 35,499 whole units; 35,499.50 is 35,500
+        assertEquals(3500000, engine.roundForCash(3549949));
+        assertEquals(3600000, engine.roundForCash(3549950));
+    }
+
+    @Test
+    public void roundForCash_leavesTotalAloneWithoutARule() {
+        assertEquals(3549950, new PricingEngine(0, 0, null).roundForCash(3549950));
+        assertEquals(3549950, new PricingEngine(0, 0, new RoundingConfig(0, 0, null, 0)).roundForCash(3549950));
+    }
+
+    @Test
+    public void quote_appliesCashRoundingToTheTotal() {
+        PricingEngine engine = new PricingEngine(10, 0, new RoundingConfig(499, 3, "thousands", 1000));
+
+        PricingEngine.Quote quote = engine.quote(new double[]{32000}, null);
+
+        assertEquals(3520000, quote.total);
+        assertEquals(3500000, quote.cashTotal);
+    }
+
+    @Test
+    public void billableLineTotals_leavesOutCancelledItems() {
+        double[] totals = PricingEngine.billableLineTotals(Arrays.asList(
+                item(10.00, "pending"),
+                item(20.00, "Cancelled"),
+                item(30.00, null),
+                item(40.00, "cancelled")));
+
+        assertArrayEquals(new double[]{10.00, 30.00}, totals, 0);
+    }
+
+    @Test
+    public void billableLineTotals_handlesNoItems() {
+        assertEquals(0, PricingEngine.billableLineTotals(null).length);
+    }
+
+    @Test
+    public void quote_ignoresCancelledLinesPassedThroughBillableTotals() {
+        PricingEngine engine = new PricingEngine(10, 0, null);
+
+        PricingEngine.Quote quote = engine.quote(PricingEngine.billableLineTotals(Arrays.asList(
+                item(100.00, "served"),
+                item(250.00, "cancelled"))), null);
+
+        assertEquals(10000, quote.subtotal);
+        assertEquals(11000, quote.total);
+    }
+}